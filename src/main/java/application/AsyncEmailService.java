@@ -0,0 +1,298 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link EmailService} that queues messages and delivers them on background workers.
+ *
+ * <p>{@link #sendEmail(String, String, String)} only enqueues, so callers such as overdue scans
+ * and reminder runs never wait on an SMTP round-trip. A fixed pool of daemon workers drains a
+ * bounded FIFO queue into the wrapped service (typically {@link SendRealEmail}). When the queue
+ * is full the configured {@link BackpressurePolicy} applies. Delivery failures are logged and
+ * counted; they are not reported to the caller.</p>
+ *
+ * <p>{@link #shutdown(long, TimeUnit)} stops accepting messages and lets the workers deliver
+ * everything already queued; {@link #shutdownNow()} hands the undelivered messages back instead.
+ * Queue depth, outcome counters and enqueue-to-delivery latency are exposed for monitoring.</p>
+ */
+public class AsyncEmailService implements EmailService {
+
+    /** Default queue capacity. */
+    public static final int DEFAULT_CAPACITY = 1_000;
+    /** Default number of worker threads. */
+    public static final int DEFAULT_WORKERS = 2;
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncEmailService.class.getName());
+    /** Queued once per worker on shutdown; a worker that takes it exits. */
+    private static final EmailMessage STOP = new EmailMessage(null, null, null, 0L);
+
+    private final EmailService delegate;
+    private final BlockingQueue<EmailMessage> queue;
+    private final BackpressurePolicy policy;
+    private final List<Thread> workers = new ArrayList<>();
+    /** Submissions hold the read lock, shutdown the write lock, so nothing is queued behind the stop markers. */
+    private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean shutdown;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Creates a service with the default capacity, worker count and {@link BackpressurePolicy#BLOCK}.
+     *
+     * @param delegate the service that performs the actual delivery
+     */
+    public AsyncEmailService(EmailService delegate) {
+        this(delegate, DEFAULT_CAPACITY, DEFAULT_WORKERS, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * Creates a service and starts its workers.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param capacity maximum number of queued messages (must be positive)
+     * @param workerCount number of worker threads (must be positive)
+     * @param policy what to do when the queue is full
+     */
+    public AsyncEmailService(EmailService delegate, int capacity, int workerCount, BackpressurePolicy policy) {
+        if (delegate == null) throw new IllegalArgumentException("Delegate email service is required.");
+        if (capacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive.");
+        if (workerCount <= 0) throw new IllegalArgumentException("Worker count must be positive.");
+        if (policy == null) throw new IllegalArgumentException("Backpressure policy is required.");
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "email-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues an email for background delivery.
+     *
+     * @param to recipient identifier (email/username)
+     * @param subject subject line (may be null)
+     * @param body body content (may be null)
+     * @throws IllegalArgumentException if the recipient is missing
+     * @throws IllegalStateException if the service is shut down, or the queue is full under
+     *                               {@link BackpressurePolicy#REJECT}
+     */
+    @Override
+    public void sendEmail(String to, String subject, String body) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Recipient email address (to) cannot be null or empty.");
+        }
+        submit(new EmailMessage(to, subject, body));
+    }
+
+    /**
+     * Queues a message for background delivery, applying the backpressure policy if the queue is full.
+     *
+     * @param message the message
+     * @return {@code true} if the message was queued or delivered, {@code false} if it was dropped
+     * @throws IllegalStateException if the service is shut down, or the queue is full under
+     *                               {@link BackpressurePolicy#REJECT}
+     */
+    public boolean submit(EmailMessage message) {
+        if (message == null) throw new IllegalArgumentException("Message is required.");
+        lifecycle.readLock().lock();
+        try {
+            if (shutdown) throw new IllegalStateException("Email service is shut down.");
+            submitted.increment();
+            if (queue.offer(message)) return true;
+
+            switch (policy) {
+                case BLOCK:
+                    try {
+                        queue.put(message);
+                        return true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped.increment();
+                        return false;
+                    }
+                case CALLER_RUNS:
+                    callerRuns.increment();
+                    deliver(message);
+                    return true;
+                case DROP_NEWEST:
+                    dropped.increment();
+                    LOGGER.warning(() -> "Email queue full, dropped " + message);
+                    return false;
+                case DROP_OLDEST:
+                    while (!queue.offer(message)) {
+                        EmailMessage oldest = queue.poll();
+                        if (oldest != null) {
+                            dropped.increment();
+                            LOGGER.warning(() -> "Email queue full, dropped " + oldest);
+                        }
+                    }
+                    return true;
+                default:
+                    rejected.increment();
+                    throw new IllegalStateException("Email queue is full.");
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages and waits for the workers to deliver everything already queued.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of {@code timeout}
+     * @return {@code true} if all workers finished within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        lifecycle.writeLock().lock();
+        try {
+            if (!shutdown) {
+                shutdown = true;
+                for (int i = 0; i < workers.size(); i++) queue.put(STOP);
+            }
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis > 0) worker.join(remainingMillis);
+            if (worker.isAlive()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting messages, interrupts the workers and returns the messages not yet delivered.
+     *
+     * @return undelivered messages in queue order
+     */
+    public List<EmailMessage> shutdownNow() {
+        List<EmailMessage> pending = new ArrayList<>();
+        lifecycle.writeLock().lock();
+        try {
+            shutdown = true;
+            queue.drainTo(pending);
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        workers.forEach(Thread::interrupt);
+        pending.removeIf(m -> m == STOP);
+        return pending;
+    }
+
+    /**
+     * Indicates whether the service stopped accepting messages.
+     * @return true after {@link #shutdown(long, TimeUnit)} or {@link #shutdownNow()}
+     */
+    public boolean isShutdown() { return shutdown; }
+
+    /**
+     * Returns the number of messages waiting for a worker.
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        int depth = queue.size();
+        return shutdown ? Math.max(0, depth - (int) queue.stream().filter(m -> m == STOP).count()) : depth;
+    }
+
+    /**
+     * Returns the number of messages accepted for delivery (queued, delivered by the caller, or dropped).
+     * @return submitted count
+     */
+    public long getSubmittedCount() { return submitted.sum(); }
+
+    /**
+     * Returns the number of messages the wrapped service accepted.
+     * @return sent count
+     */
+    public long getSentCount() { return sent.sum(); }
+
+    /**
+     * Returns the number of messages the wrapped service failed to send.
+     * @return failed count
+     */
+    public long getFailedCount() { return failed.sum(); }
+
+    /**
+     * Returns the number of messages discarded by a drop policy.
+     * @return dropped count
+     */
+    public long getDroppedCount() { return dropped.sum(); }
+
+    /**
+     * Returns the number of messages refused under {@link BackpressurePolicy#REJECT}.
+     * @return rejected count
+     */
+    public long getRejectedCount() { return rejected.sum(); }
+
+    /**
+     * Returns the number of messages delivered on the caller's thread under {@link BackpressurePolicy#CALLER_RUNS}.
+     * @return caller-runs count
+     */
+    public long getCallerRunsCount() { return callerRuns.sum(); }
+
+    /**
+     * Returns the mean time from creation to delivery attempt completion.
+     * @return average latency in milliseconds (0 if nothing was delivered)
+     */
+    public double getAverageLatencyMillis() {
+        long attempts = sent.sum() + failed.sum();
+        return attempts == 0 ? 0.0 : totalLatencyNanos.sum() / 1_000_000.0 / attempts;
+    }
+
+    /**
+     * Returns the longest time from creation to delivery attempt completion.
+     * @return maximum latency in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                EmailMessage message = queue.take();
+                if (message == STOP) return;
+                deliver(message);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(EmailMessage message) {
+        try {
+            message.sendWith(delegate);
+            sent.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            LOGGER.log(Level.WARNING, "Failed to deliver " + message, e);
+        } finally {
+            long latency = System.nanoTime() - message.getCreatedNanos();
+            totalLatencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+}
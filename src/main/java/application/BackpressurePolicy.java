@@ -0,0 +1,32 @@
+package application;
+
+/**
+ * What {@link AsyncEmailService} does when its queue is full.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * Wait until a worker frees a slot.
+     */
+    BLOCK,
+
+    /**
+     * Deliver the message on the calling thread.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Discard the new message.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discard the oldest queued message to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Throw an {@link IllegalStateException}.
+     */
+    REJECT
+}
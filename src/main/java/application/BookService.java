@@ -1,11 +1,17 @@
 package application;
 
+import applicationsearchbooks.BookQuery;
+import applicationsearchbooks.BookSearchStrategy;
+import applicationsearchbooks.BrowseCursor;
+import applicationsearchbooks.BrowsePage;
+import applicationsearchbooks.FacetedResult;
 import domain.Book;
 
 import java.util.List;
 import java.util.logging.Logger;
 
 import persistence.BookRepository;
+import persistence.HoldingsRepository;
 
 /**
  * Service layer for managing books in the library system.
@@ -68,7 +74,7 @@ public class BookService {
 		    return false;
 		}
 		
-		 Book existing = searchBooks(book.getIsbn());
+		 Book existing = findByIsbn(book.getIsbn());
 	 
 		if (existing!=null) {
 		        LOGGER.warning("Book with ISBN " + book.getIsbn() + " already exists");
@@ -80,6 +86,29 @@ public class BookService {
     return true;
   }
   
+  /**
+   * Adds physical copies of a title, registering the title first if its ISBN is new.
+   *
+   * <p>Unlike {@link #addBook(Book)}, an ISBN that already exists is not rejected: the copies
+   * are added to the existing title's holdings.</p>
+   *
+   * @param book the title (validated like {@link #addBook(Book)} when it is new)
+   * @param count number of copies to add (must be positive)
+   * @return the total number of copies now held, or 0 if a new title fails validation
+   * @throws IllegalArgumentException if {@code count} is not positive
+   */
+  public int addCopies(Book book, int count) {
+      if (count <= 0) throw new IllegalArgumentException("Copy count must be positive.");
+      if (book == null) return 0;
+
+      Book title = findByIsbn(book.getIsbn());
+      if (title == null) {
+          if (!Boolean.TRUE.equals(addBook(book))) return 0;
+          title = book;
+      }
+      return HoldingsRepository.addCopies(title, count).getTotalCopies();
+  }
+
   /**
    * Removes an existing book from the repository.
    *
@@ -99,7 +128,7 @@ public class BookService {
           return false;
       }
 
-      Book existing = searchBooks(book.getIsbn());
+      Book existing = findByIsbn(book.getIsbn());
 
       if (existing == null) {
           LOGGER.warning("Book with ISBN " + book.getIsbn() + " does not exist");
@@ -138,7 +167,27 @@ public class BookService {
   public Book searchBooks(String keyword) {
     return repository.searchBook(keyword);
   }
+
+  /**
+   * Finds a book by its exact ISBN (the book's media id) in constant time.
+   *
+   * @param isbn the ISBN to look up
+   * @return the matching book, or {@code null} if none is stored
+   */
+  public Book findByIsbn(String isbn) {
+    return repository.findBookByIsbn(isbn);
+  }
   
+  /**
+   * Lists every book by an author (exact name, ignoring case, accents and Arabic letter variants).
+   *
+   * @param author the author name
+   * @return the author's books; empty if none are stored
+   */
+  public List<Book> findBooksByAuthor(String author) {
+    return repository.findBooksByAuthor(author);
+  }
+
   /**
    * Searches for books in the repository using the currently set search strategy.
    *
@@ -153,6 +202,99 @@ public class BookService {
 	  return repository.search(keyword);
   }
   
+  /**
+   * Searches for books with a strategy chosen for this call only, leaving the repository's
+   * shared strategy untouched.
+   *
+   * @param strategy the strategy to apply
+   * @param keyword the keyword to search for
+   * @return a list of books matching the keyword; empty if no books match
+   * @throws IllegalStateException if {@code strategy} is {@code null}
+   */
+  public List<Book> search(BookSearchStrategy strategy, String keyword) {
+	  return repository.search(strategy, keyword);
+  }
+
+  /**
+   * Searches for books with the given strategy over the repository's packed columnar catalog.
+   *
+   * @param strategy the strategy to apply
+   * @param keyword the keyword to search for
+   * @return a list of books matching the keyword; empty if no books match
+   * @throws IllegalStateException if {@code strategy} is {@code null}
+   */
+  public List<Book> searchColumnar(BookSearchStrategy strategy, String keyword) {
+	  return repository.searchColumnar(strategy, keyword);
+  }
+
+  /**
+   * Searches for books matching every criterion of a structured query.
+   *
+   * @param query the immutable query (title, author, ISBN prefix, availability, media type)
+   * @param limit maximum number of books to return
+   * @return up to {@code limit} matching books; empty if no books match
+   */
+  public List<Book> search(BookQuery query, int limit) {
+	  return repository.search(query, limit);
+  }
+
+  /**
+   * Searches for books ranked by relevance to the keyword across title and author.
+   *
+   * @param keyword free-text query
+   * @param limit maximum number of books to return
+   * @return up to {@code limit} books, most relevant first; empty if no books match
+   */
+  public List<Book> searchRanked(String keyword, int limit) {
+	  return repository.searchRanked(keyword, limit);
+  }
+
+  /**
+   * Searches for books and returns the top author facets and availability counts alongside.
+   *
+   * @param keyword keyword matched against title, author and ISBN ({@code null} or blank for all books)
+   * @param author author facet to drill into ({@code null} for all authors)
+   * @param limit maximum number of books to return
+   * @param topAuthors maximum number of author facet entries
+   * @return matching books and their facet counts
+   */
+  public FacetedResult<Book> searchWithFacets(String keyword, String author, int limit, int topAuthors) {
+	  return repository.searchWithFacets(keyword, author, limit, topAuthors);
+  }
+
+  /**
+   * Lists books alphabetically by title, starting at {@code fromTitle}.
+   *
+   * @param fromTitle where to start ({@code null} for the beginning)
+   * @param limit page size
+   * @return the first page; continue with {@link #browseAfter(BrowseCursor, int)}
+   */
+  public BrowsePage browseByTitle(String fromTitle, int limit) {
+	  return repository.browseByTitle(fromTitle, limit);
+  }
+
+  /**
+   * Lists books alphabetically by author (then title), starting at {@code fromAuthor}.
+   *
+   * @param fromAuthor where to start ({@code null} for the beginning)
+   * @param limit page size
+   * @return the first page; continue with {@link #browseAfter(BrowseCursor, int)}
+   */
+  public BrowsePage browseByAuthor(String fromAuthor, int limit) {
+	  return repository.browseByAuthor(fromAuthor, limit);
+  }
+
+  /**
+   * Returns the page following a previous page of a title or author listing.
+   *
+   * @param cursor the previous page's next cursor
+   * @param limit page size
+   * @return the next page
+   */
+  public BrowsePage browseAfter(BrowseCursor cursor, int limit) {
+	  return repository.browseAfter(cursor, limit);
+  }
+
   /**
    * Returns a snapshot of all books in the repository.
    *
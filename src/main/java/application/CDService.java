@@ -3,6 +3,7 @@ package application;
 import domain.CD;
 import domain.Loan;
 import domain.Member;
+import domain.Reservation;
 import persistence.CDRepository;
 import persistence.LoanRepository;
 
@@ -20,10 +21,22 @@ public class CDService {
 
     private static final Logger LOGGER = Logger.getLogger(CDService.class.getName());
 
+    private final ReservationService reservationService;
+
     /**
      * Creates a new {@code CDService} instance.
      */
-    public CDService() { }
+    public CDService() {
+        this(null);
+    }
+
+    /**
+     * Creates a service that hands returned CDs to members queued in the given reservation service.
+     * @param reservationService hold queues; if null, the shared {@link ReservationService#getDefault()} is used
+     */
+    public CDService(ReservationService reservationService) {
+        this.reservationService = reservationService != null ? reservationService : ReservationService.getDefault();
+    }
 
     /**
      * Borrows a CD by its id for the given member starting on borrowDate.
@@ -33,7 +46,7 @@ public class CDService {
      * @param borrowDate the start date of borrowing
      * @return the created Loan object
      * @throws IllegalArgumentException if arguments are null or CD does not exist
-     * @throws IllegalStateException if member cannot borrow or CD already borrowed
+     * @throws IllegalStateException if member cannot borrow, CD already borrowed, or CD held for another member
      */
     public Loan borrowCD(Member member, String cdId, LocalDate borrowDate) {
         if (member == null) throw new IllegalArgumentException("Member is required.");
@@ -42,17 +55,24 @@ public class CDService {
 
         CD cd = CDRepository.findById(cdId);
         if (cd == null) throw new IllegalArgumentException("CD not found: " + cdId);
-        if (cd.isBorrowed()) throw new IllegalStateException("CD is already borrowed.");
         new BorrowingRules().ensureCanBorrow(member, new LoanRepository());
 
-        Loan loan = new Loan(cd, member.getUserName(), borrowDate);
-        LoanRepository.save(loan);
+        Loan loan = reservationService.withItemLock(cdId, () -> {
+            if (cd.isBorrowed()) throw new IllegalStateException("CD is already borrowed.");
+            reservationService.ensureAvailableTo(cdId, member.getUserName());
+
+            Loan created = new Loan(cd, member.getUserName(), borrowDate);
+            LoanRepository.save(created);
+            reservationService.fulfil(cdId, member.getUserName());
+            return created;
+        });
         LOGGER.info(() -> "CD borrowed: " + cdId + " by " + member.getUserName());
         return loan;
     }
 
     /**
      * Returns a previously borrowed CD, computing any overdue fine at the given returnDate.
+     * If members are queued for the CD, it is held for the next eligible one.
      * @param member the member returning the CD
      * @param cdId identifier of the CD to return
      * @param returnDate the date the CD is being returned
@@ -69,9 +89,14 @@ public class CDService {
 
         loan.calculateFine(returnDate);
         double fine = loan.getFineAmount();
-        loan.setReturned(true);
-        CD cd = CDRepository.findById(cdId);
-        if (cd != null) cd.markReturned();
+        Reservation ready = reservationService.withItemLock(cdId, () -> {
+            Reservation held = reservationService.placeHold(cdId, returnDate);
+            loan.setReturned(true);
+            CD cd = CDRepository.findById(cdId);
+            if (cd != null) cd.markReturned();
+            return held;
+        });
+        reservationService.announce(ready);
         LOGGER.info(() -> "CD returned: " + cdId + " by " + member.getUserName() + ", fine=" + fine);
         return fine;
     }
@@ -0,0 +1,218 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * {@link EmailService} decorator that stops calling a failing mail server.
+ *
+ * <p>After {@code failureThreshold} consecutive failures the circuit opens: for the next
+ * {@code openMillis} sends return immediately instead of each waiting for a connection timeout.
+ * When the period ends, one trial send is let through (half-open); success closes the circuit,
+ * failure opens it for another period. While the circuit is open, or when a send fails, the
+ * message goes to the fallback service if one is configured (typically an {@link EmailOutbox}
+ * that retries later), so overdue scans and the testing-mode watcher keep a flat latency during
+ * an outage without losing notices. Without a fallback a short-circuited send throws
+ * {@link IllegalStateException}.</p>
+ *
+ * <p>Each send is admitted with a {@link Permit}, and only the trial permit can close or reopen
+ * a half-open circuit. A send admitted before the circuit opened that finishes later does not
+ * decide the trial. An {@link IllegalArgumentException} says nothing about the server: it frees
+ * the trial slot and leaves the circuit half-open.</p>
+ */
+public class CircuitBreakerEmailService implements EmailService {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreakerEmailService.class.getName());
+
+    private final EmailService delegate;
+    private final EmailService fallback;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder diverted = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    /** What {@link #tryAcquire()} granted a send. */
+    private enum Permit { DENIED, NORMAL, TRIAL }
+
+    /** How a delegate call ended. */
+    private enum Outcome { SUCCESS, FAILURE, NOT_A_TRANSPORT_ERROR }
+
+    /**
+     * Creates a breaker without a fallback.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param failureThreshold consecutive failures that open the circuit (must be positive)
+     * @param openMillis how long the circuit stays open before a trial send
+     */
+    public CircuitBreakerEmailService(EmailService delegate, int failureThreshold, long openMillis) {
+        this(delegate, failureThreshold, openMillis, null);
+    }
+
+    /**
+     * Creates a breaker.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param failureThreshold consecutive failures that open the circuit (must be positive)
+     * @param openMillis how long the circuit stays open before a trial send
+     * @param fallback service that receives messages that were not sent (may be null)
+     */
+    public CircuitBreakerEmailService(EmailService delegate, int failureThreshold, long openMillis,
+                                      EmailService fallback) {
+        this(delegate, failureThreshold, openMillis, fallback, System::nanoTime);
+    }
+
+    /**
+     * Creates a breaker on the given clock.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param failureThreshold consecutive failures that open the circuit (must be positive)
+     * @param openMillis how long the circuit stays open before a trial send
+     * @param fallback service that receives messages that were not sent (may be null)
+     * @param nanoClock time source in {@link System#nanoTime()} units
+     */
+    public CircuitBreakerEmailService(EmailService delegate, int failureThreshold, long openMillis,
+                                      EmailService fallback, LongSupplier nanoClock) {
+        if (delegate == null) throw new IllegalArgumentException("Delegate email service is required.");
+        if (failureThreshold <= 0) throw new IllegalArgumentException("Failure threshold must be positive.");
+        if (openMillis < 0) throw new IllegalArgumentException("Open period must not be negative.");
+        if (nanoClock == null) throw new IllegalArgumentException("Clock is required.");
+        this.delegate = delegate;
+        this.fallback = fallback;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Sends through the delegate if the circuit allows it, otherwise diverts or fails fast.
+     *
+     * @param to recipient identifier (email/username)
+     * @param subject subject line (may be null)
+     * @param body body content (may be null)
+     * @throws IllegalStateException if the circuit is open and there is no fallback
+     * @throws RuntimeException the delegate's failure, if there is no fallback
+     */
+    @Override
+    public void sendEmail(String to, String subject, String body) {
+        Permit permit = tryAcquire();
+        if (permit == Permit.DENIED) {
+            shortCircuited.increment();
+            if (fallback == null) throw new IllegalStateException("Email circuit is open.");
+            divert(to, subject, body);
+            return;
+        }
+
+        try {
+            delegate.sendEmail(to, subject, body);
+        } catch (IllegalArgumentException e) {
+            // A bad message is not a transport failure.
+            release(permit, Outcome.NOT_A_TRANSPORT_ERROR);
+            throw e;
+        } catch (RuntimeException e) {
+            release(permit, Outcome.FAILURE);
+            if (fallback == null) throw e;
+            LOGGER.warning(() -> "Send to " + to + " failed, diverting: " + e);
+            divert(to, subject, body);
+            return;
+        }
+        release(permit, Outcome.SUCCESS);
+    }
+
+    /**
+     * Returns the current state, moving an expired open circuit to half-open.
+     * @return circuit state
+     */
+    public synchronized CircuitState getState() {
+        if (state == CircuitState.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = CircuitState.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Returns the number of sends rejected without calling the delegate.
+     * @return short-circuited count
+     */
+    public long getShortCircuitedCount() { return shortCircuited.sum(); }
+
+    /**
+     * Returns the number of messages handed to the fallback.
+     * @return diverted count
+     */
+    public long getDivertedCount() { return diverted.sum(); }
+
+    /**
+     * Returns how many times the circuit opened.
+     * @return trip count
+     */
+    public long getTripCount() { return trips.sum(); }
+
+    /** Decides whether this call may use the delegate; in half-open only one trial may. */
+    private synchronized Permit tryAcquire() {
+        switch (getState()) {
+            case CLOSED:
+                return Permit.NORMAL;
+            case HALF_OPEN:
+                if (trialInFlight) return Permit.DENIED;
+                trialInFlight = true;
+                return Permit.TRIAL;
+            default:
+                return Permit.DENIED;
+        }
+    }
+
+    private synchronized void release(Permit permit, Outcome outcome) {
+        if (permit == Permit.TRIAL) {
+            trialInFlight = false;
+            switch (outcome) {
+                case SUCCESS:
+                    close();
+                    break;
+                case FAILURE:
+                    consecutiveFailures++;
+                    open();
+                    break;
+                default:
+                    // Stay half-open; the next send becomes the trial.
+                    break;
+            }
+            return;
+        }
+        // A normal send only counts while the circuit is closed; once it has opened, a send
+        // admitted earlier finishing now must not decide the state.
+        if (state != CircuitState.CLOSED || outcome == Outcome.NOT_A_TRANSPORT_ERROR) return;
+        if (outcome == Outcome.SUCCESS) {
+            consecutiveFailures = 0;
+        } else if (++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void close() {
+        if (state != CircuitState.CLOSED) LOGGER.info("Email circuit closed");
+        state = CircuitState.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    private void open() {
+        state = CircuitState.OPEN;
+        openedAt = nanoClock.getAsLong();
+        trips.increment();
+        LOGGER.warning(() -> "Email circuit opened after " + consecutiveFailures + " consecutive failure(s)");
+    }
+
+    private void divert(String to, String subject, String body) {
+        fallback.sendEmail(to, subject, body);
+        diverted.increment();
+    }
+}
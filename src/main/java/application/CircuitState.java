@@ -0,0 +1,22 @@
+package application;
+
+/**
+ * State of a {@link CircuitBreakerEmailService}.
+ */
+public enum CircuitState {
+
+    /**
+     * Sends go through; consecutive failures are counted.
+     */
+    CLOSED,
+
+    /**
+     * Sends fail fast (or are diverted to the fallback) until the open period ends.
+     */
+    OPEN,
+
+    /**
+     * One trial send is in flight; its outcome closes or reopens the circuit.
+     */
+    HALF_OPEN
+}
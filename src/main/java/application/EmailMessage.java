@@ -0,0 +1,77 @@
+package application;
+
+/**
+ * An email waiting to be delivered: recipient, subject and body plus the time it was created,
+ * used to measure delivery latency.
+ */
+public final class EmailMessage {
+
+    private final String to;
+    private final String subject;
+    private final String body;
+    private final long createdNanos;
+
+    /**
+     * Creates a message stamped with the current time.
+     *
+     * @param to recipient identifier (email/username)
+     * @param subject subject line (may be null)
+     * @param body body content (may be null)
+     */
+    public EmailMessage(String to, String subject, String body) {
+        this(to, subject, body, System.nanoTime());
+    }
+
+    /**
+     * Creates a message with an explicit creation time.
+     *
+     * @param to recipient identifier (email/username)
+     * @param subject subject line (may be null)
+     * @param body body content (may be null)
+     * @param createdNanos creation time in {@link System#nanoTime()} units
+     */
+    public EmailMessage(String to, String subject, String body, long createdNanos) {
+        this.to = to;
+        this.subject = subject;
+        this.body = body;
+        this.createdNanos = createdNanos;
+    }
+
+    /**
+     * Returns the recipient.
+     * @return recipient identifier
+     */
+    public String getTo() { return to; }
+
+    /**
+     * Returns the subject line.
+     * @return subject, possibly null
+     */
+    public String getSubject() { return subject; }
+
+    /**
+     * Returns the body.
+     * @return body, possibly null
+     */
+    public String getBody() { return body; }
+
+    /**
+     * Returns when the message was created.
+     * @return creation time in {@link System#nanoTime()} units
+     */
+    public long getCreatedNanos() { return createdNanos; }
+
+    /**
+     * Hands the message to an email service.
+     *
+     * @param emailService the service to send with
+     */
+    public void sendWith(EmailService emailService) {
+        emailService.sendEmail(to, subject, body);
+    }
+
+    @Override
+    public String toString() {
+        return "EmailMessage{to='" + to + "', subject='" + subject + "'}";
+    }
+}
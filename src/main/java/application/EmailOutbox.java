@@ -0,0 +1,372 @@
+package application;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * File-backed {@link EmailService}: messages are written to a journal before
+ * {@link #sendEmail(String, String, String)} returns and are delivered in the background.
+ *
+ * <p>The journal ({@code outbox.log}) is append-only and forced to disk on every write. It holds
+ * one checksummed line per event: a message was queued, a delivery attempt failed, a message was delivered,
+ * or it was given up on. A failed delivery is retried with exponential backoff; after
+ * {@code maxAttempts} failures the message is copied to {@code dead-letter.log} and dropped from
+ * the queue. On construction the journal is replayed, so messages still pending when the process
+ * stopped are sent again; the journal is then compacted to just those messages.</p>
+ *
+ * <p>Once {@code sendEmail} returns, the message survives a crash, so callers may record the
+ * notification as sent. Delivery is at-least-once: a crash between a successful SMTP send and
+ * its journal line means the message is sent again on restart.</p>
+ */
+public class EmailOutbox implements EmailService, AutoCloseable {
+
+    /** Default number of delivery attempts before a message is dead-lettered. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    /** Default delay before the first retry. */
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 1_000L;
+    /** Default upper bound on the retry delay. */
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 5 * 60_000L;
+
+    static final String JOURNAL_FILE = "outbox.log";
+    static final String DEAD_LETTER_FILE = "dead-letter.log";
+
+    private static final Logger LOGGER = Logger.getLogger(EmailOutbox.class.getName());
+    private static final String NULL_FIELD = "-";
+
+    private final EmailService delegate;
+    private final Path journalFile;
+    private final Path deadLetterFile;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<Long, Entry> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private FileChannel journal;
+    private volatile boolean closed;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    /** A queued message and its failed attempts so far. */
+    private static final class Entry {
+        private final long id;
+        private final EmailMessage message;
+        private int attempts;
+
+        private Entry(long id, EmailMessage message) {
+            this.id = id;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Opens (or creates) an outbox with the default retry settings.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param directory directory holding the journal and dead-letter files
+     * @throws IOException if the files cannot be read or created
+     */
+    public EmailOutbox(EmailService delegate, Path directory) throws IOException {
+        this(delegate, directory, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS);
+    }
+
+    /**
+     * Opens (or creates) an outbox, replays its journal and schedules every pending message.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param directory directory holding the journal and dead-letter files
+     * @param maxAttempts delivery attempts before a message is dead-lettered (must be positive)
+     * @param initialBackoffMillis delay before the first retry; doubled after every failure
+     * @param maxBackoffMillis upper bound on the retry delay
+     * @throws IOException if the files cannot be read or created
+     */
+    public EmailOutbox(EmailService delegate, Path directory, int maxAttempts,
+                       long initialBackoffMillis, long maxBackoffMillis) throws IOException {
+        if (delegate == null) throw new IllegalArgumentException("Delegate email service is required.");
+        if (directory == null) throw new IllegalArgumentException("Outbox directory is required.");
+        if (maxAttempts <= 0) throw new IllegalArgumentException("Max attempts must be positive.");
+        if (initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis) {
+            throw new IllegalArgumentException("Backoff must satisfy 0 <= initial <= max.");
+        }
+        this.delegate = delegate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        Files.createDirectories(directory);
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.deadLetterFile = directory.resolve(DEAD_LETTER_FILE);
+
+        replay();
+        compact();
+        this.journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "email-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        for (Entry entry : pending.values()) scheduler.execute(() -> attempt(entry));
+        if (!pending.isEmpty()) LOGGER.info(() -> "Replaying " + pending.size() + " pending email(s) from outbox");
+    }
+
+    /**
+     * Writes the message to the journal and schedules its delivery.
+     *
+     * @param to recipient identifier (email/username)
+     * @param subject subject line (may be null)
+     * @param body body content (may be null)
+     * @throws IllegalArgumentException if the recipient is missing
+     * @throws IllegalStateException if the outbox is closed
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    @Override
+    public void sendEmail(String to, String subject, String body) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Recipient email address (to) cannot be null or empty.");
+        }
+        Entry entry = new Entry(nextId.getAndIncrement(), new EmailMessage(to, subject, body));
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Email outbox is closed.");
+            append("E " + entry.id + ' ' + encode(to) + ' ' + encode(subject) + ' ' + encode(body));
+            pending.put(entry.id, entry);
+            scheduler.execute(() -> attempt(entry));
+        }
+    }
+
+    /**
+     * Returns the number of messages not yet delivered or dead-lettered.
+     * @return pending count
+     */
+    public int getPendingCount() { return pending.size(); }
+
+    /**
+     * Returns the number of messages delivered by this instance.
+     * @return delivered count
+     */
+    public long getDeliveredCount() { return delivered.sum(); }
+
+    /**
+     * Returns the number of failed attempts that were scheduled for retry.
+     * @return retry count
+     */
+    public long getRetryCount() { return retried.sum(); }
+
+    /**
+     * Returns the number of messages this instance moved to the dead-letter file.
+     * @return dead-lettered count
+     */
+    public long getDeadLetterCount() { return deadLettered.sum(); }
+
+    /**
+     * Reads every message in the dead-letter file.
+     *
+     * @return dead-lettered messages, oldest first
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized List<EmailMessage> readDeadLetters() throws IOException {
+        List<EmailMessage> messages = new ArrayList<>();
+        if (!Files.exists(deadLetterFile)) return messages;
+        for (String line : Files.readAllLines(deadLetterFile, StandardCharsets.US_ASCII)) {
+            String[] f = line.split(" ", -1);
+            if (f.length < 5) continue;
+            messages.add(new EmailMessage(decode(f[2]), decode(f[3]), decode(f[4])));
+        }
+        return messages;
+    }
+
+    /**
+     * Stops delivery. Messages still pending stay in the journal and are sent by the next outbox
+     * opened on the same directory.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error closing outbox journal", e);
+            }
+        }
+    }
+
+    private void attempt(Entry entry) {
+        if (closed) return;
+        try {
+            entry.message.sendWith(delegate);
+        } catch (RuntimeException e) {
+            failed(entry, e);
+            return;
+        }
+        synchronized (this) {
+            append("D " + entry.id);
+            pending.remove(entry.id);
+        }
+        delivered.increment();
+    }
+
+    private void failed(Entry entry, RuntimeException error) {
+        long delay;
+        synchronized (this) {
+            entry.attempts++;
+            if (entry.attempts >= maxAttempts) {
+                deadLetter(entry, error);
+                return;
+            }
+            append("F " + entry.id + ' ' + entry.attempts);
+            if (closed) return;
+            delay = backoff(entry.attempts);
+            scheduler.schedule(() -> attempt(entry), delay, TimeUnit.MILLISECONDS);
+        }
+        retried.increment();
+        LOGGER.log(Level.WARNING, "Email to " + entry.message.getTo() + " failed (attempt " + entry.attempts
+            + "), retrying in " + delay + " ms", error);
+    }
+
+    /** Called with the monitor held. */
+    private void deadLetter(Entry entry, RuntimeException error) {
+        EmailMessage m = entry.message;
+        String line = entry.id + " " + entry.attempts + ' ' + encode(m.getTo()) + ' ' + encode(m.getSubject())
+            + ' ' + encode(m.getBody()) + ' ' + encode(String.valueOf(error)) + '\n';
+        try {
+            Files.writeString(deadLetterFile, line, StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append("X " + entry.id);
+        pending.remove(entry.id);
+        deadLettered.increment();
+        LOGGER.log(Level.SEVERE, "Email to " + m.getTo() + " dead-lettered after " + entry.attempts + " attempts", error);
+    }
+
+    private long backoff(int attempts) {
+        long delay = initialBackoffMillis << Math.min(attempts - 1, 30);
+        return delay < 0 ? maxBackoffMillis : Math.min(delay, maxBackoffMillis);
+    }
+
+    /** Appends one checksummed journal line and forces it to disk; called with the monitor held. */
+    private void append(String line) {
+        ByteBuffer bytes = ByteBuffer.wrap(withChecksum(line).getBytes(StandardCharsets.US_ASCII));
+        try {
+            while (bytes.hasRemaining()) journal.write(bytes);
+            journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rebuilds the pending set from the journal. Lines whose checksum does not match (a torn
+     * write from a crash) are ignored; their {@code sendEmail} call never returned.
+     */
+    private void replay() throws IOException {
+        if (!Files.exists(journalFile)) return;
+        Map<Long, Entry> entries = new LinkedHashMap<>();
+        long maxId = 0;
+        for (String raw : Files.readAllLines(journalFile, StandardCharsets.US_ASCII)) {
+            String line = verifyChecksum(raw);
+            if (line == null) {
+                LOGGER.warning(() -> "Skipping corrupt outbox record: " + raw);
+                continue;
+            }
+            String[] f = line.split(" ", -1);
+            try {
+                long id = Long.parseLong(f[1]);
+                maxId = Math.max(maxId, id);
+                switch (f[0]) {
+                    case "E" -> entries.put(id, new Entry(id, new EmailMessage(decode(f[2]), decode(f[3]), decode(f[4]))));
+                    case "F" -> {
+                        Entry entry = entries.get(id);
+                        if (entry != null) entry.attempts = Integer.parseInt(f[2]);
+                    }
+                    case "D", "X" -> entries.remove(id);
+                    default -> LOGGER.warning(() -> "Skipping unknown outbox record: " + line);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warning(() -> "Skipping malformed outbox record: " + line);
+            }
+        }
+        pending.putAll(entries);
+        nextId.set(maxId + 1);
+    }
+
+    /** Rewrites the journal with only the pending messages. */
+    private void compact() throws IOException {
+        Path tmp = journalFile.resolveSibling(JOURNAL_FILE + ".tmp");
+        StringBuilder out = new StringBuilder();
+        for (Entry e : pending.values()) {
+            EmailMessage m = e.message;
+            out.append(withChecksum("E " + e.id + ' ' + encode(m.getTo()) + ' ' + encode(m.getSubject())
+                + ' ' + encode(m.getBody())));
+            if (e.attempts > 0) out.append(withChecksum("F " + e.id + ' ' + e.attempts));
+        }
+        Files.writeString(tmp, out, StandardCharsets.US_ASCII, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        try {
+            Files.move(tmp, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, journalFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String withChecksum(String line) {
+        CRC32 crc = new CRC32();
+        crc.update(line.getBytes(StandardCharsets.US_ASCII));
+        return line + ' ' + Long.toHexString(crc.getValue()) + '\n';
+    }
+
+    /** Returns the line without its checksum, or {@code null} if the checksum does not match. */
+    private static String verifyChecksum(String raw) {
+        int split = raw.lastIndexOf(' ');
+        if (split < 0) return null;
+        String line = raw.substring(0, split);
+        CRC32 crc = new CRC32();
+        crc.update(line.getBytes(StandardCharsets.US_ASCII));
+        return Long.toHexString(crc.getValue()).equals(raw.substring(split + 1)) ? line : null;
+    }
+
+    private static String encode(String value) {
+        return value == null ? NULL_FIELD
+            : Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String field) {
+        return NULL_FIELD.equals(field) ? null
+            : new String(Base64.getDecoder().decode(field), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,323 @@
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Email subject and body template, parsed once and rendered many times.
+ *
+ * <p>Templates are plain text with {@code {{name}}} placeholders and {@code {{#name}}...{{/name}}}
+ * sections, which repeat their content for every item of an {@link Iterable} value (digest
+ * lists). Inside a section, names are looked up on the current item first and then on the
+ * enclosing items and the top-level values; items may be {@link Values}, maps, or plain objects
+ * rendered with {@code {{.}}}.</p>
+ *
+ * <p>Parsing produces a flat array of segments (literal text, placeholder, section start with the
+ * index of its end), so rendering is a single loop that appends into one {@link StringBuilder};
+ * numbers are appended without an intermediate string.</p>
+ *
+ * <p>{@link #load(String)} reads {@code templates/<name>.txt} from the classpath, or from the
+ * directory named by the {@value #TEMPLATE_DIR_PROPERTY} system property if it holds that file,
+ * so wording can change without code edits. An override that cannot be read or parsed is logged
+ * and the built-in template is used instead. A template file starts with a
+ * {@code Subject: ...} line and a blank line, followed by the body.</p>
+ */
+public final class EmailTemplate {
+
+    /** System property naming a directory whose templates override the built-in ones. */
+    public static final String TEMPLATE_DIR_PROPERTY = "library.templates.dir";
+
+    private static final Logger LOGGER = Logger.getLogger(EmailTemplate.class.getName());
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    private static final byte LITERAL = 0;
+    private static final byte VALUE = 1;
+    private static final byte SECTION = 2;
+
+    /**
+     * Values a template is rendered with.
+     */
+    @FunctionalInterface
+    public interface Values {
+        /**
+         * Looks up a placeholder or section value.
+         *
+         * @param name placeholder name
+         * @return the value, or {@code null} if this scope does not define it
+         */
+        Object get(String name);
+
+        /**
+         * Adapts a map.
+         *
+         * @param map values by name
+         * @return the values
+         */
+        static Values of(Map<String, ?> map) {
+            return map::get;
+        }
+    }
+
+    /** Compiled form of one template text. */
+    private static final class Compiled {
+        private final byte[] kinds;
+        private final String[] texts;
+        /** For a section start, the index just past its last segment. */
+        private final int[] ends;
+        private final int depth;
+
+        private Compiled(byte[] kinds, String[] texts, int[] ends, int depth) {
+            this.kinds = kinds;
+            this.texts = texts;
+            this.ends = ends;
+            this.depth = depth;
+        }
+    }
+
+    private final Compiled subject;
+    private final Compiled body;
+
+    private EmailTemplate(Compiled subject, Compiled body) {
+        this.subject = subject;
+        this.body = body;
+    }
+
+    /**
+     * Compiles a subject and body template.
+     *
+     * @param subject subject template
+     * @param body body template
+     * @return the compiled template
+     * @throws IllegalArgumentException if a tag is malformed or a section is not closed
+     */
+    public static EmailTemplate compile(String subject, String body) {
+        if (subject == null || body == null) throw new IllegalArgumentException("Subject and body are required.");
+        return new EmailTemplate(parse(subject), parse(body));
+    }
+
+    /**
+     * Loads and compiles {@code templates/<name>.txt}, preferring a readable, well-formed
+     * override from the {@value #TEMPLATE_DIR_PROPERTY} directory.
+     *
+     * @param name template name
+     * @return the compiled template
+     * @throws IllegalStateException if the built-in template does not exist
+     * @throws IllegalArgumentException if the built-in template is malformed
+     */
+    public static EmailTemplate load(String name) {
+        if (name == null || name.isBlank()) throw new IllegalArgumentException("Template name is required.");
+        String fileName = name + ".txt";
+        String dir = System.getProperty(TEMPLATE_DIR_PROPERTY);
+        if (dir != null) {
+            Path override = Path.of(dir, fileName);
+            if (Files.isRegularFile(override)) {
+                try {
+                    return fromFile(fileName, Files.readString(override, StandardCharsets.UTF_8));
+                } catch (IOException | IllegalArgumentException e) {
+                    LOGGER.warning(() -> "Ignoring email template " + override + ", using the built-in one: " + e);
+                }
+            }
+        }
+        return fromFile(fileName, readBuiltIn(fileName));
+    }
+
+    private static EmailTemplate fromFile(String fileName, String text) {
+        if (text.startsWith("\uFEFF")) text = text.substring(1);
+        text = text.replace("\r\n", "\n");
+        if (!text.startsWith(SUBJECT_PREFIX)) {
+            throw new IllegalArgumentException("Template " + fileName + " must start with a Subject: line.");
+        }
+        int lineEnd = text.indexOf('\n');
+        String subjectLine = (lineEnd < 0 ? text : text.substring(0, lineEnd)).substring(SUBJECT_PREFIX.length()).trim();
+        String rest = lineEnd < 0 ? "" : text.substring(lineEnd + 1);
+        if (rest.startsWith("\n")) rest = rest.substring(1);
+        if (rest.endsWith("\n")) rest = rest.substring(0, rest.length() - 1);
+        return compile(subjectLine, rest);
+    }
+
+    /**
+     * Renders the subject.
+     *
+     * @param values placeholder values
+     * @return the subject
+     */
+    public String renderSubject(Values values) {
+        return render(subject, values);
+    }
+
+    /**
+     * Renders the body.
+     *
+     * @param values placeholder values
+     * @return the body
+     */
+    public String renderBody(Values values) {
+        return render(body, values);
+    }
+
+    /**
+     * Appends the rendered body to a caller-owned builder.
+     *
+     * @param values placeholder values
+     * @param out destination
+     */
+    public void renderBody(Values values, StringBuilder out) {
+        Values[] scopes = new Values[body.depth + 1];
+        scopes[0] = values;
+        append(body, 0, body.kinds.length, scopes, 0, out);
+    }
+
+    /**
+     * Renders subject and body into a message.
+     *
+     * @param to recipient
+     * @param values placeholder values
+     * @return the message
+     */
+    public EmailMessage render(String to, Values values) {
+        return new EmailMessage(to, renderSubject(values), renderBody(values));
+    }
+
+    private static String render(Compiled template, Values values) {
+        if (template.kinds.length == 1 && template.kinds[0] == LITERAL) {
+            return template.texts[0];
+        }
+        StringBuilder out = new StringBuilder(256);
+        Values[] scopes = new Values[template.depth + 1];
+        scopes[0] = values;
+        append(template, 0, template.kinds.length, scopes, 0, out);
+        return out.toString();
+    }
+
+    private static void append(Compiled t, int from, int to, Values[] scopes, int top, StringBuilder out) {
+        int i = from;
+        while (i < to) {
+            switch (t.kinds[i]) {
+                case LITERAL -> {
+                    out.append(t.texts[i]);
+                    i++;
+                }
+                case VALUE -> {
+                    appendValue(lookup(t.texts[i], scopes, top), out);
+                    i++;
+                }
+                default -> {
+                    Object items = lookup(t.texts[i], scopes, top);
+                    if (items instanceof Iterable<?> iterable) {
+                        for (Object item : iterable) {
+                            scopes[top + 1] = scopeOf(item);
+                            append(t, i + 1, t.ends[i], scopes, top + 1, out);
+                        }
+                        scopes[top + 1] = null;
+                    }
+                    i = t.ends[i];
+                }
+            }
+        }
+    }
+
+    private static Values scopeOf(Object item) {
+        if (item instanceof Values values) return values;
+        if (item instanceof Map<?, ?> map) return map::get;
+        return name -> ".".equals(name) ? item : null;
+    }
+
+    private static Object lookup(String name, Values[] scopes, int top) {
+        for (int s = top; s >= 0; s--) {
+            Object value = scopes[s] == null ? null : scopes[s].get(name);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    private static void appendValue(Object value, StringBuilder out) {
+        if (value == null) return;
+        if (value instanceof CharSequence cs) {
+            out.append(cs);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.append(((Number) value).longValue());
+        } else if (value instanceof Double d) {
+            out.append(d.doubleValue());
+        } else if (value instanceof Float f) {
+            out.append(f.floatValue());
+        } else {
+            out.append(value);
+        }
+    }
+
+    private static Compiled parse(String source) {
+        List<Byte> kinds = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        List<Integer> open = new ArrayList<>();
+        int depth = 0;
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int tag = source.indexOf("{{", pos);
+            if (tag < 0) tag = source.length();
+            if (tag > pos) {
+                kinds.add(LITERAL);
+                texts.add(source.substring(pos, tag));
+                ends.add(-1);
+            }
+            if (tag == source.length()) break;
+
+            int close = source.indexOf("}}", tag + 2);
+            if (close < 0) throw new IllegalArgumentException("Unclosed tag at offset " + tag);
+            String name = source.substring(tag + 2, close).trim();
+            if (name.startsWith("#")) {
+                name = requireName(name.substring(1).trim(), tag);
+                open.add(kinds.size());
+                depth = Math.max(depth, open.size());
+                kinds.add(SECTION);
+                texts.add(name);
+                ends.add(-1);
+            } else if (name.startsWith("/")) {
+                name = requireName(name.substring(1).trim(), tag);
+                if (open.isEmpty() || !texts.get(open.get(open.size() - 1)).equals(name)) {
+                    throw new IllegalArgumentException("Unexpected {{/" + name + "}} at offset " + tag);
+                }
+                ends.set(open.remove(open.size() - 1), kinds.size());
+            } else {
+                kinds.add(VALUE);
+                texts.add(requireName(name, tag));
+                ends.add(-1);
+            }
+            pos = close + 2;
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalArgumentException("Unclosed section {{#" + texts.get(open.get(open.size() - 1)) + "}}");
+        }
+
+        byte[] kindArray = new byte[kinds.size()];
+        int[] endArray = new int[ends.size()];
+        for (int i = 0; i < kindArray.length; i++) {
+            kindArray[i] = kinds.get(i);
+            endArray[i] = ends.get(i);
+        }
+        return new Compiled(kindArray, texts.toArray(new String[0]), endArray, depth);
+    }
+
+    private static String requireName(String name, int offset) {
+        if (name.isEmpty()) throw new IllegalArgumentException("Empty tag at offset " + offset);
+        return name;
+    }
+
+    private static String readBuiltIn(String fileName) {
+        try (InputStream in = EmailTemplate.class.getClassLoader().getResourceAsStream("templates/" + fileName)) {
+            if (in == null) throw new IllegalStateException("Email template not found: " + fileName);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading email template: " + fileName, e);
+        }
+    }
+}
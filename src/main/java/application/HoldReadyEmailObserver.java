@@ -0,0 +1,50 @@
+package application;
+
+import domain.Reservation;
+
+import java.util.Observable;
+import java.util.Observer;
+import java.util.logging.Logger;
+
+/**
+ * Observer that emails a member when a reserved item is being held for them.
+ */
+public class HoldReadyEmailObserver implements Observer {
+
+    private static final Logger LOGGER = Logger.getLogger(HoldReadyEmailObserver.class.getName());
+    private static final EmailTemplate TEMPLATE = EmailTemplate.load("hold-ready");
+    private final EmailService emailService;
+
+    /**
+     * Creates a new observer using the provided email service.
+     *
+     * @param emailService the email service used to send notifications
+     */
+    public HoldReadyEmailObserver(EmailService emailService) {
+        if (emailService == null) throw new IllegalArgumentException("EmailService cannot be null");
+        this.emailService = emailService;
+    }
+
+    /**
+     * Receives a ready reservation and sends a pickup notice.
+     *
+     * @param o   observable source (expected ReservationService)
+     * @param arg payload (expected a Reservation instance)
+     */
+    @Override
+    public void update(Observable o, Object arg) {
+        if (!(arg instanceof Reservation)) {
+            LOGGER.warning("Observer invoked with unexpected payload: " + arg);
+            return;
+        }
+        Reservation reservation = (Reservation) arg;
+        String to = reservation.getMemberId();
+        EmailTemplate.Values values = name -> switch (name) {
+            case "member" -> reservation.getMemberId();
+            case "mediaId" -> reservation.getMediaId();
+            case "readyUntil" -> reservation.getReadyUntil();
+            default -> null;
+        };
+        emailService.sendEmail(to, TEMPLATE.renderSubject(values), TEMPLATE.renderBody(values));
+    }
+}
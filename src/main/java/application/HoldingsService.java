@@ -0,0 +1,169 @@
+package application;
+
+import domain.Book;
+import domain.BookCopy;
+import domain.Holding;
+import domain.Loan;
+import domain.Member;
+import domain.Reservation;
+import persistence.HoldingsRepository;
+import persistence.LoanRepository;
+import persistence.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.logging.Logger;
+
+/**
+ * Application service for titles held in several physical copies.
+ *
+ * <p>Checking out a title takes any free copy from its {@link Holding} without scanning copies;
+ * the resulting {@link Loan} is for that copy (its id is {@code <isbn>#<n>}) and is returned
+ * through {@link #checkin(Member, String, LocalDate)}.</p>
+ *
+ * <p>Members queue for a title under its ISBN in the {@link ReservationService}. Checkouts and
+ * returns run under the title's item lock: a returned copy is held for the next member in line,
+ * and a member with a ready hold takes the copy set aside for them.</p>
+ */
+public class HoldingsService {
+
+    private static final Logger LOGGER = Logger.getLogger(HoldingsService.class.getName());
+
+    private final BorrowingRules borrowingRules;
+    private final LoanRepository loanRepository;
+    private final ReservationService reservationService;
+
+    /**
+     * Creates a service with default rules and repository.
+     */
+    public HoldingsService() {
+        this(new BorrowingRules(), new LoanRepository());
+    }
+
+    /**
+     * Creates a service with the given rules and loan repository and the shared hold queues.
+     *
+     * @param borrowingRules rules checked before every checkout
+     * @param loanRepository repository the rules consult
+     */
+    public HoldingsService(BorrowingRules borrowingRules, LoanRepository loanRepository) {
+        this(borrowingRules, loanRepository, null);
+    }
+
+    /**
+     * Creates a service with the given rules, loan repository and reservation service.
+     *
+     * @param borrowingRules rules checked before every checkout
+     * @param loanRepository repository the rules consult
+     * @param reservationService hold queues; if null, {@link ReservationService#getDefault()} is used
+     */
+    public HoldingsService(BorrowingRules borrowingRules, LoanRepository loanRepository,
+                           ReservationService reservationService) {
+        this.borrowingRules = borrowingRules;
+        this.loanRepository = loanRepository;
+        this.reservationService = reservationService != null ? reservationService : ReservationService.getDefault();
+    }
+
+    /**
+     * Adds copies of a title.
+     *
+     * @param title the title record
+     * @param count number of copies to add (must be positive)
+     * @return the title's holdings
+     */
+    public Holding addCopies(Book title, int count) {
+        return HoldingsRepository.addCopies(title, count);
+    }
+
+    /**
+     * Checks out a copy of a title: the copy held for the member if they have a ready hold,
+     * otherwise any free copy.
+     *
+     * @param member the borrowing member
+     * @param isbn the title's ISBN
+     * @param borrowDate the borrow date
+     * @return the loan for the copy taken
+     * @throws IllegalArgumentException if arguments are missing or the title has no holdings
+     * @throws IllegalStateException if the member may not borrow or every copy is out or held
+     */
+    public Loan checkout(Member member, String isbn, LocalDate borrowDate) {
+        if (member == null) throw new IllegalArgumentException("Member is required.");
+        if (borrowDate == null) throw new IllegalArgumentException("Borrow date is required.");
+        Holding holding = HoldingsRepository.findByIsbn(isbn);
+        if (holding == null) throw new IllegalArgumentException("No holdings for ISBN: " + isbn);
+
+        borrowingRules.ensureCanBorrow(member, loanRepository);
+        String memberId = member.getUserName();
+        Loan loan = reservationService.withItemLock(isbn, () -> {
+            BookCopy copy = null;
+            boolean pickup = ReservationRepository.findHeld(isbn, memberId) != null;
+            if (pickup) copy = holding.takeHeldCopy();
+            if (copy == null) copy = holding.checkout();
+            if (copy == null) throw new IllegalStateException("No copies available for " + isbn);
+
+            Loan created = new Loan(copy, memberId, borrowDate);
+            LoanRepository.save(created);
+            if (pickup) reservationService.fulfil(isbn, memberId);
+            return created;
+        });
+        LOGGER.info(() -> "Copy " + loan.getIsbn() + " checked out by " + memberId);
+        return loan;
+    }
+
+    /**
+     * Returns a copy, computing any overdue fine at the return date.
+     *
+     * @param member the member returning the copy
+     * @param copyId the copy id
+     * @param returnDate the return date
+     * @return the fine (0 if not overdue)
+     * @throws IllegalArgumentException if arguments are missing or no active loan exists
+     */
+    public double checkin(Member member, String copyId, LocalDate returnDate) {
+        if (member == null) throw new IllegalArgumentException("Member is required.");
+        if (returnDate == null) throw new IllegalArgumentException("Return date is required.");
+        BookCopy copy = HoldingsRepository.findCopy(copyId);
+        if (copy == null) throw new IllegalArgumentException("Active loan not found for copy: " + copyId);
+
+        Loan[] returned = new Loan[1];
+        Reservation ready = reservationService.withItemLock(copy.getTitleRecord().getIsbn(), () -> {
+            returned[0] = LoanRepository.findActiveByMemberAndIsbn(member.getUserName(), copyId);
+            if (returned[0] == null) throw new IllegalArgumentException("Active loan not found for copy: " + copyId);
+            returned[0].calculateFine(returnDate);
+            return returnCopy(returned[0], copy, returnDate);
+        });
+        reservationService.announce(ready);
+        LOGGER.info(() -> "Copy " + copyId + " returned by " + member.getUserName());
+        return returned[0].getFineAmount();
+    }
+
+    /**
+     * Puts a returned copy back and holds it for the next member queued for the title. Runs
+     * under the title's item lock; the caller announces the returned hold once it is released.
+     *
+     * @param loan the copy's active loan
+     * @param copy the copy
+     * @param returnDate the return date
+     * @return the new hold, or {@code null} if nobody was waiting
+     * @throws IllegalStateException if the loan or the copy was already returned
+     */
+    Reservation returnCopy(Loan loan, BookCopy copy, LocalDate returnDate) {
+        String titleIsbn = copy.getTitleRecord().getIsbn();
+        return reservationService.withItemLock(titleIsbn, () -> {
+            if (loan.isReturned()) throw new IllegalStateException("Loan already returned: " + copy.getId());
+            HoldingsRepository.findByIsbn(titleIsbn).checkin(copy);
+            LoanRepository.markReturned(loan);
+            return reservationService.placeCopyHold(titleIsbn, returnDate);
+        });
+    }
+
+    /**
+     * Returns how many copies of a title are on the shelf.
+     *
+     * @param isbn the title's ISBN
+     * @return available copies (0 if the title has no holdings)
+     */
+    public int availableCopies(String isbn) {
+        Holding holding = HoldingsRepository.findByIsbn(isbn);
+        return holding == null ? 0 : holding.getAvailable();
+    }
+}
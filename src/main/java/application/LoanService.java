@@ -1,11 +1,15 @@
 package application;
 
 import domain.Book;
+import domain.BookCopy;
 import domain.Loan;
 import domain.Media;
 import domain.Member;
+import domain.Reservation;
 import persistence.BookRepository;
+import persistence.HoldingsRepository;
 import persistence.LoanRepository;
+import persistence.MediaCatalog;
 import persistence.MemberRepository;
 
 import java.time.Instant;
@@ -14,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 import java.util.logging.Logger;
 
@@ -27,10 +32,15 @@ public class LoanService extends Observable {
 
     private static final Logger LOGGER = Logger.getLogger(LoanService.class.getName());
     private static final int STANDARD_LOAN_DAYS = 28;
+    /** Stage of the first (and currently only) overdue notice in the idempotency store. */
+    private static final String FIRST_OVERDUE_NOTICE = "1";
 
     // New: rules and instance repository for rules checks
     private final BorrowingRules borrowingRules;
     private final LoanRepository loanRepository;
+    private final ReservationService reservationService;
+    private final HoldingsService holdingsService;
+    private NotificationIdempotencyStore notificationStore;
 
     // In-memory tracking for testing-mode loans (not persisted)
     private final List<Loan> testingModeLoans = Collections.synchronizedList(new ArrayList<>());
@@ -39,8 +49,7 @@ public class LoanService extends Observable {
      * Creates a service with default rules and repository.
      */
     public LoanService() {
-        this.borrowingRules = new BorrowingRules();
-        this.loanRepository = new LoanRepository();
+        this(null, null, null);
     }
 
     /**
@@ -49,8 +58,7 @@ public class LoanService extends Observable {
      * @param loanRepository repository to use; if null, a default instance is created
      */
     public LoanService(LoanRepository loanRepository) {
-        this.borrowingRules = new BorrowingRules();
-        this.loanRepository = loanRepository != null ? loanRepository : new LoanRepository();
+        this(null, loanRepository, null);
     }
 
     /**
@@ -60,28 +68,54 @@ public class LoanService extends Observable {
      * @param loanRepository repository; if null, defaults are used
      */
     public LoanService(BorrowingRules borrowingRules, LoanRepository loanRepository) {
+        this(borrowingRules, loanRepository, null);
+    }
+
+    /**
+     * Creates a service with explicit rules, repository and reservation service.
+     * Returned media is handed to the next holder queued in the reservation service.
+     *
+     * @param borrowingRules     borrowing rules; if null, defaults are used
+     * @param loanRepository     repository; if null, defaults are used
+     * @param reservationService hold queues; if null, the shared {@link ReservationService#getDefault()} is used
+     */
+    public LoanService(BorrowingRules borrowingRules, LoanRepository loanRepository,
+                       ReservationService reservationService) {
         this.borrowingRules = borrowingRules != null ? borrowingRules : new BorrowingRules();
         this.loanRepository = loanRepository != null ? loanRepository : new LoanRepository();
+        this.reservationService = reservationService != null ? reservationService : ReservationService.getDefault();
+        this.holdingsService = new HoldingsService(this.borrowingRules, this.loanRepository, this.reservationService);
     }
 
     /**
      * Borrows a book identified by its ISBN for the given user.
      * Applies rules and saves the loan with a standard due date.
      *
+     * <p>A title held in several copies is checked out through {@link HoldingsService}: the
+     * loan is for a free copy and its ISBN is the copy id.</p>
+     *
      * @param isbn     book identifier
      * @param userName member email/username
      * @return created loan
      */
     public Loan borrow(String isbn, String userName) {
         Member member = getExistingMember(userName);
+        if (HoldingsRepository.findByIsbn(isbn) != null) {
+            return holdingsService.checkout(member, isbn, LocalDate.now());
+        }
         borrowingRules.ensureCanBorrow(member, loanRepository);
         Book book = getExistingBook(isbn);
-        ensureBookNotAlreadyBorrowed(isbn);
-
-        LocalDate today = LocalDate.now();
-        Loan loan = new Loan(isbn, userName, today, today.plusDays(STANDARD_LOAN_DAYS));
-        LoanRepository.save(loan);
-        book.setBorrowed(true);
+        Loan loan = reservationService.withItemLock(isbn, () -> {
+            ensureBookNotAlreadyBorrowed(isbn);
+            reservationService.ensureAvailableTo(isbn, userName);
+
+            LocalDate today = LocalDate.now();
+            Loan created = new Loan(isbn, userName, today, today.plusDays(STANDARD_LOAN_DAYS));
+            LoanRepository.save(created);
+            book.setBorrowed(true);
+            reservationService.fulfil(isbn, userName);
+            return created;
+        });
 
         LOGGER.info("Book borrowed successfully! Due date: " + loan.getDueDate());
         return loan;
@@ -101,6 +135,7 @@ public class LoanService extends Observable {
 
     /**
      * Returns a borrowed book, marks it as returned, and applies fines if overdue.
+     * If members are queued for the book, it is held for the next eligible one.
      *
      * @param isbn     book identifier
      * @param memberId member email/username
@@ -112,11 +147,18 @@ public class LoanService extends Observable {
             return;
         }
 
-        LoanRepository.markReturned(loan);
-        Book book = BookRepository.findBookByIsbn(isbn);
-        if (book != null) book.setBorrowed(false);
-
         LocalDate today = LocalDate.now();
+        BookCopy copy = HoldingsRepository.findCopy(isbn);
+        Reservation ready = copy != null
+                ? holdingsService.returnCopy(loan, copy, today)
+                : reservationService.withItemLock(isbn, () -> {
+                    Reservation held = reservationService.placeHold(isbn, today);
+                    LoanRepository.markReturned(loan);
+                    Book book = BookRepository.findBookByIsbn(isbn);
+                    if (book != null) book.setBorrowed(false);
+                    return held;
+                });
+
         if (loan.isOverdue(today)) {
             loan.calculateFine(today);
             Member member = MemberRepository.findById(memberId);
@@ -126,6 +168,7 @@ public class LoanService extends Observable {
             }
         }
 
+        reservationService.announce(ready);
         LOGGER.info("Book returned successfully!");
     }
 
@@ -156,18 +199,47 @@ public class LoanService extends Observable {
         return overdueLoans;
     }
 
+    /**
+     * Makes overdue notices survive restarts and multiple scheduler instances: a notice is only
+     * dispatched if the store has not recorded it before.
+     *
+     * @param notificationStore persistent record of sent notices, or {@code null} to rely on the
+     *                          in-memory flag on each loan only
+     */
+    public void setNotificationStore(NotificationIdempotencyStore notificationStore) {
+        this.notificationStore = notificationStore;
+    }
+
     /**
      * Scans active loans for overdues and notifies observers once per loan.
      *
+     * <p>With a {@link NotificationIdempotencyStore} set, each notice is claimed in the store
+     * before observers are notified, so it is not sent again after a restart or by another
+     * instance sharing the store. If an observer throws, the claim is released and the loan is
+     * left unflagged, so the next scan sends the notice again; the scan goes on with the other
+     * loans.</p>
+     *
      * @param today current date
      */
     public void scanAndNotifyOverdues(LocalDate today) {
         List<Loan> overdueActive = LoanRepository.findAllActiveOverdue(today);
         for (Loan loan : overdueActive) {
             if (!loan.isOverdueNotificationSent()) {
+                String key = NotificationIdempotencyStore.key(loan, NotificationType.OVERDUE, FIRST_OVERDUE_NOTICE);
+                if (notificationStore != null && !notificationStore.tryMark(key)) {
+                    loan.markOverdueNotificationSent(); // already sent before a restart or by another instance
+                    continue;
+                }
                 loan.calculateFine(today);
                 setChanged();
-                notifyObservers(loan);
+                try {
+                    notifyObservers(loan);
+                } catch (RuntimeException e) {
+                    if (notificationStore != null) notificationStore.release(key);
+                    LOGGER.warning("Overdue notice for " + loan.getMemberId() + " (ISBN " + loan.getIsbn()
+                            + ") failed, will retry on the next scan: " + e);
+                    continue;
+                }
                 loan.markOverdueNotificationSent();
             }
         }
@@ -205,6 +277,17 @@ public class LoanService extends Observable {
         return loanRepository.findActiveOverdueByMember(memberId, date);
     }
 
+    /**
+     * Retrieves all overdue loans grouped by member, in one pass over the loans.
+     *
+     * @param date     current date
+     * @param parallel whether to scan the loans in parallel
+     * @return member id to overdue loans (members without overdue loans are absent)
+     */
+    public Map<String, List<Loan>> getOverdueLoansByMember(LocalDate date, boolean parallel) {
+        return LoanRepository.groupActiveOverdueByMember(date, parallel);
+    }
+
     // =========================
     // Validation helpers
     // =========================
@@ -221,12 +304,28 @@ public class LoanService extends Observable {
         return book;
     }
 
+    /**
+     * Returns {@code true} if the media is a title record whose copies are lent instead.
+     */
+    private static boolean isHeldTitle(Media media) {
+        return media instanceof Book && HoldingsRepository.findByIsbn(media.getId()) != null;
+    }
+
     private void ensureBookNotAlreadyBorrowed(String isbn) {
         if (LoanRepository.findActiveByIsbn(isbn) != null) {
             throw new IllegalStateException("Book is already borrowed");
         }
     }
 
+    /**
+     * Returns the reservation service whose hold queues this service hands returned items to.
+     *
+     * @return the reservation service (never null)
+     */
+    public ReservationService getReservationService() {
+        return reservationService;
+    }
+
     /**
      * Counts active loans in the repository.
      *
@@ -297,6 +396,7 @@ public class LoanService extends Observable {
 
     /**
      * Borrows generic media for a member using default media rules.
+     * A title held in several copies lends a free copy instead (see {@link #borrow(String, String)}).
      *
      * @param member     member entity
      * @param media      media entity
@@ -307,23 +407,50 @@ public class LoanService extends Observable {
         if (member == null || media == null) {
             throw new IllegalArgumentException("Member and media must be provided.");
         }
+        if (isHeldTitle(media)) {
+            return holdingsService.checkout(member, media.getId(), borrowDate);
+        }
 
         borrowingRules.ensureCanBorrow(member, loanRepository);
-        if (media.isBorrowed()) {
-            throw new IllegalStateException("Media already borrowed.");
-        }
+        Loan loan = reservationService.withItemLock(media.getId(), () -> {
+            if (media.isBorrowed()) {
+                throw new IllegalStateException("Media already borrowed.");
+            }
+            reservationService.ensureAvailableTo(media.getId(), member.getUserName());
 
-        Loan loan = new Loan(media, member.getUserName(), borrowDate);
-        loanRepository.save(loan);
-        media.setBorrowed(true);
+            Loan created = new Loan(media, member.getUserName(), borrowDate);
+            loanRepository.save(created);
+            media.setBorrowed(true);
+            reservationService.fulfil(media.getId(), member.getUserName());
+            return created;
+        });
 
         LOGGER.info("Media borrowed: " + media.getId() + " by member " + member.getUserName());
         return loan;
     }
 
+    /**
+     * Borrows any stored media (book or CD) identified by its id, resolved through the
+     * shared {@link MediaCatalog} in constant time.
+     *
+     * @param member     member entity
+     * @param mediaId    media id (ISBN for books, catalog code for CDs)
+     * @param borrowDate borrow date
+     * @return created loan
+     * @throws IllegalArgumentException if no media with that id is stored
+     */
+    public Loan borrowMedia(Member member, String mediaId, LocalDate borrowDate) {
+        Media media = MediaCatalog.findById(mediaId);
+        if (media == null) {
+            throw new IllegalArgumentException("Media not found: " + mediaId);
+        }
+        return borrowMedia(member, media, borrowDate);
+    }
+
     /**
      * Borrows generic media with a custom number of days.
      * If days is null or non-positive, defaults to media borrow period.
+     * A title held in several copies lends a free copy instead.
      *
      * @param member     member entity
      * @param media      media entity
@@ -335,24 +462,34 @@ public class LoanService extends Observable {
         if (member == null || media == null) {
             throw new IllegalArgumentException("Member and media must be provided.");
         }
-
-        borrowingRules.ensureCanBorrow(member, loanRepository);
-        if (media.isBorrowed()) {
-            throw new IllegalStateException("Media already borrowed.");
+        if (isHeldTitle(media)) {
+            Loan loan = holdingsService.checkout(member, media.getId(), borrowDate);
+            if (customDays != null && customDays > 0) loan.setDueDate(borrowDate.plusDays(customDays));
+            return loan;
         }
 
-        Loan loan;
-        if (customDays == null || customDays <= 0) {
-            loan = new Loan(media, member.getUserName(), borrowDate);
-        } else {
-            LocalDate due = borrowDate.plusDays(customDays);
-            loan = new Loan(media.getId(), member.getUserName(), borrowDate, due);
-            loan.setMedia(media);
-            media.borrowAt(borrowDate);
-        }
+        borrowingRules.ensureCanBorrow(member, loanRepository);
+        Loan loan = reservationService.withItemLock(media.getId(), () -> {
+            if (media.isBorrowed()) {
+                throw new IllegalStateException("Media already borrowed.");
+            }
+            reservationService.ensureAvailableTo(media.getId(), member.getUserName());
+
+            Loan created;
+            if (customDays == null || customDays <= 0) {
+                created = new Loan(media, member.getUserName(), borrowDate);
+            } else {
+                LocalDate due = borrowDate.plusDays(customDays);
+                created = new Loan(media.getId(), member.getUserName(), borrowDate, due);
+                created.setMedia(media);
+                media.borrowAt(borrowDate);
+            }
 
-        loanRepository.save(loan);
-        media.setBorrowed(true);
+            loanRepository.save(created);
+            media.setBorrowed(true);
+            reservationService.fulfil(media.getId(), member.getUserName());
+            return created;
+        });
 
         LOGGER.info(
                 "Media borrowed: " + media.getId()
@@ -370,9 +507,10 @@ public class LoanService extends Observable {
 
     /**
      * Returns media associated with the loan and marks it returned.
+     * If members are queued for the media, it is held for the next eligible one.
      *
      * @param loan       loan to return
-     * @param returnDate date of return (currently informational)
+     * @param returnDate date of return; the pickup deadline of a resulting hold counts from it
      */
     public void returnMedia(Loan loan, LocalDate returnDate) {
         if (loan == null) {
@@ -384,12 +522,17 @@ public class LoanService extends Observable {
             return;
         }
 
-        loan.setReturned(true);
+        LocalDate today = returnDate != null ? returnDate : LocalDate.now();
         Media media = loan.getMedia();
-        if (media != null) {
-            media.markReturned();
-        }
-
+        Reservation ready = media instanceof BookCopy
+                ? holdingsService.returnCopy(loan, (BookCopy) media, today)
+                : reservationService.withItemLock(loan.getIsbn(), () -> {
+                    Reservation held = reservationService.placeHold(loan.getIsbn(), today);
+                    loan.setReturned(true);
+                    if (media != null) media.markReturned();
+                    return held;
+                });
+        reservationService.announce(ready);
         LOGGER.info("Media returned: " + loan.getIsbn());
     }
 
@@ -420,6 +563,7 @@ public class LoanService extends Observable {
     /**
      * Testing-only borrow with custom days/hours/minutes/seconds.
      * Creates and tracks a testing-mode loan with a wall-clock expiration.
+     * Hold checks and held titles are handled as in {@link #borrowMedia(Member, Media, LocalDate)}.
      *
      * @param member     member entity
      * @param media      media entity
@@ -452,11 +596,6 @@ public class LoanService extends Observable {
             throw new IllegalArgumentException("Testing duration must be greater than zero.");
         }
 
-        borrowingRules.ensureCanBorrow(member, loanRepository);
-        if (media.isBorrowed()) {
-            throw new IllegalStateException("Media already borrowed.");
-        }
-
         long totalSeconds =
                 (long) days * 24 * 60 * 60
                         + (long) hours * 60 * 60
@@ -468,11 +607,27 @@ public class LoanService extends Observable {
 
         LocalDate dueDate = borrowDate.plusDays(daysPortion + (leftover > 0 ? 1 : 0));
 
-        Loan loan = new Loan(media.getId(), member.getUserName(), borrowDate, dueDate);
-        loan.setMedia(media);
-        media.borrowAt(borrowDate);
-        loanRepository.save(loan);
-        media.setBorrowed(true);
+        Loan loan;
+        if (isHeldTitle(media)) {
+            loan = holdingsService.checkout(member, media.getId(), borrowDate);
+            loan.setDueDate(dueDate);
+        } else {
+            borrowingRules.ensureCanBorrow(member, loanRepository);
+            loan = reservationService.withItemLock(media.getId(), () -> {
+                if (media.isBorrowed()) {
+                    throw new IllegalStateException("Media already borrowed.");
+                }
+                reservationService.ensureAvailableTo(media.getId(), member.getUserName());
+
+                Loan created = new Loan(media.getId(), member.getUserName(), borrowDate, dueDate);
+                created.setMedia(media);
+                media.borrowAt(borrowDate);
+                loanRepository.save(created);
+                media.setBorrowed(true);
+                reservationService.fulfil(media.getId(), member.getUserName());
+                return created;
+            });
+        }
 
         synchronized (testingModeLoans) {
             int secondsForWatcher =
@@ -493,6 +648,7 @@ public class LoanService extends Observable {
     /**
      * Testing-only borrow with a duration expressed in seconds.
      * Creates and tracks a testing-mode loan with a wall-clock expiration.
+     * Hold checks and held titles are handled as in {@link #borrowMedia(Member, Media, LocalDate)}.
      *
      * @param member  member entity
      * @param media   media entity
@@ -508,17 +664,27 @@ public class LoanService extends Observable {
             throw new IllegalArgumentException("Testing duration seconds must be > 0");
         }
 
-        borrowingRules.ensureCanBorrow(member, loanRepository);
-        if (media.isBorrowed()) {
-            throw new IllegalStateException("Media already borrowed.");
-        }
-
         LocalDate borrowDate = LocalDate.now();
-        Loan loan = new Loan(media, member.getUserName(), borrowDate);
+        Loan loan;
+        if (isHeldTitle(media)) {
+            loan = holdingsService.checkout(member, media.getId(), borrowDate);
+        } else {
+            borrowingRules.ensureCanBorrow(member, loanRepository);
+            loan = reservationService.withItemLock(media.getId(), () -> {
+                if (media.isBorrowed()) {
+                    throw new IllegalStateException("Media already borrowed.");
+                }
+                reservationService.ensureAvailableTo(media.getId(), member.getUserName());
+
+                Loan created = new Loan(media, member.getUserName(), borrowDate);
+                loanRepository.save(created);
+                media.setBorrowed(true);
+                reservationService.fulfil(media.getId(), member.getUserName());
+                return created;
+            });
+        }
         loan.setTestingDurationSeconds(seconds);
         loan.setTestingDueDate(Instant.now().plusSeconds(seconds));
-        loanRepository.save(loan);
-        media.setBorrowed(true);
 
         synchronized (testingModeLoans) {
             testingModeLoans.add(loan);
@@ -0,0 +1,274 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects member notifications over a window and sends one digest email per recipient.
+ *
+ * <p>Notification sources keep their {@link EmailService} dependency: wire them to
+ * {@link #channel(NotificationType)} instead of the real service, e.g.
+ * {@code new OverdueEmailObserver(aggregator.channel(NotificationType.OVERDUE))}. Each
+ * {@code sendEmail} on a channel only records the event. {@link #flush()} (called by the
+ * background thread every window, or directly at the end of a batch run) groups the events by
+ * recipient, drops exact duplicates, and sends each recipient a single email (the
+ * {@code member-digest} {@link EmailTemplate}) with one section per {@link NotificationType}.
+ * A recipient with a single event gets it unchanged.</p>
+ *
+ * <p>A digest the delegate fails to send is put back into the pending set and retried with the
+ * next window, merged with whatever arrived for that recipient meanwhile. After
+ * {@link #MAX_SEND_ATTEMPTS} failed sends its events are dropped and logged.</p>
+ */
+public class NotificationAggregator implements Runnable {
+
+    /** Default flush window: one minute. */
+    public static final long DEFAULT_WINDOW_MILLIS = 60_000L;
+    /** Sends attempted for one digest before its events are dropped. */
+    public static final int MAX_SEND_ATTEMPTS = 3;
+    private static final Logger LOGGER = Logger.getLogger(NotificationAggregator.class.getName());
+    /** Template for digests of more than one notification. */
+    private static final EmailTemplate DIGEST_TEMPLATE = EmailTemplate.load("member-digest");
+
+    private final EmailService delegate;
+    private final long windowMillis;
+    private final Map<NotificationType, EmailService> channels = new EnumMap<>(NotificationType.class);
+    /** Pending digests keyed by normalized recipient, in order of first event. */
+    private Map<String, Digest> pending = new LinkedHashMap<>();
+    private Thread thread;
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder digests = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /** Events collected for one recipient. */
+    private static final class Digest {
+        private final String to;
+        private final Map<NotificationType, List<EmailMessage>> sections = new EnumMap<>(NotificationType.class);
+        private final Set<String> seen = new HashSet<>();
+        private int size;
+        private int attempts;
+
+        private Digest(String to) {
+            this.to = to;
+        }
+
+        private void add(NotificationType type, EmailMessage message) {
+            if (!seen.add(type + "\u0000" + message.getSubject() + "\u0000" + message.getBody())) return;
+            sections.computeIfAbsent(type, t -> new ArrayList<>()).add(message);
+            size++;
+        }
+
+        private void addAll(Digest later) {
+            later.sections.forEach((type, messages) -> messages.forEach(message -> add(type, message)));
+        }
+    }
+
+    /**
+     * Creates an aggregator with the default window.
+     *
+     * @param delegate the service digests are sent with
+     */
+    public NotificationAggregator(EmailService delegate) {
+        this(delegate, DEFAULT_WINDOW_MILLIS);
+    }
+
+    /**
+     * Creates an aggregator.
+     *
+     * @param delegate the service digests are sent with
+     * @param windowMillis how long the background thread collects before each flush (must be positive)
+     */
+    public NotificationAggregator(EmailService delegate, long windowMillis) {
+        if (delegate == null) throw new IllegalArgumentException("EmailService cannot be null");
+        if (windowMillis <= 0) throw new IllegalArgumentException("Window must be positive.");
+        this.delegate = delegate;
+        this.windowMillis = windowMillis;
+        for (NotificationType type : NotificationType.values()) {
+            channels.put(type, (to, subject, body) -> record(type, to, subject, body));
+        }
+    }
+
+    /**
+     * Returns an {@link EmailService} whose messages are collected as events of the given type.
+     *
+     * @param type notification type
+     * @return the channel (the same instance for every call with the same type)
+     */
+    public EmailService channel(NotificationType type) {
+        if (type == null) throw new IllegalArgumentException("Notification type is required.");
+        return channels.get(type);
+    }
+
+    /**
+     * Records a notification for the next digest.
+     *
+     * @param type notification type
+     * @param to recipient
+     * @param subject subject of the individual notification
+     * @param body body of the individual notification
+     */
+    public void record(NotificationType type, String to, String subject, String body) {
+        if (type == null) throw new IllegalArgumentException("Notification type is required.");
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Recipient email address (to) cannot be null or empty.");
+        }
+        String key = to.trim().toLowerCase(Locale.ROOT);
+        synchronized (this) {
+            pending.computeIfAbsent(key, k -> new Digest(to.trim())).add(type, new EmailMessage(to.trim(), subject, body));
+        }
+        events.increment();
+    }
+
+    /**
+     * Sends one email per recipient for everything collected since the last flush. Digests that
+     * fail to send are kept for the next flush.
+     *
+     * @return number of emails sent
+     */
+    public int flush() {
+        Map<String, Digest> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return 0;
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        int sent = 0;
+        Map<String, Digest> retry = new LinkedHashMap<>();
+        for (Map.Entry<String, Digest> entry : batch.entrySet()) {
+            Digest digest = entry.getValue();
+            EmailMessage email = compose(digest);
+            try {
+                email.sendWith(delegate);
+                digests.increment();
+                sent++;
+            } catch (RuntimeException e) {
+                failed.increment();
+                if (++digest.attempts < MAX_SEND_ATTEMPTS) {
+                    LOGGER.log(Level.WARNING, "Failed to send digest to " + digest.to + "; retrying next window", e);
+                    retry.put(entry.getKey(), digest);
+                } else {
+                    dropped.add(digest.size);
+                    LOGGER.log(Level.SEVERE, "Dropping " + digest.size + " notification(s) for " + digest.to
+                        + " after " + digest.attempts + " failed sends", e);
+                }
+            }
+        }
+        if (!retry.isEmpty()) requeue(retry);
+        return sent;
+    }
+
+    /**
+     * Puts failed digests back ahead of the events recorded since the batch was taken.
+     */
+    private synchronized void requeue(Map<String, Digest> retry) {
+        for (Map.Entry<String, Digest> later : pending.entrySet()) {
+            Digest earlier = retry.get(later.getKey());
+            if (earlier == null) {
+                retry.put(later.getKey(), later.getValue());
+            } else {
+                earlier.addAll(later.getValue());
+            }
+        }
+        pending = retry;
+    }
+
+    /** Starts the background flush thread if it is not already running. */
+    public synchronized void start() {
+        if (thread != null && thread.isAlive()) return;
+        thread = new Thread(this, "NotificationAggregator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops the background thread; it flushes once more before exiting. */
+    public synchronized void stop() {
+        if (thread != null) thread.interrupt();
+    }
+
+    /**
+     * Flushes every window until interrupted, then flushes what is left.
+     */
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(windowMillis);
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the number of recipients with pending notifications.
+     * @return pending recipient count
+     */
+    public synchronized int getPendingRecipients() { return pending.size(); }
+
+    /**
+     * Returns the number of notifications recorded.
+     * @return event count
+     */
+    public long getEventCount() { return events.sum(); }
+
+    /**
+     * Returns the number of emails sent by flushes.
+     * @return digest count
+     */
+    public long getDigestCount() { return digests.sum(); }
+
+    /**
+     * Returns the number of emails the delegate failed to send.
+     * @return failed count
+     */
+    public long getFailedCount() { return failed.sum(); }
+
+    /**
+     * Returns the number of notifications dropped after {@link #MAX_SEND_ATTEMPTS} failed sends.
+     * @return dropped notification count
+     */
+    public long getDroppedCount() { return dropped.sum(); }
+
+    private static EmailMessage compose(Digest digest) {
+        if (digest.size == 1) {
+            return digest.sections.values().iterator().next().get(0);
+        }
+        List<EmailTemplate.Values> sections = new ArrayList<>(digest.sections.size());
+        for (Map.Entry<NotificationType, List<EmailMessage>> section : digest.sections.entrySet()) {
+            List<EmailTemplate.Values> items = new ArrayList<>(section.getValue().size());
+            for (EmailMessage message : section.getValue()) {
+                items.add(name -> switch (name) {
+                    case "subject" -> message.getSubject() == null ? "(no subject)" : message.getSubject();
+                    case "body" -> message.getBody() == null ? "" : message.getBody().strip();
+                    default -> null;
+                });
+            }
+            String heading = section.getKey().getHeading();
+            sections.add(name -> switch (name) {
+                case "heading" -> heading;
+                case "items" -> items;
+                default -> null;
+            });
+        }
+        int count = digest.size;
+        return DIGEST_TEMPLATE.render(digest.to, name -> switch (name) {
+            case "count" -> count;
+            case "sections" -> sections;
+            default -> null;
+        });
+    }
+}
@@ -0,0 +1,474 @@
+package application;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+import domain.Loan;
+
+/**
+ * Persistent record of notifications already dispatched, so a restart or a second scheduler
+ * instance does not send them again.
+ *
+ * <p>Keys such as {@link #key(Loan, NotificationType, String)} (loan, notification type, stage)
+ * are stored as 64-bit fingerprints in time generations of {@code generationLength} each; only
+ * the last {@code generations} generations are kept, so memory and disk are bounded by the
+ * notifications sent within that rolling window. The current generation is an append-only file
+ * of fingerprints ({@code gen-<n>.log}, forced on every append) mirrored by an in-memory hash
+ * set. {@link #release(String)} appends the fingerprint again, so a key is recorded while it
+ * appears an odd number of times in its log. When the generation ends it is sealed into a sorted file ({@code gen-<n>.idx}) that is
+ * memory-mapped, and only a Bloom filter for it stays on the heap: a lookup first asks the
+ * filters, and binary-searches a sealed file only on a filter hit (about 1% false positives).</p>
+ *
+ * <p>{@link #tryMark(String)} is atomic across processes sharing the directory: it holds an
+ * exclusive file lock, reads fingerprints other processes appended since its last look, and
+ * only then checks and appends. Two distinct keys collide with probability about
+ * {@code n^2 / 2^65}, which would suppress one notification.</p>
+ */
+public class NotificationIdempotencyStore implements AutoCloseable {
+
+    /** Default generation length. */
+    public static final Duration DEFAULT_GENERATION = Duration.ofDays(1);
+    /** Default number of generations kept (the rolling window). */
+    public static final int DEFAULT_GENERATIONS = 60;
+
+    private static final Logger LOGGER = Logger.getLogger(NotificationIdempotencyStore.class.getName());
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    private static final String PREFIX = "gen-";
+    /** Serializes file locking between stores in one JVM, which {@link FileLock} does not do. */
+    private static final Map<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final long generationMillis;
+    private final int generations;
+    private final LongSupplier clockMillis;
+    private final Object jvmLock;
+    private final TreeMap<Long, Sealed> sealed = new TreeMap<>();
+
+    private long currentGeneration = Long.MIN_VALUE;
+    private FileChannel currentLog;
+    private long readPosition;
+    private LongSet current = new LongSet();
+    private boolean closed;
+
+    /**
+     * Opens (or creates) a store with the default window of 60 daily generations.
+     *
+     * @param directory directory holding the generation files
+     * @throws IOException if the directory cannot be read or created
+     */
+    public NotificationIdempotencyStore(Path directory) throws IOException {
+        this(directory, DEFAULT_GENERATION, DEFAULT_GENERATIONS, System::currentTimeMillis);
+    }
+
+    /**
+     * Opens (or creates) a store.
+     *
+     * @param directory directory holding the generation files
+     * @param generationLength time covered by one generation
+     * @param generations number of generations kept (must be positive)
+     * @param clockMillis wall clock in epoch milliseconds
+     * @throws IOException if the directory cannot be read or created
+     */
+    public NotificationIdempotencyStore(Path directory, Duration generationLength, int generations,
+                                        LongSupplier clockMillis) throws IOException {
+        if (directory == null) throw new IllegalArgumentException("Store directory is required.");
+        if (generationLength == null || generationLength.toMillis() <= 0) {
+            throw new IllegalArgumentException("Generation length must be positive.");
+        }
+        if (generations <= 0) throw new IllegalArgumentException("Generation count must be positive.");
+        if (clockMillis == null) throw new IllegalArgumentException("Clock is required.");
+        Files.createDirectories(directory);
+        this.directory = directory.toAbsolutePath().normalize();
+        this.generationMillis = generationLength.toMillis();
+        this.generations = generations;
+        this.clockMillis = clockMillis;
+        this.jvmLock = JVM_LOCKS.computeIfAbsent(this.directory, d -> new Object());
+        openGeneration(Math.floorDiv(clockMillis.getAsLong(), generationMillis));
+    }
+
+    /**
+     * Builds the key of a notification about a loan.
+     *
+     * @param loan the loan
+     * @param type notification type
+     * @param stage stage within the type (e.g. {@code "1"} for the first overdue notice)
+     * @return the key
+     */
+    public static String key(Loan loan, NotificationType type, String stage) {
+        return loan.getMemberId() + '\u001f' + loan.getIsbn() + '\u001f' + loan.getBorrowDate()
+            + '\u001f' + type + '\u001f' + stage;
+    }
+
+    /**
+     * Records a key unless it is already recorded. Call before dispatching; send only on
+     * {@code true}.
+     *
+     * @param key notification key
+     * @return {@code true} if the key was new and is now durably recorded
+     * @throws UncheckedIOException if the store cannot be written
+     */
+    public synchronized boolean tryMark(String key) {
+        long fp = fingerprint(key);
+        rotateIfNeeded();
+        if (inSealed(fp)) return false;
+        try {
+            synchronized (jvmLock) {
+                try (FileLock lock = currentLog.lock()) {
+                    catchUp();
+                    if (current.contains(fp)) return false;
+                    long end = currentLog.size() & ~7L; // drop a torn tail left by a crash
+                    currentLog.truncate(end);
+                    ByteBuffer entry = ByteBuffer.allocate(Long.BYTES).putLong(0, fp);
+                    while (entry.hasRemaining()) currentLog.write(entry, end + entry.position());
+                    currentLog.force(false);
+                    readPosition = end + Long.BYTES;
+                    current.add(fp);
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Withdraws a key recorded by {@link #tryMark(String)} whose notification could not be
+     * dispatched, so a later scan claims and sends it again. Only keys marked in the current
+     * generation can be released.
+     *
+     * @param key notification key
+     * @return {@code true} if the key was recorded in the current generation and is now released
+     * @throws UncheckedIOException if the store cannot be written
+     */
+    public synchronized boolean release(String key) {
+        long fp = fingerprint(key);
+        rotateIfNeeded();
+        try {
+            synchronized (jvmLock) {
+                try (FileLock lock = currentLog.lock()) {
+                    catchUp();
+                    if (!current.contains(fp)) {
+                        LOGGER.warning(() -> "Cannot release notification key outside the current generation: " + key);
+                        return false;
+                    }
+                    long end = currentLog.size() & ~7L;
+                    currentLog.truncate(end);
+                    ByteBuffer entry = ByteBuffer.allocate(Long.BYTES).putLong(0, fp);
+                    while (entry.hasRemaining()) currentLog.write(entry, end + entry.position());
+                    currentLog.force(false);
+                    readPosition = end + Long.BYTES;
+                    current.remove(fp);
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks whether a key is recorded within the window.
+     *
+     * @param key notification key
+     * @return {@code true} if recorded
+     */
+    public synchronized boolean contains(String key) {
+        long fp = fingerprint(key);
+        rotateIfNeeded();
+        if (inSealed(fp)) return true;
+        try {
+            synchronized (jvmLock) {
+                try (FileLock lock = currentLog.lock()) {
+                    catchUp();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current.contains(fp);
+    }
+
+    /**
+     * Returns the number of generations held (sealed plus current).
+     * @return generation count
+     */
+    public synchronized int getGenerationCount() { return sealed.size() + 1; }
+
+    /**
+     * Returns the number of keys recorded in the current generation.
+     * @return current generation size
+     */
+    public synchronized int getCurrentGenerationSize() { return current.size(); }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            currentLog.close();
+        } catch (IOException e) {
+            LOGGER.warning(() -> "Error closing idempotency log: " + e);
+        }
+    }
+
+    private boolean inSealed(long fp) {
+        for (Sealed generation : sealed.values()) {
+            if (generation.contains(fp)) return true;
+        }
+        return false;
+    }
+
+    private void rotateIfNeeded() {
+        if (closed) throw new IllegalStateException("Idempotency store is closed.");
+        long generation = Math.floorDiv(clockMillis.getAsLong(), generationMillis);
+        if (generation == currentGeneration) return;
+        try {
+            currentLog.close();
+            openGeneration(generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Seals every older generation in the window, deletes expired ones and opens the current log. */
+    private void openGeneration(long generation) throws IOException {
+        long oldest = generation - generations + 1;
+        synchronized (jvmLock) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*.log")) {
+                for (Path log : files) {
+                    long n = generationOf(log);
+                    if (n == Long.MIN_VALUE) continue;
+                    if (n < oldest) {
+                        Files.deleteIfExists(log);
+                        Files.deleteIfExists(idxFile(n));
+                    } else if (n < generation && !sealed.containsKey(n)) {
+                        sealed.put(n, seal(n));
+                    }
+                }
+            }
+        }
+        for (Iterator<Long> it = sealed.keySet().iterator(); it.hasNext(); ) {
+            if (it.next() < oldest) it.remove();
+        }
+
+        currentGeneration = generation;
+        currentLog = FileChannel.open(logFile(generation), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        current = new LongSet();
+        readPosition = 0;
+        synchronized (jvmLock) {
+            try (FileLock lock = currentLog.lock()) {
+                catchUp();
+            }
+        }
+    }
+
+    /** Writes the sorted fingerprints of a finished generation and maps them. */
+    private Sealed seal(long generation) throws IOException {
+        Path log = logFile(generation);
+        Path idx = idxFile(generation);
+        if (!Files.exists(idx) || Files.getLastModifiedTime(idx).compareTo(Files.getLastModifiedTime(log)) < 0) {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(log));
+            long[] fps = new long[bytes.capacity() / Long.BYTES];
+            for (int i = 0; i < fps.length; i++) fps[i] = bytes.getLong(i * Long.BYTES);
+            Arrays.sort(fps);
+            int unique = 0;
+            for (int i = 0; i < fps.length; ) {
+                int run = i;
+                while (run < fps.length && fps[run] == fps[i]) run++;
+                if (((run - i) & 1) == 1) fps[unique++] = fps[i]; // an even count was released
+                i = run;
+            }
+            ByteBuffer out = ByteBuffer.allocate(unique * Long.BYTES);
+            for (int i = 0; i < unique; i++) out.putLong(fps[i]);
+            Path tmp = idx.resolveSibling(idx.getFileName() + ".tmp");
+            Files.write(tmp, out.array());
+            try {
+                Files.move(tmp, idx, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, idx, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(idx, StandardOpenOption.READ)) {
+            LongBuffer fps = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asLongBuffer();
+            return new Sealed(fps);
+        }
+    }
+
+    /** Reads fingerprints other processes appended to the current log; called with the file lock held. */
+    private void catchUp() throws IOException {
+        long end = currentLog.size() & ~7L;
+        if (end <= readPosition) return;
+        ByteBuffer bytes = ByteBuffer.allocate((int) (end - readPosition));
+        while (bytes.hasRemaining()) {
+            if (currentLog.read(bytes, readPosition + bytes.position()) < 0) break;
+        }
+        for (int i = 0; i + Long.BYTES <= bytes.position(); i += Long.BYTES) current.toggle(bytes.getLong(i));
+        readPosition = end;
+    }
+
+    private Path logFile(long generation) { return directory.resolve(PREFIX + generation + ".log"); }
+
+    private Path idxFile(long generation) { return directory.resolve(PREFIX + generation + ".idx"); }
+
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - ".log".length()));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /** FNV-1a over the UTF-8 bytes, finished with the SplitMix64 mixer; never 0. */
+    static long fingerprint(String key) {
+        if (key == null) throw new IllegalArgumentException("Key is required.");
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = mix(hash);
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /** A sealed generation: memory-mapped sorted fingerprints behind a Bloom filter. */
+    private static final class Sealed {
+        private final LongBuffer fingerprints;
+        private final long[] bloom;
+        private final int bits;
+        private final int hashes;
+
+        private Sealed(LongBuffer fingerprints) {
+            this.fingerprints = fingerprints;
+            int n = Math.max(1, fingerprints.limit());
+            double m = -n * Math.log(BLOOM_FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2));
+            this.bits = (int) Math.min(Integer.MAX_VALUE - 64, Math.max(64, Math.ceil(m)));
+            this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+            this.bloom = new long[(bits + 63) >>> 6];
+            for (int i = 0; i < fingerprints.limit(); i++) {
+                long fp = fingerprints.get(i);
+                for (int k = 0; k < hashes; k++) {
+                    int bit = bloomBit(fp, k);
+                    bloom[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        private boolean contains(long fp) {
+            for (int k = 0; k < hashes; k++) {
+                int bit = bloomBit(fp, k);
+                if ((bloom[bit >>> 6] & (1L << bit)) == 0) return false;
+            }
+            int lo = 0;
+            int hi = fingerprints.limit() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                long value = fingerprints.get(mid);
+                if (value < fp) lo = mid + 1;
+                else if (value > fp) hi = mid - 1;
+                else return true;
+            }
+            return false;
+        }
+
+        /** Double hashing: bit k is h1 + k * h2, from the two halves of the fingerprint. */
+        private int bloomBit(long fp, int k) {
+            int h1 = (int) fp;
+            int h2 = (int) (fp >>> 32) | 1;
+            return Math.floorMod(h1 + k * h2, bits);
+        }
+    }
+
+    /** Open-addressing set of non-zero longs. */
+    private static final class LongSet {
+        private long[] table = new long[1024];
+        private int size;
+
+        private boolean contains(long value) {
+            int mask = table.length - 1;
+            for (int i = (int) mix(value) & mask; ; i = (i + 1) & mask) {
+                if (table[i] == value) return true;
+                if (table[i] == 0) return false;
+            }
+        }
+
+        private void add(long value) {
+            if (value == 0 || contains(value)) return;
+            if ((size + 1) * 2 > table.length) grow();
+            insert(table, value);
+            size++;
+        }
+
+        /** Adds an absent value or removes a present one (a mark or a release read from the log). */
+        private void toggle(long value) {
+            if (contains(value)) {
+                remove(value);
+            } else {
+                add(value);
+            }
+        }
+
+        private void remove(long value) {
+            int mask = table.length - 1;
+            int i = (int) mix(value) & mask;
+            while (table[i] != value) {
+                if (table[i] == 0) return;
+                i = (i + 1) & mask;
+            }
+            table[i] = 0;
+            size--;
+            // Shift later entries of the probe run back so lookups still reach them.
+            for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = (int) mix(table[j]) & mask;
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    table[i] = table[j];
+                    table[j] = 0;
+                    i = j;
+                }
+            }
+        }
+
+        private int size() { return size; }
+
+        private void grow() {
+            long[] bigger = new long[table.length * 2];
+            for (long value : table) {
+                if (value != 0) insert(bigger, value);
+            }
+            table = bigger;
+        }
+
+        private static void insert(long[] target, long value) {
+            int mask = target.length - 1;
+            int i = (int) mix(value) & mask;
+            while (target[i] != 0) i = (i + 1) & mask;
+            target[i] = value;
+        }
+    }
+}
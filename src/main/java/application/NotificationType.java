@@ -0,0 +1,40 @@
+package application;
+
+/**
+ * Kind of member notification; {@link NotificationAggregator} groups digest sections by type,
+ * in declaration order.
+ */
+public enum NotificationType {
+
+    /**
+     * A loan is overdue.
+     */
+    OVERDUE("Overdue items"),
+
+    /**
+     * Periodic reminder about overdue loans.
+     */
+    REMINDER("Reminders"),
+
+    /**
+     * A testing-mode loan expired.
+     */
+    TESTING_MODE("Testing-mode loans"),
+
+    /**
+     * A reserved item is waiting for pickup.
+     */
+    HOLD_READY("Reservations ready for pickup");
+
+    private final String heading;
+
+    NotificationType(String heading) {
+        this.heading = heading;
+    }
+
+    /**
+     * Returns the section heading used in digests.
+     * @return heading text
+     */
+    public String getHeading() { return heading; }
+}
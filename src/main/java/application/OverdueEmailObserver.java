@@ -13,6 +13,7 @@ import java.util.logging.Logger;
 public class OverdueEmailObserver implements Observer {
 
     private static final Logger LOGGER = Logger.getLogger(OverdueEmailObserver.class.getName());
+    private static final EmailTemplate TEMPLATE = EmailTemplate.load("overdue-notice");
     private final EmailService emailService;
 
     /**
@@ -39,9 +40,12 @@ public class OverdueEmailObserver implements Observer {
         }
         Loan loan = (Loan) arg;
         String to = loan.getMemberId(); // username is treated as email
-        String subject = "Library: Book Overdue";
-        String body = "Overdue notice for " + loan.getMemberId() + ": Your loan for ISBN "
-                + loan.getIsbn() + " is overdue. Current fine: " + loan.getFineAmount();
-        emailService.sendEmail(to, subject, body);
+        EmailTemplate.Values values = name -> switch (name) {
+            case "member" -> loan.getMemberId();
+            case "isbn" -> loan.getIsbn();
+            case "fine" -> loan.getFineAmount();
+            default -> null;
+        };
+        emailService.sendEmail(to, TEMPLATE.renderSubject(values), TEMPLATE.renderBody(values));
     }
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package application;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background email dispatcher with one queue ("lane") per {@link NotificationType}.
+ *
+ * <p>Sources send through {@link #lane(NotificationType)}, which only enqueues. Workers drain
+ * the lanes by deficit round robin: each visit to a lane adds its weight to the lane's credit and
+ * sends one message per unit of credit, and an empty lane forfeits its credit. With the default
+ * weights an overdue notice waits behind at most a few other messages even when thousands of
+ * routine reminders are queued, while reminders still get a steady share and never starve.</p>
+ *
+ * <p>Each lane is bounded; a full lane blocks its producer. {@link #shutdown(long, TimeUnit)}
+ * stops accepting messages and lets the workers deliver what is queued.</p>
+ */
+public class PriorityEmailDispatcher {
+
+    /** Default capacity of each lane. */
+    public static final int DEFAULT_LANE_CAPACITY = 10_000;
+
+    private static final Logger LOGGER = Logger.getLogger(PriorityEmailDispatcher.class.getName());
+    private static final NotificationType[] TYPES = NotificationType.values();
+
+    private final EmailService delegate;
+    private final int laneCapacity;
+    private final int[] weights = new int[TYPES.length];
+    private final int[] deficits = new int[TYPES.length];
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<EmailMessage>[] lanes = new ArrayDeque[TYPES.length];
+    private final Map<NotificationType, EmailService> laneServices = new EnumMap<>(NotificationType.class);
+    private final LongAdder[] sent = new LongAdder[TYPES.length];
+    private final LongAdder failed = new LongAdder();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int queued;
+    private int cursor;
+    private boolean shutdown;
+
+    /**
+     * Returns the default lane weights: overdue 8, hold-ready 4, testing-mode 4, reminder 1.
+     * @return a new mutable weight map
+     */
+    public static Map<NotificationType, Integer> defaultWeights() {
+        Map<NotificationType, Integer> weights = new EnumMap<>(NotificationType.class);
+        weights.put(NotificationType.OVERDUE, 8);
+        weights.put(NotificationType.HOLD_READY, 4);
+        weights.put(NotificationType.TESTING_MODE, 4);
+        weights.put(NotificationType.REMINDER, 1);
+        return weights;
+    }
+
+    /**
+     * Creates a dispatcher with the default weights, lane capacity and one worker.
+     *
+     * @param delegate the service that performs the actual delivery
+     */
+    public PriorityEmailDispatcher(EmailService delegate) {
+        this(delegate, defaultWeights(), DEFAULT_LANE_CAPACITY, 1);
+    }
+
+    /**
+     * Creates a dispatcher and starts its workers.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param weights messages sent per round for each type (every type needs a positive weight)
+     * @param laneCapacity maximum queued messages per lane (must be positive)
+     * @param workerCount number of worker threads (must be positive)
+     */
+    public PriorityEmailDispatcher(EmailService delegate, Map<NotificationType, Integer> weights,
+                                   int laneCapacity, int workerCount) {
+        if (delegate == null) throw new IllegalArgumentException("Delegate email service is required.");
+        if (weights == null) throw new IllegalArgumentException("Lane weights are required.");
+        if (laneCapacity <= 0) throw new IllegalArgumentException("Lane capacity must be positive.");
+        if (workerCount <= 0) throw new IllegalArgumentException("Worker count must be positive.");
+        for (NotificationType type : TYPES) {
+            Integer weight = weights.get(type);
+            if (weight == null || weight <= 0) {
+                throw new IllegalArgumentException("Lane weight for " + type + " must be positive.");
+            }
+            int i = type.ordinal();
+            this.weights[i] = weight;
+            this.lanes[i] = new ArrayDeque<>();
+            this.sent[i] = new LongAdder();
+            laneServices.put(type, (to, subject, body) -> enqueue(type, to, subject, body));
+        }
+        this.delegate = delegate;
+        this.laneCapacity = laneCapacity;
+        this.deficits[0] = this.weights[0];
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "email-dispatch-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Returns an {@link EmailService} that queues messages in the given lane.
+     *
+     * @param type notification type
+     * @return the lane's service (the same instance for every call with the same type)
+     */
+    public EmailService lane(NotificationType type) {
+        if (type == null) throw new IllegalArgumentException("Notification type is required.");
+        return laneServices.get(type);
+    }
+
+    /**
+     * Queues a message in a lane, waiting while the lane is full.
+     *
+     * @param type notification type
+     * @param to recipient identifier (email/username)
+     * @param subject subject line (may be null)
+     * @param body body content (may be null)
+     * @throws IllegalArgumentException if the type or recipient is missing
+     * @throws IllegalStateException if the dispatcher is shut down or the caller is interrupted
+     */
+    public void enqueue(NotificationType type, String to, String subject, String body) {
+        if (type == null) throw new IllegalArgumentException("Notification type is required.");
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Recipient email address (to) cannot be null or empty.");
+        }
+        ArrayDeque<EmailMessage> lane = lanes[type.ordinal()];
+        lock.lock();
+        try {
+            while (lane.size() >= laneCapacity && !shutdown) notFull.await();
+            if (shutdown) throw new IllegalStateException("Email dispatcher is shut down.");
+            lane.addLast(new EmailMessage(to, subject, body));
+            queued++;
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for lane capacity.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages and waits for the workers to deliver everything queued.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of {@code timeout}
+     * @return {@code true} if all workers finished within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            shutdown = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis > 0) worker.join(remainingMillis);
+            if (worker.isAlive()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of messages waiting in a lane.
+     * @param type notification type
+     * @return lane depth
+     */
+    public int getDepth(NotificationType type) {
+        lock.lock();
+        try {
+            return lanes[type.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of messages of a type the delegate accepted.
+     * @param type notification type
+     * @return sent count
+     */
+    public long getSentCount(NotificationType type) { return sent[type.ordinal()].sum(); }
+
+    /**
+     * Returns the number of messages the delegate failed to send.
+     * @return failed count
+     */
+    public long getFailedCount() { return failed.sum(); }
+
+    private void drain() {
+        while (true) {
+            int laneIndex;
+            EmailMessage message;
+            lock.lock();
+            try {
+                while (queued == 0) {
+                    if (shutdown) return;
+                    notEmpty.awaitUninterruptibly();
+                }
+                laneIndex = nextLane();
+                message = lanes[laneIndex].pollFirst();
+                queued--;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                message.sendWith(delegate);
+                sent[laneIndex].increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+                LOGGER.log(Level.WARNING, "Failed to deliver " + TYPES[laneIndex] + " " + message, e);
+            }
+        }
+    }
+
+    /**
+     * Deficit round robin over the lanes; called with the lock held and at least one message queued.
+     * Takes one unit of credit from the returned lane.
+     */
+    private int nextLane() {
+        while (deficits[cursor] < 1 || lanes[cursor].isEmpty()) {
+            if (lanes[cursor].isEmpty()) deficits[cursor] = 0;
+            cursor = (cursor + 1) % TYPES.length;
+            deficits[cursor] += weights[cursor];
+        }
+        deficits[cursor]--;
+        return cursor;
+    }
+}
@@ -0,0 +1,145 @@
+package application;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * {@link EmailService} decorator that keeps outbound mail under the provider's send rate.
+ *
+ * <p>Every message takes a token from a global {@link TokenBucket} and, if per-domain limits are
+ * enabled, from the bucket of the recipient's domain (e.g. {@code stu.najah.edu}). The calling
+ * thread sleeps until both tokens are due and then sends, so a large overdue run is spread out
+ * at the configured rate instead of being throttled by the server. Time spent waiting for tokens
+ * is reported through the wait metrics.</p>
+ *
+ * <p>Wrap it in an {@link AsyncEmailService} or {@link EmailOutbox} to keep the pacing off the
+ * caller's thread.</p>
+ */
+public class RateLimitedEmailService implements EmailService {
+
+    private static final Logger LOGGER = Logger.getLogger(RateLimitedEmailService.class.getName());
+
+    private final EmailService delegate;
+    private final TokenBucket global;
+    private final double domainPermitsPerSecond;
+    private final int domainBurst;
+    private final Map<String, TokenBucket> domains = new ConcurrentHashMap<>();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates a decorator with a global limit only.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param permitsPerSecond sustained global send rate
+     * @param burst number of messages that may be sent back to back
+     */
+    public RateLimitedEmailService(EmailService delegate, double permitsPerSecond, int burst) {
+        this(delegate, permitsPerSecond, burst, 0, 0);
+    }
+
+    /**
+     * Creates a decorator with a global limit and the same limit for every recipient domain.
+     *
+     * @param delegate the service that performs the actual delivery
+     * @param permitsPerSecond sustained global send rate
+     * @param burst number of messages that may be sent back to back
+     * @param domainPermitsPerSecond sustained rate per recipient domain, or 0 for no domain limit
+     * @param domainBurst burst size per recipient domain (ignored without a domain limit)
+     */
+    public RateLimitedEmailService(EmailService delegate, double permitsPerSecond, int burst,
+                                   double domainPermitsPerSecond, int domainBurst) {
+        if (delegate == null) throw new IllegalArgumentException("Delegate email service is required.");
+        if (domainPermitsPerSecond < 0) throw new IllegalArgumentException("Domain rate must not be negative.");
+        if (domainPermitsPerSecond > 0 && domainBurst <= 0) {
+            throw new IllegalArgumentException("Domain burst must be positive.");
+        }
+        this.delegate = delegate;
+        this.global = new TokenBucket(permitsPerSecond, burst);
+        this.domainPermitsPerSecond = domainPermitsPerSecond;
+        this.domainBurst = domainBurst;
+    }
+
+    /**
+     * Waits for a send slot, then sends.
+     *
+     * @param to recipient identifier (email/username)
+     * @param subject subject line (may be null)
+     * @param body body content (may be null)
+     * @throws IllegalArgumentException if the recipient is missing
+     * @throws IllegalStateException if interrupted while waiting; the message is not sent
+     */
+    @Override
+    public void sendEmail(String to, String subject, String body) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Recipient email address (to) cannot be null or empty.");
+        }
+        long wait = global.reserve();
+        TokenBucket domain = domainBucket(to);
+        if (domain != null) wait = Math.max(wait, domain.reserve());
+
+        if (wait > 0) {
+            throttled.increment();
+            totalWaitNanos.add(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warning(() -> "Interrupted waiting to send to " + to);
+                throw new IllegalStateException("Interrupted while waiting for a send slot.", e);
+            }
+        }
+        delegate.sendEmail(to, subject, body);
+        sent.increment();
+    }
+
+    /**
+     * Returns the number of messages sent.
+     * @return sent count
+     */
+    public long getSentCount() { return sent.sum(); }
+
+    /**
+     * Returns the number of messages that had to wait for a token.
+     * @return throttled count
+     */
+    public long getThrottledCount() { return throttled.sum(); }
+
+    /**
+     * Returns the total time messages waited for tokens.
+     * @return total wait in milliseconds
+     */
+    public double getTotalWaitMillis() { return totalWaitNanos.sum() / 1_000_000.0; }
+
+    /**
+     * Returns the mean wait over all messages sent.
+     * @return average wait in milliseconds (0 if nothing was sent)
+     */
+    public double getAverageWaitMillis() {
+        long count = sent.sum();
+        return count == 0 ? 0.0 : getTotalWaitMillis() / count;
+    }
+
+    /**
+     * Returns the longest wait for a token.
+     * @return maximum wait in milliseconds
+     */
+    public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+    private TokenBucket domainBucket(String to) {
+        if (domainPermitsPerSecond == 0) return null;
+        int at = to.lastIndexOf('@');
+        if (at < 0 || at == to.length() - 1) return null;
+        String domain = to.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+        return domains.computeIfAbsent(domain, d -> new TokenBucket(domainPermitsPerSecond, domainBurst));
+    }
+}
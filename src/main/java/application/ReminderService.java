@@ -1,7 +1,9 @@
 package application;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import domain.Loan;
 import domain.Member;
@@ -9,9 +11,14 @@ import domain.Member;
 /**
  * Coordinates periodic reminder operations, such as scanning for overdue loans
  * and notifying members via email.
+ *
+ * <p>With an email service, members are also emailed when a reserved item is held for them, and
+ * {@link #runDailyScans(LocalDate)} expires holds that were not picked up.</p>
  */
 public class ReminderService {
 
+    private static final EmailTemplate TEMPLATE = EmailTemplate.load("overdue-reminder");
+
     private final LoanService loanService;
     private final MemberService memberService;
     private final EmailService emailService;
@@ -27,6 +34,8 @@ public class ReminderService {
 
     /**
      * Creates a {@code ReminderService} with explicit service dependencies.
+     * A non-null email service is also registered for hold-ready notices on the loan service's
+     * reservation queues.
      *
      * @param loanService service used to query loans
      * @param memberService service used to query members
@@ -36,17 +45,58 @@ public class ReminderService {
         this.loanService = loanService;
         this.memberService = memberService;
         this.emailService = emailService;
+        if (loanService != null && emailService != null) {
+            loanService.getReservationService().notifyByEmail(emailService);
+        }
     }
-    
+
+    /**
+     * Runs the date-driven scans: overdue notices, expiry of holds not picked up (passing the
+     * items on to the next member in line) and overdue reminders.
+     *
+     * @param today the scan date
+     * @return number of reminders sent
+     */
+    public int runDailyScans(LocalDate today) {
+        loanService.scanAndNotifyOverdues(today);
+        loanService.getReservationService().expireHolds(today);
+        return sendOverdueReminders();
+    }
+
 
     /**
      * Sends reminder emails to all members who currently have overdue loans.
+     *
+     * @return number of reminders sent
      */
-    public void sendOverdueReminders() {
-        LocalDate today = LocalDate.now();
+    public int sendOverdueReminders() {
+        return sendOverdueReminders(false);
+    }
+
+    /**
+     * Sends reminder emails to all members who currently have overdue loans.
+     *
+     * <p>Overdue loans are grouped by member in one pass, so the run costs one scan of the
+     * loans plus one email per member with overdue loans, instead of a loan scan per member.</p>
+     *
+     * @param parallel whether to scan the loans in parallel
+     * @return number of reminders sent
+     */
+    public int sendOverdueReminders(boolean parallel) {
+        Map<String, Member> registered = new HashMap<>();
         for (Member member : memberService.getAllMembers()) {
-            sendReminderToMember(member, today);
+            if (member.getUserName() != null) registered.putIfAbsent(member.getUserName(), member);
+        }
+
+        int sent = 0;
+        Map<String, List<Loan>> overdueByMember = loanService.getOverdueLoansByMember(LocalDate.now(), parallel);
+        for (Map.Entry<String, List<Loan>> entry : overdueByMember.entrySet()) {
+            Member member = registered.get(entry.getKey());
+            if (member == null || member.getUserName().isBlank()) continue;
+            sendReminder(member, entry.getValue());
+            sent++;
         }
+        return sent;
     }
 
     /**
@@ -71,10 +121,14 @@ public class ReminderService {
     private void sendReminderToMember(Member member, LocalDate date) {
         List<Loan> overdueLoans = loanService.getOverdueLoansForMember(member.getUserName(), date);
         if (!overdueLoans.isEmpty()) {
-            String subject = "Library Overdue Reminder"; // added subject
-            String body = "You have " + overdueLoans.size() + " overdue book(s).";
-            emailService.sendEmail(member.getUserName(), subject, body); // fixed to match interface
+            sendReminder(member, overdueLoans);
         }
     }
 
+    private void sendReminder(Member member, List<Loan> overdueLoans) {
+        int count = overdueLoans.size();
+        EmailTemplate.Values values = name -> "count".equals(name) ? count : null;
+        emailService.sendEmail(member.getUserName(), TEMPLATE.renderSubject(values), TEMPLATE.renderBody(values));
+    }
+
 }
\ No newline at end of file
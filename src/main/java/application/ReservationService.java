@@ -0,0 +1,321 @@
+package application;
+
+import domain.Holding;
+import domain.Media;
+import domain.Member;
+import domain.Reservation;
+import persistence.HoldingsRepository;
+import persistence.LoanRepository;
+import persistence.MediaCatalog;
+import persistence.MemberRepository;
+import persistence.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Observable;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Service managing hold queues for borrowed media.
+ *
+ * <p>Members queue for an item that is out; when it is returned, {@link #handOff(String, LocalDate)}
+ * holds it for the first eligible member in the queue and notifies observers with the ready
+ * {@link Reservation}. Holds not picked up within the hold period are expired by
+ * {@link #expireHolds(LocalDate)} and passed on to the next member.</p>
+ *
+ * <p>A title lent in several copies is queued under the title's ISBN. Each returned copy is held
+ * for the next member in line and set aside on its {@link Holding}'s pickup shelf, so walk-in
+ * borrowers only get copies nobody is waiting for.</p>
+ *
+ * <p>Services built with their default constructors share {@link #getDefault()}, so an observer
+ * attached there (see {@link #notifyByEmail(EmailService)}) hears about every hand-off.</p>
+ *
+ * <p>Borrow and return paths run under a per-item lock ({@link #withItemLock(String, Supplier)}):
+ * a return places the hold before the item stops being borrowed, and a borrow checks the hold and
+ * records the loan in one step, so a returned item cannot be taken past the queue.</p>
+ */
+public class ReservationService extends Observable {
+
+    /** Default number of days a returned item is held for pickup. */
+    public static final int DEFAULT_HOLD_DAYS = 3;
+
+    private static final Logger LOGGER = Logger.getLogger(ReservationService.class.getName());
+    /** Striped per-item locks; static because the queues in {@link ReservationRepository} are. */
+    private static final ReentrantLock[] ITEM_LOCKS = new ReentrantLock[64];
+
+    static {
+        for (int i = 0; i < ITEM_LOCKS.length; i++) ITEM_LOCKS[i] = new ReentrantLock();
+    }
+
+    private final int holdDays;
+    private final BorrowingRules borrowingRules = new BorrowingRules();
+    private final LoanRepository loanRepository = new LoanRepository();
+    private final Set<EmailService> emailServices = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Lazily created process-wide instance. */
+    private static final class DefaultHolder {
+        private static final ReservationService INSTANCE = new ReservationService();
+    }
+
+    /**
+     * Returns the process-wide instance used by default-constructed loan and CD services.
+     *
+     * @return the shared reservation service
+     */
+    public static ReservationService getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a service with the default hold period.
+     */
+    public ReservationService() {
+        this(DEFAULT_HOLD_DAYS);
+    }
+
+    /**
+     * Creates a service with a custom hold period.
+     *
+     * @param holdDays days a returned item is held for pickup (must be positive)
+     */
+    public ReservationService(int holdDays) {
+        if (holdDays <= 0) throw new IllegalArgumentException("Hold days must be positive.");
+        this.holdDays = holdDays;
+    }
+
+    /**
+     * Emails members through the given service when an item is held for them. Registering the
+     * same email service again has no effect, so each hold is announced once per service.
+     *
+     * @param emailService the email service (must not be {@code null})
+     */
+    public void notifyByEmail(EmailService emailService) {
+        if (emailService == null) throw new IllegalArgumentException("EmailService cannot be null");
+        synchronized (emailServices) {
+            if (emailServices.add(emailService)) addObserver(new HoldReadyEmailObserver(emailService));
+        }
+    }
+
+    /**
+     * Places a member in the queue of a borrowed or held item.
+     *
+     * @param member the member
+     * @param mediaId the media id
+     * @param date the placement date
+     * @return the waiting reservation
+     * @throws IllegalArgumentException if arguments are missing or the media does not exist
+     * @throws IllegalStateException if the item is on the shelf, already borrowed by the member,
+     *                               or already reserved by the member
+     */
+    public Reservation reserve(Member member, String mediaId, LocalDate date) {
+        if (member == null) throw new IllegalArgumentException("Member is required.");
+        if (date == null) throw new IllegalArgumentException("Reservation date is required.");
+        Media media = MediaCatalog.findById(mediaId);
+        if (media == null) throw new IllegalArgumentException("Media not found: " + mediaId);
+        // A title with copies is available while any copy is free, held copies aside.
+        boolean onShelf = HoldingsRepository.findByIsbn(mediaId) != null
+                ? !media.isBorrowed()
+                : !media.isBorrowed() && ReservationRepository.findHeld(mediaId) == null;
+        if (onShelf) {
+            throw new IllegalStateException("Media is available; borrow it instead.");
+        }
+        if (LoanRepository.findActiveByMemberAndIsbn(member.getUserName(), mediaId) != null) {
+            throw new IllegalStateException("Member already has this media.");
+        }
+
+        Reservation reservation = ReservationRepository.reserve(mediaId, member.getUserName(), date);
+        LOGGER.info(() -> "Reserved " + mediaId + " for " + member.getUserName()
+                + " at position " + ReservationRepository.positionOf(mediaId, member.getUserName()));
+        return reservation;
+    }
+
+    /**
+     * Cancels a member's reservation; an item held for the member passes to the next in line.
+     *
+     * @param member the member
+     * @param mediaId the media id
+     * @param date the cancellation date
+     * @return true if a reservation was cancelled
+     */
+    public boolean cancel(Member member, String mediaId, LocalDate date) {
+        if (member == null) return false;
+        Reservation[] cancelled = new Reservation[1];
+        Reservation next = withItemLock(mediaId, () -> {
+            cancelled[0] = ReservationRepository.cancel(mediaId, member.getUserName());
+            boolean wasHeld = cancelled[0] != null && cancelled[0].getReadyUntil() != null;
+            return wasHeld ? passOn(mediaId, date) : null;
+        });
+        announce(next);
+        return cancelled[0] != null;
+    }
+
+    /**
+     * Returns a member's position in an item's queue.
+     *
+     * @param member the member
+     * @param mediaId the media id
+     * @return 0 if the item is held for the member, 1 for the front of the queue and so on,
+     *         or -1 if the member has no reservation
+     */
+    public int positionOf(Member member, String mediaId) {
+        if (member == null) return -1;
+        return ReservationRepository.positionOf(mediaId, member.getUserName());
+    }
+
+    /**
+     * Holds a returned item for the next eligible member and notifies observers.
+     *
+     * @param mediaId the returned media id
+     * @param today the return date
+     * @return the reservation now holding the item, or {@code null} if nobody is waiting
+     */
+    public Reservation handOff(String mediaId, LocalDate today) {
+        Reservation ready = placeHold(mediaId, today);
+        announce(ready);
+        return ready != null ? ready : ReservationRepository.findHeld(mediaId);
+    }
+
+    /**
+     * Holds an item for the next eligible member without notifying anyone yet; return paths call
+     * this under the item lock and {@link #announce(Reservation)} once the lock is released.
+     *
+     * @param mediaId the returned media id
+     * @param today the return date
+     * @return the reservation that became ready, or {@code null} if no new hold was placed
+     */
+    Reservation placeHold(String mediaId, LocalDate today) {
+        return withItemLock(mediaId, () -> {
+            Reservation before = ReservationRepository.findHeld(mediaId);
+            Reservation held = ReservationRepository.handOff(mediaId, today.plusDays(holdDays), this::isEligible);
+            return held != before ? held : null;
+        });
+    }
+
+    /**
+     * Holds a just-returned copy of a title for the next eligible member, moving a free copy to
+     * the pickup shelf; called by return paths under the title's item lock after the copy is
+     * checked in. Observers are notified through {@link #announce(Reservation)}.
+     *
+     * @param titleIsbn the title's ISBN
+     * @param today the return date
+     * @return the new hold, or {@code null} if nobody eligible is waiting
+     */
+    Reservation placeCopyHold(String titleIsbn, LocalDate today) {
+        return withItemLock(titleIsbn, () -> {
+            Reservation ready = ReservationRepository.holdNext(titleIsbn, today.plusDays(holdDays), this::isEligible);
+            if (ready != null && !HoldingsRepository.findByIsbn(titleIsbn).holdFreeCopy()) {
+                LOGGER.warning(() -> "No free copy of " + titleIsbn + " to set aside for " + ready.getMemberId());
+            }
+            return ready;
+        });
+    }
+
+    /**
+     * Notifies observers of a hold placed by {@link #placeHold(String, LocalDate)}.
+     *
+     * @param ready the new hold ({@code null} is ignored)
+     */
+    void announce(Reservation ready) {
+        if (ready != null) notifyReady(ready);
+    }
+
+    /**
+     * Runs a borrow or return step while holding the item's lock, so that hold checks, loan
+     * records and hand-offs for the same item never interleave. The lock is reentrant.
+     *
+     * @param mediaId the media id
+     * @param action the step to run
+     * @param <T> the step's result type
+     * @return the step's result
+     */
+    <T> T withItemLock(String mediaId, Supplier<T> action) {
+        ReentrantLock lock = ITEM_LOCKS[(mediaId == null ? 0 : mediaId.hashCode()) & (ITEM_LOCKS.length - 1)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Expires holds whose pickup deadline has passed and passes the items on. Each item is
+     * handled under its item lock, so an expiry never lands between a borrower's hold check and
+     * the pickup it allows.
+     *
+     * @param today the current date
+     * @return reservations that became ready as a result
+     */
+    public List<Reservation> expireHolds(LocalDate today) {
+        List<Reservation> ready = new ArrayList<>();
+        for (String mediaId : ReservationRepository.findItemsWithExpiredHolds(today)) {
+            withItemLock(mediaId, () -> {
+                for (Reservation expired : ReservationRepository.expireHolds(mediaId, today)) {
+                    LOGGER.info(() -> "Hold on " + mediaId + " for " + expired.getMemberId() + " expired");
+                    Reservation next = passOn(mediaId, today);
+                    if (next != null) ready.add(next);
+                }
+                return null;
+            });
+        }
+        ready.forEach(this::notifyReady);
+        return ready;
+    }
+
+    /**
+     * Holds an item whose hold just ended for the next eligible member. A title's set-aside copy
+     * goes back among the free copies if nobody is waiting. Called under the item lock.
+     */
+    private Reservation passOn(String mediaId, LocalDate today) {
+        Reservation next = ReservationRepository.holdNext(mediaId, today.plusDays(holdDays), this::isEligible);
+        if (next == null) {
+            Holding holding = HoldingsRepository.findByIsbn(mediaId);
+            if (holding != null) holding.releaseHeldCopy();
+        }
+        return next;
+    }
+
+    /**
+     * Ensures an item is not held for a different member.
+     *
+     * @param mediaId the media id
+     * @param memberId the borrowing member
+     * @throws IllegalStateException if the item is held for someone else
+     */
+    public void ensureAvailableTo(String mediaId, String memberId) {
+        Reservation heldFor = ReservationRepository.findHeld(mediaId);
+        if (heldFor != null && !heldFor.getMemberId().equals(memberId)) {
+            throw new IllegalStateException("Media is reserved for another member.");
+        }
+    }
+
+    /**
+     * Records that a member picked up an item held for them.
+     *
+     * @param mediaId the media id
+     * @param memberId the borrowing member
+     */
+    public void fulfil(String mediaId, String memberId) {
+        if (ReservationRepository.fulfil(mediaId, memberId) != null) {
+            LOGGER.info(() -> "Reservation for " + mediaId + " picked up by " + memberId);
+        }
+    }
+
+    private boolean isEligible(String memberId) {
+        Member member = MemberRepository.findMemberByEmail(memberId);
+        return member == null || borrowingRules.canBorrow(member, loanRepository);
+    }
+
+    private void notifyReady(Reservation reservation) {
+        LOGGER.info(() -> "Holding " + reservation.getMediaId() + " for " + reservation.getMemberId()
+                + " until " + reservation.getReadyUntil());
+        setChanged();
+        notifyObservers(reservation);
+    }
+}
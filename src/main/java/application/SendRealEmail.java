@@ -1,5 +1,9 @@
 package application;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -19,10 +23,15 @@ import jakarta.mail.internet.MimeMessage;
  *
  * <p>Credentials can be supplied via constructor parameters or environment variables
  * (e.g., using dotenv), depending on the runtime configuration.</p>
+ *
+ * <p>Created {@link #pooled(SmtpTransportPool, String) with a pool}, messages go over pooled, already authenticated
+ * connections instead of a fresh connection per message, and {@link #sendBatch(List)} sends a
+ * whole batch over one connection.</p>
  */
 public class SendRealEmail implements EmailService {
     private final Session session;
     private final String from;
+    private final SmtpTransportPool pool;
     private final Logger logger = Logger.getLogger(SendRealEmail.class.getName());
 
     /**
@@ -37,6 +46,7 @@ public class SendRealEmail implements EmailService {
         }
 
         this.from = username;
+        this.pool = null;
 
         Properties props = new Properties();
         props.put("mail.smtp.host", "smtp.gmail.com");
@@ -52,6 +62,26 @@ public class SendRealEmail implements EmailService {
         });
     }
 
+    private SendRealEmail(SmtpTransportPool pool, String from) {
+        this.pool = pool;
+        this.session = pool.getSession();
+        this.from = from;
+    }
+
+    /**
+     * Creates an email sender that reuses the pool's connections.
+     *
+     * @param pool the connection pool (its session is used to build messages)
+     * @param from the sender address
+     * @return the sender
+     */
+    public static SendRealEmail pooled(SmtpTransportPool pool, String from) {
+        if (pool == null || from == null) {
+            throw new IllegalArgumentException("Transport pool and sender address cannot be null.");
+        }
+        return new SendRealEmail(pool, from);
+    }
+
     /**
      * Sends an email with the specified subject and body to the given recipient.
      *
@@ -67,13 +97,13 @@ public class SendRealEmail implements EmailService {
         }
 
         try {
-            Message msg = new MimeMessage(session);
-            msg.setFrom(new InternetAddress(from));
-            msg.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to, false));
-            msg.setSubject(subject != null ? subject : "(no subject)");
-            msg.setText(body != null ? body : "");
+            Message msg = toMimeMessage(to, subject, body);
 
-            Transport.send(msg);
+            if (pool != null) {
+                pool.send(msg);
+            } else {
+                Transport.send(msg);
+            }
             logger.info("✅ Email sent successfully to " + to);
         } catch (MessagingException e) {
             // Wrap MessagingException as RuntimeException, preserving the cause for testing.
@@ -82,6 +112,60 @@ public class SendRealEmail implements EmailService {
         }
     }
 
+    /**
+     * Sends several emails, over a single pooled connection when a pool is configured.
+     *
+     * @param messages the messages, sent in order
+     * @return the messages that could not be sent (empty if all were sent)
+     */
+    public List<EmailMessage> sendBatch(List<EmailMessage> messages) {
+        List<EmailMessage> failed = new ArrayList<>();
+        Map<Message, EmailMessage> sources = new IdentityHashMap<>();
+        List<Message> batch = new ArrayList<>(messages.size());
+        for (EmailMessage message : messages) {
+            try {
+                if (message.getTo() == null || message.getTo().isBlank()) {
+                    throw new MessagingException("Missing recipient");
+                }
+                Message msg = toMimeMessage(message.getTo(), message.getSubject(), message.getBody());
+                sources.put(msg, message);
+                batch.add(msg);
+            } catch (MessagingException e) {
+                logger.log(Level.WARNING, "❌ Invalid email to " + message.getTo(), e);
+                failed.add(message);
+            }
+        }
+
+        if (pool == null) {
+            for (Message msg : batch) {
+                try {
+                    Transport.send(msg);
+                } catch (MessagingException e) {
+                    logger.log(Level.SEVERE, "❌ Error sending email to " + sources.get(msg).getTo(), e);
+                    failed.add(sources.get(msg));
+                }
+            }
+        } else {
+            try {
+                for (Message msg : pool.sendBatch(batch)) failed.add(sources.get(msg));
+            } catch (MessagingException e) {
+                logger.log(Level.SEVERE, "❌ Could not open SMTP connection for batch", e);
+                for (Message msg : batch) failed.add(sources.get(msg));
+            }
+        }
+        logger.info("✅ Batch sent: " + (messages.size() - failed.size()) + "/" + messages.size());
+        return failed;
+    }
+
+    private Message toMimeMessage(String to, String subject, String body) throws MessagingException {
+        Message msg = new MimeMessage(session);
+        msg.setFrom(new InternetAddress(from));
+        msg.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to, false));
+        msg.setSubject(subject != null ? subject : "(no subject)");
+        msg.setText(body != null ? body : "");
+        return msg;
+    }
+
     /**
      * Executes a demo routine for sending a test email.
      */
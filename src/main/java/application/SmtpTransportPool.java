@@ -0,0 +1,202 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+
+/**
+ * Pool of open, authenticated SMTP connections.
+ *
+ * <p>{@link Transport#send(Message)} connects, negotiates TLS, authenticates and disconnects for
+ * every message. The pool instead keeps up to {@code maxConnections} transports connected and
+ * sends over them with {@link Transport#sendMessage(Message, jakarta.mail.Address[])}, so a batch
+ * costs one handshake (or none, if an idle connection is still open).</p>
+ *
+ * <p>An idle connection is checked before reuse and reopened if the server dropped it. If a send
+ * fails and the connection is gone, the transport is reopened and the message retried once;
+ * rejections on a live connection ({@link SendFailedException}) are not retried.</p>
+ */
+public class SmtpTransportPool implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SmtpTransportPool.class.getName());
+
+    private final Session session;
+    private final String username;
+    private final String password;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Transport> idle = new LinkedBlockingDeque<>();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool; connections are opened lazily.
+     *
+     * @param smtpProperties JavaMail session properties ({@code mail.smtp.host}, {@code mail.smtp.port}, ...)
+     * @param username SMTP account username, or {@code null} for servers without authentication
+     * @param password SMTP account password, or {@code null} for servers without authentication
+     * @param maxConnections maximum number of open connections (must be positive)
+     */
+    public SmtpTransportPool(Properties smtpProperties, String username, String password, int maxConnections) {
+        if (smtpProperties == null) throw new IllegalArgumentException("SMTP properties are required.");
+        if (maxConnections <= 0) throw new IllegalArgumentException("Connection count must be positive.");
+        this.session = Session.getInstance(smtpProperties);
+        this.username = username;
+        this.password = password;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Returns the session messages for this pool should be created with.
+     * @return the mail session
+     */
+    public Session getSession() { return session; }
+
+    /**
+     * Sends one message over a pooled connection.
+     *
+     * @param message the message
+     * @throws MessagingException if the message could not be sent, even after reconnecting
+     */
+    public void send(Message message) throws MessagingException {
+        Transport transport = borrow();
+        try {
+            transport = deliver(transport, message);
+        } finally {
+            release(transport);
+        }
+    }
+
+    /**
+     * Sends messages back to back over a single pooled connection.
+     *
+     * @param messages the messages, sent in order
+     * @return the messages that could not be sent (empty if all were sent)
+     * @throws MessagingException if no connection could be opened
+     */
+    public List<Message> sendBatch(List<? extends Message> messages) throws MessagingException {
+        List<Message> failed = new ArrayList<>();
+        if (messages.isEmpty()) return failed;
+        Transport transport = borrow();
+        try {
+            for (Message message : messages) {
+                try {
+                    transport = deliver(transport, message);
+                } catch (MessagingException e) {
+                    LOGGER.log(Level.WARNING, "Batch message not sent", e);
+                    failed.add(message);
+                }
+            }
+        } finally {
+            release(transport);
+        }
+        return failed;
+    }
+
+    /**
+     * Returns how many connections the pool has opened (including reconnects).
+     * @return connect count
+     */
+    public long getConnectCount() { return connects.sum(); }
+
+    /**
+     * Returns how many messages the pool has sent.
+     * @return sent count
+     */
+    public long getSentCount() { return sent.sum(); }
+
+    /**
+     * Returns the number of connections currently idle in the pool.
+     * @return idle connection count
+     */
+    public int getIdleCount() { return idle.size(); }
+
+    /**
+     * Closes all idle connections; connections in use are closed when released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Transport transport; (transport = idle.pollFirst()) != null; ) {
+            closeQuietly(transport);
+        }
+    }
+
+    /** Sends, reopening the connection and retrying once on a connection-level failure. */
+    private Transport deliver(Transport transport, Message message) throws MessagingException {
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException | IllegalStateException e) {
+            if (e instanceof SendFailedException && transport.isConnected()) throw (SendFailedException) e;
+            LOGGER.log(Level.FINE, "SMTP connection failed, reconnecting", e);
+            closeQuietly(transport);
+            Transport fresh = connect(session.getTransport());
+            try {
+                fresh.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException | RuntimeException retryFailure) {
+                closeQuietly(fresh);
+                throw retryFailure;
+            }
+            transport = fresh;
+        }
+        sent.increment();
+        return transport;
+    }
+
+    private Transport borrow() throws MessagingException {
+        if (closed) throw new IllegalStateException("Transport pool is closed.");
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection", e);
+        }
+        try {
+            Transport transport = idle.pollFirst();
+            if (transport == null) return connect(session.getTransport());
+            if (!transport.isConnected()) {
+                closeQuietly(transport);
+                return connect(session.getTransport());
+            }
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Returns a transport without probing it; {@link #borrow()} checks it before the next use. */
+    private void release(Transport transport) {
+        if (closed) {
+            closeQuietly(transport);
+        } else {
+            idle.offerFirst(transport);
+        }
+        permits.release();
+    }
+
+    private Transport connect(Transport transport) throws MessagingException {
+        transport.connect(username, password);
+        connects.increment();
+        return transport;
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            LOGGER.log(Level.FINE, "Error closing SMTP connection", e);
+        }
+    }
+}
@@ -14,6 +14,8 @@ import persistence.MemberRepository;
  */
 public class TestingModeLoanWatcher implements Runnable {
 
+    private static final EmailTemplate TEMPLATE = EmailTemplate.load("testing-mode-expired");
+
     private final LoanService loanService;
     private final EmailService emailService;
     private final long pollIntervalMillis;
@@ -77,14 +79,8 @@ public class TestingModeLoanWatcher implements Runnable {
                     if (member == null || member.getUserName() == null || member.getUserName().isBlank()) {
                         continue;
                     }
-                    String subject = "[TESTING MODE] Loan expired";
-                    String body = "Dear member,\n\n" +
-                            "This is an automated notification to inform you that your testing-mode loan for the media item (ISBN: " +
-                            loan.getIsbn() + ") has expired.\n" +
-                            "Please take the necessary action.\n\n" +
-                            "Best regards,\n" +
-                            "Library Management System";
-                    emailService.sendEmail(member.getUserName(), subject, body);
+                    EmailTemplate.Values values = name -> "isbn".equals(name) ? loan.getIsbn() : null;
+                    emailService.sendEmail(member.getUserName(), TEMPLATE.renderSubject(values), TEMPLATE.renderBody(values));
                     loanService.removeTestingModeLoan(loan);
                 }
                 Thread.sleep(pollIntervalMillis);
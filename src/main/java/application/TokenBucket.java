@@ -0,0 +1,71 @@
+package application;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that paces callers to a steady rate while allowing short bursts.
+ *
+ * <p>The bucket refills continuously at {@code permitsPerSecond} up to {@code capacity} tokens.
+ * {@link #reserve()} always takes a token and returns how long the caller must wait before using
+ * it; when the bucket is empty the balance goes negative, so concurrent callers are handed
+ * consecutive slots in arrival order instead of racing for the next token. Callers sleep for the
+ * returned time rather than polling.</p>
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates a full bucket on the system clock.
+     *
+     * @param permitsPerSecond refill rate (must be positive)
+     * @param capacity maximum burst size (must be positive)
+     */
+    public TokenBucket(double permitsPerSecond, int capacity) {
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * Creates a full bucket on the given clock.
+     *
+     * @param permitsPerSecond refill rate (must be positive)
+     * @param capacity maximum burst size (must be positive)
+     * @param nanoClock time source in {@link System#nanoTime()} units
+     */
+    public TokenBucket(double permitsPerSecond, int capacity, LongSupplier nanoClock) {
+        if (!(permitsPerSecond > 0)) throw new IllegalArgumentException("Rate must be positive.");
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive.");
+        if (nanoClock == null) throw new IllegalArgumentException("Clock is required.");
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.capacity = capacity;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return nanoseconds to wait before the token may be used (0 if one was available)
+     */
+    public synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0L : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    /**
+     * Returns the tokens currently available (negative while callers are queued).
+     * @return token balance
+     */
+    public synchronized double available() {
+        long now = nanoClock.getAsLong();
+        return Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+    }
+}
@@ -1,14 +1,20 @@
 package applicationsearchbooks;
 
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
+import domain.Author;
 import domain.Book;
+import domain.TextNormalizer;
 
 /**
  * Search strategy that matches books by author name.
  *
- * <p>Used by the repository to perform author-based filtering.</p>
+ * <p>Used by the repository to perform author-based filtering. Matching is done on
+ * {@link TextNormalizer} forms, so case, accents and Arabic diacritics/letter variants
+ * do not affect results. Books share interned {@link Author} entities, so each distinct author
+ * is tested against the keyword once per search rather than once per book.</p>
  */
 public class BookAuthorSearchStrategy implements BookSearchStrategy {
 
@@ -24,16 +30,41 @@ public class BookAuthorSearchStrategy implements BookSearchStrategy {
      *
      * @param books  the list of books to search
      * @param keyword the author keyword to match
-     * @return a list of books whose author contains the keyword
+     * @return a list of books whose normalized author contains the normalized keyword
      */
 @Override
 public List<Book> searchBook(List<Book> books, String keyword) {
     if (books == null || keyword == null) return List.of();
 
+    String normalized = TextNormalizer.normalize(keyword);
+    Map<Author, Boolean> matches = new IdentityHashMap<>();
     return books.stream()
-            .filter(b -> b.getAuthor() != null &&
-                         b.getAuthor().toLowerCase().contains(keyword.toLowerCase()))
+            .filter(b -> b.getAuthorEntity() != null &&
+                         matches.computeIfAbsent(b.getAuthorEntity(),
+                                 a -> a.getNormalizedName().contains(normalized)))
             .toList();  
 }
 
+    /**
+     * Authors are matched on normalized text, so the normalized keyword identifies the result.
+     *
+     * @param keyword search value
+     * @return the normalized keyword, or {@code null} if the keyword is {@code null}
+     */
+    @Override
+    public String cacheKey(String keyword) {
+        return keyword == null ? null : TextNormalizer.normalize(keyword);
+    }
+
+    /**
+     * Scans the packed normalized-author column instead of the book objects.
+     *
+     * @param catalog the columnar snapshot to search
+     * @param keyword the author keyword to match
+     * @return matching books in catalog order (possibly empty)
+     */
+    @Override
+    public List<Book> searchColumnar(ColumnarBookCatalog catalog, String keyword) {
+        return catalog == null ? List.of() : catalog.authorContains(keyword);
+    }
 }
@@ -0,0 +1,134 @@
+package applicationsearchbooks;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import domain.Book;
+
+/**
+ * On-disk form of a {@link BookSearchIndex}, so a restart can skip rebuilding it.
+ *
+ * <p>The file starts with a header (magic number, format version, catalog stamp) followed by
+ * fixed-width sections: per-document field lengths, the term dictionary with its postings
+ * (document id and per-field term frequencies), and the title and author trigram postings stored
+ * as raw bitmap words. Documents are numbered by their position in the catalog list, so the
+ * file holds no book data; it is memory-mapped on load and the postings are read straight out of
+ * the mapping, with only the term dictionary and per-document lengths copied onto the heap. A
+ * loaded index keeps its mapping, which is why {@link #write(Path, BookSearchIndex, List)} moves a
+ * new file into place instead of rewriting the old one.</p>
+ *
+ * <p>The stamp is a fingerprint of the catalog (ISBN, normalized title and author of every book,
+ * in order). An index is only loaded for a catalog with the same fingerprint; otherwise
+ * {@link #read(Path, List)} returns {@code null} and the caller rebuilds.</p>
+ */
+public final class BookIndexFile {
+
+    private static final int MAGIC = 0x424B4958; // "BKIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private BookIndexFile() { }
+
+    /**
+     * Computes the catalog stamp the index file is keyed by.
+     *
+     * @param books the catalog in list order
+     * @return a 64-bit fingerprint of the indexed fields of every book
+     */
+    public static long fingerprint(List<Book> books) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, books.size());
+        for (Book book : books) {
+            if (book == null) {
+                hash = mix(hash, -1);
+                continue;
+            }
+            hash = mix(hash, book.getIsbn());
+            hash = mix(hash, book.getNormalizedTitle());
+            hash = mix(hash, book.getNormalizedAuthor());
+        }
+        return hash;
+    }
+
+    /**
+     * Writes an index for the given catalog. The file is written next to {@code file} and moved
+     * into place, so readers never see a partial file.
+     *
+     * @param file the target file
+     * @param index the index to persist (must cover {@code books})
+     * @param books the catalog in list order
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, BookSearchIndex index, List<Book> books) throws IOException {
+        Map<Book, Integer> numbering = new IdentityHashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            if (books.get(i) != null) numbering.putIfAbsent(books.get(i), i);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(fingerprint(books));
+            index.writeTo(out, numbering, books.size());
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Loads an index written for exactly this catalog.
+     *
+     * @param file the index file
+     * @param books the current catalog in list order
+     * @return the restored index, or {@code null} if the file is missing, has another format
+     *         version, or was written for a different catalog
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static BookSearchIndex read(Path file, List<Book> books) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 16 || in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) return null;
+            if (in.getLong() != fingerprint(books)) return null;
+            return BookSearchIndex.readFrom(in, books);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalStateException
+                 | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt index file: " + file, e);
+        }
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) return mix(hash, -1);
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,129 @@
+package applicationsearchbooks;
+
+import java.util.Collection;
+
+import domain.Book;
+
+/**
+ * The complete set of book indexes a repository searches: the full-text/structured
+ * {@link BookSearchIndex} and the {@link SortedBookIndex sorted} title and author orders.
+ *
+ * <p>Bundling them lets a repository build a replacement set off to the side and publish it with
+ * a single reference swap, so readers always see all indexes at the same catalog state.</p>
+ *
+ * <p>Not thread-safe for updates; callers are expected to guard access.</p>
+ */
+public class BookIndexSet {
+
+    private final BookSearchIndex searchIndex;
+    private final SortedBookIndex titleOrder = new SortedBookIndex(BrowseOrder.TITLE);
+    private final SortedBookIndex authorOrder = new SortedBookIndex(BrowseOrder.AUTHOR);
+
+    /**
+     * Creates an empty index set.
+     */
+    public BookIndexSet() {
+        this(new BookSearchIndex());
+    }
+
+    private BookIndexSet(BookSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Creates an index set over the given books.
+     *
+     * @param books the books to index (null entries are ignored)
+     * @return the populated index set
+     */
+    public static BookIndexSet of(Collection<Book> books) {
+        BookIndexSet indexes = new BookIndexSet();
+        indexes.rebuild(books);
+        return indexes;
+    }
+
+    /**
+     * Creates an index set around a search index that already covers the books (e.g. one loaded
+     * with {@link BookIndexFile}); only the sorted orders are built.
+     *
+     * @param searchIndex a search index over exactly {@code books}
+     * @param books the indexed books
+     * @return the index set
+     */
+    public static BookIndexSet withSearchIndex(BookSearchIndex searchIndex, Collection<Book> books) {
+        BookIndexSet indexes = new BookIndexSet(searchIndex);
+        indexes.titleOrder.rebuild(books);
+        indexes.authorOrder.rebuild(books);
+        return indexes;
+    }
+
+    /**
+     * Adds a book to every index.
+     *
+     * @param book the book (ignored if {@code null})
+     */
+    public void add(Book book) {
+        searchIndex.add(book);
+        titleOrder.add(book);
+        authorOrder.add(book);
+    }
+
+    /**
+     * Removes a book from every index.
+     *
+     * @param book the book to remove
+     */
+    public void remove(Book book) {
+        searchIndex.remove(book);
+        titleOrder.remove(book);
+        authorOrder.remove(book);
+    }
+
+    /**
+     * Replaces the content of every index with the given books.
+     *
+     * @param books the books to index (null entries are ignored)
+     */
+    public void rebuild(Collection<Book> books) {
+        searchIndex.rebuild(books);
+        titleOrder.rebuild(books);
+        authorOrder.rebuild(books);
+    }
+
+    /**
+     * Removes every book from every index.
+     */
+    public void clear() {
+        searchIndex.clear();
+        titleOrder.clear();
+        authorOrder.clear();
+    }
+
+    /**
+     * Returns the full-text and structured search index.
+     * @return search index
+     */
+    public BookSearchIndex getSearchIndex() { return searchIndex; }
+
+    /**
+     * Returns the index in title order.
+     * @return title order
+     */
+    public SortedBookIndex getTitleOrder() { return titleOrder; }
+
+    /**
+     * Returns the index in author order.
+     * @return author order
+     */
+    public SortedBookIndex getAuthorOrder() { return authorOrder; }
+
+    /**
+     * Returns the index for a browse order.
+     *
+     * @param order the browse order
+     * @return the matching sorted index
+     */
+    public SortedBookIndex sortedBy(BrowseOrder order) {
+        return order == BrowseOrder.AUTHOR ? authorOrder : titleOrder;
+    }
+}
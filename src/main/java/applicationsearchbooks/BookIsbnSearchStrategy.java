@@ -2,6 +2,7 @@ package applicationsearchbooks;
 
 import domain.Book;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
@@ -29,4 +30,27 @@ public class BookIsbnSearchStrategy implements BookSearchStrategy {
                 .filter(b -> b.getIsbn() != null && b.getIsbn().equalsIgnoreCase(keyword))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * ISBNs are compared case-insensitively, so the lower-cased keyword identifies the result.
+     *
+     * @param keyword search value
+     * @return the lower-cased keyword, or {@code null} if the keyword is {@code null}
+     */
+    @Override
+    public String cacheKey(String keyword) {
+        return keyword == null ? null : keyword.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Compares against the packed lower-cased ISBN column instead of the book objects.
+     *
+     * @param catalog the columnar snapshot to search
+     * @param keyword target ISBN value
+     * @return matching books in catalog order (possibly empty)
+     */
+    @Override
+    public List<Book> searchColumnar(ColumnarBookCatalog catalog, String keyword) {
+        return catalog == null ? List.of() : catalog.isbnEquals(keyword);
+    }
+}
@@ -0,0 +1,164 @@
+package applicationsearchbooks;
+
+import java.util.Locale;
+
+import domain.Book;
+import domain.TextNormalizer;
+
+/**
+ * Immutable, per-request description of a catalog search.
+ *
+ * <p>All criteria are combined with AND. Each {@code withX} method returns a new query, so a
+ * query can be shared between threads and reused freely, unlike the repository-wide strategy
+ * set through {@code BookRepository.setSearchStrategy}. Text criteria are normalized once here
+ * with {@link TextNormalizer}.</p>
+ *
+ * <pre>
+ * BookQuery q = BookQuery.all().withTitle("java").withAuthor("bloch").availableOnly();
+ * </pre>
+ */
+public final class BookQuery {
+
+    private static final BookQuery ALL = new BookQuery(null, null, null, false);
+
+    private final String title;
+    private final String author;
+    private final String isbnPrefix;
+    private final boolean availableOnly;
+
+    private BookQuery(String title, String author, String isbnPrefix, boolean availableOnly) {
+        this.title = title;
+        this.author = author;
+        this.isbnPrefix = isbnPrefix;
+        this.availableOnly = availableOnly;
+    }
+
+    /**
+     * Returns the query that matches every book.
+     *
+     * @return the unrestricted query
+     */
+    public static BookQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Restricts results to titles containing the given text.
+     *
+     * @param text title substring (normalized; {@code null} removes the criterion)
+     * @return a new query with the title criterion
+     */
+    public BookQuery withTitle(String text) {
+        return new BookQuery(TextNormalizer.normalize(text), author, isbnPrefix, availableOnly);
+    }
+
+    /**
+     * Restricts results to authors containing the given text.
+     *
+     * @param text author substring (normalized; {@code null} removes the criterion)
+     * @return a new query with the author criterion
+     */
+    public BookQuery withAuthor(String text) {
+        return new BookQuery(title, TextNormalizer.normalize(text), isbnPrefix, availableOnly);
+    }
+
+    /**
+     * Restricts results to ISBNs starting with the given prefix (case-insensitive).
+     *
+     * @param prefix ISBN prefix ({@code null} removes the criterion)
+     * @return a new query with the ISBN criterion
+     */
+    public BookQuery withIsbnPrefix(String prefix) {
+        String lower = prefix == null ? null : prefix.toLowerCase(Locale.ROOT);
+        return new BookQuery(title, author, lower, availableOnly);
+    }
+
+    /**
+     * Restricts results to items that are not currently borrowed.
+     *
+     * @return a new query with the availability criterion
+     */
+    public BookQuery availableOnly() {
+        return new BookQuery(title, author, isbnPrefix, true);
+    }
+
+    /**
+     * Returns the normalized title criterion.
+     * @return title substring or {@code null}
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Returns the normalized author criterion.
+     * @return author substring or {@code null}
+     */
+    public String getAuthor() { return author; }
+
+    /**
+     * Returns the lower-cased ISBN prefix criterion.
+     * @return ISBN prefix or {@code null}
+     */
+    public String getIsbnPrefix() { return isbnPrefix; }
+
+    /**
+     * Indicates whether only available items match.
+     * @return {@code true} if borrowed items are excluded
+     */
+    public boolean isAvailableOnly() { return availableOnly; }
+
+    /**
+     * Evaluates every criterion against a book.
+     *
+     * @param book the book to test
+     * @return {@code true} if the book satisfies all criteria
+     */
+    public boolean matches(Book book) {
+        if (book == null) return false;
+        if (availableOnly && book.isBorrowed()) return false;
+        if (isbnPrefix != null
+                && (book.getIsbn() == null || !book.getIsbn().toLowerCase(Locale.ROOT).startsWith(isbnPrefix))) {
+            return false;
+        }
+        if (title != null
+                && (book.getNormalizedTitle() == null || !book.getNormalizedTitle().contains(title))) {
+            return false;
+        }
+        return author == null
+                || (book.getNormalizedAuthor() != null && book.getNormalizedAuthor().contains(author));
+    }
+
+    /**
+     * Returns a string that identifies this query's criteria exactly, suitable as a cache key.
+     *
+     * @return length-prefixed encoding of all criteria
+     */
+    public String cacheKey() {
+        StringBuilder sb = new StringBuilder();
+        appendKeyPart(sb, title);
+        appendKeyPart(sb, author);
+        appendKeyPart(sb, isbnPrefix);
+        return sb.append(availableOnly ? 'A' : '*').toString();
+    }
+
+    private static void appendKeyPart(StringBuilder sb, String part) {
+        if (part == null) {
+            sb.append('-');
+        } else {
+            sb.append(part.length()).append(':').append(part);
+        }
+    }
+
+    /**
+     * String representation of this query.
+     * @return string with the criteria
+     */
+    @Override
+    public String toString() {
+        return "BookQuery{" +
+                "title='" + title + '\'' +
+                ", author='" + author + '\'' +
+                ", isbnPrefix='" + isbnPrefix + '\'' +
+                ", availableOnly=" + availableOnly +
+                '}';
+    }
+}
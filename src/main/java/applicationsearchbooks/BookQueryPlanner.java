@@ -0,0 +1,126 @@
+package applicationsearchbooks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import domain.Book;
+
+/**
+ * Chooses how a {@link BookQuery} is answered from a {@link BookSearchIndex}.
+ *
+ * <p>Each indexable criterion (ISBN prefix, title substring, author substring) offers an access
+ * path with an estimated number of candidates. The planner drives the search from the path with
+ * the smallest estimate and evaluates the full query on those candidates only; the remaining
+ * criteria (including availability) act as filters. When no criterion is
+ * indexable the planner falls back to a {@link ShardedBookScanner parallel sharded scan}
+ * over all indexed books.</p>
+ */
+public class BookQueryPlanner {
+
+    /**
+     * The index used to produce candidate books for a query.
+     */
+    public enum AccessPath {
+        /** Range lookup in the sorted ISBN index. */
+        ISBN_PREFIX,
+        /** Trigram lookup on normalized titles. */
+        TITLE_NGRAM,
+        /** Trigram lookup on normalized authors. */
+        AUTHOR_NGRAM,
+        /** No usable index; every indexed book is tested. */
+        FULL_SCAN
+    }
+
+    private static final ShardedBookScanner DEFAULT_SCANNER = new ShardedBookScanner();
+
+    private final BookSearchIndex index;
+    private final ShardedBookScanner scanner;
+
+    /**
+     * Creates a planner over the given index using the default parallel scanner.
+     *
+     * @param index the index to plan against (must not be {@code null})
+     */
+    public BookQueryPlanner(BookSearchIndex index) {
+        this(index, DEFAULT_SCANNER);
+    }
+
+    /**
+     * Creates a planner over the given index with an explicit scanner for unindexed queries.
+     *
+     * @param index the index to plan against (must not be {@code null})
+     * @param scanner scanner used for {@link AccessPath#FULL_SCAN} (must not be {@code null})
+     */
+    public BookQueryPlanner(BookSearchIndex index, ShardedBookScanner scanner) {
+        if (index == null) throw new IllegalArgumentException("index must not be null");
+        if (scanner == null) throw new IllegalArgumentException("scanner must not be null");
+        this.index = index;
+        this.scanner = scanner;
+    }
+
+    /**
+     * Picks the most selective access path for the query.
+     *
+     * @param query the query to plan
+     * @return the chosen access path
+     */
+    public AccessPath choosePath(BookQuery query) {
+        AccessPath best = AccessPath.FULL_SCAN;
+        int bestEstimate = index.size();
+
+        int titleEstimate = index.titleGrams().estimate(query.getTitle());
+        if (titleEstimate < bestEstimate) {
+            best = AccessPath.TITLE_NGRAM;
+            bestEstimate = titleEstimate;
+        }
+        int authorEstimate = index.authorGrams().estimate(query.getAuthor());
+        if (authorEstimate < bestEstimate) {
+            best = AccessPath.AUTHOR_NGRAM;
+            bestEstimate = authorEstimate;
+        }
+        if (query.getIsbnPrefix() != null
+                && index.estimateIsbnPrefix(query.getIsbnPrefix(), bestEstimate) < bestEstimate) {
+            best = AccessPath.ISBN_PREFIX;
+        }
+        return best;
+    }
+
+    /**
+     * Runs the query using the access path chosen by {@link #choosePath(BookQuery)}.
+     *
+     * @param query the query to run ({@code null} yields no results)
+     * @param limit maximum number of books to return
+     * @return the first {@code limit} matching books in indexing order (never null)
+     */
+    public List<Book> execute(BookQuery query, int limit) {
+        if (query == null || limit <= 0) return List.of();
+
+        AccessPath path = choosePath(query);
+        if (path == AccessPath.FULL_SCAN) {
+            return scanner.scan(index.liveBooks(), query::matches, limit);
+        }
+
+        BitSet candidates = candidates(query, path);
+        List<Book> result = new ArrayList<>();
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            Book book = index.bookAt(id);
+            if (book != null && query.matches(book)) {
+                result.add(book);
+                if (result.size() >= limit) break;
+            }
+        }
+        return result;
+    }
+
+    private BitSet candidates(BookQuery query, AccessPath path) {
+        switch (path) {
+            case ISBN_PREFIX:
+                return index.isbnPrefixCandidates(query.getIsbnPrefix());
+            case TITLE_NGRAM:
+                return index.titleGrams().candidates(query.getTitle());
+            default:
+                return index.authorGrams().candidates(query.getAuthor());
+        }
+    }
+}
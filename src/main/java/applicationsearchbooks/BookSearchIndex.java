@@ -0,0 +1,583 @@
+package applicationsearchbooks;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import domain.Author;
+import domain.Book;
+import domain.TextNormalizer;
+
+/**
+ * In-memory search indexes over book titles, authors and ISBNs.
+ *
+ * <p>Every indexed book gets a dense document id. For each term (a run of letters/digits of the
+ * {@link TextNormalizer normalized} text) the index keeps the per-field term frequencies of the
+ * books containing it. {@link #searchRanked(String, int)} scores candidates with BM25F
+ * (title and author as separate fields, title boosted) and keeps only the best {@code limit}
+ * results in a bounded min-heap, so large result sets are never fully sorted or copied.</p>
+ *
+ * <p>For structured {@link BookQuery} searches the index also keeps trigram indexes on title and
+ * author and a sorted ISBN index; {@link #search(BookQuery, int)} lets a {@link BookQueryPlanner}
+ * choose the most selective of them.</p>
+ *
+ * <p>Books are also grouped by their interned {@link Author}, so {@link #findByAuthor(Author)}
+ * lists an author's works without scanning the catalog.</p>
+ *
+ * <p>An index loaded through {@link BookIndexFile} keeps its term postings in the file mapping:
+ * only a term-to-offset dictionary is built on load, and queries read the postings out of the
+ * mapping. A term's list is copied onto the heap the first time an add or remove changes it.</p>
+ *
+ * <p>Not thread-safe; callers are expected to guard access.</p>
+ */
+public class BookSearchIndex {
+
+    /** BM25 term-frequency saturation parameter. */
+    private static final double K1 = 1.2;
+    /** BM25 length-normalization parameter. */
+    private static final double B = 0.75;
+    /** Weight applied to title term frequencies. */
+    private static final double TITLE_BOOST = 2.0;
+    /** Weight applied to author term frequencies. */
+    private static final double AUTHOR_BOOST = 1.0;
+
+    private final List<DocEntry> docs = new ArrayList<>();
+    private final Map<Book, Integer> docIds = new IdentityHashMap<>();
+    private final Map<String, Map<Integer, Posting>> postings = new HashMap<>();
+    /** Offsets of term postings still served from {@link #mapped}; a term is never in both maps. */
+    private final Map<String, Integer> mappedTerms = new HashMap<>();
+    /** Mapping of a loaded index file, read with absolute gets only; {@code null} when not loaded. */
+    private ByteBuffer mapped;
+    private final NgramIndex titleGrams = new NgramIndex();
+    private final NgramIndex authorGrams = new NgramIndex();
+    private final TreeMap<String, BitSet> isbnIndex = new TreeMap<>();
+    private final Map<Author, BitSet> authorIndex = new IdentityHashMap<>();
+    private int liveDocs;
+    private long totalTitleLength;
+    private long totalAuthorLength;
+
+    /**
+     * Creates an empty index.
+     */
+    public BookSearchIndex() { }
+
+    /**
+     * An indexed book together with the field values it was indexed with.
+     */
+    private static final class DocEntry {
+        private final Book book;
+        private final String title;
+        private final String author;
+        private final String isbn;
+        private final Author authorEntity;
+        private int titleLength;
+        private int authorLength;
+
+        private DocEntry(Book book) {
+            this.book = book;
+            this.title = book.getNormalizedTitle();
+            this.author = book.getNormalizedAuthor();
+            this.isbn = book.getIsbn() == null ? null : book.getIsbn().toLowerCase(Locale.ROOT);
+            this.authorEntity = book.getAuthorEntity();
+        }
+    }
+
+    /**
+     * Term frequencies of one term inside one book.
+     */
+    private static final class Posting {
+        private int titleTf;
+        private int authorTf;
+    }
+
+    /**
+     * Receives the postings of one term.
+     */
+    @FunctionalInterface
+    private interface PostingVisitor {
+        void visit(int docId, int titleTf, int authorTf);
+    }
+
+    /**
+     * A candidate document with its accumulated score.
+     */
+    private static final class ScoredDoc {
+        private final int docId;
+        private final double score;
+
+        private ScoredDoc(int docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Replaces the index content with the given books.
+     *
+     * @param books the books to index (null entries are ignored)
+     */
+    public void rebuild(Collection<Book> books) {
+        clear();
+        if (books == null) return;
+        for (Book book : books) {
+            add(book);
+        }
+    }
+
+    /**
+     * Removes every book from the index.
+     */
+    public void clear() {
+        docs.clear();
+        docIds.clear();
+        postings.clear();
+        mappedTerms.clear();
+        mapped = null;
+        titleGrams.clear();
+        authorGrams.clear();
+        isbnIndex.clear();
+        authorIndex.clear();
+        liveDocs = 0;
+        totalTitleLength = 0;
+        totalAuthorLength = 0;
+    }
+
+    /**
+     * Adds a book to the index. Adding a book that is already indexed has no effect.
+     *
+     * @param book the book to index (ignored if {@code null})
+     */
+    public void add(Book book) {
+        if (book == null || docIds.containsKey(book)) return;
+
+        int docId = docs.size();
+        DocEntry entry = new DocEntry(book);
+        docs.add(entry);
+        docIds.put(book, docId);
+
+        List<String> titleTerms = tokenize(entry.title);
+        List<String> authorTerms = tokenize(entry.author);
+        for (String term : titleTerms) {
+            mutablePostings(term).computeIfAbsent(docId, d -> new Posting()).titleTf++;
+        }
+        for (String term : authorTerms) {
+            mutablePostings(term).computeIfAbsent(docId, d -> new Posting()).authorTf++;
+        }
+
+        titleGrams.add(docId, entry.title);
+        authorGrams.add(docId, entry.author);
+        if (entry.isbn != null) {
+            isbnIndex.computeIfAbsent(entry.isbn, k -> new BitSet()).set(docId);
+        }
+        if (entry.authorEntity != null) {
+            authorIndex.computeIfAbsent(entry.authorEntity, a -> new BitSet()).set(docId);
+        }
+
+        entry.titleLength = titleTerms.size();
+        entry.authorLength = authorTerms.size();
+        totalTitleLength += titleTerms.size();
+        totalAuthorLength += authorTerms.size();
+        liveDocs++;
+    }
+
+    /**
+     * Removes a book from the index.
+     *
+     * @param book the book to remove
+     * @return {@code true} if the book was indexed; {@code false} otherwise
+     */
+    public boolean remove(Book book) {
+        Integer docId = book == null ? null : docIds.remove(book);
+        if (docId == null) return false;
+
+        DocEntry entry = docs.get(docId);
+        Set<String> terms = new LinkedHashSet<>(tokenize(entry.title));
+        terms.addAll(tokenize(entry.author));
+        for (String term : terms) {
+            if (mappedTerms.containsKey(term)) mutablePostings(term);
+            Map<Integer, Posting> list = postings.get(term);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) postings.remove(term);
+            }
+        }
+
+        titleGrams.remove(docId, entry.title);
+        authorGrams.remove(docId, entry.author);
+        if (entry.isbn != null) {
+            BitSet sameIsbn = isbnIndex.get(entry.isbn);
+            sameIsbn.clear(docId);
+            if (sameIsbn.isEmpty()) isbnIndex.remove(entry.isbn);
+        }
+        if (entry.authorEntity != null) {
+            BitSet works = authorIndex.get(entry.authorEntity);
+            works.clear(docId);
+            if (works.isEmpty()) authorIndex.remove(entry.authorEntity);
+        }
+
+        totalTitleLength -= entry.titleLength;
+        totalAuthorLength -= entry.authorLength;
+        docs.set(docId, null);
+        liveDocs--;
+        return true;
+    }
+
+    /**
+     * Returns the number of books currently indexed.
+     *
+     * @return indexed book count
+     */
+    public int size() {
+        return liveDocs;
+    }
+
+    /**
+     * Returns every indexed book by an author, in indexing order.
+     *
+     * @param author the interned author (may be {@code null})
+     * @return the author's books (never null)
+     */
+    public List<Book> findByAuthor(Author author) {
+        BitSet works = author == null ? null : authorIndex.get(author);
+        if (works == null) return List.of();
+        List<Book> result = new ArrayList<>(works.cardinality());
+        for (int docId = works.nextSetBit(0); docId >= 0; docId = works.nextSetBit(docId + 1)) {
+            result.add(docs.get(docId).book);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct authors among the indexed books.
+     *
+     * @return author count
+     */
+    public int authorCount() {
+        return authorIndex.size();
+    }
+
+    /**
+     * Returns the books most relevant to the query, best match first.
+     *
+     * <p>Only books sharing at least one term with the query are returned. Ties are broken by
+     * indexing order.</p>
+     *
+     * @param query free-text query (normalized and tokenized like the indexed fields)
+     * @param limit maximum number of books to return
+     * @return up to {@code limit} books in descending score order (never null)
+     */
+    public List<Book> searchRanked(String query, int limit) {
+        if (query == null || limit <= 0 || liveDocs == 0) return List.of();
+
+        Map<Integer, Double> scores = new HashMap<>();
+        double avgTitle = Math.max(1.0, (double) totalTitleLength / liveDocs);
+        double avgAuthor = Math.max(1.0, (double) totalAuthorLength / liveDocs);
+
+        for (String term : new LinkedHashSet<>(tokenize(TextNormalizer.normalize(query)))) {
+            int df = documentFrequency(term);
+            if (df == 0) continue;
+
+            double idf = Math.log(1.0 + (liveDocs - df + 0.5) / (df + 0.5));
+            forEachPosting(term, (docId, titleTf, authorTf) -> {
+                DocEntry entry = docs.get(docId);
+                double tf = TITLE_BOOST * titleTf / (1 - B + B * entry.titleLength / avgTitle)
+                        + AUTHOR_BOOST * authorTf / (1 - B + B * entry.authorLength / avgAuthor);
+                scores.merge(docId, idf * tf / (K1 + tf), Double::sum);
+            });
+        }
+
+        PriorityQueue<ScoredDoc> heap = new PriorityQueue<>(
+                Math.min(limit, Math.max(1, scores.size())), BookSearchIndex::compareWorstFirst);
+        for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+            ScoredDoc candidate = new ScoredDoc(e.getKey(), e.getValue());
+            if (heap.size() < limit) {
+                heap.add(candidate);
+            } else if (compareWorstFirst(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        Book[] ranked = new Book[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = docs.get(heap.poll().docId).book;
+        }
+        return List.of(ranked);
+    }
+
+    /**
+     * Number of documents containing the term.
+     */
+    private int documentFrequency(String term) {
+        Map<Integer, Posting> list = postings.get(term);
+        if (list != null) return list.size();
+        Integer offset = mappedTerms.get(term);
+        return offset == null ? 0 : mapped.getInt(offset);
+    }
+
+    /**
+     * Visits a term's postings, from the heap or straight from the mapping.
+     */
+    private void forEachPosting(String term, PostingVisitor visitor) {
+        Map<Integer, Posting> list = postings.get(term);
+        if (list != null) {
+            list.forEach((docId, p) -> visitor.visit(docId, p.titleTf, p.authorTf));
+            return;
+        }
+        Integer offset = mappedTerms.get(term);
+        if (offset == null) return;
+        int size = mapped.getInt(offset);
+        for (int i = 0, at = offset + Integer.BYTES; i < size; i++, at += 3 * Integer.BYTES) {
+            visitor.visit(mapped.getInt(at), mapped.getInt(at + Integer.BYTES), mapped.getInt(at + 2 * Integer.BYTES));
+        }
+    }
+
+    /**
+     * Returns the heap postings of a term, copying them out of the mapping on first change.
+     */
+    private Map<Integer, Posting> mutablePostings(String term) {
+        Map<Integer, Posting> list = postings.get(term);
+        if (list != null) return list;
+        Integer offset = mappedTerms.remove(term);
+        Map<Integer, Posting> copy = new HashMap<>(offset == null ? 4 : Math.max(4, mapped.getInt(offset) * 4 / 3 + 1));
+        if (offset != null) {
+            int size = mapped.getInt(offset);
+            for (int i = 0, at = offset + Integer.BYTES; i < size; i++, at += 3 * Integer.BYTES) {
+                Posting posting = new Posting();
+                posting.titleTf = mapped.getInt(at + Integer.BYTES);
+                posting.authorTf = mapped.getInt(at + 2 * Integer.BYTES);
+                copy.put(mapped.getInt(at), posting);
+            }
+        }
+        postings.put(term, copy);
+        return copy;
+    }
+
+    /**
+     * Returns the books matching every criterion of the query, in indexing order.
+     *
+     * @param query the structured query
+     * @param limit maximum number of books to return
+     * @return up to {@code limit} matching books (never null)
+     */
+    public List<Book> search(BookQuery query, int limit) {
+        return new BookQueryPlanner(this).execute(query, limit);
+    }
+
+    // ========================
+    // Access paths used by BookQueryPlanner
+    // ========================
+
+    NgramIndex titleGrams() { return titleGrams; }
+
+    NgramIndex authorGrams() { return authorGrams; }
+
+    /**
+     * Counts documents whose ISBN starts with the prefix, giving up once {@code cutoff} is exceeded.
+     */
+    int estimateIsbnPrefix(String prefix, int cutoff) {
+        int count = 0;
+        for (BitSet docIdsForIsbn : isbnRange(prefix).values()) {
+            count += docIdsForIsbn.cardinality();
+            if (count > cutoff) break;
+        }
+        return count;
+    }
+
+    BitSet isbnPrefixCandidates(String prefix) {
+        BitSet result = new BitSet();
+        for (BitSet docIdsForIsbn : isbnRange(prefix).values()) {
+            result.or(docIdsForIsbn);
+        }
+        return result;
+    }
+
+    private NavigableMap<String, BitSet> isbnRange(String prefix) {
+        return isbnIndex.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /** Snapshot of the indexed books in indexing order. */
+    List<Book> liveBooks() {
+        List<Book> books = new ArrayList<>(liveDocs);
+        for (DocEntry entry : docs) {
+            if (entry != null) books.add(entry.book);
+        }
+        return books;
+    }
+
+    /** The book stored under the id, or {@code null} if it was removed. */
+    Book bookAt(int docId) {
+        DocEntry entry = docs.get(docId);
+        return entry == null ? null : entry.book;
+    }
+
+    // ========================
+    // Persistence used by BookIndexFile
+    // ========================
+
+    /**
+     * Writes document lengths, term postings and trigram postings with documents renumbered
+     * by {@code numbering} (dense ids 0..n-1; indexed books missing from it are dropped).
+     */
+    void writeTo(DataOutputStream out, Map<Book, Integer> numbering, int documentCount) throws IOException {
+        int[] remap = new int[docs.size()];
+        Arrays.fill(remap, -1);
+        int[] titleLengths = new int[documentCount];
+        int[] authorLengths = new int[documentCount];
+        for (int docId = 0; docId < docs.size(); docId++) {
+            DocEntry entry = docs.get(docId);
+            Integer number = entry == null ? null : numbering.get(entry.book);
+            if (number == null) continue;
+            remap[docId] = number;
+            titleLengths[number] = entry.titleLength;
+            authorLengths[number] = entry.authorLength;
+        }
+
+        out.writeInt(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            out.writeInt(titleLengths[i]);
+            out.writeInt(authorLengths[i]);
+        }
+
+        List<String> terms = new ArrayList<>(postings.keySet());
+        terms.addAll(mappedTerms.keySet());
+        out.writeInt(terms.size());
+        int[] live = new int[1];
+        IOException[] failure = new IOException[1];
+        for (String term : terms) {
+            byte[] text = term.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(text.length);
+            out.write(text);
+            live[0] = 0;
+            forEachPosting(term, (docId, titleTf, authorTf) -> {
+                if (remap[docId] >= 0) live[0]++;
+            });
+            out.writeInt(live[0]);
+            forEachPosting(term, (docId, titleTf, authorTf) -> {
+                if (remap[docId] < 0 || failure[0] != null) return;
+                try {
+                    out.writeInt(remap[docId]);
+                    out.writeInt(titleTf);
+                    out.writeInt(authorTf);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+        }
+
+        titleGrams.writeTo(out, remap);
+        authorGrams.writeTo(out, remap);
+    }
+
+    /**
+     * Restores an index written by {@link #writeTo(DataOutputStream, Map, int)}; document
+     * {@code i} is {@code books.get(i)}. Normalized fields are taken from the books as stored,
+     * so no text is normalized or tokenized. Term postings and trigram bitmaps stay in
+     * {@code in}, which must remain valid (and unmodified) for the life of the index; they are
+     * checked against the catalog here so that a corrupt file fails now rather than in a query.
+     *
+     * @throws IllegalStateException if the data does not describe {@code books}
+     */
+    static BookSearchIndex readFrom(ByteBuffer in, List<Book> books) {
+        BookSearchIndex index = new BookSearchIndex();
+        int documentCount = in.getInt();
+        if (documentCount != books.size()) {
+            throw new IllegalStateException("Index describes " + documentCount + " books, catalog has " + books.size());
+        }
+        for (int docId = 0; docId < documentCount; docId++) {
+            Book book = books.get(docId);
+            int titleLength = in.getInt();
+            int authorLength = in.getInt();
+            if (book == null || index.docIds.containsKey(book)) {
+                index.docs.add(null);
+                continue;
+            }
+            DocEntry entry = new DocEntry(book);
+            entry.titleLength = titleLength;
+            entry.authorLength = authorLength;
+            index.docs.add(entry);
+            index.docIds.put(book, docId);
+            if (entry.isbn != null) index.isbnIndex.computeIfAbsent(entry.isbn, k -> new BitSet()).set(docId);
+            if (entry.authorEntity != null) {
+                index.authorIndex.computeIfAbsent(entry.authorEntity, a -> new BitSet()).set(docId);
+            }
+            index.totalTitleLength += titleLength;
+            index.totalAuthorLength += authorLength;
+            index.liveDocs++;
+        }
+
+        int termCount = in.getInt();
+        if (termCount < 0) throw new IllegalStateException("Negative term count: " + termCount);
+        index.mapped = in;
+        for (int t = 0; t < termCount; t++) {
+            int length = in.getInt();
+            if (length < 0 || length > in.remaining()) throw new IllegalStateException("Bad term length: " + length);
+            byte[] text = new byte[length];
+            in.get(text);
+            int offset = in.position();
+            int size = in.getInt();
+            if (size < 0 || (long) size * 3 * Integer.BYTES > in.remaining()) {
+                throw new IllegalStateException("Bad posting count: " + size);
+            }
+            for (int i = 0, at = in.position(); i < size; i++, at += 3 * Integer.BYTES) {
+                int docId = in.getInt(at);
+                if (docId < 0 || docId >= documentCount || index.docs.get(docId) == null) {
+                    throw new IllegalStateException("Posting refers to unknown document " + docId);
+                }
+            }
+            in.position(in.position() + size * 3 * Integer.BYTES);
+            index.mappedTerms.put(new String(text, StandardCharsets.UTF_8), offset);
+        }
+
+        index.titleGrams.readFrom(in, documentCount);
+        index.authorGrams.readFrom(in, documentCount);
+        return index;
+    }
+
+    /**
+     * Orders lower scores (and, on ties, later documents) first.
+     */
+    private static int compareWorstFirst(ScoredDoc a, ScoredDoc b) {
+        int byScore = Double.compare(a.score, b.score);
+        return byScore != 0 ? byScore : Integer.compare(b.docId, a.docId);
+    }
+
+    /**
+     * Splits normalized text into letter/digit terms.
+     *
+     * @param normalized text already in {@link TextNormalizer} form (may be {@code null})
+     * @return the terms in order of appearance (never null)
+     */
+    static List<String> tokenize(String normalized) {
+        List<String> terms = new ArrayList<>();
+        if (normalized == null) return terms;
+
+        int start = -1;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) terms.add(normalized.substring(start));
+        return terms;
+    }
+}
@@ -16,4 +16,32 @@ public interface BookSearchStrategy {
      */
     List<Book> searchBook(List<Book> books, String keyword);
 
+    /**
+     * Returns the key under which results for this keyword may be cached.
+     *
+     * <p>Two keywords with the same key must produce the same results on the same catalog.
+     * The default returns {@code null}, meaning results of this strategy are never cached.</p>
+     *
+     * @param keyword search value
+     * @return cache key, or {@code null} if results must not be cached
+     */
+    default String cacheKey(String keyword) {
+        return null;
+    }
+
+    /**
+     * Searches a {@link ColumnarBookCatalog} snapshot using this strategy's criterion.
+     *
+     * <p>The default materializes the snapshot's books and delegates to
+     * {@link #searchBook(List, String)}; strategies whose criterion maps onto a packed column
+     * override it to scan the column directly.</p>
+     *
+     * @param catalog the columnar snapshot to search (may be {@code null})
+     * @param keyword search value
+     * @return list of matching books (possibly empty)
+     */
+    default List<Book> searchColumnar(ColumnarBookCatalog catalog, String keyword) {
+        return catalog == null ? List.of() : searchBook(catalog.getBooks(), keyword);
+    }
+
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package applicationsearchbooks;
 
 import domain.Book;
+import domain.TextNormalizer;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Search strategy that matches books by title.
+ *
+ * <p>Matching is done on {@link TextNormalizer} forms, so case, accents and
+ * Arabic diacritics/letter variants do not affect results.</p>
  */
 public class BookTitleSearchStrategy implements BookSearchStrategy {
 
@@ -19,13 +23,37 @@ public class BookTitleSearchStrategy implements BookSearchStrategy {
      *
      * @param books   the list of books to search
      * @param keyword the title keyword to match
-     * @return a list of books whose title contains the keyword
+     * @return a list of books whose normalized title contains the normalized keyword
      */
     @Override
     public List<Book> searchBook(List<Book> books, String keyword) {
         if (books == null || keyword == null) return List.of();
+        String normalized = TextNormalizer.normalize(keyword);
         return books.stream()
-            .filter(b -> b.getTitle() != null && b.getTitle().toLowerCase().contains(keyword.toLowerCase()))
+            .filter(b -> b.getNormalizedTitle() != null && b.getNormalizedTitle().contains(normalized))
             .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Titles are matched on normalized text, so the normalized keyword identifies the result.
+     *
+     * @param keyword search value
+     * @return the normalized keyword, or {@code null} if the keyword is {@code null}
+     */
+    @Override
+    public String cacheKey(String keyword) {
+        return keyword == null ? null : TextNormalizer.normalize(keyword);
+    }
+
+    /**
+     * Scans the packed normalized-title column instead of the book objects.
+     *
+     * @param catalog the columnar snapshot to search
+     * @param keyword the title keyword to match
+     * @return matching books in catalog order (possibly empty)
+     */
+    @Override
+    public List<Book> searchColumnar(ColumnarBookCatalog catalog, String keyword) {
+        return catalog == null ? List.of() : catalog.titleContains(keyword);
+    }
+}
@@ -0,0 +1,82 @@
+package applicationsearchbooks;
+
+/**
+ * Position in a sorted catalog listing, used for keyset pagination.
+ *
+ * <p>A cursor is the sort key of the last book of a page; the next page starts strictly after
+ * it, so pages stay consistent when books are added or removed in between. Books with equal sort
+ * text are ordered by ISBN, which does not depend on when the index was built, so a cursor stays
+ * valid across index rebuilds. Cursors are only created by {@link SortedBookIndex}.</p>
+ */
+public final class BrowseCursor implements Comparable<BrowseCursor> {
+
+    private final BrowseOrder order;
+    private final String primary;
+    private final String secondary;
+    private final String isbn;
+    private final long sequence;
+
+    BrowseCursor(BrowseOrder order, String primary, String secondary, String isbn, long sequence) {
+        this.order = order;
+        this.primary = primary;
+        this.secondary = secondary;
+        this.isbn = isbn;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the listing order this cursor belongs to.
+     * @return browse order
+     */
+    public BrowseOrder getOrder() { return order; }
+
+    /**
+     * Compares by primary text, secondary text, ISBN, then insertion sequence. The sequence only
+     * separates books that share all three.
+     *
+     * @param other cursor of the same order
+     * @return comparison result
+     */
+    @Override
+    public int compareTo(BrowseCursor other) {
+        int c = primary.compareTo(other.primary);
+        if (c != 0) return c;
+        c = secondary.compareTo(other.secondary);
+        if (c != 0) return c;
+        c = isbn.compareTo(other.isbn);
+        return c != 0 ? c : Long.compare(sequence, other.sequence);
+    }
+
+    /**
+     * Whether both cursors have the same texts and ISBN, differing at most in insertion sequence.
+     */
+    boolean sameKey(BrowseCursor other) {
+        return primary.equals(other.primary) && secondary.equals(other.secondary) && isbn.equals(other.isbn);
+    }
+
+    /**
+     * The position after every book with this cursor's texts and ISBN, whatever its sequence.
+     */
+    BrowseCursor afterKey() {
+        return new BrowseCursor(order, primary, secondary, isbn, Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BrowseCursor)) return false;
+        BrowseCursor other = (BrowseCursor) o;
+        return order == other.order && sequence == other.sequence
+                && primary.equals(other.primary) && secondary.equals(other.secondary)
+                && isbn.equals(other.isbn);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(sequence) * 31 + primary.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BrowseCursor{" + order + ", '" + primary + "', " + isbn + ", #" + sequence + '}';
+    }
+}
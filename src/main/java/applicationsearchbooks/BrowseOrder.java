@@ -0,0 +1,17 @@
+package applicationsearchbooks;
+
+/**
+ * Sort orders available for browsing the catalog.
+ */
+public enum BrowseOrder {
+
+    /**
+     * By normalized title.
+     */
+    TITLE,
+
+    /**
+     * By normalized author, then normalized title.
+     */
+    AUTHOR
+}
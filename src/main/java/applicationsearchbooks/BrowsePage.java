@@ -0,0 +1,43 @@
+package applicationsearchbooks;
+
+import java.util.List;
+
+import domain.Book;
+
+/**
+ * One page of an ordered catalog listing.
+ */
+public final class BrowsePage {
+
+    private final List<Book> books;
+    private final BrowseCursor nextCursor;
+
+    /**
+     * Creates a page.
+     *
+     * @param books the books of this page (copied)
+     * @param nextCursor where the next page starts, or {@code null} if this is the last page
+     */
+    public BrowsePage(List<Book> books, BrowseCursor nextCursor) {
+        this.books = List.copyOf(books);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Returns the books of this page in listing order.
+     * @return unmodifiable list of books
+     */
+    public List<Book> getBooks() { return books; }
+
+    /**
+     * Returns the cursor to pass for the next page.
+     * @return next cursor, or {@code null} if there are no more books
+     */
+    public BrowseCursor getNextCursor() { return nextCursor; }
+
+    /**
+     * Indicates whether more books follow this page.
+     * @return true if {@link #getNextCursor()} is not {@code null}
+     */
+    public boolean hasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,245 @@
+package applicationsearchbooks;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import domain.Book;
+import domain.TextNormalizer;
+
+/**
+ * Immutable column-oriented snapshot of a book catalog for fast substring scans.
+ *
+ * <p>The normalized titles, normalized authors and lower-cased ISBNs of all books are encoded as
+ * UTF-8 and packed back to back into one byte array per column, with an offset table marking
+ * where each row starts. A {@code contains} search is then a single pass over one contiguous
+ * array: candidate positions of the needle's rarest byte (by a per-column byte histogram) are
+ * located eight bytes at a time (SWAR, "SIMD within a register"), and only those positions are
+ * compared in full. No {@link Book} object is dereferenced and no string is lower-cased during
+ * the scan.</p>
+ *
+ * <p>Because UTF-8 is self-synchronizing, a byte-level match of a UTF-8 needle corresponds
+ * exactly to a character-level match, so results equal those of the object-based strategies.</p>
+ */
+public final class ColumnarBookCatalog {
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    private final Book[] books;
+    private final Column titles;
+    private final Column authors;
+    private final Column isbns;
+
+    private ColumnarBookCatalog(Book[] books, Column titles, Column authors, Column isbns) {
+        this.books = books;
+        this.titles = titles;
+        this.authors = authors;
+        this.isbns = isbns;
+    }
+
+    /**
+     * Packs a snapshot of the given books into columns.
+     *
+     * @param books the books to pack (null entries are skipped; may be {@code null})
+     * @return the columnar catalog
+     */
+    public static ColumnarBookCatalog of(List<Book> books) {
+        List<Book> rows = new ArrayList<>();
+        if (books != null) {
+            for (Book book : books) {
+                if (book != null) rows.add(book);
+            }
+        }
+        String[] titleValues = new String[rows.size()];
+        String[] authorValues = new String[rows.size()];
+        String[] isbnValues = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Book book = rows.get(i);
+            titleValues[i] = book.getNormalizedTitle();
+            authorValues[i] = book.getNormalizedAuthor();
+            isbnValues[i] = book.getIsbn() == null ? null : book.getIsbn().toLowerCase(Locale.ROOT);
+        }
+        return new ColumnarBookCatalog(rows.toArray(new Book[0]),
+                Column.pack(titleValues), Column.pack(authorValues), Column.pack(isbnValues));
+    }
+
+    /**
+     * Returns the packed books in row order.
+     *
+     * @return unmodifiable list of books
+     */
+    public List<Book> getBooks() {
+        return List.of(books);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return book count
+     */
+    public int size() {
+        return books.length;
+    }
+
+    /**
+     * Finds books whose normalized title contains the normalized keyword.
+     *
+     * @param keyword the title keyword (normalized with {@link TextNormalizer})
+     * @return matching books in row order (never null)
+     */
+    public List<Book> titleContains(String keyword) {
+        return keyword == null ? List.of() : titles.contains(books, TextNormalizer.normalize(keyword));
+    }
+
+    /**
+     * Finds books whose normalized author contains the normalized keyword.
+     *
+     * @param keyword the author keyword (normalized with {@link TextNormalizer})
+     * @return matching books in row order (never null)
+     */
+    public List<Book> authorContains(String keyword) {
+        return keyword == null ? List.of() : authors.contains(books, TextNormalizer.normalize(keyword));
+    }
+
+    /**
+     * Finds books whose ISBN equals the keyword, ignoring case.
+     *
+     * @param keyword the ISBN to match
+     * @return matching books in row order (never null)
+     */
+    public List<Book> isbnEquals(String keyword) {
+        return keyword == null ? List.of() : isbns.equalTo(books, keyword.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * One packed text column: all values back to back plus row offsets.
+     */
+    private static final class Column {
+        private final byte[] data;
+        /** Row {@code i} occupies {@code data[offsets[i], offsets[i + 1])}. */
+        private final int[] offsets;
+        private final BitSet missing;
+        /** Occurrences of each byte value in {@link #data}, used to pick the scan pivot. */
+        private final int[] byteCounts = new int[256];
+
+        private Column(byte[] data, int[] offsets, BitSet missing) {
+            this.data = data;
+            this.offsets = offsets;
+            this.missing = missing;
+            for (byte b : data) {
+                byteCounts[b & 0xFF]++;
+            }
+        }
+
+        private static Column pack(String[] values) {
+            byte[][] encoded = new byte[values.length][];
+            BitSet missing = new BitSet(values.length);
+            int total = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    missing.set(i);
+                    encoded[i] = new byte[0];
+                } else {
+                    encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+                }
+                total += encoded[i].length;
+            }
+
+            byte[] data = new byte[total];
+            int[] offsets = new int[values.length + 1];
+            int position = 0;
+            for (int i = 0; i < values.length; i++) {
+                offsets[i] = position;
+                System.arraycopy(encoded[i], 0, data, position, encoded[i].length);
+                position += encoded[i].length;
+            }
+            offsets[values.length] = position;
+            return new Column(data, offsets, missing);
+        }
+
+        private List<Book> contains(Book[] books, String keyword) {
+            List<Book> result = new ArrayList<>();
+            byte[] needle = keyword.getBytes(StandardCharsets.UTF_8);
+            if (needle.length == 0) {
+                for (int row = 0; row < books.length; row++) {
+                    if (!missing.get(row)) result.add(books[row]);
+                }
+                return result;
+            }
+
+            int pivot = rarestByte(needle);
+            byte pivotByte = needle[pivot];
+            int row = 0;
+            int lastPivot = data.length - needle.length + pivot;
+            int i = pivot;
+            while (i <= lastPivot) {
+                i = indexOf(data, pivotByte, i, lastPivot + 1);
+                if (i < 0) break;
+                int start = i - pivot;
+                while (offsets[row + 1] <= start) row++;
+                int rowEnd = offsets[row + 1];
+                if (start + needle.length <= rowEnd && regionMatches(data, start, needle)) {
+                    result.add(books[row]);
+                    i = rowEnd + pivot;
+                } else {
+                    i++;
+                }
+            }
+            return result;
+        }
+
+        /** Position in the needle of the byte that occurs least often in this column. */
+        private int rarestByte(byte[] needle) {
+            int best = 0;
+            for (int k = 1; k < needle.length; k++) {
+                if (byteCounts[needle[k] & 0xFF] < byteCounts[needle[best] & 0xFF]) best = k;
+            }
+            return best;
+        }
+
+        private List<Book> equalTo(Book[] books, String keyword) {
+            List<Book> result = new ArrayList<>();
+            byte[] needle = keyword.getBytes(StandardCharsets.UTF_8);
+            for (int row = 0; row < books.length; row++) {
+                int start = offsets[row];
+                if (!missing.get(row) && offsets[row + 1] - start == needle.length
+                        && Arrays.equals(data, start, start + needle.length, needle, 0, needle.length)) {
+                    result.add(books[row]);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the first index in {@code [from, to)} holding {@code b}, or -1, testing eight bytes per step.
+     */
+    static int indexOf(byte[] data, byte b, int from, int to) {
+        long pattern = (b & 0xFFL) * ONES;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = (long) LONGS.get(data, i) ^ pattern;
+            long zeroBytes = (word - ONES) & ~word & HIGHS;
+            if (zeroBytes != 0) {
+                return i + (Long.numberOfTrailingZeros(zeroBytes) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (data[i] == b) return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] data, int start, byte[] needle) {
+        return Arrays.equals(data, start, start + needle.length, needle, 0, needle.length);
+    }
+}
@@ -0,0 +1,542 @@
+package applicationsearchbooks;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Compressed set of non-negative ints in the style of Roaring bitmaps.
+ *
+ * <p>The value space is split into chunks of 65536 by the high 16 bits of each value. Every
+ * non-empty chunk is held in a container chosen by its density: a sorted {@code char[]} while it
+ * has at most {@value #ARRAY_MAX} values, a 1024-word bitmap otherwise. Containers convert
+ * automatically as values are added and removed, so sparse sets stay small and dense sets are
+ * answered with word-wide operations. Intersections and differences work container by container
+ * and never materialize the values.</p>
+ *
+ * <p>Iteration follows {@link BitSet}: {@code for (int i = b.nextSetBit(0); i >= 0; i = b.nextSetBit(i + 1))}.
+ * Not thread-safe; callers are expected to guard access.</p>
+ */
+public final class CompressedBitmap {
+
+    /** Largest cardinality stored as a sorted array; above it a chunk becomes a bitmap. */
+    static final int ARRAY_MAX = 4096;
+
+    private int[] keys = new int[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Creates an empty bitmap.
+     */
+    public CompressedBitmap() { }
+
+    /**
+     * Creates a bitmap holding the set bits of a {@link BitSet}.
+     *
+     * @param bits the bits to copy
+     * @return a new bitmap with the same members
+     */
+    public static CompressedBitmap of(BitSet bits) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value to add (must not be negative)
+     */
+    public void add(int value) {
+        if (value < 0) throw new IllegalArgumentException("value must not be negative");
+        int key = value >>> 16;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) value);
+        } else {
+            insert(-index - 1, key, new ArrayContainer().add((char) value));
+        }
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value the value to remove
+     */
+    public void remove(int value) {
+        if (value < 0) return;
+        int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        if (index < 0) return;
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            delete(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    /**
+     * Adds or removes a value.
+     *
+     * @param value the value to update
+     * @param present {@code true} to add it, {@code false} to remove it
+     */
+    public void set(int value, boolean present) {
+        if (present) add(value); else remove(value);
+    }
+
+    /**
+     * Tests whether a value is present.
+     *
+     * @param value the value to test
+     * @return {@code true} if present
+     */
+    public boolean contains(int value) {
+        if (value < 0) return false;
+        int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return cardinality
+     */
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * Indicates whether the bitmap has no values.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes every value. */
+    public void clear() {
+        keys = new int[4];
+        containers = new Container[4];
+        size = 0;
+    }
+
+    /**
+     * Returns the smallest value greater than or equal to {@code from}.
+     *
+     * @param from the value to start at
+     * @return the next value, or -1 if there is none
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) from = 0;
+        int key = from >>> 16;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            int low = containers[index].next(from & 0xFFFF);
+            if (low >= 0) return (key << 16) | low;
+            index++;
+        } else {
+            index = -index - 1;
+        }
+        return index < size ? (keys[index] << 16) | containers[index].next(0) : -1;
+    }
+
+    /**
+     * Returns the values present in both bitmaps.
+     *
+     * @param other the bitmap to intersect with
+     * @return a new bitmap
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality() > 0) result.insert(result.size, keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of this bitmap that are not in {@code other}.
+     *
+     * @param other the bitmap to subtract
+     * @return a new bitmap
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            Container c = j < other.size && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j])
+                    : containers[i].copy();
+            if (c.cardinality() > 0) result.insert(result.size, keys[i], c);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the values present in both bitmaps without building the intersection.
+     *
+     * @param other the bitmap to intersect with
+     * @return size of the intersection
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Copies the values into a {@link BitSet}.
+     *
+     * @return a new bit set with the same members
+     */
+    public BitSet toBitSet() {
+        BitSet bits = new BitSet();
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            bits.set(i);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the number of bytes held by the containers, for diagnostics.
+     *
+     * @return approximate payload size in bytes
+     */
+    public long sizeInBytes() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].sizeInBytes();
+        }
+        return total;
+    }
+
+    private void insert(int index, int key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void delete(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /**
+     * Values of one 65536-wide chunk, keyed by their low 16 bits.
+     */
+    private abstract static class Container {
+        /** Adds a value, returning the container now holding the chunk. */
+        abstract Container add(char low);
+        /** Removes a value, returning the container now holding the chunk. */
+        abstract Container remove(char low);
+        abstract boolean contains(char low);
+        abstract int cardinality();
+        /** Smallest value {@code >= from}, or -1. */
+        abstract int next(int from);
+        abstract Container and(Container other);
+        abstract Container andNot(Container other);
+        abstract int andCardinality(Container other);
+        abstract Container copy();
+        abstract long sizeInBytes();
+    }
+
+    /**
+     * Sparse chunk: sorted array of low bits.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        private ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) return this;
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+                if (values.length >= 64 && cardinality < values.length / 4) {
+                    values = Arrays.copyOf(values, cardinality * 2);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int next(int from) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (index < 0) index = -index - 1;
+            return index < cardinality ? values[index] : -1;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer a = (ArrayContainer) other;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < a.cardinality) {
+                    if (values[i] < a.values[j]) {
+                        i++;
+                    } else if (values[i] > a.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) result[count++] = values[i];
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) count++;
+            }
+            return count;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return (long) values.length * Character.BYTES;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Dense chunk: one bit per possible low value.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            long before = words[low >>> 6];
+            long after = before | (1L << low);
+            words[low >>> 6] = after;
+            if (before != after) cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long before = words[low >>> 6];
+            long after = before & ~(1L << low);
+            words[low >>> 6] = after;
+            if (before != after) cardinality--;
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int next(int from) {
+            int w = from >>> 6;
+            long word = words[w] & (-1L << from);
+            while (true) {
+                if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+                if (++w == words.length) return -1;
+                word = words[w];
+            }
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            long[] theirs = ((BitmapContainer) other).words;
+            long[] result = new long[words.length];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                result[i] = words[i] & theirs[i];
+                count += Long.bitCount(result[i]);
+            }
+            return normalize(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = words.clone();
+            int count = cardinality;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer a = (ArrayContainer) other;
+                for (int i = 0; i < a.cardinality; i++) {
+                    char low = a.values[i];
+                    if ((result[low >>> 6] & (1L << low)) != 0) {
+                        result[low >>> 6] &= ~(1L << low);
+                        count--;
+                    }
+                }
+            } else {
+                long[] theirs = ((BitmapContainer) other).words;
+                count = 0;
+                for (int i = 0; i < result.length; i++) {
+                    result[i] &= ~theirs[i];
+                    count += Long.bitCount(result[i]);
+                }
+            }
+            return normalize(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) return other.andCardinality(this);
+            long[] theirs = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                count += Long.bitCount(words[i] & theirs[i]);
+            }
+            return count;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return (long) words.length * Long.BYTES;
+        }
+
+        private static Container normalize(long[] words, int cardinality) {
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(1, cardinality)];
+            int count = 0;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[count++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
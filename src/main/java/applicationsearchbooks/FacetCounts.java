@@ -0,0 +1,98 @@
+package applicationsearchbooks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable facet counts for the items matching one catalog query.
+ *
+ * <p>Creator and media-type facets map a display label to the number of matching items and are
+ * ordered by descending count (ties by label); the creator facet keeps only the top entries
+ * requested. Availability is reported as available and borrowed counts, which add up to
+ * {@link #getTotal()}.</p>
+ */
+public final class FacetCounts {
+
+    private final int total;
+    private final int borrowed;
+    private final Map<String, Integer> creators;
+    private final Map<String, Integer> mediaTypes;
+
+    /**
+     * Creates facet counts, ordering and truncating the label counts.
+     *
+     * @param total number of matching items
+     * @param borrowed number of matching items that are borrowed
+     * @param creators count per creator label
+     * @param mediaTypes count per media type label
+     * @param topCreators maximum number of creator entries to keep
+     */
+    public FacetCounts(int total, int borrowed, Map<String, Integer> creators,
+                       Map<String, Integer> mediaTypes, int topCreators) {
+        this.total = total;
+        this.borrowed = borrowed;
+        this.creators = top(creators, topCreators);
+        this.mediaTypes = top(mediaTypes, Integer.MAX_VALUE);
+    }
+
+    private static Map<String, Integer> top(Map<String, Integer> counts, int limit) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> e : entries) {
+            if (result.size() >= limit) break;
+            result.put(e.getKey(), e.getValue());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the number of matching items.
+     * @return total matches
+     */
+    public int getTotal() { return total; }
+
+    /**
+     * Returns the number of matching items that are not borrowed.
+     * @return available count
+     */
+    public int getAvailable() { return total - borrowed; }
+
+    /**
+     * Returns the number of matching items that are borrowed.
+     * @return borrowed count
+     */
+    public int getBorrowed() { return borrowed; }
+
+    /**
+     * Returns the most frequent creators (authors, artists) among the matches.
+     * @return unmodifiable label-to-count map, most frequent first
+     */
+    public Map<String, Integer> getCreators() { return creators; }
+
+    /**
+     * Returns the number of matches per media type (e.g. {@code Book}, {@code CD}).
+     * @return unmodifiable label-to-count map, most frequent first
+     */
+    public Map<String, Integer> getMediaTypes() { return mediaTypes; }
+
+    /**
+     * String representation of these counts.
+     * @return string with all facets
+     */
+    @Override
+    public String toString() {
+        return "FacetCounts{" +
+                "total=" + total +
+                ", available=" + getAvailable() +
+                ", borrowed=" + borrowed +
+                ", creators=" + creators +
+                ", mediaTypes=" + mediaTypes +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package applicationsearchbooks;
+
+import java.util.List;
+
+import domain.Media;
+
+/**
+ * A page of search results together with the facet counts of all matches.
+ *
+ * @param <T> the media type of the results
+ */
+public final class FacetedResult<T extends Media> {
+
+    private final List<T> results;
+    private final FacetCounts facets;
+
+    /**
+     * Creates a faceted result.
+     *
+     * @param results the returned items (copied)
+     * @param facets the counts over every matching item, not just the returned ones
+     */
+    public FacetedResult(List<T> results, FacetCounts facets) {
+        this.results = List.copyOf(results);
+        this.facets = facets;
+    }
+
+    /**
+     * Returns the items of this page.
+     * @return unmodifiable list of results
+     */
+    public List<T> getResults() { return results; }
+
+    /**
+     * Returns the facet counts over all matches.
+     * @return facet counts
+     */
+    public FacetCounts getFacets() { return facets; }
+
+    /**
+     * String representation of this result.
+     * @return string with the result count and facets
+     */
+    @Override
+    public String toString() {
+        return "FacetedResult{results=" + results.size() + ", facets=" + facets + '}';
+    }
+}
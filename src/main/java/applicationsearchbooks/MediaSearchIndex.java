@@ -0,0 +1,437 @@
+package applicationsearchbooks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import domain.Media;
+import domain.TextNormalizer;
+
+/**
+ * One index over every kind of {@link Media}: an id lookup table plus trigram indexes on the
+ * normalized title, the normalized creator (author, artist) and the lower-cased id.
+ *
+ * <p>Each indexed item gets a dense document id and is also recorded in a per-class bit set, so
+ * a search restricted to one media type intersects its candidates with that set instead of
+ * keeping separate indexes per type. Keyword searches use the "title, creator or id contains"
+ * semantics of the repositories' first-match searches.</p>
+ *
+ * <p>Borrowed status is kept in a {@link CompressedBitmap} over the same document ids and
+ * flipped through {@link #availabilityChanged(Media)}. Type membership is kept as compressed
+ * bitmaps too: one over every live item and one per class in each item's hierarchy below
+ * {@link Media}, all updated on every add and remove. Borrowed listings, availability-filtered
+ * searches, counts and unfiltered facets intersect these bitmaps directly, so none of them
+ * touches the whole catalog per request.</p>
+ *
+ * <p>Each creator also has a posting bitmap of its items, used to drill down into a creator facet.
+ * {@link #searchWithFacets} collects a page of results and the creator and media-type counts in
+ * a single pass over the matching ids; the availability split is one bitmap intersection.</p>
+ *
+ * <p>Field values are captured when an item is added; later edits are not seen until the item
+ * is removed and added again. Not thread-safe; callers are expected to guard access. Queries
+ * never modify the index, so they may share a read lock as long as adds, removes and
+ * availability changes are exclusive.</p>
+ */
+public class MediaSearchIndex {
+
+    /** Removed documents tolerated before ids are compacted. */
+    private static final int COMPACTION_THRESHOLD = 64;
+    /** Members of a type nothing has been indexed under; never modified. */
+    private static final CompressedBitmap NO_MEMBERS = new CompressedBitmap();
+
+    private final List<Entry> docs = new ArrayList<>();
+    private final Map<Media, Integer> docIds = new IdentityHashMap<>();
+    private final Map<String, List<Media>> byId = new HashMap<>();
+    private final Map<Class<?>, BitSet> byType = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final CompressedBitmap borrowed = new CompressedBitmap();
+    private final CompressedBitmap liveMembers = new CompressedBitmap();
+    /** Members of each media class (including subclasses), kept current on add/remove. */
+    private final Map<Class<?>, CompressedBitmap> typeMembers = new HashMap<>();
+    private final Map<String, CompressedBitmap> creatorPostings = new HashMap<>();
+    /** Display label of each normalized creator, taken from the first item added with it. */
+    private final Map<String, String> creatorLabels = new HashMap<>();
+    private final NgramIndex titleGrams = new NgramIndex();
+    private final NgramIndex creatorGrams = new NgramIndex();
+    private final NgramIndex idGrams = new NgramIndex();
+
+    /**
+     * Creates an empty index.
+     */
+    public MediaSearchIndex() { }
+
+    /**
+     * An indexed item together with the field values it was indexed with.
+     */
+    private static final class Entry {
+        private final Media media;
+        private final String title;
+        private final String creator;
+        private final String id;
+        private final String creatorLabel;
+        private final String typeLabel;
+
+        private Entry(Media media) {
+            this.media = media;
+            this.title = media.getNormalizedTitle();
+            this.creator = media.getNormalizedCreator();
+            this.creatorLabel = media.getCreator();
+            this.typeLabel = media.getClass().getSimpleName();
+            this.id = media.getId() == null ? null : media.getId().toLowerCase(Locale.ROOT);
+        }
+
+        private boolean matches(String normalized, String lower) {
+            return (title != null && title.contains(normalized))
+                    || (creator != null && creator.contains(normalized))
+                    || (id != null && id.contains(lower));
+        }
+    }
+
+    /**
+     * Adds an item to the index.
+     *
+     * @param media the item to add
+     * @return {@code true} if it was added, {@code false} if it is {@code null} or already indexed
+     */
+    public boolean add(Media media) {
+        if (media == null || docIds.containsKey(media)) return false;
+
+        int docId = docs.size();
+        Entry entry = new Entry(media);
+        docs.add(entry);
+        docIds.put(media, docId);
+        live.set(docId);
+        liveMembers.add(docId);
+        for (Class<?> type = media.getClass(); type != Media.class; type = type.getSuperclass()) {
+            typeMembers.computeIfAbsent(type, t -> new CompressedBitmap()).add(docId);
+        }
+        if (media.isBorrowed()) borrowed.add(docId);
+        byType.computeIfAbsent(media.getClass(), c -> new BitSet()).set(docId);
+        if (media.getId() != null) {
+            byId.computeIfAbsent(media.getId(), k -> new ArrayList<>(1)).add(media);
+        }
+        if (entry.creator != null) {
+            creatorPostings.computeIfAbsent(entry.creator, c -> new CompressedBitmap()).add(docId);
+            creatorLabels.putIfAbsent(entry.creator, entry.creatorLabel);
+        }
+        titleGrams.add(docId, entry.title);
+        creatorGrams.add(docId, entry.creator);
+        idGrams.add(docId, entry.id);
+        return true;
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @param media the item to remove
+     * @return {@code true} if it was indexed
+     */
+    public boolean remove(Media media) {
+        Integer docId = media == null ? null : docIds.remove(media);
+        if (docId == null) return false;
+
+        Entry entry = docs.set(docId, null);
+        live.clear(docId);
+        liveMembers.remove(docId);
+        for (Class<?> type = media.getClass(); type != Media.class; type = type.getSuperclass()) {
+            typeMembers.get(type).remove(docId);
+        }
+        borrowed.remove(docId);
+        byType.get(media.getClass()).clear(docId);
+        List<Media> sameId = entry.media.getId() == null ? null : byId.get(entry.media.getId());
+        if (sameId != null) {
+            sameId.removeIf(m -> m == media);
+            if (sameId.isEmpty()) byId.remove(entry.media.getId());
+        }
+        CompressedBitmap posting = entry.creator == null ? null : creatorPostings.get(entry.creator);
+        if (posting != null) {
+            posting.remove(docId);
+            if (posting.isEmpty()) {
+                creatorPostings.remove(entry.creator);
+                creatorLabels.remove(entry.creator);
+            }
+        }
+        titleGrams.remove(docId, entry.title);
+        creatorGrams.remove(docId, entry.creator);
+        idGrams.remove(docId, entry.id);
+
+        if (docs.size() - docIds.size() > COMPACTION_THRESHOLD && docIds.size() < docs.size() / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Removes every item of the given type (including subclasses).
+     *
+     * @param type the media type to drop
+     */
+    public void removeAll(Class<? extends Media> type) {
+        CompressedBitmap ids = typeMembers(type);
+        List<Media> doomed = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            doomed.add(docs.get(id).media);
+        }
+        doomed.forEach(this::remove);
+    }
+
+    /** Removes every item. */
+    public void clear() {
+        docs.clear();
+        docIds.clear();
+        byId.clear();
+        byType.clear();
+        live.clear();
+        liveMembers.clear();
+        typeMembers.clear();
+        borrowed.clear();
+        creatorPostings.clear();
+        creatorLabels.clear();
+        titleGrams.clear();
+        creatorGrams.clear();
+        idGrams.clear();
+    }
+
+    /**
+     * Returns every indexed item of the given type, in indexing order.
+     *
+     * @param type the media type to accept ({@code Media.class} for any)
+     * @param <T> the media type
+     * @return matching items (never null)
+     */
+    public <T extends Media> List<T> findAll(Class<T> type) {
+        CompressedBitmap ids = typeMembers(type);
+        List<T> result = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(type.cast(docs.get(id).media));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of indexed items.
+     *
+     * @return indexed item count
+     */
+    public int size() {
+        return docIds.size();
+    }
+
+    /**
+     * Finds the first indexed item of the given type with exactly this id.
+     *
+     * @param id the media id
+     * @param type the media type to accept ({@code Media.class} for any)
+     * @param <T> the media type
+     * @return the earliest added matching item, or {@code null}
+     */
+    public <T extends Media> T findById(String id, Class<T> type) {
+        List<Media> sameId = id == null ? null : byId.get(id);
+        if (sameId == null) return null;
+        for (Media media : sameId) {
+            if (type.isInstance(media)) return type.cast(media);
+        }
+        return null;
+    }
+
+    /**
+     * Finds items of the given type whose normalized title or creator contains the normalized
+     * keyword, or whose id contains the keyword ignoring case.
+     *
+     * @param keyword the search keyword ({@code null} or empty yields no results)
+     * @param type the media type to accept ({@code Media.class} for any)
+     * @param limit maximum number of items to return
+     * @param <T> the media type
+     * @return up to {@code limit} matching items in the order they were added (never null)
+     */
+    public <T extends Media> List<T> search(String keyword, Class<T> type, int limit) {
+        List<T> result = new ArrayList<>();
+        if (keyword == null || keyword.isEmpty() || limit <= 0) return result;
+
+        String normalized = TextNormalizer.normalize(keyword);
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        BitSet candidates = candidates(normalized, lower);
+        candidates.and(typeMask(type));
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            Entry entry = docs.get(id);
+            if (entry.matches(normalized, lower)) {
+                result.add(type.cast(entry.media));
+                if (result.size() >= limit) break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records a change of an indexed item's borrowed flag.
+     *
+     * @param media the item whose availability changed (ignored if not indexed)
+     */
+    public void availabilityChanged(Media media) {
+        Integer docId = media == null ? null : docIds.get(media);
+        if (docId != null) borrowed.set(docId, media.isBorrowed());
+    }
+
+    /**
+     * Returns every borrowed item of the given type.
+     *
+     * @param type the media type to accept ({@code Media.class} for any)
+     * @param <T> the media type
+     * @return borrowed items in the order they were added (never null)
+     */
+    public <T extends Media> List<T> findBorrowed(Class<T> type) {
+        return collect(type == Media.class ? borrowed : borrowed.and(typeMembers(type)), type, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Counts borrowed items of the given type.
+     *
+     * @param type the media type to count ({@code Media.class} for any)
+     * @return number of borrowed items
+     */
+    public int countBorrowed(Class<? extends Media> type) {
+        return type == Media.class ? borrowed.cardinality()
+                : borrowed.andCardinality(typeMembers(type));
+    }
+
+    /**
+     * Like {@link #search(String, Class, int)} but only returns items that are not borrowed.
+     *
+     * @param keyword the search keyword ({@code null} or empty yields no results)
+     * @param type the media type to accept ({@code Media.class} for any)
+     * @param limit maximum number of items to return
+     * @param <T> the media type
+     * @return up to {@code limit} available matches in the order they were added (never null)
+     */
+    public <T extends Media> List<T> searchAvailable(String keyword, Class<T> type, int limit) {
+        return collect(matches(keyword, type).andNot(borrowed), type, limit);
+    }
+
+    /**
+     * Counts the items of the given type that match the keyword and are not borrowed.
+     *
+     * @param keyword the search keyword ({@code null} or empty counts nothing)
+     * @param type the media type to count ({@code Media.class} for any)
+     * @return number of available matches
+     */
+    public int countAvailable(String keyword, Class<? extends Media> type) {
+        CompressedBitmap matches = matches(keyword, type);
+        return matches.cardinality() - matches.andCardinality(borrowed);
+    }
+
+    /**
+     * Searches like {@link #search(String, Class, int)} and also counts the matches per creator,
+     * media type and availability.
+     *
+     * @param keyword the search keyword ({@code null} or blank matches every item of the type)
+     * @param type the media type to accept ({@code Media.class} for any)
+     * @param creator creator facet to drill into ({@code null} for all creators)
+     * @param limit maximum number of items to return; the counts always cover every match
+     * @param topCreators maximum number of creator facet entries
+     * @param <T> the media type
+     * @return the first {@code limit} matches in the order they were added, with facet counts
+     */
+    public <T extends Media> FacetedResult<T> searchWithFacets(String keyword, Class<T> type, String creator,
+                                                               int limit, int topCreators) {
+        CompressedBitmap ids = keyword == null || keyword.isBlank()
+                ? typeMembers(type)
+                : matches(keyword, type);
+        if (creator != null) {
+            CompressedBitmap posting = creatorPostings.get(TextNormalizer.normalize(creator));
+            ids = posting == null ? new CompressedBitmap() : ids.and(posting);
+        }
+
+        List<T> results = new ArrayList<>();
+        Map<String, Integer> creators = new HashMap<>();
+        Map<String, Integer> types = new HashMap<>();
+        int total = 0;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            Entry entry = docs.get(id);
+            if (results.size() < limit) results.add(type.cast(entry.media));
+            if (entry.creator != null) creators.merge(creatorLabels.get(entry.creator), 1, Integer::sum);
+            types.merge(entry.typeLabel, 1, Integer::sum);
+            total++;
+        }
+        FacetCounts facets = new FacetCounts(total, ids.andCardinality(borrowed), creators, types, topCreators);
+        return new FacetedResult<>(results, facets);
+    }
+
+    /**
+     * Ids of all items of the given type matching the keyword.
+     */
+    private CompressedBitmap matches(String keyword, Class<? extends Media> type) {
+        CompressedBitmap result = new CompressedBitmap();
+        if (keyword == null || keyword.isEmpty()) return result;
+
+        String normalized = TextNormalizer.normalize(keyword);
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        BitSet candidates = candidates(normalized, lower);
+        candidates.and(typeMask(type));
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            if (docs.get(id).matches(normalized, lower)) result.add(id);
+        }
+        return result;
+    }
+
+    private <T extends Media> List<T> collect(CompressedBitmap ids, Class<T> type, int limit) {
+        List<T> result = new ArrayList<>();
+        for (int id = ids.nextSetBit(0); id >= 0 && result.size() < limit; id = ids.nextSetBit(id + 1)) {
+            result.add(type.cast(docs.get(id).media));
+        }
+        return result;
+    }
+
+    /**
+     * Union of the trigram candidates of all three fields, or every live item if any field
+     * cannot be answered from its trigram index.
+     */
+    private BitSet candidates(String normalized, String lower) {
+        BitSet titles = titleGrams.candidates(normalized);
+        BitSet creators = creatorGrams.candidates(normalized);
+        BitSet ids = idGrams.candidates(lower);
+        if (titles == null || creators == null || ids == null) {
+            return (BitSet) live.clone();
+        }
+        titles.or(creators);
+        titles.or(ids);
+        return titles;
+    }
+
+    /**
+     * Live members of {@code type} as a maintained bitmap, kept current by {@link #add(Media)} and
+     * {@link #remove(Media)}. Only reads the type map, so concurrent queries are safe. Callers
+     * must not modify the returned bitmap.
+     */
+    private CompressedBitmap typeMembers(Class<? extends Media> type) {
+        if (type == Media.class) return liveMembers;
+        return typeMembers.getOrDefault(type, NO_MEMBERS);
+    }
+
+    /**
+     * Documents whose class is {@code type} or one of its subclasses.
+     */
+    private BitSet typeMask(Class<? extends Media> type) {
+        if (type == Media.class) return (BitSet) live.clone();
+        BitSet mask = new BitSet();
+        for (Map.Entry<Class<?>, BitSet> e : byType.entrySet()) {
+            if (type.isAssignableFrom(e.getKey())) mask.or(e.getValue());
+        }
+        return mask;
+    }
+
+    /**
+     * Re-adds the remaining items with consecutive ids, preserving their order.
+     */
+    private void compact() {
+        List<Media> remaining = new ArrayList<>(docIds.size());
+        for (Entry entry : docs) {
+            if (entry != null) remaining.add(entry.media);
+        }
+        clear();
+        remaining.forEach(this::add);
+    }
+}
@@ -0,0 +1,213 @@
+package applicationsearchbooks;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over one normalized text field, used to answer substring ("contains") queries.
+ *
+ * <p>Every document is registered under each distinct three-character gram of its field value.
+ * A needle of at least three characters can only occur in documents that contain all of its
+ * grams, so intersecting those posting sets yields a superset of the matches that the caller
+ * verifies with {@link String#contains(CharSequence)}. Shorter needles are not indexable.</p>
+ *
+ * <p>Bitmaps restored by {@link #readFrom(ByteBuffer, int)} are read from the buffer in place
+ * and copied onto the heap only when an add or remove changes them.</p>
+ */
+final class NgramIndex {
+
+    /** Gram length used by the index. */
+    static final int GRAM = 3;
+
+    private final Map<String, BitSet> postings = new HashMap<>();
+    /** Offsets of bitmaps still served from {@link #mapped}; a gram is never in both maps. */
+    private final Map<String, Integer> mappedGrams = new HashMap<>();
+    private ByteBuffer mapped;
+
+    NgramIndex() { }
+
+    /**
+     * Registers a document under the grams of its field value.
+     *
+     * @param docId dense document id
+     * @param text normalized field value (ignored if {@code null})
+     */
+    void add(int docId, String text) {
+        for (String gram : grams(text)) {
+            mutableDocs(gram).set(docId);
+        }
+    }
+
+    /**
+     * Unregisters a document previously added with the same field value.
+     *
+     * @param docId dense document id
+     * @param text normalized field value it was added with
+     */
+    void remove(int docId, String text) {
+        for (String gram : grams(text)) {
+            BitSet docs = mappedGrams.containsKey(gram) ? mutableDocs(gram) : postings.get(gram);
+            if (docs != null) {
+                docs.clear(docId);
+                if (docs.isEmpty()) postings.remove(gram);
+            }
+        }
+    }
+
+    /** Drops every posting. */
+    void clear() {
+        postings.clear();
+        mappedGrams.clear();
+        mapped = null;
+    }
+
+    /**
+     * Upper bound on the number of documents that can contain the needle.
+     *
+     * @param needle normalized substring
+     * @return smallest posting size among the needle's grams, or {@link Integer#MAX_VALUE}
+     *         if the needle is too short to be answered by the index
+     */
+    int estimate(String needle) {
+        if (needle == null || needle.length() < GRAM) return Integer.MAX_VALUE;
+        int best = Integer.MAX_VALUE;
+        for (String gram : grams(needle)) {
+            int size = cardinality(gram);
+            if (size == 0) return 0;
+            best = Math.min(best, size);
+        }
+        return best;
+    }
+
+    /**
+     * Documents that contain every gram of the needle (a superset of true matches).
+     *
+     * @param needle normalized substring of at least {@link #GRAM} characters
+     * @return candidate document ids, or {@code null} if the needle is not indexable
+     */
+    BitSet candidates(String needle) {
+        if (needle == null || needle.length() < GRAM) return null;
+        BitSet result = null;
+        for (String gram : grams(needle)) {
+            BitSet docs = postings.get(gram);
+            Integer offset = mappedGrams.get(gram);
+            if (docs == null && offset == null) return new BitSet();
+            if (result == null) {
+                result = docs != null ? (BitSet) docs.clone() : copyMapped(offset);
+            } else if (docs != null) {
+                result.and(docs);
+            } else {
+                for (int d = result.nextSetBit(0); d >= 0; d = result.nextSetBit(d + 1)) {
+                    if (!mappedContains(offset, d)) result.clear(d);
+                }
+            }
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    private int cardinality(String gram) {
+        BitSet docs = postings.get(gram);
+        if (docs != null) return docs.cardinality();
+        Integer offset = mappedGrams.get(gram);
+        if (offset == null) return 0;
+        int words = mapped.getInt(offset);
+        int size = 0;
+        for (int w = 0; w < words; w++) size += Long.bitCount(mapped.getLong(offset + Integer.BYTES + w * Long.BYTES));
+        return size;
+    }
+
+    private boolean mappedContains(int offset, int docId) {
+        int word = docId >>> 6;
+        if (word >= mapped.getInt(offset)) return false;
+        return (mapped.getLong(offset + Integer.BYTES + word * Long.BYTES) & (1L << docId)) != 0;
+    }
+
+    private BitSet copyMapped(int offset) {
+        int words = mapped.getInt(offset);
+        return BitSet.valueOf(mapped.slice(offset + Integer.BYTES, words * Long.BYTES).asLongBuffer());
+    }
+
+    /** Returns the heap bitmap of a gram, copying it out of the mapping on first change. */
+    private BitSet mutableDocs(String gram) {
+        BitSet docs = postings.get(gram);
+        if (docs != null) return docs;
+        Integer offset = mappedGrams.remove(gram);
+        docs = offset == null ? new BitSet() : copyMapped(offset);
+        postings.put(gram, docs);
+        return docs;
+    }
+
+    /**
+     * Writes the postings with document ids renumbered; documents mapped to -1 are dropped.
+     * Each gram is stored as {@link #GRAM} chars followed by its posting bitmap as raw words.
+     */
+    void writeTo(DataOutputStream out, int[] remap) throws IOException {
+        Map<String, long[]> remapped = new HashMap<>();
+        Set<String> all = new HashSet<>(postings.keySet());
+        all.addAll(mappedGrams.keySet());
+        for (String gram : all) {
+            BitSet docs = new BitSet();
+            BitSet source = postings.containsKey(gram) ? postings.get(gram) : copyMapped(mappedGrams.get(gram));
+            for (int d = source.nextSetBit(0); d >= 0; d = source.nextSetBit(d + 1)) {
+                if (remap[d] >= 0) docs.set(remap[d]);
+            }
+            if (!docs.isEmpty()) remapped.put(gram, docs.toLongArray());
+        }
+        out.writeInt(remapped.size());
+        for (Map.Entry<String, long[]> e : remapped.entrySet()) {
+            out.writeChars(e.getKey());
+            out.writeInt(e.getValue().length);
+            for (long word : e.getValue()) out.writeLong(word);
+        }
+    }
+
+    /**
+     * Replaces the postings with ones written by {@link #writeTo(DataOutputStream, int[])}. The
+     * bitmaps are served from {@code in}, which must stay valid for the life of the index.
+     *
+     * @param documentCount number of documents the bitmaps may refer to
+     * @throws IllegalStateException if a bitmap is truncated or refers to an unknown document
+     */
+    void readFrom(ByteBuffer in, int documentCount) {
+        clear();
+        mapped = in;
+        int grams = in.getInt();
+        if (grams < 0) throw new IllegalStateException("Negative gram count: " + grams);
+        char[] gram = new char[GRAM];
+        for (int g = 0; g < grams; g++) {
+            for (int i = 0; i < GRAM; i++) gram[i] = in.getChar();
+            int offset = in.position();
+            int words = in.getInt();
+            if (words < 0 || (long) words * Long.BYTES > in.remaining()) {
+                throw new IllegalStateException("Bad bitmap length: " + words);
+            }
+            for (int w = words - 1; w >= 0; w--) {
+                long word = in.getLong(in.position() + w * Long.BYTES);
+                if (word == 0) continue;
+                long highest = (long) w * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+                if (highest >= documentCount) {
+                    throw new IllegalStateException("Bitmap refers to unknown document " + highest);
+                }
+                break;
+            }
+            in.position(in.position() + words * Long.BYTES);
+            mappedGrams.put(new String(gram), offset);
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text == null) return grams;
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
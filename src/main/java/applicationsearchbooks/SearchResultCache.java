@@ -0,0 +1,296 @@
+package applicationsearchbooks;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import domain.Book;
+
+/**
+ * Bounded cache of search results with TinyLFU admission and version-based invalidation.
+ *
+ * <p>The cache follows the W-TinyLFU layout: new results enter a small admission window (about
+ * 1% of the capacity); when the window overflows its oldest entry competes with the main
+ * region's eviction victim, and only the one requested more often (according to an aging
+ * count-min frequency sketch) is kept. This protects popular queries from being flushed by
+ * bursts of one-off searches.</p>
+ *
+ * <p>Lookups never take a lock: entries live in a {@link ConcurrentHashMap}, a hit only sets the
+ * entry's referenced bit, and the sketch counters are atomic. Recency is approximated with the
+ * CLOCK (second chance) policy: when a region must give up an entry, referenced entries at its
+ * head have their bit cleared and move to the tail, and the first unreferenced one is the
+ * victim. Only writes and invalidations take the policy lock.</p>
+ *
+ * <p>Each entry remembers the catalog version it was computed at and, if the result depends on
+ * availability, the availability version. A lookup with newer versions treats the entry as stale
+ * and drops it, so invalidation is exact without scanning the cache on every write.</p>
+ *
+ * <p>All methods are thread-safe.</p>
+ */
+public class SearchResultCache {
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Object policyLock = new Object();
+    /** Insertion-ordered admission window; guarded by {@code policyLock}. */
+    private final LinkedHashMap<String, Entry> window = new LinkedHashMap<>();
+    /** Insertion-ordered main region (the CLOCK ring); guarded by {@code policyLock}. */
+    private final LinkedHashMap<String, Entry> main = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Creates a cache holding at most {@code capacity} results.
+     *
+     * @param capacity maximum number of cached results (must be at least 2)
+     */
+    public SearchResultCache(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * A cached result and the versions it was computed at.
+     */
+    private static final class Entry {
+        private final List<Book> result;
+        private final long catalogVersion;
+        private final long availabilityVersion;
+        private final boolean availabilityDependent;
+        /** Set on every hit, cleared when the CLOCK hand passes the entry. */
+        private volatile boolean referenced;
+
+        private Entry(List<Book> result, long catalogVersion, long availabilityVersion,
+                      boolean availabilityDependent) {
+            this.result = result;
+            this.catalogVersion = catalogVersion;
+            this.availabilityVersion = availabilityVersion;
+            this.availabilityDependent = availabilityDependent;
+        }
+
+        private boolean isCurrent(long catalog, long availability) {
+            return catalogVersion == catalog && (!availabilityDependent || availabilityVersion == availability);
+        }
+    }
+
+    /**
+     * Looks up a cached result that is still valid for the given versions.
+     *
+     * @param key normalized query key
+     * @param catalogVersion current catalog version
+     * @param availabilityVersion current availability version
+     * @return the cached (unmodifiable) result, or {@code null} on a miss
+     */
+    public List<Book> get(String key, long catalogVersion, long availabilityVersion) {
+        sketch.increment(key);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!entry.isCurrent(catalogVersion, availabilityVersion)) {
+            synchronized (policyLock) {
+                if (entries.remove(key, entry)) {
+                    window.remove(key, entry);
+                    main.remove(key, entry);
+                    invalidations.increment();
+                }
+            }
+            misses.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hits.increment();
+        return entry.result;
+    }
+
+    /**
+     * Stores a freshly computed result.
+     *
+     * @param key normalized query key
+     * @param result the result to cache (copied into an unmodifiable list)
+     * @param catalogVersion catalog version the result was computed at
+     * @param availabilityVersion availability version the result was computed at
+     * @param availabilityDependent whether availability changes invalidate the result
+     * @return the cached unmodifiable copy of {@code result}
+     */
+    public List<Book> put(String key, List<Book> result, long catalogVersion,
+                          long availabilityVersion, boolean availabilityDependent) {
+        Entry entry = new Entry(List.copyOf(result), catalogVersion, availabilityVersion, availabilityDependent);
+        synchronized (policyLock) {
+            entries.put(key, entry);
+            if (main.containsKey(key)) {
+                main.put(key, entry);
+                return entry.result;
+            }
+            window.put(key, entry);
+            if (window.size() > windowCapacity) {
+                admitFromWindow();
+            }
+        }
+        return entry.result;
+    }
+
+    /**
+     * Moves the window's oldest entry into the main region if it is more popular than the main
+     * region's CLOCK victim. Called with {@code policyLock} held.
+     */
+    private void admitFromWindow() {
+        Iterator<Map.Entry<String, Entry>> windowHead = window.entrySet().iterator();
+        Map.Entry<String, Entry> candidate = windowHead.next();
+        windowHead.remove();
+
+        if (main.size() < mainCapacity) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        String victim = clockVictim();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim)) {
+            entries.remove(victim, main.remove(victim));
+            main.put(candidate.getKey(), candidate.getValue());
+        } else {
+            entries.remove(candidate.getKey(), candidate.getValue());
+        }
+        evictions.increment();
+    }
+
+    /**
+     * Advances the CLOCK hand over the main region: referenced entries get a second chance at the
+     * tail, and the first unreferenced entry's key is returned. Terminates within one full pass.
+     */
+    private String clockVictim() {
+        while (true) {
+            Iterator<Map.Entry<String, Entry>> head = main.entrySet().iterator();
+            Map.Entry<String, Entry> oldest = head.next();
+            Entry entry = oldest.getValue();
+            if (!entry.referenced) return oldest.getKey();
+            entry.referenced = false;
+            head.remove();
+            main.put(oldest.getKey(), entry);
+        }
+    }
+
+    /**
+     * Removes every cached result (metrics are kept).
+     */
+    public void clear() {
+        synchronized (policyLock) {
+            window.clear();
+            main.clear();
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached results.
+     * @return current entry count
+     */
+    public int size() { return entries.size(); }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     * @return hit count
+     */
+    public long getHits() { return hits.sum(); }
+
+    /**
+     * Returns the number of lookups that had to be recomputed (including stale entries).
+     * @return miss count
+     */
+    public long getMisses() { return misses.sum(); }
+
+    /**
+     * Returns the number of entries evicted or rejected for capacity reasons.
+     * @return eviction count
+     */
+    public long getEvictions() { return evictions.sum(); }
+
+    /**
+     * Returns the number of entries dropped because the catalog or availability changed.
+     * @return invalidation count
+     */
+    public long getInvalidations() { return invalidations.sum(); }
+
+    /**
+     * Returns the fraction of lookups served from the cache.
+     * @return hit rate between 0 and 1 (0 if no lookups yet)
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Count-min sketch of key popularity whose counters are halved periodically so that
+     * old popularity fades.
+     *
+     * <p>Counters are atomic so lookups can record frequency without a lock; the halving pass
+     * runs on whichever thread crosses the sample size and may race with concurrent increments,
+     * which only makes the (already approximate) counts slightly less exact.</p>
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+        private final AtomicIntegerArray counters;
+        private final int width;
+        private final int mask;
+        private final int sampleSize;
+        private final AtomicInteger additions = new AtomicInteger();
+
+        private FrequencySketch(int capacity) {
+            this.width = Integer.highestOneBit(Math.max(16, capacity * 4 - 1)) << 1;
+            this.counters = new AtomicIntegerArray(DEPTH * width);
+            this.mask = width - 1;
+            this.sampleSize = capacity * 10;
+        }
+
+        private void increment(String key) {
+            int hash = key.hashCode();
+            for (int row = 0; row < DEPTH; row++) {
+                counters.incrementAndGet(slot(hash, row));
+            }
+            if (additions.incrementAndGet() == sampleSize) {
+                age();
+            }
+        }
+
+        private int frequency(String key) {
+            int hash = key.hashCode();
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters.get(slot(hash, row)));
+            }
+            return min;
+        }
+
+        private int slot(int hash, int row) {
+            int h = hash * SEEDS[row];
+            return row * width + ((h ^ (h >>> 16)) & mask);
+        }
+
+        private void age() {
+            for (int i = 0; i < counters.length(); i++) {
+                int value;
+                do {
+                    value = counters.get(i);
+                } while (!counters.compareAndSet(i, value, value >>> 1));
+            }
+            additions.addAndGet(-sampleSize / 2);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package applicationsearchbooks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Predicate;
+
+import domain.Book;
+
+/**
+ * Scans a catalog snapshot for books matching an arbitrary predicate using fork-join parallelism.
+ *
+ * <p>The snapshot is split into a fixed number of contiguous shards. Shards are scanned in
+ * parallel on a {@link ForkJoinPool}; each keeps at most {@code limit} matches of its own range
+ * and publishes how many it has found so far. A shard stops as soon as the shards before it have
+ * found {@code limit} matches between them, since none of its own matches could then make the
+ * result. Per-shard prefixes are merged in catalog order, so a limited scan always returns the
+ * first {@code limit} matches, exactly as a sequential scan would.</p>
+ *
+ * <p>Inputs smaller than the parallel threshold are scanned on the calling thread.</p>
+ */
+public class ShardedBookScanner {
+
+    /** Below this many books the fork-join overhead is not worth it. */
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 4_096;
+    /** How many books a shard scans between checks of the shared match counter. */
+    private static final int LIMIT_CHECK_INTERVAL = 64;
+
+    private final ForkJoinPool pool;
+    private final int shards;
+    private final int parallelThreshold;
+
+    /**
+     * Creates a scanner on the common pool with one shard per available worker.
+     */
+    public ShardedBookScanner() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Creates a scanner with explicit pool, shard count and parallel threshold.
+     *
+     * @param pool the pool to run shard tasks on (must not be {@code null})
+     * @param shards number of partitions the snapshot is split into (values below 1 mean 1)
+     * @param parallelThreshold minimum snapshot size for a parallel scan
+     */
+    public ShardedBookScanner(ForkJoinPool pool, int shards, int parallelThreshold) {
+        if (pool == null) throw new IllegalArgumentException("pool must not be null");
+        this.pool = pool;
+        this.shards = Math.max(1, shards);
+        this.parallelThreshold = Math.max(0, parallelThreshold);
+    }
+
+    /**
+     * Returns up to {@code limit} books of the snapshot that satisfy the predicate.
+     *
+     * @param books catalog snapshot to scan (not modified; may be {@code null})
+     * @param predicate the match condition (must be thread-safe)
+     * @param limit maximum number of matches to collect
+     * @return matching books in catalog order (never null)
+     */
+    public List<Book> scan(List<Book> books, Predicate<? super Book> predicate, int limit) {
+        if (books == null || predicate == null || limit <= 0 || books.isEmpty()) return List.of();
+
+        Book[] snapshot = books.toArray(new Book[0]);
+        List<Book> result;
+        if (snapshot.length < parallelThreshold || shards == 1) {
+            result = scanRange(snapshot, 0, 0, snapshot.length, predicate, limit, new AtomicIntegerArray(1));
+        } else {
+            AtomicIntegerArray found = new AtomicIntegerArray(shards);
+            result = pool.invoke(new ShardTask(snapshot, 0, shards, shards, predicate, limit, found));
+        }
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Returns the number of shards a parallel scan is split into.
+     *
+     * @return shard count
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Scans one shard, keeping at most {@code limit} matches and publishing the running count in
+     * {@code found[shard]}.
+     */
+    private static List<Book> scanRange(Book[] books, int shard, int from, int to,
+                                        Predicate<? super Book> predicate, int limit,
+                                        AtomicIntegerArray found) {
+        List<Book> matches = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if ((i - from) % LIMIT_CHECK_INTERVAL == 0 && foundBefore(found, shard, limit) >= limit) break;
+            Book book = books[i];
+            if (book != null && predicate.test(book)) {
+                matches.add(book);
+                found.set(shard, matches.size());
+                if (matches.size() >= limit) break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns how many matches the shards before {@code shard} have found so far (capped at
+     * {@code limit}). Counts only grow, so once this reaches {@code limit} the shard is redundant.
+     */
+    private static int foundBefore(AtomicIntegerArray found, int shard, int limit) {
+        int total = 0;
+        for (int i = 0; i < shard && total < limit; i++) {
+            total += found.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Scans shards {@code [firstShard, lastShard)}, splitting in half until a single shard remains.
+     */
+    private static final class ShardTask extends RecursiveTask<List<Book>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Book[] books;
+        private final int firstShard;
+        private final int lastShard;
+        private final transient Predicate<? super Book> predicate;
+        private final int limit;
+        private final transient AtomicIntegerArray found;
+        private final int totalShards;
+
+        private ShardTask(Book[] books, int firstShard, int lastShard, int totalShards,
+                          Predicate<? super Book> predicate, int limit, AtomicIntegerArray found) {
+            this.books = books;
+            this.firstShard = firstShard;
+            this.lastShard = lastShard;
+            this.totalShards = totalShards;
+            this.predicate = predicate;
+            this.limit = limit;
+            this.found = found;
+        }
+
+        @Override
+        protected List<Book> compute() {
+            if (foundBefore(found, firstShard, limit) >= limit) return List.of();
+
+            if (lastShard - firstShard == 1) {
+                int from = (int) ((long) books.length * firstShard / totalShards);
+                int to = (int) ((long) books.length * lastShard / totalShards);
+                return scanRange(books, firstShard, from, to, predicate, limit, found);
+            }
+
+            int middle = (firstShard + lastShard) >>> 1;
+            ShardTask left = new ShardTask(books, firstShard, middle, totalShards, predicate, limit, found);
+            ShardTask right = new ShardTask(books, middle, lastShard, totalShards, predicate, limit, found);
+            left.fork();
+            List<Book> rightMatches = right.compute();
+            List<Book> leftMatches = left.join();
+
+            if (leftMatches.size() >= limit || rightMatches.isEmpty()) return leftMatches;
+            if (leftMatches.isEmpty()) return rightMatches;
+            List<Book> merged = new ArrayList<>(leftMatches.size() + rightMatches.size());
+            merged.addAll(leftMatches);
+            merged.addAll(rightMatches);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package applicationsearchbooks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import domain.Book;
+import domain.TextNormalizer;
+
+/**
+ * Books kept in sorted order on normalized title or author for ordered browsing.
+ *
+ * <p>Books live in a {@link ConcurrentSkipListMap} keyed by {@link BrowseCursor}: the sort text
+ * captured when the book was added, then the ISBN, so equal texts keep the same relative order
+ * in every index built over the same books. An insertion sequence separates books that also
+ * share the ISBN; such books are always kept on the same page, since only their common key is
+ * stable across rebuilds.
+ * Starting a listing at any text, or continuing after a cursor, is a logarithmic seek followed by
+ * an in-order walk of just the requested page; nothing is copied or sorted per request.</p>
+ *
+ * <p>Reads may run concurrently with each other and with updates; updates must be serialized by
+ * the caller.</p>
+ */
+public class SortedBookIndex {
+
+    private final BrowseOrder order;
+    private final ConcurrentSkipListMap<BrowseCursor, Book> sorted = new ConcurrentSkipListMap<>();
+    private final Map<Book, BrowseCursor> keys = new IdentityHashMap<>();
+    private long nextSequence;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param order the sort order to maintain
+     */
+    public SortedBookIndex(BrowseOrder order) {
+        if (order == null) throw new IllegalArgumentException("Browse order is required.");
+        this.order = order;
+    }
+
+    /**
+     * Returns the sort order this index maintains.
+     *
+     * @return browse order
+     */
+    public BrowseOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Adds a book. Adding a book that is already indexed has no effect.
+     *
+     * @param book the book (ignored if {@code null})
+     */
+    public void add(Book book) {
+        if (book == null || keys.containsKey(book)) return;
+        BrowseCursor key = order == BrowseOrder.TITLE
+                ? new BrowseCursor(order, text(book.getNormalizedTitle()), "", text(book.getIsbn()), nextSequence++)
+                : new BrowseCursor(order, text(book.getNormalizedAuthor()), text(book.getNormalizedTitle()),
+                        text(book.getIsbn()), nextSequence++);
+        keys.put(book, key);
+        sorted.put(key, book);
+    }
+
+    /**
+     * Removes a book.
+     *
+     * @param book the book to remove
+     * @return {@code true} if the book was indexed
+     */
+    public boolean remove(Book book) {
+        BrowseCursor key = book == null ? null : keys.remove(book);
+        if (key == null) return false;
+        sorted.remove(key);
+        return true;
+    }
+
+    /**
+     * Replaces the content with the given books.
+     *
+     * @param books the books to index (null entries are ignored)
+     */
+    public void rebuild(Collection<Book> books) {
+        clear();
+        if (books == null) return;
+        for (Book book : books) add(book);
+    }
+
+    /**
+     * Removes every book.
+     */
+    public void clear() {
+        sorted.clear();
+        keys.clear();
+    }
+
+    /**
+     * Returns the number of indexed books.
+     *
+     * @return book count
+     */
+    public int size() {
+        return sorted.size();
+    }
+
+    /**
+     * Lists books whose sort text is at or after {@code from}.
+     *
+     * @param from where to start, in any spelling ({@code null} or blank for the beginning)
+     * @param limit page size
+     * @return the first page starting at {@code from}
+     */
+    public BrowsePage browse(String from, int limit) {
+        String start = text(TextNormalizer.normalize(from));
+        return page(sorted.tailMap(new BrowseCursor(order, start, "", "", Long.MIN_VALUE), true), limit);
+    }
+
+    /**
+     * Lists the books following a cursor returned by an earlier page. The cursor stays valid
+     * across rebuilds of the index.
+     *
+     * @param after the cursor of the previous page
+     * @param limit page size
+     * @return the next page
+     * @throws IllegalArgumentException if the cursor is missing or belongs to another order
+     */
+    public BrowsePage browseAfter(BrowseCursor after, int limit) {
+        if (after == null || after.getOrder() != order) {
+            throw new IllegalArgumentException("Cursor does not belong to the " + order + " listing.");
+        }
+        return page(sorted.tailMap(after.afterKey(), false), limit);
+    }
+
+    private static BrowsePage page(Map<BrowseCursor, Book> tail, int limit) {
+        if (limit <= 0) return new BrowsePage(List.of(), null);
+        List<Book> books = new ArrayList<>(Math.min(limit, 64));
+        BrowseCursor last = null;
+        Iterator<Map.Entry<BrowseCursor, Book>> it = tail.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<BrowseCursor, Book> e = it.next();
+            if (books.size() >= limit && !e.getKey().sameKey(last)) return new BrowsePage(books, last);
+            books.add(e.getValue());
+            last = e.getKey();
+        }
+        return new BrowsePage(books, null);
+    }
+
+    private static String text(String normalized) {
+        return normalized == null ? "" : normalized;
+    }
+}
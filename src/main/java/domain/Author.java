@@ -0,0 +1,35 @@
+package domain;
+
+/**
+ * An author entity shared by every book whose author name normalizes to the same text.
+ *
+ * <p>Instances are only created by {@link AuthorDictionary}, which guarantees one instance per
+ * {@link TextNormalizer normalized} name; authors can therefore be compared by identity.</p>
+ */
+public final class Author {
+
+    private final String name;
+    private final String normalizedName;
+
+    Author(String name, String normalizedName) {
+        this.name = name;
+        this.normalizedName = normalizedName;
+    }
+
+    /**
+     * Returns the display name, i.e. the first spelling the dictionary saw for this author.
+     * @return display name
+     */
+    public String getName() { return name; }
+
+    /**
+     * Returns the name in {@link TextNormalizer} form, computed once for the author.
+     * @return normalized name
+     */
+    public String getNormalizedName() { return normalizedName; }
+
+    @Override
+    public String toString() {
+        return "Author{" + name + '}';
+    }
+}
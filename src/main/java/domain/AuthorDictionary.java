@@ -0,0 +1,94 @@
+package domain;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary that interns author names.
+ *
+ * <p>Each distinct spelling is stored once and mapped to the {@link Author} for its
+ * {@link TextNormalizer normalized} form, so books by the same author share one spelling string,
+ * one normalized string and one entity, and a name is normalized only the first time it is seen.
+ * Spellings that differ only in case, accents or Arabic letter variants map to the same author.</p>
+ *
+ * <p>Entries are never evicted; the dictionary grows with the number of distinct spellings, which
+ * is far smaller than the number of titles. Thread-safe.</p>
+ */
+public final class AuthorDictionary {
+
+    private static final ConcurrentHashMap<String, Spelling> spellings = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Author> authors = new ConcurrentHashMap<>();
+
+    private AuthorDictionary() { }
+
+    /**
+     * A stored spelling and the author it belongs to.
+     */
+    private static final class Spelling {
+        private final String text;
+        private final Author author;
+
+        private Spelling(String text, Author author) {
+            this.text = text;
+            this.author = author;
+        }
+    }
+
+    /**
+     * Returns the author entity for a name, creating it on first use.
+     *
+     * @param name the author name as written (may be {@code null})
+     * @return the shared author, or {@code null} if {@code name} is {@code null}
+     */
+    public static Author intern(String name) {
+        return name == null ? null : spelling(name).author;
+    }
+
+    /**
+     * Returns the shared instance of a spelling, registering it on first use.
+     *
+     * @param name the author name as written (may be {@code null})
+     * @return a string equal to {@code name} that is shared by all books using this spelling,
+     *         or {@code null} if {@code name} is {@code null}
+     */
+    public static String internSpelling(String name) {
+        return name == null ? null : spelling(name).text;
+    }
+
+    /**
+     * Finds the author a name refers to without registering anything.
+     *
+     * @param name an author name in any spelling (may be {@code null})
+     * @return the matching author, or {@code null} if no book uses that author
+     */
+    public static Author find(String name) {
+        if (name == null) return null;
+        Spelling known = spellings.get(name);
+        return known != null ? known.author : authors.get(TextNormalizer.normalize(name));
+    }
+
+    /**
+     * Returns the number of distinct authors.
+     *
+     * @return author count
+     */
+    public static int size() {
+        return authors.size();
+    }
+
+    /**
+     * Returns the number of distinct spellings stored.
+     *
+     * @return spelling count
+     */
+    public static int spellingCount() {
+        return spellings.size();
+    }
+
+    private static Spelling spelling(String name) {
+        Spelling known = spellings.get(name);
+        if (known != null) return known;
+        String normalized = TextNormalizer.normalize(name);
+        Author author = authors.computeIfAbsent(normalized, n -> new Author(name, n));
+        return spellings.computeIfAbsent(name, n -> new Spelling(n, author));
+    }
+}
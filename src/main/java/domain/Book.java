@@ -10,6 +10,7 @@ package domain;
 public class Book extends Media {
 
   private String author;
+  private Author authorEntity;
   private String isbn;
 
   /**
@@ -21,7 +22,7 @@ public class Book extends Media {
    */
   public Book(String title, String author, String isbn) {
     super(isbn, title);
-    this.author = author;
+    setAuthor(author);
     this.isbn = isbn;
   }
 
@@ -40,7 +41,7 @@ public class Book extends Media {
    */
   public Book(String title, String author, String isbn, boolean isBorrowed) {
     super(isbn, title);
-    this.author = author;
+    setAuthor(author);
     this.isbn = isbn;
     setBorrowed(isBorrowed);
   }
@@ -64,10 +65,40 @@ public class Book extends Media {
   public String getAuthor() { return author; }
 
   /**
-   * Updates the author of the book.
+   * Updates the author of the book. The name is interned in the {@link AuthorDictionary}, so
+   * books by the same author share its strings and {@link Author} entity.
    * @param author the new author name
    */
-  public void setAuthor(String author) { this.author = author; }
+  public void setAuthor(String author) {
+    this.author = AuthorDictionary.internSpelling(author);
+    this.authorEntity = AuthorDictionary.intern(author);
+  }
+
+  /**
+   * Returns the shared author entity.
+   * @return the author, or {@code null} if no author is set
+   */
+  public Author getAuthorEntity() { return authorEntity; }
+
+  /**
+   * Returns the author in {@link TextNormalizer} form, computed once per distinct author.
+   * @return the normalized author name, or {@code null} if no author is set
+   */
+  public String getNormalizedAuthor() { return authorEntity == null ? null : authorEntity.getNormalizedName(); }
+
+  /**
+   * The creator of a book is its author.
+   * @return the author name, or {@code null} if no author is set
+   */
+  @Override
+  public String getCreator() { return author; }
+
+  /**
+   * The creator of a book is its author.
+   * @return the normalized author name, or {@code null} if no author is set
+   */
+  @Override
+  public String getNormalizedCreator() { return getNormalizedAuthor(); }
 
   /**
    * Returns the ISBN of the book.
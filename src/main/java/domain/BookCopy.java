@@ -0,0 +1,103 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One physical copy of a book title held by the library.
+ *
+ * <p>A copy is a borrowable {@link Media} with its own id ({@code <isbn>#<n>}) and borrowed
+ * flag; title, author and loan policy come from the title record it belongs to.</p>
+ *
+ * <p>Whether the copy is off the shelf is also kept in an atomic flag that its {@link Holding}
+ * flips with compare-and-set, so two returns of the same copy cannot both put it back.</p>
+ */
+public class BookCopy extends Media {
+
+    private final Book title;
+    private final int copyNumber;
+    private final AtomicBoolean lent = new AtomicBoolean();
+
+    /**
+     * Creates copy number {@code copyNumber} of a title.
+     *
+     * @param title the title record (must not be {@code null})
+     * @param copyNumber the copy's number within its title, starting at 1
+     */
+    public BookCopy(Book title, int copyNumber) {
+        super(copyId(title.getIsbn(), copyNumber), title.getTitle());
+        this.title = title;
+        this.copyNumber = copyNumber;
+    }
+
+    /**
+     * Builds the id of a copy.
+     *
+     * @param isbn the title's ISBN
+     * @param copyNumber the copy number
+     * @return the copy id
+     */
+    public static String copyId(String isbn, int copyNumber) {
+        return isbn + '#' + copyNumber;
+    }
+
+    /**
+     * Returns the title record this copy belongs to.
+     * @return the title
+     */
+    public Book getTitleRecord() { return title; }
+
+    /**
+     * Returns this copy's number within its title.
+     * @return the copy number
+     */
+    public int getCopyNumber() { return copyNumber; }
+
+    /**
+     * Claims the copy for a loan.
+     * @return {@code false} if it was already lent
+     */
+    boolean claimLoan() { return lent.compareAndSet(false, true); }
+
+    /**
+     * Claims the return of the copy.
+     * @return {@code false} if it was already back on the shelf
+     */
+    boolean claimReturn() { return lent.compareAndSet(true, false); }
+
+    /**
+     * The creator of a copy is the author of its title.
+     * @return the author name
+     */
+    @Override
+    public String getCreator() { return title.getAuthor(); }
+
+    /**
+     * The creator of a copy is the author of its title.
+     * @return the normalized author name
+     */
+    @Override
+    public String getNormalizedCreator() { return title.getNormalizedAuthor(); }
+
+    /**
+     * Copies follow the borrow period of books.
+     * @return the title's borrow period in days
+     */
+    @Override
+    public int getBorrowPeriod() { return title.getBorrowPeriod(); }
+
+    /**
+     * Copies follow the fine policy of books.
+     * @return the title's fine per overdue day
+     */
+    @Override
+    public double getFinePerDay() { return title.getFinePerDay(); }
+
+    /**
+     * String representation of the copy.
+     * @return a string with the copy id and title
+     */
+    @Override
+    public String toString() {
+        return "BookCopy{" + "id='" + getId() + '\'' + ", title='" + getTitle() + '\'' + '}';
+    }
+}
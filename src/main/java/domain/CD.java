@@ -12,6 +12,9 @@ public class CD extends Media {
     /** The recording artist associated with this CD. */
     private String artist;
 
+    /** The artist name in {@link TextNormalizer} form. */
+    private String normalizedArtist;
+
     /**
      * Creates a new CD with default values.
      *
@@ -28,7 +31,7 @@ public class CD extends Media {
      */
     public CD(String id, String title, String artist) {
         super(id, title);
-        this.artist = artist;
+        setArtist(artist);
     }
 
     /**
@@ -43,7 +46,33 @@ public class CD extends Media {
      *
      * @param artist the new artist name
      */
-    public void setArtist(String artist) { this.artist = artist; }
+    public void setArtist(String artist) {
+        this.artist = artist;
+        this.normalizedArtist = TextNormalizer.normalize(artist);
+    }
+
+    /**
+     * Returns the artist in {@link TextNormalizer} form, computed once when the artist is set.
+     *
+     * @return the normalized artist name, or {@code null} if not set
+     */
+    public String getNormalizedArtist() { return normalizedArtist; }
+
+    /**
+     * The creator of a CD is its artist.
+     *
+     * @return the artist name, or {@code null} if not set
+     */
+    @Override
+    public String getCreator() { return artist; }
+
+    /**
+     * The creator of a CD is its artist.
+     *
+     * @return the normalized artist name, or {@code null} if not set
+     */
+    @Override
+    public String getNormalizedCreator() { return normalizedArtist; }
 
     /**
      * The borrow period for CDs.
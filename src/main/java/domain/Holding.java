@@ -0,0 +1,222 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The library's holdings of one title: the {@link Book} title record plus its physical copies.
+ *
+ * <p>Checkout and checkin are lock-free. Free copies sit on a Treiber stack (a linked stack whose
+ * head is swapped with compare-and-set; every push allocates a fresh node, so a recycled head can
+ * never be mistaken for an unchanged one). An {@link AtomicInteger} counts the free copies: a
+ * checkout first reserves a copy by decrementing the count and only then pops, and a checkin
+ * pushes before incrementing. The stack therefore always holds at least as many copies as the
+ * count promises, so a reservation is always honoured and no copy list is ever scanned. A copy is
+ * only pushed back after its own return flag was claimed, so a copy returned twice is rejected
+ * instead of entering the stack a second time.</p>
+ *
+ * <p>Copies held for members who reserved the title sit on a separate pickup shelf: they are
+ * neither on loan nor free, so only the holder's checkout ({@link #takeHeldCopy()}) can take them.
+ * Callers serialize pickup-shelf moves per title (the reservation item lock).</p>
+ *
+ * <p>The title record's borrowed flag mirrors "no copy available", so availability filters on
+ * titles keep working.</p>
+ */
+public class Holding {
+
+    private final Book title;
+    private final List<BookCopy> copies = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicReference<Node> freeCopies = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<BookCopy> pickupShelf = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Node of the free-copy stack.
+     */
+    private static final class Node {
+        private final BookCopy copy;
+        private final Node next;
+
+        private Node(BookCopy copy, Node next) {
+            this.copy = copy;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Creates holdings for a title with no copies yet.
+     *
+     * @param title the title record (must not be {@code null})
+     */
+    public Holding(Book title) {
+        if (title == null) throw new IllegalArgumentException("Title must not be null.");
+        this.title = title;
+    }
+
+    /**
+     * Adds new copies of the title; they are immediately available.
+     *
+     * @param count the number of copies to add (must be positive)
+     * @return the copies that were created
+     */
+    public synchronized List<BookCopy> addCopies(int count) {
+        if (count <= 0) throw new IllegalArgumentException("Copy count must be positive.");
+        List<BookCopy> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BookCopy copy = new BookCopy(title, copies.size() + 1);
+            copies.add(copy);
+            created.add(copy);
+            push(copy);
+            available.incrementAndGet();
+        }
+        syncTitleAvailability();
+        return created;
+    }
+
+    /**
+     * Takes any free copy.
+     *
+     * @return the reserved copy, or {@code null} if every copy is out
+     */
+    public BookCopy checkout() {
+        BookCopy copy = takeFree();
+        if (copy != null) copy.claimLoan();
+        return copy;
+    }
+
+    /**
+     * Puts a returned copy back on the shelf.
+     *
+     * @param copy a copy of this title that was checked out
+     * @throws IllegalArgumentException if the copy belongs to another title
+     * @throws IllegalStateException if the copy is already back (returned twice)
+     */
+    public void checkin(BookCopy copy) {
+        if (copy == null || copy.getTitleRecord() != title) {
+            throw new IllegalArgumentException("Copy does not belong to " + title.getIsbn());
+        }
+        if (!copy.claimReturn()) {
+            throw new IllegalStateException("Copy " + copy.getId() + " is already on the shelf.");
+        }
+        copy.markReturned();
+        push(copy);
+        available.incrementAndGet();
+        syncTitleAvailability();
+    }
+
+    /**
+     * Moves a free copy to the pickup shelf for a member whose hold was just placed.
+     *
+     * @return {@code false} if no copy is free
+     */
+    public boolean holdFreeCopy() {
+        BookCopy copy = takeFree();
+        if (copy == null) return false;
+        pickupShelf.add(copy);
+        return true;
+    }
+
+    /**
+     * Takes a copy from the pickup shelf for the member it was held for.
+     *
+     * @return the copy, or {@code null} if no copy is held
+     */
+    public BookCopy takeHeldCopy() {
+        BookCopy copy = pickupShelf.poll();
+        if (copy != null) copy.claimLoan();
+        return copy;
+    }
+
+    /**
+     * Puts a held copy back among the free copies, e.g. after its hold expired unclaimed.
+     *
+     * @return {@code false} if no copy was held
+     */
+    public boolean releaseHeldCopy() {
+        BookCopy copy = pickupShelf.poll();
+        if (copy == null) return false;
+        push(copy);
+        available.incrementAndGet();
+        syncTitleAvailability();
+        return true;
+    }
+
+    /**
+     * Returns the number of copies on the pickup shelf.
+     * @return held copy count
+     */
+    public int getHeldCopies() { return pickupShelf.size(); }
+
+    /**
+     * Returns the title record.
+     * @return the title
+     */
+    public Book getTitle() { return title; }
+
+    /**
+     * Returns the number of copies currently on the shelf.
+     * @return available copy count
+     */
+    public int getAvailable() { return available.get(); }
+
+    /**
+     * Returns the number of copies owned.
+     * @return total copy count
+     */
+    public int getTotalCopies() { return copies.size(); }
+
+    /**
+     * Returns a snapshot of all copies.
+     * @return list of copies in creation order
+     */
+    public List<BookCopy> getCopies() {
+        synchronized (copies) {
+            return new ArrayList<>(copies);
+        }
+    }
+
+    /** Reserves a free copy and pops it, or returns {@code null} if none is free. */
+    private BookCopy takeFree() {
+        int free;
+        do {
+            free = available.get();
+            if (free == 0) return null;
+        } while (!available.compareAndSet(free, free - 1));
+
+        BookCopy copy = pop();
+        syncTitleAvailability();
+        return copy;
+    }
+
+    private void push(BookCopy copy) {
+        Node head;
+        do {
+            head = freeCopies.get();
+        } while (!freeCopies.compareAndSet(head, new Node(copy, head)));
+    }
+
+    /** Pops a copy; only called after a copy has been reserved, so the stack is never empty. */
+    private BookCopy pop() {
+        Node head;
+        do {
+            head = freeCopies.get();
+        } while (!freeCopies.compareAndSet(head, head.next));
+        return head.copy;
+    }
+
+    /**
+     * Sets the title's borrowed flag from the current count, re-checking afterwards so that a
+     * concurrent update cannot leave a stale value behind.
+     */
+    private void syncTitleAvailability() {
+        boolean allOut;
+        do {
+            allOut = available.get() == 0;
+            title.setBorrowed(allOut);
+        } while ((available.get() == 0) != allOut);
+    }
+}
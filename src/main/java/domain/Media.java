@@ -9,8 +9,10 @@ public abstract class Media {
 
     private String id;          // e.g., ISBN for books, catalog code for CDs
     private String title;
+    private String normalizedTitle;
     private boolean borrowed;
     private LocalDate dueDate;
+    private MediaAvailabilityListener availabilityListener;
 
     /**
      * Default protected constructor.
@@ -26,7 +28,7 @@ public abstract class Media {
      */
     protected Media(String id, String title) {
         this.id = id;
-        this.title = title;
+        setTitle(title);
     }
 
     /**
@@ -51,7 +53,30 @@ public abstract class Media {
      * Updates the title of this media.
      * @param title the new title value
      */
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) {
+        this.title = title;
+        this.normalizedTitle = TextNormalizer.normalize(title);
+    }
+
+    /**
+     * Returns the title in {@link TextNormalizer} form, computed once when the title is set.
+     * @return the normalized title, or {@code null} if no title is set
+     */
+    public String getNormalizedTitle() { return normalizedTitle; }
+
+    /**
+     * Returns the creator of this media (author, artist, ...) as entered.
+     * Media without a creator return {@code null}.
+     * @return the creator, or {@code null}
+     */
+    public String getCreator() { return null; }
+
+    /**
+     * Returns the creator of this media (author, artist, ...) in {@link TextNormalizer} form.
+     * Media without a creator return {@code null}.
+     * @return the normalized creator, or {@code null}
+     */
+    public String getNormalizedCreator() { return null; }
 
     /**
      * Indicates whether this media is currently borrowed.
@@ -63,7 +88,7 @@ public abstract class Media {
      * Updates the borrowed flag.
      * @param borrowed {@code true} if borrowed; {@code false} otherwise
      */
-    public void setBorrowed(boolean borrowed) { this.borrowed = borrowed; }
+    public void setBorrowed(boolean borrowed) { updateBorrowed(borrowed); }
 
     /**
      * Returns the due date for the current borrow, if any.
@@ -95,15 +120,40 @@ public abstract class Media {
      * @param borrowDate the date the item was borrowed
      */
     public void borrowAt(LocalDate borrowDate) {
-        this.borrowed = true;
         this.dueDate = borrowDate.plusDays(getBorrowPeriod());
+        updateBorrowed(true);
     }
 
     /**
      * Marks this media as returned (not borrowed) and clears the due date.
      */
     public void markReturned() {
-        this.borrowed = false;
         this.dueDate = null;
+        updateBorrowed(false);
+    }
+
+    /**
+     * Returns the listener notified on availability changes, if any.
+     * @return the listener or {@code null}
+     */
+    public MediaAvailabilityListener getAvailabilityListener() { return availabilityListener; }
+
+    /**
+     * Registers the listener notified whenever the borrowed flag changes.
+     * @param availabilityListener the listener, or {@code null} to remove it
+     */
+    public void setAvailabilityListener(MediaAvailabilityListener availabilityListener) {
+        this.availabilityListener = availabilityListener;
+    }
+
+    /**
+     * Sets the borrowed flag and notifies the listener if the value changed.
+     */
+    private void updateBorrowed(boolean borrowed) {
+        boolean changed = this.borrowed != borrowed;
+        this.borrowed = borrowed;
+        if (changed && availabilityListener != null) {
+            availabilityListener.availabilityChanged(this);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package domain;
+
+/**
+ * Callback notified when a media item switches between borrowed and available.
+ *
+ * <p>Repositories register one on the items they store so derived data (cached search
+ * results, availability indexes) can be invalidated precisely when availability changes.</p>
+ */
+public interface MediaAvailabilityListener {
+
+    /**
+     * Called after the borrowed flag of the media changed.
+     *
+     * @param media the media whose availability changed (its new state is {@link Media#isBorrowed()})
+     */
+    void availabilityChanged(Media media);
+}
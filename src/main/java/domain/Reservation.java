@@ -0,0 +1,104 @@
+package domain;
+
+import java.time.LocalDate;
+
+/**
+ * A member's place in the hold queue of one media item.
+ *
+ * <p>Reservations of an item are numbered with consecutive tickets in the order they were
+ * placed; the ticket is what makes queue positions computable without walking the queue.</p>
+ */
+public class Reservation {
+
+    private final String mediaId;
+    private final String memberId;
+    private final long ticket;
+    private final LocalDate placedOn;
+    private ReservationStatus status = ReservationStatus.WAITING;
+    private LocalDate readyUntil;
+
+    /**
+     * Creates a waiting reservation.
+     *
+     * @param mediaId the reserved media id (ISBN for books, catalog code for CDs)
+     * @param memberId the member's email/username
+     * @param ticket the ticket number within the item's queue
+     * @param placedOn the date the reservation was placed
+     */
+    public Reservation(String mediaId, String memberId, long ticket, LocalDate placedOn) {
+        this.mediaId = mediaId;
+        this.memberId = memberId;
+        this.ticket = ticket;
+        this.placedOn = placedOn;
+    }
+
+    /**
+     * Returns the reserved media id.
+     * @return media id
+     */
+    public String getMediaId() { return mediaId; }
+
+    /**
+     * Returns the member who placed the reservation.
+     * @return member email/username
+     */
+    public String getMemberId() { return memberId; }
+
+    /**
+     * Returns the ticket number within the item's queue.
+     * @return ticket number
+     */
+    public long getTicket() { return ticket; }
+
+    /**
+     * Returns the date the reservation was placed.
+     * @return placement date
+     */
+    public LocalDate getPlacedOn() { return placedOn; }
+
+    /**
+     * Returns the current status.
+     * @return status
+     */
+    public ReservationStatus getStatus() { return status; }
+
+    /**
+     * Returns the last day the held item may be picked up.
+     * @return pickup deadline, or {@code null} unless the reservation is {@link ReservationStatus#READY}
+     */
+    public LocalDate getReadyUntil() { return readyUntil; }
+
+    /**
+     * Marks the item as held for this member until the given date.
+     * @param readyUntil last pickup day
+     */
+    public void markReady(LocalDate readyUntil) {
+        this.status = ReservationStatus.READY;
+        this.readyUntil = readyUntil;
+    }
+
+    /**
+     * Moves the reservation to a terminal status.
+     * @param status {@link ReservationStatus#FULFILLED}, {@link ReservationStatus#EXPIRED}
+     *               or {@link ReservationStatus#CANCELLED}
+     */
+    public void close(ReservationStatus status) {
+        if (status == ReservationStatus.WAITING || status == ReservationStatus.READY) {
+            throw new IllegalArgumentException("Not a terminal status: " + status);
+        }
+        this.status = status;
+    }
+
+    /**
+     * Indicates whether the reservation is still waiting or held.
+     * @return true while {@link ReservationStatus#WAITING} or {@link ReservationStatus#READY}
+     */
+    public boolean isOpen() {
+        return status == ReservationStatus.WAITING || status == ReservationStatus.READY;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" + mediaId + ", " + memberId + ", #" + ticket + ", " + status + "}";
+    }
+}
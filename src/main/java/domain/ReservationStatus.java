@@ -0,0 +1,32 @@
+package domain;
+
+/**
+ * Lifecycle of a {@link Reservation} in a media item's hold queue.
+ */
+public enum ReservationStatus {
+
+    /**
+     * Queued behind other holders; the item is still out or held for someone else.
+     */
+    WAITING,
+
+    /**
+     * The item was returned and is held on the shelf for this member until the pickup deadline.
+     */
+    READY,
+
+    /**
+     * The member borrowed the held item.
+     */
+    FULFILLED,
+
+    /**
+     * The pickup deadline passed, or the member was not eligible to borrow when the item came back.
+     */
+    EXPIRED,
+
+    /**
+     * The member withdrew the reservation.
+     */
+    CANCELLED
+}
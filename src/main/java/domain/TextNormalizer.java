@@ -0,0 +1,80 @@
+package domain;
+
+import java.text.Normalizer;
+
+/**
+ * Normalizes free text (titles, author names, search keywords) into a canonical
+ * form so that catalog searches match regardless of case, accents or Arabic spelling variants.
+ *
+ * <p>The pipeline applied by {@link #normalize(String)} is:</p>
+ * <ul>
+ *   <li>Unicode compatibility decomposition (also maps Arabic presentation forms to base letters)</li>
+ *   <li>Removal of combining marks: Latin accents and Arabic diacritics (harakat, shadda, sukun, hamza marks)</li>
+ *   <li>Removal of tatweel (kashida) characters</li>
+ *   <li>Arabic letter unification: alef variants to bare alef, taa marbuta to haa, alef maksura to yaa</li>
+ *   <li>Locale-independent lower-casing and whitespace collapsing</li>
+ * </ul>
+ *
+ * <p>Normalization is meant to be applied once per stored value (see
+ * {@link Media#getNormalizedTitle()}) and once per query keyword, so comparisons
+ * themselves are plain {@link String#contains(CharSequence)} calls.</p>
+ */
+public final class TextNormalizer {
+
+    private static final char TATWEEL = '\u0640';
+    private static final char ALEF = '\u0627';
+    private static final char ALEF_WASLA = '\u0671';
+    private static final char TAA_MARBUTA = '\u0629';
+    private static final char HAA = '\u0647';
+    private static final char ALEF_MAKSURA = '\u0649';
+    private static final char YAA = '\u064A';
+
+    private TextNormalizer() { }
+
+    /**
+     * Returns the canonical search form of the given text.
+     *
+     * @param text the text to normalize (may be {@code null})
+     * @return the normalized text, or {@code null} if {@code text} is {@code null}
+     */
+    public static String normalize(String text) {
+        if (text == null) return null;
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (c == TATWEEL || Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(fold(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Unifies Arabic letter variants and lower-cases everything else.
+     */
+    private static char fold(char c) {
+        switch (c) {
+            case ALEF_WASLA:
+                return ALEF;
+            case TAA_MARBUTA:
+                return HAA;
+            case ALEF_MAKSURA:
+                return YAA;
+            default:
+                return Character.toLowerCase(c);
+        }
+    }
+}
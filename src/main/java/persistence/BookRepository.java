@@ -1,23 +1,97 @@
 package persistence;
 
+import domain.AuthorDictionary;
 import domain.Book;
+import domain.MediaAvailabilityListener;
+import domain.TextNormalizer;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import applicationsearchbooks.BookIndexFile;
+import applicationsearchbooks.BookIndexSet;
+import applicationsearchbooks.BookQuery;
+import applicationsearchbooks.BookSearchIndex;
 import applicationsearchbooks.BookSearchStrategy;
+import applicationsearchbooks.BrowseCursor;
+import applicationsearchbooks.BrowsePage;
+import applicationsearchbooks.ColumnarBookCatalog;
+import applicationsearchbooks.FacetedResult;
+import applicationsearchbooks.SearchResultCache;
+import applicationsearchbooks.ShardedBookScanner;
 
 /**
  * Repository class for managing Book entities in temporary storage.
  *
  * <p>Provides methods to add, remove, retrieve, and search for books.
- * This implementation uses a static ArrayList to store all book instances during runtime.</p>
+ * This implementation uses a static ArrayList to store all book instances during runtime.
+ * Mutations made through this API and all indexed searches are guarded by a read/write lock,
+ * so concurrent searches can run in parallel with each other. Stored books are also registered
+ * in the shared {@link MediaCatalog}, which answers ISBN lookups and first-match searches.</p>
+ *
+ * <p>Results of cacheable searches are kept in a {@link SearchResultCache}. Every catalog change
+ * made through this class bumps a catalog version, and borrow/return of a stored book bumps an
+ * availability version (via a {@link MediaAvailabilityListener}); cached results computed at an
+ * older version are discarded on their next lookup.</p>
+ *
+ * <p>Bulk imports ({@link #importBooks(Collection)}) and {@link #rebuildIndexesInBackground()}
+ * build a fresh {@link BookIndexSet} on a background thread from a snapshot of the catalog while
+ * searches keep using the current, complete set. Changes made through this API during the build
+ * are buffered and replayed onto the new set, which is then published with one reference swap.</p>
  */
 public class BookRepository {
 
   private static ArrayList<Book> books = new ArrayList<>();
+  /** The complete index set searches run against; replaced wholesale by background rebuilds. */
+  private static final AtomicReference<BookIndexSet> indexes = new AtomicReference<>(new BookIndexSet());
+  /** {@code true} when the list may have changed outside the repository API and the index must be rebuilt. */
+  private static boolean indexStale = true;
+  /**
+   * Expected content of the list handed out by {@link #getBooks()}, kept in step with API changes,
+   * or {@code null} if the list is not exposed; guarded by {@link #lock}.
+   */
+  private static ArrayList<Book> exposedSnapshot;
+  private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private static final ShardedBookScanner scanner = new ShardedBookScanner();
+  private static final SearchResultCache resultCache = new SearchResultCache(1024);
+  /** Incremented on every catalog change; guarded by {@link #lock}. */
+  private static long catalogVersion;
+  private static final AtomicLong availabilityVersion = new AtomicLong();
+  private static final MediaAvailabilityListener availabilityListener = media -> {
+      availabilityVersion.incrementAndGet();
+      MediaCatalog.availabilityChanged(media);
+  };
+  /** Columnar snapshot of {@link #books}, valid while {@link #columnarVersion} equals {@link #catalogVersion}. */
+  private static ColumnarBookCatalog columnarCatalog;
+  private static long columnarVersion = -1;
+  private static final Object columnarMonitor = new Object();
+  /** Incremented whenever the catalog changes in a way a background build cannot replay; guarded by {@link #lock}. */
+  private static long indexGeneration;
+  /** Changes made during a background build, replayed onto its result; {@code null} when no build runs. Guarded by {@link #lock}. */
+  private static List<Consumer<BookIndexSet>> pendingUpdates;
+  /** Completion of the running background build, or {@code null}; guarded by {@link #lock}. */
+  private static CompletableFuture<Void> backgroundRebuild;
+  private static final ExecutorService indexBuilder = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "book-index-builder");
+      thread.setDaemon(true);
+      return thread;
+  });
   private BookSearchStrategy searchStrategy;
   
   private static final Logger logger = Logger.getLogger(BookRepository.class.getName());
@@ -46,11 +120,31 @@ public class BookRepository {
    * @throws IllegalStateException if no search strategy has been set
    */
   public List<Book> search(String keyword) {
-      if (searchStrategy == null) {
+      return search(searchStrategy, keyword);
+  }
+
+  /**
+   * Searches the repository with an explicit strategy supplied for this request only.
+   *
+   * <p>Unlike {@link #setSearchStrategy(BookSearchStrategy)} this does not change shared state,
+   * so concurrent callers can use different strategies safely. If the strategy provides a
+   * {@link BookSearchStrategy#cacheKey(String) cache key}, the result is served from and stored
+   * in the result cache.</p>
+   *
+   * @param strategy the strategy to apply
+   * @param keyword the keyword to search for
+   * @return a list of books matching the keyword; empty if no books match
+   * @throws IllegalStateException if {@code strategy} is {@code null}
+   */
+  public List<Book> search(BookSearchStrategy strategy, String keyword) {
+      if (strategy == null) {
           throw new IllegalStateException("Search strategy not set.");
       }
 
-      List<Book> result = searchStrategy.searchBook(books, keyword);
+      String key = strategy.cacheKey(keyword);
+      List<Book> result = withIndexes(set -> key == null
+          ? strategy.searchBook(books, keyword)
+          : cached(strategy.getClass().getName() + ':' + key, false, () -> strategy.searchBook(books, keyword)));
 
       logger.info("Searching for keyword: " + keyword);
       logger.info("Found " + result.size() + " book(s).");
@@ -58,22 +152,404 @@ public class BookRepository {
       return result;
   }
 
+  /**
+   * Searches the catalog in columnar mode.
+   *
+   * <p>Instead of visiting each {@link Book} object, the strategy scans a
+   * {@link ColumnarBookCatalog} in which normalized titles, authors and ISBNs are packed into
+   * contiguous byte arrays. The packed snapshot is built on first use and reused until the
+   * catalog changes. Results are the same as {@link #search(BookSearchStrategy, String)}.</p>
+   *
+   * @param strategy the strategy to apply
+   * @param keyword the keyword to search for
+   * @return a list of books matching the keyword; empty if no books match
+   * @throws IllegalStateException if {@code strategy} is {@code null}
+   */
+  public static List<Book> searchColumnar(BookSearchStrategy strategy, String keyword) {
+      if (strategy == null) {
+          throw new IllegalStateException("Search strategy not set.");
+      }
+
+      return withIndexes(set -> strategy.searchColumnar(columnarCatalog(), keyword));
+  }
+
+  /**
+   * Returns the columnar snapshot for the current catalog version, repacking it if the catalog changed.
+   * Must be called while holding {@link #lock}.
+   */
+  private static ColumnarBookCatalog columnarCatalog() {
+      synchronized (columnarMonitor) {
+          if (columnarCatalog == null || columnarVersion != catalogVersion) {
+              columnarCatalog = ColumnarBookCatalog.of(books);
+              columnarVersion = catalogVersion;
+          }
+          return columnarCatalog;
+      }
+  }
+
+  /**
+   * Returns the books most relevant to a free-text query, best match first.
+   *
+   * <p>Books are scored with BM25 over their title and author (title boosted) using an
+   * inverted index maintained on {@link #addBook(Book)} and {@link #removeBook(Book)};
+   * only the top {@code limit} matches are kept. The index is rebuilt lazily if the
+   * underlying list was changed through {@link #getBooks()} or replaced via {@link #setBooks(ArrayList)}.</p>
+   *
+   * @param keyword the free-text query
+   * @param limit the maximum number of books to return
+   * @return up to {@code limit} books in descending relevance order (never null)
+   */
+  public static List<Book> searchRanked(String keyword, int limit) {
+      String key = "ranked:" + limit + ':' + TextNormalizer.normalize(keyword);
+      List<Book> result = withIndex(index -> cached(key, false, () -> index.searchRanked(keyword, limit)));
+      logger.fine(() -> "Ranked search for '" + keyword + "' returned " + result.size() + " book(s).");
+      return result;
+  }
+
+  /**
+   * Returns the books matching every criterion of a structured query, in catalog order.
+   *
+   * <p>The query is planned against the repository indexes: the most selective of the ISBN,
+   * title and author indexes produces the candidates and the remaining criteria filter them.</p>
+   *
+   * @param query the immutable query to run
+   * @param limit the maximum number of books to return
+   * @return up to {@code limit} matching books (never null)
+   */
+  public static List<Book> search(BookQuery query, int limit) {
+      String key = "query:" + limit + ':' + (query == null ? null : query.cacheKey());
+      List<Book> result = withIndex(index ->
+          cached(key, query != null && query.isAvailableOnly(), () -> index.search(query, limit)));
+      logger.fine(() -> "Query " + query + " returned " + result.size() + " book(s).");
+      return result;
+  }
+
+  /**
+   * Returns books matching a keyword together with author and availability facet counts.
+   *
+   * @param keyword the keyword matched against title, author and ISBN ({@code null} or blank for all books)
+   * @param author author facet to drill into ({@code null} for all authors)
+   * @param limit the maximum number of books to return
+   * @param topAuthors the maximum number of author facet entries
+   * @return the first {@code limit} matching books and counts over all matches
+   */
+  public static FacetedResult<Book> searchWithFacets(String keyword, String author, int limit, int topAuthors) {
+      return withIndex(index -> MediaCatalog.searchWithFacets(keyword, Book.class, author, limit, topAuthors));
+  }
+
+  /**
+   * Lists books in title order, starting at the first title at or after {@code fromTitle}.
+   *
+   * <p>Books are kept in a sorted skip-list index maintained on add and remove, so starting a
+   * listing anywhere is a logarithmic seek and only the requested page is read. Continue with
+   * {@link #browseAfter(BrowseCursor, int)} using the page's cursor.</p>
+   *
+   * @param fromTitle where to start, compared in {@link TextNormalizer} form ({@code null} for the beginning)
+   * @param limit the page size
+   * @return the first page
+   */
+  public static BrowsePage browseByTitle(String fromTitle, int limit) {
+      return withIndexes(set -> set.getTitleOrder().browse(fromTitle, limit));
+  }
+
+  /**
+   * Lists books in author order (then title), starting at the first author at or after {@code fromAuthor}.
+   *
+   * @param fromAuthor where to start, compared in {@link TextNormalizer} form ({@code null} for the beginning)
+   * @param limit the page size
+   * @return the first page
+   */
+  public static BrowsePage browseByAuthor(String fromAuthor, int limit) {
+      return withIndexes(set -> set.getAuthorOrder().browse(fromAuthor, limit));
+  }
+
+  /**
+   * Continues a title or author listing after the cursor of a previous page.
+   *
+   * @param cursor the previous page's {@link BrowsePage#getNextCursor() next cursor}
+   * @param limit the page size
+   * @return the next page
+   * @throws IllegalArgumentException if {@code cursor} is {@code null}
+   */
+  public static BrowsePage browseAfter(BrowseCursor cursor, int limit) {
+      if (cursor == null) throw new IllegalArgumentException("Cursor is required.");
+      return withIndexes(set -> set.sortedBy(cursor.getOrder()).browseAfter(cursor, limit));
+  }
+
+  /**
+   * Finds books matching an ad-hoc predicate that no index covers.
+   *
+   * <p>The catalog is snapshotted and scanned in parallel shards on the fork-join pool;
+   * the scan stops as soon as {@code limit} matches have been collected.</p>
+   *
+   * @param predicate the match condition (must be thread-safe)
+   * @param limit the maximum number of books to return
+   * @return up to {@code limit} matching books in catalog order (never null)
+   */
+  public static List<Book> scan(Predicate<? super Book> predicate, int limit) {
+      List<Book> snapshot;
+      lock.readLock().lock();
+      try {
+          snapshot = new ArrayList<>(books);
+      } finally {
+          lock.readLock().unlock();
+      }
+      return scanner.scan(snapshot, predicate, limit);
+  }
+
+  /**
+   * Returns the cache holding search results, e.g. to read its hit/miss/eviction metrics.
+   *
+   * @return the repository-wide search result cache
+   */
+  public static SearchResultCache getSearchCache() {
+      return resultCache;
+  }
+
+  /**
+   * Returns a cached result that is still valid, or computes and caches it.
+   * Must be called while holding {@link #lock} so the catalog version cannot change meanwhile.
+   */
+  private static List<Book> cached(String key, boolean availabilityDependent, Supplier<List<Book>> search) {
+      long availability = availabilityVersion.get();
+      List<Book> hit = resultCache.get(key, catalogVersion, availability);
+      if (hit != null) return hit;
+      return resultCache.put(key, search.get(), catalogVersion, availability, availabilityDependent);
+  }
+
+  /**
+   * Runs a read-only operation against the search index, rebuilding it first if it is stale.
+   */
+  private static <T> T withIndex(Function<BookSearchIndex, T> operation) {
+      return withIndexes(set -> operation.apply(set.getSearchIndex()));
+  }
+
+  /**
+   * Runs a read-only operation against the current index set, rebuilding it first if it is stale.
+   * The operation runs under the read lock unless the list handed out by {@link #getBooks()} has
+   * to be checked for direct changes first, which takes the write lock.
+   */
+  private static <T> T withIndexes(Function<BookIndexSet, T> operation) {
+      lock.readLock().lock();
+      try {
+          if (!indexStale && exposedSnapshot == null) return operation.apply(indexes.get());
+      } finally {
+          lock.readLock().unlock();
+      }
+
+      lock.writeLock().lock();
+      try {
+          reconcileExposedList();
+          if (indexStale) {
+              indexes.get().rebuild(books);
+              books.forEach(b -> b.setAvailabilityListener(availabilityListener));
+              MediaCatalog.replaceAll(Book.class, books);
+              indexStale = false;
+              indexGeneration++;
+          }
+          return operation.apply(indexes.get());
+      } finally {
+          lock.writeLock().unlock();
+      }
+  }
+
+  /**
+   * Adds many books at once without blocking searches while they are indexed.
+   *
+   * <p>The books are stored immediately (so {@link #findAll()} and strategy searches see them),
+   * and the indexes are rebuilt in the background as in {@link #rebuildIndexesInBackground()}.
+   * Indexed lookups keep answering from the previous complete indexes until the returned future
+   * completes, after which the imported books are searchable everywhere.</p>
+   *
+   * @param imported the books to add (null entries are ignored)
+   * @return a future completed once the indexes include the imported books
+   * @throws IllegalArgumentException if {@code imported} is {@code null}
+   */
+  public static CompletableFuture<Void> importBooks(Collection<Book> imported) {
+      if (imported == null) throw new IllegalArgumentException("Books to import are required.");
+      lock.writeLock().lock();
+      try {
+          reconcileExposedList();
+          for (Book book : imported) {
+              if (book == null) continue;
+              books.add(book);
+              book.setAvailabilityListener(availabilityListener);
+              if (pendingUpdates != null) pendingUpdates.add(set -> set.add(book));
+          }
+          catalogVersion++;
+          return rebuildIndexesInBackground();
+      } finally {
+          lock.writeLock().unlock();
+      }
+  }
+
+  /**
+   * Rebuilds all book indexes on a background thread and swaps them in atomically.
+   *
+   * <p>The build runs over a snapshot of the catalog without holding the repository lock, so
+   * searches keep running against the current indexes. Books added or removed through this API
+   * in the meantime are buffered and replayed onto the new indexes just before the swap. If the
+   * list is replaced or changed directly during the build, the result is discarded
+   * and the usual lazy rebuild takes over. A call while a build is running joins that build.</p>
+   *
+   * @return a future completed once the new indexes are in place
+   */
+  public static CompletableFuture<Void> rebuildIndexesInBackground() {
+      lock.writeLock().lock();
+      try {
+          reconcileExposedList();
+          if (backgroundRebuild != null) return backgroundRebuild;
+          List<Book> snapshot = new ArrayList<>(books);
+          long generation = indexGeneration;
+          CompletableFuture<Void> done = new CompletableFuture<>();
+          pendingUpdates = new ArrayList<>();
+          backgroundRebuild = done;
+          indexBuilder.execute(() -> buildAndSwap(snapshot, generation, done));
+          return done;
+      } finally {
+          lock.writeLock().unlock();
+      }
+  }
+
+  /**
+   * Indicates whether a background index build is running.
+   *
+   * @return true while a build started by {@link #rebuildIndexesInBackground()} is in progress
+   */
+  public static boolean isIndexRebuildInProgress() {
+      lock.readLock().lock();
+      try {
+          return backgroundRebuild != null;
+      } finally {
+          lock.readLock().unlock();
+      }
+  }
+
+  /**
+   * Writes the search index to a file so a later start can load it instead of rebuilding.
+   *
+   * @param file the index file (replaced atomically)
+   * @throws IOException if the file cannot be written
+   * @see BookIndexFile
+   */
+  public static void saveIndexes(Path file) throws IOException {
+      while (true) {
+          withIndex(index -> null);
+          lock.readLock().lock();
+          try {
+              if (indexStale) continue;
+              BookIndexFile.write(file, indexes.get().getSearchIndex(), books);
+              logger.info(() -> "Saved search index for " + books.size() + " book(s) to " + file);
+              return;
+          } finally {
+              lock.readLock().unlock();
+          }
+      }
+  }
+
+  /**
+   * Loads the search index saved for the current catalog, or rebuilds it if the file is missing,
+   * unreadable, or was saved for a different catalog.
+   *
+   * @param file the index file
+   * @return {@code true} if the saved index was loaded, {@code false} if it was rebuilt
+   */
+  public static boolean loadIndexes(Path file) {
+      lock.writeLock().lock();
+      try {
+          BookIndexSet loaded = null;
+          try {
+              BookSearchIndex restored = BookIndexFile.read(file, books);
+              if (restored != null) loaded = BookIndexSet.withSearchIndex(restored, books);
+          } catch (IOException e) {
+              logger.log(Level.WARNING, "Ignoring unreadable search index " + file, e);
+          }
+          indexes.set(loaded != null ? loaded : BookIndexSet.of(books));
+          books.forEach(b -> b.setAvailabilityListener(availabilityListener));
+          MediaCatalog.replaceAll(Book.class, books);
+          indexStale = false;
+          exposedSnapshot = null;
+          indexGeneration++;
+          catalogVersion++;
+          boolean fromFile = loaded != null;
+          logger.info(() -> (fromFile ? "Loaded" : "Rebuilt") + " search index for " + books.size() + " book(s)");
+          return fromFile;
+      } finally {
+          lock.writeLock().unlock();
+      }
+  }
+
+  private static void buildAndSwap(List<Book> snapshot, long generation, CompletableFuture<Void> done) {
+      try {
+          BookIndexSet fresh = BookIndexSet.of(snapshot);
+          snapshot.forEach(MediaCatalog::register);
+
+          lock.writeLock().lock();
+          try {
+              reconcileExposedList();
+              if (generation == indexGeneration) {
+                  pendingUpdates.forEach(update -> update.accept(fresh));
+                  books.forEach(b -> b.setAvailabilityListener(availabilityListener));
+                  indexes.set(fresh);
+                  indexStale = false;
+                  catalogVersion++;
+              } else {
+                  logger.fine("Background index build discarded: catalog was replaced meanwhile.");
+              }
+              // drop catalog registrations of snapshot books removed during the build
+              if (!indexStale) MediaCatalog.reconcile(Book.class, books);
+          } finally {
+              pendingUpdates = null;
+              backgroundRebuild = null;
+              lock.writeLock().unlock();
+          }
+          done.complete(null);
+      } catch (RuntimeException e) {
+          lock.writeLock().lock();
+          try {
+              pendingUpdates = null;
+              backgroundRebuild = null;
+          } finally {
+              lock.writeLock().unlock();
+          }
+          logger.log(Level.WARNING, "Background index build failed", e);
+          done.completeExceptionally(e);
+      }
+  }
+
   /**
    * Adds a new book to the repository.
    *
    * @param book the Book object to add
    */
   public static void addBook(Book book) {
-    books.add(book);
+    lock.writeLock().lock();
+    try {
+      books.add(book);
+      if (book != null) book.setAvailabilityListener(availabilityListener);
+      MediaCatalog.register(book);
+      if (!indexStale) indexes.get().add(book);
+      if (pendingUpdates != null) pendingUpdates.add(set -> set.add(book));
+      if (exposedSnapshot != null) exposedSnapshot.add(book);
+      catalogVersion++;
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
    * Returns the internal list reference of books (mutable).
    * Prefer {@link #findAll()} for an immutable snapshot.
    *
+   * <p>Handing out the list takes the write lock and copies it, so that changes made through the
+   * reference can be detected. The next search then takes the write lock too, compares the list
+   * with that copy and rebuilds the indexes only if it was changed; until that check, searches
+   * cannot run in parallel. Make direct changes before the next repository call.</p>
+   *
    * @return the current internal books list (mutable reference)
    */
   public static ArrayList<Book> getBooks() {
+	exposeList();
 	return books;
 }
 
@@ -83,7 +559,16 @@ public class BookRepository {
    * @param books the new list reference to use as storage (must not be {@code null})
    */
   public static void setBooks(ArrayList<Book> books) {
-	BookRepository.books = books;
+	lock.writeLock().lock();
+	try {
+	  BookRepository.books = books;
+	  indexStale = true;
+	  exposedSnapshot = null;
+	  indexGeneration++;
+	  catalogVersion++;
+	} finally {
+	  lock.writeLock().unlock();
+	}
   }
 
   /**
@@ -92,20 +577,66 @@ public class BookRepository {
    * @param book the Book object to remove
    */
   public static void removeBook(Book book) {
-    books.remove(book);
+    lock.writeLock().lock();
+    try {
+      if (books.remove(book)) {
+        if (!indexStale) indexes.get().remove(book);
+        if (pendingUpdates != null) pendingUpdates.add(set -> set.remove(book));
+        if (exposedSnapshot != null) exposedSnapshot.remove(book);
+        if (book.getAvailabilityListener() == availabilityListener) book.setAvailabilityListener(null);
+        MediaCatalog.unregister(book);
+        catalogVersion++;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
    * Returns all books currently in the repository.
    *
-   * @return a list of all Book objects
+   * @return a list of all Book objects (the internal list, with the costs described at {@link #getBooks()})
    */
   public List<Book> getAllBooks() {
+    exposeList();
     return books;
   }
 
+  /**
+   * Records the list's content when it is handed out, so that a later change made through the
+   * reference can be told apart from a mere read.
+   */
+  private static void exposeList() {
+    lock.writeLock().lock();
+    try {
+      if (exposedSnapshot == null) exposedSnapshot = new ArrayList<>(books);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Compares an exposed list with its expected content and, only if it was changed directly,
+   * marks the indexes stale (discarding any background build). Called with the write lock held.
+   */
+  private static void reconcileExposedList() {
+    if (exposedSnapshot == null) return;
+    boolean changed = exposedSnapshot.size() != books.size();
+    for (int i = 0; !changed && i < books.size(); i++) {
+      changed = exposedSnapshot.get(i) != books.get(i);
+    }
+    exposedSnapshot = null;
+    if (changed) {
+      indexStale = true;
+      indexGeneration++;
+      catalogVersion++;
+    }
+  }
+
   /**
    * Searches for the first book by a keyword across title, author, or ISBN.
+   * Title and author are compared in {@link TextNormalizer} form; the lookup is answered
+   * by the shared {@link MediaCatalog} index.
    *
    * @param keyword the search keyword
    * @return the first matching book or {@code null} if none found
@@ -114,34 +645,44 @@ public class BookRepository {
 	    if (keyword == null || keyword.isEmpty()) {
 	        return null;
 	    }
-
-	    String lowerKeyword = keyword.toLowerCase();
-
-	    return books.stream()
-	        .filter(b -> (b.getTitle() != null && b.getTitle().toLowerCase().contains(lowerKeyword))
-	                  || (b.getAuthor() != null && b.getAuthor().toLowerCase().contains(lowerKeyword))
-	                  || (b.getIsbn() != null && b.getIsbn().toLowerCase().contains(lowerKeyword)))
-	        .findFirst()
-	        .orElse(null); 
+	    return withIndex(index -> MediaCatalog.searchFirst(keyword, Book.class));
 	}
   
   /**
-   * Finds a book by exact ISBN match.
+   * Finds a book by exact ISBN match in constant time via the {@link MediaCatalog}.
    *
    * @param isbn the ISBN value to find
    * @return the matching book or {@code null} if not found
    */
   public static Book findBookByIsbn(String isbn) {
-      return books.stream()
-          .filter(b -> isbn.equals(b.getIsbn()))
-          .findFirst()
-          .map(b -> b)
-          .orElseGet(() -> null);
+      return withIndex(index -> MediaCatalog.findById(isbn, Book.class));
   }
   
+  /**
+   * Lists every book by an author via the author-to-books index. The name may be written in any
+   * spelling that {@link TextNormalizer normalizes} to the author's name.
+   *
+   * @param author the author name
+   * @return the author's books in catalog order (never null)
+   */
+  public static List<Book> findBooksByAuthor(String author) {
+      return withIndex(index -> index.findByAuthor(AuthorDictionary.find(author)));
+  }
+
   /** Clears all books in the repository (useful for tests). */
   public static void clearBooks() {
-	    books.clear();
+	    lock.writeLock().lock();
+	    try {
+	      books.clear();
+	      indexes.get().clear();
+	      MediaCatalog.replaceAll(Book.class, books);
+	      indexStale = false;
+	      exposedSnapshot = null;
+	      indexGeneration++;
+	      catalogVersion++;
+	    } finally {
+	      lock.writeLock().unlock();
+	    }
 	}
   
   /**
@@ -154,11 +695,11 @@ public class BookRepository {
   }
   
   /**
-   * Returns all books currently marked as borrowed.
+   * Returns all books currently marked as borrowed, read from the catalog's borrowed bitmap.
    *
    * @return list of borrowed books
    */
   public static List<Book> findAllBorrowed() {
-      return books.stream().filter(Book::isBorrowed).collect(java.util.stream.Collectors.toList());
+      return withIndex(index -> MediaCatalog.findBorrowed(Book.class));
   }
 }
@@ -1,22 +1,25 @@
 package persistence;
 
 import domain.CD;
+import domain.MediaAvailabilityListener;
+import domain.TextNormalizer;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * In-memory repository for {@link CD} media items.
  *
  * <p>Supports storing, retrieving, and status updates for CDs.
- * Not intended for production use.</p>
+ * Stored CDs are registered in the shared {@link MediaCatalog}, which answers id lookups
+ * and keyword searches. Not intended for production use.</p>
  */
 public class CDRepository {
 
     private static final Logger LOGGER = Logger.getLogger(CDRepository.class.getName());
     private static ArrayList<CD> cds = new ArrayList<>();
+    private static final MediaAvailabilityListener availabilityListener = MediaCatalog::availabilityChanged;
 
     /**
      * Creates a new {@code CDRepository} with empty storage.
@@ -30,6 +33,8 @@ public class CDRepository {
     public static void addCD(CD cd) {
         if (cd == null) return;
         cds.add(cd);
+        cd.setAvailabilityListener(availabilityListener);
+        MediaCatalog.register(cd);
         LOGGER.fine(() -> "Added CD: " + cd.getId());
     }
 
@@ -39,7 +44,10 @@ public class CDRepository {
      */
     public static void removeCD(CD cd) {
         if (cd == null) return;
-        cds.remove(cd);
+        if (cds.remove(cd)) {
+            if (cd.getAvailabilityListener() == availabilityListener) cd.setAvailabilityListener(null);
+            MediaCatalog.unregister(cd);
+        }
         LOGGER.fine(() -> "Removed CD: " + cd.getId());
     }
 
@@ -49,24 +57,18 @@ public class CDRepository {
      * @return the matching CD or {@code null} if not found
      */
     public static CD findById(String id) {
-        if (id == null) return null;
-        return cds.stream().filter(c -> id.equals(c.getId())).findFirst().orElse(null);
+        return MediaCatalog.findById(id, CD.class);
     }
 
     /**
      * Simple keyword search across title, artist, id.
+     * Title and artist are compared in {@link TextNormalizer} form.
      * Returns the first match or {@code null}.
      * @param keyword the search keyword
      * @return a matching CD or {@code null}
      */
     public static CD searchFirst(String keyword) {
-        if (keyword == null || keyword.isEmpty()) return null;
-        String lower = keyword.toLowerCase();
-        return cds.stream().filter(c ->
-                (c.getTitle() != null && c.getTitle().toLowerCase().contains(lower)) ||
-                (c.getArtist() != null && c.getArtist().toLowerCase().contains(lower)) ||
-                (c.getId() != null && c.getId().toLowerCase().contains(lower))
-        ).findFirst().orElse(null);
+        return MediaCatalog.searchFirst(keyword, CD.class);
     }
 
     /**
@@ -78,14 +80,20 @@ public class CDRepository {
     /**
      * Clear repository (useful for tests).
      */
-    public static void clearCDs() { cds.clear(); }
+    public static void clearCDs() {
+        cds.forEach(cd -> {
+            if (cd.getAvailabilityListener() == availabilityListener) cd.setAvailabilityListener(null);
+        });
+        cds.clear();
+        MediaCatalog.replaceAll(CD.class, cds);
+    }
 
     /**
-     * Find borrowed CDs (active loans perspective).
+     * Find borrowed CDs (active loans perspective) from the catalog's borrowed bitmap.
      * @return list of CDs currently marked as borrowed
      */
     public static List<CD> findAllBorrowed() {
-        return cds.stream().filter(CD::isBorrowed).collect(Collectors.toList());
+        return MediaCatalog.findBorrowed(CD.class);
     }
 
     /**
@@ -96,7 +104,7 @@ public class CDRepository {
     public static boolean removeById(String id) {
         CD found = findById(id);
         if (found != null) {
-            cds.remove(found);
+            removeCD(found);
             return true;
         }
         return false;
@@ -0,0 +1,84 @@
+package persistence;
+
+import domain.Book;
+import domain.BookCopy;
+import domain.Holding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * In-memory repository of {@link Holding}s (title record plus copies), keyed by ISBN.
+ *
+ * <p>Holdings and copies are kept in concurrent maps, so lookups and checkouts of different
+ * titles never contend and checkouts of the same title only contend on its atomic counters.</p>
+ */
+public class HoldingsRepository {
+
+    private static final Logger LOGGER = Logger.getLogger(HoldingsRepository.class.getName());
+    private static final ConcurrentHashMap<String, Holding> holdings = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, BookCopy> copies = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@code HoldingsRepository}; all state is static.
+     */
+    public HoldingsRepository() { }
+
+    /**
+     * Adds copies of a title, creating its holdings on first use.
+     *
+     * @param title the title record (its ISBN keys the holdings)
+     * @param count the number of copies to add (must be positive)
+     * @return the title's holdings
+     */
+    public static Holding addCopies(Book title, int count) {
+        if (title == null || title.getIsbn() == null) {
+            throw new IllegalArgumentException("Title with an ISBN is required.");
+        }
+        Holding holding = holdings.computeIfAbsent(title.getIsbn(), isbn -> new Holding(title));
+        for (BookCopy copy : holding.addCopies(count)) {
+            copies.put(copy.getId(), copy);
+        }
+        LOGGER.fine(() -> "Added " + count + " copies of " + title.getIsbn());
+        return holding;
+    }
+
+    /**
+     * Finds the holdings of a title.
+     *
+     * @param isbn the title's ISBN
+     * @return the holdings, or {@code null} if the title has no copies
+     */
+    public static Holding findByIsbn(String isbn) {
+        return isbn == null ? null : holdings.get(isbn);
+    }
+
+    /**
+     * Finds a copy by its id.
+     *
+     * @param copyId the copy id ({@code <isbn>#<n>})
+     * @return the copy, or {@code null} if unknown
+     */
+    public static BookCopy findCopy(String copyId) {
+        return copyId == null ? null : copies.get(copyId);
+    }
+
+    /**
+     * Returns a snapshot of all holdings.
+     *
+     * @return list of holdings (never null)
+     */
+    public static List<Holding> findAll() {
+        return new ArrayList<>(holdings.values());
+    }
+
+    /**
+     * Clears all holdings (useful for tests).
+     */
+    public static void clearHoldings() {
+        holdings.clear();
+        copies.clear();
+    }
+}
@@ -3,7 +3,10 @@ package persistence;
 import domain.Loan;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
 /**
@@ -157,4 +160,19 @@ public class LoanRepository {
                         && l.isOverdue(today))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Groups active overdue loans by member in a single pass over the loans.
+     *
+     * @param today    the reference date used to determine whether a loan is overdue
+     * @param parallel whether to scan the loans with a parallel stream
+     * @return member id to that member's overdue loans, in loan order (never null)
+     */
+    public static Map<String, List<Loan>> groupActiveOverdueByMember(LocalDate today, boolean parallel) {
+        List<Loan> snapshot = new ArrayList<>(loans);
+        Stream<Loan> stream = parallel ? snapshot.parallelStream() : snapshot.stream();
+        return stream
+                .filter(l -> !l.isReturned() && l.getMemberId() != null && l.isOverdue(today))
+                .collect(Collectors.groupingBy(Loan::getMemberId, LinkedHashMap::new, Collectors.toList()));
+    }
 }
@@ -0,0 +1,275 @@
+package persistence;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+import applicationsearchbooks.FacetedResult;
+import applicationsearchbooks.MediaSearchIndex;
+import domain.Media;
+
+/**
+ * Polymorphic catalog of every {@link Media} item stored by the type-specific repositories.
+ *
+ * <p>{@link BookRepository} and {@link CDRepository} register the items they store here, so all
+ * media share one {@link MediaSearchIndex}: ids resolve in constant time and a keyword search
+ * over title, creator and id is a single indexed query, optionally restricted to one media
+ * type. The catalog is fed only by those repositories; callers use the lookup methods.</p>
+ *
+ * <p>Borrowed status is tracked in the index as a compressed bitmap. The repositories attach
+ * availability listeners that forward borrow/return events to {@link #availabilityChanged(Media)},
+ * so borrowed listings and availability-filtered queries never scan the stored items.</p>
+ *
+ * <p>Access is guarded by a read/write lock, so lookups can run in parallel with each other.</p>
+ */
+public class MediaCatalog {
+
+    private static final Logger LOGGER = Logger.getLogger(MediaCatalog.class.getName());
+    private static final MediaSearchIndex index = new MediaSearchIndex();
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates a new {@code MediaCatalog}; all state is static.
+     */
+    public MediaCatalog() { }
+
+    /**
+     * Registers a stored item.
+     * @param media the item (ignored if {@code null} or already registered)
+     */
+    static void register(Media media) {
+        lock.writeLock().lock();
+        try {
+            if (index.add(media)) LOGGER.fine(() -> "Registered media: " + media.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Unregisters an item that is no longer stored.
+     * @param media the item
+     */
+    static void unregister(Media media) {
+        lock.writeLock().lock();
+        try {
+            index.remove(media);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces every registered item of one type with the given items.
+     * @param type the media type owned by the calling repository
+     * @param items the items now stored for that type
+     */
+    static void replaceAll(Class<? extends Media> type, Collection<? extends Media> items) {
+        lock.writeLock().lock();
+        try {
+            index.removeAll(type);
+            for (Media media : items) {
+                if (type.isInstance(media)) index.add(media);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the items of one type in line with the given collection, touching only the
+     * difference: items already indexed are kept, missing ones are added and the rest removed.
+     */
+    static void reconcile(Class<? extends Media> type, Collection<? extends Media> items) {
+        Set<Media> wanted = Collections.newSetFromMap(new IdentityHashMap<>());
+        wanted.addAll(items);
+        lock.writeLock().lock();
+        try {
+            for (Media indexed : index.findAll(type)) {
+                if (!wanted.contains(indexed)) index.remove(indexed);
+            }
+            for (Media media : items) {
+                if (type.isInstance(media)) index.add(media);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a registered item was borrowed or returned.
+     * @param media the item whose borrowed flag changed
+     */
+    static void availabilityChanged(Media media) {
+        lock.writeLock().lock();
+        try {
+            index.availabilityChanged(media);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds any media item by its exact id.
+     *
+     * @param id the media id (ISBN for books, catalog code for CDs)
+     * @return the matching item or {@code null} if not found
+     */
+    public static Media findById(String id) {
+        return findById(id, Media.class);
+    }
+
+    /**
+     * Finds a media item of the given type by its exact id.
+     *
+     * @param id the media id
+     * @param type the expected media type
+     * @param <T> the media type
+     * @return the matching item or {@code null} if not found
+     */
+    public static <T extends Media> T findById(String id, Class<T> type) {
+        lock.readLock().lock();
+        try {
+            return index.findById(id, type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the first item of the given type whose title, creator or id contains the keyword.
+     * Title and creator are compared in normalized form, the id ignoring case.
+     *
+     * @param keyword the search keyword
+     * @param type the media type to search ({@code Media.class} for all)
+     * @param <T> the media type
+     * @return the earliest registered match, or {@code null}
+     */
+    public static <T extends Media> T searchFirst(String keyword, Class<T> type) {
+        List<T> found = search(keyword, type, 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Returns items of the given type whose title, creator or id contains the keyword.
+     *
+     * @param keyword the search keyword
+     * @param type the media type to search ({@code Media.class} for all)
+     * @param limit maximum number of items to return
+     * @param <T> the media type
+     * @return up to {@code limit} matches in registration order (never null)
+     */
+    public static <T extends Media> List<T> search(String keyword, Class<T> type, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(keyword, type, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns items of the given type that match the keyword and are not borrowed.
+     *
+     * @param keyword the search keyword
+     * @param type the media type to search ({@code Media.class} for all)
+     * @param limit maximum number of items to return
+     * @param <T> the media type
+     * @return up to {@code limit} available matches in registration order (never null)
+     */
+    public static <T extends Media> List<T> searchAvailable(String keyword, Class<T> type, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.searchAvailable(keyword, type, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts items of the given type that match the keyword and are not borrowed.
+     *
+     * @param keyword the search keyword
+     * @param type the media type to count ({@code Media.class} for all)
+     * @return number of available matches
+     */
+    public static int countAvailable(String keyword, Class<? extends Media> type) {
+        lock.readLock().lock();
+        try {
+            return index.countAvailable(keyword, type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a page of matches together with creator, media-type and availability counts
+     * over all matches.
+     *
+     * @param keyword the search keyword ({@code null} or blank to browse every item)
+     * @param type the media type to search ({@code Media.class} for all)
+     * @param creator creator facet to drill into ({@code null} for all creators)
+     * @param limit maximum number of items to return
+     * @param topCreators maximum number of creator facet entries
+     * @param <T> the media type
+     * @return results in registration order and their facet counts
+     */
+    public static <T extends Media> FacetedResult<T> searchWithFacets(String keyword, Class<T> type, String creator,
+                                                                      int limit, int topCreators) {
+        lock.readLock().lock();
+        try {
+            return index.searchWithFacets(keyword, type, creator, limit, topCreators);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every borrowed item of the given type.
+     *
+     * @param type the media type ({@code Media.class} for all)
+     * @param <T> the media type
+     * @return borrowed items in registration order (never null)
+     */
+    public static <T extends Media> List<T> findBorrowed(Class<T> type) {
+        lock.readLock().lock();
+        try {
+            return index.findBorrowed(type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts borrowed items of the given type.
+     *
+     * @param type the media type ({@code Media.class} for all)
+     * @return number of borrowed items
+     */
+    public static int countBorrowed(Class<? extends Media> type) {
+        lock.readLock().lock();
+        try {
+            return index.countBorrowed(type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of registered items.
+     *
+     * @return registered item count
+     */
+    public static int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package persistence;
+
+import domain.Reservation;
+import domain.ReservationStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * In-memory repository of per-media FIFO hold queues.
+ *
+ * <p>Each item's queue hands out consecutive tickets, so a member's position is the distance
+ * between their ticket and the first ticket still waiting. Cancelled reservations are left in the
+ * queue and skipped when they reach the front; while any are pending, a Fenwick tree over ticket
+ * offsets subtracts the cancelled tickets ahead of a member in O(log n). Without pending
+ * cancellations a position lookup is plain arithmetic.</p>
+ *
+ * <p>Items held for pickup are tracked in a min-heap ordered by pickup deadline, so expiring holds
+ * only touches the holds that are actually due. Entries whose reservation was fulfilled or
+ * cancelled in the meantime are discarded when they surface.</p>
+ *
+ * <p>A single item has at most one ready hold ({@link #handOff(String, LocalDate, Predicate)}). A
+ * title lent in several copies can have one per copy set aside, placed with
+ * {@link #holdNext(String, LocalDate, Predicate)}.</p>
+ *
+ * <p>All operations run under one monitor, so a return hands its item to exactly one holder.</p>
+ */
+public class ReservationRepository {
+
+    private static final Object lock = new Object();
+    private static final Map<String, HoldQueue> queues = new HashMap<>();
+    /** Ready holds per item, oldest first. */
+    private static final Map<String, List<Reservation>> held = new HashMap<>();
+    private static final PriorityQueue<Reservation> pickupDeadlines = new PriorityQueue<>(
+            Comparator.comparing(Reservation::getReadyUntil).thenComparingLong(Reservation::getTicket));
+
+    /**
+     * Creates a new {@code ReservationRepository}; all state is static.
+     */
+    public ReservationRepository() { }
+
+    /**
+     * Appends a reservation to the end of an item's queue.
+     *
+     * @param mediaId the media id
+     * @param memberId the member's email/username
+     * @param placedOn the placement date
+     * @return the new waiting reservation
+     * @throws IllegalStateException if the member already has an open reservation for the item
+     */
+    public static Reservation reserve(String mediaId, String memberId, LocalDate placedOn) {
+        synchronized (lock) {
+            HoldQueue queue = queues.computeIfAbsent(mediaId, id -> new HoldQueue());
+            if (queue.byMember.containsKey(memberId)) {
+                throw new IllegalStateException("Member already reserved " + mediaId);
+            }
+            Reservation reservation = new Reservation(mediaId, memberId, queue.nextTicket++, placedOn);
+            queue.waiting.addLast(reservation);
+            queue.byMember.put(memberId, reservation);
+            return reservation;
+        }
+    }
+
+    /**
+     * Cancels a member's open reservation; a held item is released but not passed on.
+     *
+     * @param mediaId the media id
+     * @param memberId the member's email/username
+     * @return the cancelled reservation, or {@code null} if the member had none
+     */
+    public static Reservation cancel(String mediaId, String memberId) {
+        synchronized (lock) {
+            HoldQueue queue = queues.get(mediaId);
+            Reservation reservation = queue == null ? null : queue.byMember.remove(memberId);
+            if (reservation == null) return null;
+
+            if (reservation.getStatus() == ReservationStatus.READY) {
+                removeHeld(reservation);
+            } else {
+                queue.markCancelled(reservation.getTicket());
+            }
+            reservation.close(ReservationStatus.CANCELLED);
+            dropIfIdle(mediaId, queue);
+            return reservation;
+        }
+    }
+
+    /**
+     * Holds an item for the first eligible member in its queue. Members who are not eligible lose
+     * their place ({@link ReservationStatus#EXPIRED}).
+     *
+     * @param mediaId the returned media id
+     * @param readyUntil last pickup day for the new holder
+     * @param eligible decides, by member id, whether a member may borrow now
+     * @return the reservation now holding the item, or {@code null} if nobody is waiting
+     */
+    public static Reservation handOff(String mediaId, LocalDate readyUntil, Predicate<String> eligible) {
+        synchronized (lock) {
+            Reservation current = findHeld(mediaId);
+            return current != null ? current : holdNext(mediaId, readyUntil, eligible);
+        }
+    }
+
+    /**
+     * Holds one more copy of a title for the first eligible member in its queue, whether or not
+     * other copies are already held. Members who are not eligible lose their place.
+     *
+     * @param mediaId the title's media id
+     * @param readyUntil last pickup day for the new holder
+     * @param eligible decides, by member id, whether a member may borrow now
+     * @return the new ready reservation, or {@code null} if nobody eligible is waiting
+     */
+    public static Reservation holdNext(String mediaId, LocalDate readyUntil, Predicate<String> eligible) {
+        synchronized (lock) {
+            HoldQueue queue = queues.get(mediaId);
+            if (queue == null) return null;
+
+            Reservation next;
+            while ((next = queue.pollWaiting()) != null) {
+                if (eligible.test(next.getMemberId())) {
+                    next.markReady(readyUntil);
+                    held.computeIfAbsent(mediaId, id -> new ArrayList<>(1)).add(next);
+                    pickupDeadlines.add(next);
+                    return next;
+                }
+                queue.byMember.remove(next.getMemberId());
+                next.close(ReservationStatus.EXPIRED);
+            }
+            dropIfIdle(mediaId, queue);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the items that have a hold whose pickup deadline lies before {@code today}, in
+     * deadline order. The holds stay in place until {@link #expireHolds(String, LocalDate)}.
+     *
+     * @param today the current date
+     * @return ids of items with overdue pickups
+     */
+    public static List<String> findItemsWithExpiredHolds(LocalDate today) {
+        synchronized (lock) {
+            LinkedHashSet<String> due = new LinkedHashSet<>();
+            while (!pickupDeadlines.isEmpty() && pickupDeadlines.peek().getReadyUntil().isBefore(today)) {
+                Reservation next = pickupDeadlines.poll();
+                if (next.getStatus() == ReservationStatus.READY) due.add(next.getMediaId());
+            }
+            return new ArrayList<>(due);
+        }
+    }
+
+    /**
+     * Expires the holds on one item whose pickup deadline lies before {@code today}; the item is
+     * not passed on (see {@link #holdNext(String, LocalDate, Predicate)}).
+     *
+     * @param mediaId the media id
+     * @param today the current date
+     * @return the expired reservations
+     */
+    public static List<Reservation> expireHolds(String mediaId, LocalDate today) {
+        synchronized (lock) {
+            List<Reservation> expired = new ArrayList<>();
+            for (Reservation ready : held.getOrDefault(mediaId, List.of())) {
+                if (ready.getReadyUntil().isBefore(today)) expired.add(ready);
+            }
+            HoldQueue queue = queues.get(mediaId);
+            for (Reservation reservation : expired) {
+                removeHeld(reservation);
+                queue.byMember.remove(reservation.getMemberId());
+                reservation.close(ReservationStatus.EXPIRED);
+            }
+            if (queue != null) dropIfIdle(mediaId, queue);
+            return expired;
+        }
+    }
+
+    /**
+     * Marks the hold on an item as picked up if it belongs to the given member.
+     *
+     * @param mediaId the media id
+     * @param memberId the borrowing member
+     * @return the fulfilled reservation, or {@code null} if the item was not held for the member
+     */
+    public static Reservation fulfil(String mediaId, String memberId) {
+        synchronized (lock) {
+            Reservation reservation = findHeld(mediaId, memberId);
+            if (reservation == null) return null;
+            removeHeld(reservation);
+            HoldQueue queue = queues.get(mediaId);
+            queue.byMember.remove(memberId);
+            reservation.close(ReservationStatus.FULFILLED);
+            dropIfIdle(mediaId, queue);
+            return reservation;
+        }
+    }
+
+    /**
+     * Returns the reservation an item is currently held for (the oldest, for a title with
+     * several copies held).
+     *
+     * @param mediaId the media id
+     * @return the ready reservation, or {@code null} if the item is not held
+     */
+    public static Reservation findHeld(String mediaId) {
+        synchronized (lock) {
+            List<Reservation> ready = held.get(mediaId);
+            return ready == null ? null : ready.get(0);
+        }
+    }
+
+    /**
+     * Returns a member's ready reservation for an item.
+     *
+     * @param mediaId the media id
+     * @param memberId the member's email/username
+     * @return the ready reservation, or {@code null} if nothing is held for the member
+     */
+    public static Reservation findHeld(String mediaId, String memberId) {
+        synchronized (lock) {
+            for (Reservation ready : held.getOrDefault(mediaId, List.of())) {
+                if (ready.getMemberId().equals(memberId)) return ready;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Finds a member's open reservation for an item.
+     *
+     * @param mediaId the media id
+     * @param memberId the member's email/username
+     * @return the waiting or ready reservation, or {@code null} if none
+     */
+    public static Reservation findOpen(String mediaId, String memberId) {
+        synchronized (lock) {
+            HoldQueue queue = queues.get(mediaId);
+            return queue == null ? null : queue.byMember.get(memberId);
+        }
+    }
+
+    /**
+     * Returns a member's position in an item's queue.
+     *
+     * @param mediaId the media id
+     * @param memberId the member's email/username
+     * @return 0 if the item is held for the member, 1 for the front of the queue and so on,
+     *         or -1 if the member has no open reservation
+     */
+    public static int positionOf(String mediaId, String memberId) {
+        synchronized (lock) {
+            HoldQueue queue = queues.get(mediaId);
+            Reservation reservation = queue == null ? null : queue.byMember.get(memberId);
+            if (reservation == null) return -1;
+            if (reservation.getStatus() == ReservationStatus.READY) return 0;
+            return queue.position(reservation.getTicket());
+        }
+    }
+
+    /**
+     * Returns the number of members waiting for an item (excluding the current holder).
+     *
+     * @param mediaId the media id
+     * @return waiting count
+     */
+    public static int countWaiting(String mediaId) {
+        synchronized (lock) {
+            HoldQueue queue = queues.get(mediaId);
+            if (queue == null) return 0;
+            return queue.byMember.size() - held.getOrDefault(mediaId, List.of()).size();
+        }
+    }
+
+    /**
+     * Clears all reservations (useful for tests).
+     */
+    public static void clearReservations() {
+        synchronized (lock) {
+            queues.clear();
+            held.clear();
+            pickupDeadlines.clear();
+        }
+    }
+
+    private static void removeHeld(Reservation reservation) {
+        List<Reservation> ready = held.get(reservation.getMediaId());
+        if (ready != null && ready.remove(reservation) && ready.isEmpty()) held.remove(reservation.getMediaId());
+    }
+
+    private static void dropIfIdle(String mediaId, HoldQueue queue) {
+        if (queue.byMember.isEmpty()) queues.remove(mediaId);
+    }
+
+    /**
+     * FIFO queue of one item with ticket-based positions.
+     */
+    private static final class HoldQueue {
+        private final ArrayDeque<Reservation> waiting = new ArrayDeque<>();
+        private final Map<String, Reservation> byMember = new HashMap<>();
+        private long nextTicket;
+        /** First ticket that has not left the front of the queue yet. */
+        private long served;
+
+        /** Ticket that offset 0 of {@link #cancelled} and {@link #tree} refers to. */
+        private long base;
+        private int pendingCancelled;
+        private BitSet cancelled = new BitSet();
+        private int[] tree = new int[16];
+
+        private Reservation pollWaiting() {
+            Reservation head;
+            while ((head = waiting.pollFirst()) != null) {
+                served = head.getTicket() + 1;
+                if (head.getStatus() != ReservationStatus.CANCELLED) return head;
+                pendingCancelled--;
+            }
+            return null;
+        }
+
+        private void markCancelled(long ticket) {
+            if (pendingCancelled == 0 && !cancelled.isEmpty()) {
+                base = served;
+                cancelled.clear();
+                Arrays.fill(tree, 0);
+            }
+            int offset = (int) (ticket - base);
+            if (offset + 1 >= tree.length) grow(offset + 1);
+            cancelled.set(offset);
+            for (int i = offset + 1; i < tree.length; i += i & -i) tree[i]++;
+            pendingCancelled++;
+        }
+
+        private int position(long ticket) {
+            long ahead = ticket - served;
+            if (pendingCancelled > 0) {
+                ahead -= prefix(ticket) - prefix(served);
+            }
+            return (int) ahead + 1;
+        }
+
+        /** Number of cancelled tickets below {@code ticket}. */
+        private int prefix(long ticket) {
+            int end = (int) Math.min(Math.max(ticket - base, 0), tree.length - 1);
+            int sum = 0;
+            for (int i = end; i > 0; i -= i & -i) sum += tree[i];
+            return sum;
+        }
+
+        private void grow(int minIndex) {
+            int size = tree.length;
+            while (size <= minIndex) size <<= 1;
+            tree = new int[size];
+            for (int offset = cancelled.nextSetBit(0); offset >= 0; offset = cancelled.nextSetBit(offset + 1)) {
+                for (int i = offset + 1; i < size; i += i & -i) tree[i]++;
+            }
+        }
+    }
+}
@@ -99,9 +99,7 @@
 //        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 //        scheduler.scheduleAtFixedRate(() -> {
 //            try {
-//                LocalDate today = LocalDate.now();
-//                loanService.scanAndNotifyOverdues(today);
-//                reminderService.sendOverdueReminders();
+//                reminderService.runDailyScans(LocalDate.now());
 //            } catch (Exception e) {
 //                
 //                System.err.println("[Scheduler] Error during overdue scan: " + e.getMessage());
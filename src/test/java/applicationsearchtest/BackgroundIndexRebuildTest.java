@@ -0,0 +1,132 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.BookIndexSet;
+import applicationsearchbooks.BookSearchStrategy;
+import applicationsearchbooks.BookTitleSearchStrategy;
+import applicationsearchbooks.BrowseOrder;
+import domain.Book;
+import persistence.BookRepository;
+
+class BackgroundIndexRebuildTest {
+
+    private Book seed;
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        seed = new Book("Seed Catalog", "Gardener", "BG-0");
+        BookRepository.addBook(seed);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        BookRepository.rebuildIndexesInBackground().get(30, TimeUnit.SECONDS);
+        BookRepository.clearBooks();
+    }
+
+    private static List<Book> generate(String prefix, int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(new Book(prefix + " volume " + i, "Author " + (i % 50), prefix + "-" + i));
+        }
+        return books;
+    }
+
+    @Test
+    void importedBooksBecomeSearchableOnceTheSwapCompletes() throws Exception {
+        CompletableFuture<Void> done = BookRepository.importBooks(generate("Atlas", 5_000));
+
+        assertEquals(List.of(seed), BookRepository.searchRanked("seed", 5),
+                "searches during the build use the previous complete indexes");
+        done.get(30, TimeUnit.SECONDS);
+
+        assertFalse(BookRepository.isIndexRebuildInProgress());
+        assertEquals(5_001, BookRepository.findAll().size());
+        assertNotNull(BookRepository.findBookByIsbn("Atlas-4999"));
+        assertEquals(100, BookRepository.findBooksByAuthor("Author 7").size());
+        assertEquals("Atlas volume 0", BookRepository.browseByTitle("atlas", 1).getBooks().get(0).getTitle());
+    }
+
+    @Test
+    void updatesDuringTheBuildAreReplayedOntoTheNewIndexes() throws Exception {
+        CompletableFuture<Void> done = BookRepository.importBooks(generate("Atlas", 5_000));
+        Book late = new Book("Late Arrival", "Latecomer", "BG-LATE");
+        BookRepository.addBook(late);
+        BookRepository.removeBook(seed);
+        done.get(30, TimeUnit.SECONDS);
+
+        assertEquals(List.of(late), BookRepository.searchRanked("arrival", 5));
+        assertEquals(List.of(), BookRepository.searchRanked("seed", 5));
+        assertNull(BookRepository.findBookByIsbn("BG-0"));
+        assertSame(late, BookRepository.findBookByIsbn("BG-LATE"));
+    }
+
+    @Test
+    void replacingTheCatalogDuringTheBuildDiscardsItsResult() throws Exception {
+        CompletableFuture<Void> done = BookRepository.importBooks(generate("Atlas", 5_000));
+        Book only = new Book("Only Survivor", "Last", "BG-ONLY");
+        ArrayList<Book> replacement = new ArrayList<>(List.of(only));
+        BookRepository.setBooks(replacement);
+        done.get(30, TimeUnit.SECONDS);
+
+        assertEquals(List.of(only), BookRepository.searchRanked("survivor", 5));
+        assertEquals(List.of(), BookRepository.searchRanked("atlas", 5));
+        assertNull(BookRepository.findBookByIsbn("Atlas-1"));
+        assertEquals(List.of(only), BookRepository.browseByTitle(null, 10).getBooks());
+    }
+
+    @Test
+    void readingTheRawListDuringTheBuildKeepsItsResult() throws Exception {
+        CompletableFuture<Void> done = BookRepository.importBooks(generate("Atlas", 5_000));
+        assertEquals(5_001, BookRepository.getBooks().size());
+        assertEquals(List.of(), BookRepository.searchRanked("atlas", 5),
+                "a read does not force a synchronous rebuild; searches still use the previous indexes");
+        done.get(30, TimeUnit.SECONDS);
+
+        assertNotNull(BookRepository.findBookByIsbn("Atlas-4999"), "the background build was swapped in");
+    }
+
+    @Test
+    void directChangesThroughTheRawListAreStillIndexed() {
+        Book direct = new Book("Direct Entry", "Bypasser", "BG-DIRECT");
+        BookRepository.getBooks().add(direct);
+
+        assertSame(direct, BookRepository.findBookByIsbn("BG-DIRECT"));
+        assertEquals(List.of(direct), BookRepository.searchRanked("bypasser", 5));
+    }
+
+    @Test
+    void strategyAndColumnarSearchesSeeDirectChanges() {
+        BookSearchStrategy byTitle = new BookTitleSearchStrategy();
+        BookRepository repository = new BookRepository();
+        assertEquals(List.of(), repository.search(byTitle, "direct"));
+        assertEquals(List.of(), BookRepository.searchColumnar(byTitle, "direct"));
+
+        Book direct = new Book("Direct Entry", "Bypasser", "BG-DIRECT");
+        BookRepository.getBooks().add(direct);
+
+        assertEquals(List.of(direct), repository.search(byTitle, "direct"), "cached result is discarded");
+        assertEquals(List.of(direct), BookRepository.searchColumnar(byTitle, "direct"), "columnar snapshot is repacked");
+    }
+
+    @Test
+    void indexSetBuildsEveryIndexTogether() {
+        BookIndexSet set = BookIndexSet.of(List.of(seed));
+        assertEquals(1, set.getSearchIndex().size());
+        assertEquals(1, set.sortedBy(BrowseOrder.AUTHOR).size());
+        set.remove(seed);
+        assertEquals(0, set.getTitleOrder().size());
+        assertThrows(IllegalArgumentException.class, () -> BookRepository.importBooks(null));
+    }
+}
@@ -0,0 +1,147 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import applicationsearchbooks.BookIndexFile;
+import applicationsearchbooks.BookQuery;
+import applicationsearchbooks.BookSearchIndex;
+import domain.Book;
+import persistence.BookRepository;
+
+class BookIndexFileTest {
+
+    @TempDir
+    Path dir;
+
+    private List<Book> catalog;
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        catalog = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            catalog.add(new Book("Volume " + i + " of Säga", "Writer " + (i % 7), "PX-" + i));
+        }
+        catalog.add(new Book("Concurrency in Practice", "Brian Goetz", "PX-C"));
+        catalog.forEach(BookRepository::addBook);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+    }
+
+    @Test
+    void savedIndexAnswersLikeTheRebuiltOne() throws Exception {
+        Path file = dir.resolve("books.idx");
+        BookRepository.removeBook(catalog.get(3));
+        List<Book> ranked = BookRepository.searchRanked("volume saga 12", 10);
+        List<Book> byTitle = BookRepository.search(BookQuery.all().withTitle("me 2"), 500);
+        BookRepository.saveIndexes(file);
+
+        assertTrue(BookRepository.loadIndexes(file), "stamp matches the unchanged catalog");
+
+        assertEquals(ranked, BookRepository.searchRanked("volume saga 12", 10));
+        assertEquals(byTitle, BookRepository.search(BookQuery.all().withTitle("me 2"), 500));
+        assertEquals(List.of(catalog.get(300)), BookRepository.searchRanked("goetz", 5));
+        assertEquals(43, BookRepository.findBooksByAuthor("writer 1").size());
+        assertSame(catalog.get(42), BookRepository.findBookByIsbn("PX-42"));
+    }
+
+    @Test
+    void changedCatalogFallsBackToRebuild() throws Exception {
+        Path file = dir.resolve("books.idx");
+        BookRepository.saveIndexes(file);
+        Book added = new Book("Fresh Arrival", "Newcomer", "PX-NEW");
+        BookRepository.addBook(added);
+
+        assertFalse(BookRepository.loadIndexes(file));
+        assertEquals(List.of(added), BookRepository.searchRanked("arrival", 5));
+
+        catalog.get(0).setTitle("Renamed In Place");
+        assertNull(BookIndexFile.read(file, BookRepository.findAll()), "field edits change the stamp too");
+    }
+
+    @Test
+    void missingOrCorruptFilesAreRebuilt() throws Exception {
+        assertFalse(BookRepository.loadIndexes(dir.resolve("absent.idx")));
+
+        Path file = dir.resolve("books.idx");
+        BookRepository.saveIndexes(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertFalse(BookRepository.loadIndexes(file));
+        assertEquals(List.of(catalog.get(300)), BookRepository.searchRanked("concurrency", 5));
+    }
+
+    @Test
+    void corruptLengthsAndDocumentIdsAreRebuiltInsteadOfThrowing() throws Exception {
+        Path file = dir.resolve("books.idx");
+        BookRepository.saveIndexes(file);
+        byte[] bytes = Files.readAllBytes(file);
+        // header (16) + document count (4) + two lengths per document, then the term count
+        int firstTerm = 16 + 4 + 8 * catalog.size() + 4;
+        int termLength = ByteBuffer.wrap(bytes).getInt(firstTerm);
+
+        byte[] negativeLength = bytes.clone();
+        ByteBuffer.wrap(negativeLength).putInt(firstTerm, -1);
+        Files.write(file, negativeLength);
+        assertFalse(BookRepository.loadIndexes(file));
+
+        byte[] unknownDocument = bytes.clone();
+        ByteBuffer.wrap(unknownDocument).putInt(firstTerm + 4 + termLength + 4, catalog.size() + 5);
+        Files.write(file, unknownDocument);
+        assertFalse(BookRepository.loadIndexes(file));
+
+        assertEquals(List.of(catalog.get(300)), BookRepository.searchRanked("concurrency", 5));
+    }
+
+    @Test
+    void loadedIndexAcceptsChangesAndSavesThemAgain() throws Exception {
+        Path file = dir.resolve("books.idx");
+        BookRepository.saveIndexes(file);
+        assertTrue(BookRepository.loadIndexes(file));
+
+        BookRepository.removeBook(catalog.get(300));
+        Book added = new Book("Volume Extra of Concurrency", "Writer 1", "PX-NEW");
+        BookRepository.addBook(added);
+        List<Book> ranked = BookRepository.searchRanked("concurrency volume", 5);
+        List<Book> byTitle = BookRepository.search(BookQuery.all().withTitle("extra"), 5);
+
+        assertEquals(added, ranked.get(0));
+        assertEquals(List.of(added), byTitle);
+        assertEquals(44, BookRepository.findBooksByAuthor("writer 1").size());
+
+        BookRepository.saveIndexes(file);
+        assertTrue(BookRepository.loadIndexes(file));
+        assertEquals(ranked, BookRepository.searchRanked("concurrency volume", 5));
+        assertEquals(byTitle, BookRepository.search(BookQuery.all().withTitle("extra"), 5));
+    }
+
+    @Test
+    void fileRoundTripsAStandaloneIndex() throws Exception {
+        BookSearchIndex index = new BookSearchIndex();
+        catalog.forEach(index::add);
+        Path file = dir.resolve("standalone.idx");
+        BookIndexFile.write(file, index, catalog);
+
+        BookSearchIndex restored = BookIndexFile.read(file, catalog);
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.searchRanked("practice", 3), restored.searchRanked("practice", 3));
+        assertEquals(BookIndexFile.fingerprint(catalog), BookIndexFile.fingerprint(new ArrayList<>(catalog)));
+    }
+}
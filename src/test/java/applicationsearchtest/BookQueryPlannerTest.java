@@ -0,0 +1,112 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.BookQuery;
+import applicationsearchbooks.BookQueryPlanner;
+import applicationsearchbooks.BookQueryPlanner.AccessPath;
+import applicationsearchbooks.BookSearchIndex;
+import applicationsearchbooks.BookTitleSearchStrategy;
+import applicationsearchbooks.BookAuthorSearchStrategy;
+import domain.Book;
+import persistence.BookRepository;
+
+class BookQueryPlannerTest {
+
+    private BookSearchIndex index;
+    private BookQueryPlanner planner;
+    private Book effectiveJava;
+    private Book javaPuzzlers;
+    private Book cleanCode;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        effectiveJava = new Book("Effective Java", "Joshua Bloch", "978-0134685991");
+        javaPuzzlers = new Book("Java Puzzlers", "Joshua Bloch", "978-0321336781");
+        cleanCode = new Book("Clean Code", "Robert Martin", "111-0132350884");
+        for (int i = 0; i < 20; i++) {
+            index.add(new Book("Java Volume " + i, "Various Authors", "555-" + i));
+        }
+        index.add(effectiveJava);
+        index.add(javaPuzzlers);
+        index.add(cleanCode);
+        planner = new BookQueryPlanner(index);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+    }
+
+    @Test
+    void conjunctionReturnsOnlyBooksMatchingAllCriteria() {
+        BookQuery query = BookQuery.all().withTitle("java").withAuthor("bloch");
+
+        assertEquals(List.of(effectiveJava, javaPuzzlers), planner.execute(query, 10));
+    }
+
+    @Test
+    void plannerPrefersTheMostSelectiveIndex() {
+        assertEquals(AccessPath.AUTHOR_NGRAM,
+                planner.choosePath(BookQuery.all().withTitle("java").withAuthor("bloch")));
+        assertEquals(AccessPath.TITLE_NGRAM,
+                planner.choosePath(BookQuery.all().withTitle("clean").withAuthor("authors")));
+        assertEquals(AccessPath.ISBN_PREFIX,
+                planner.choosePath(BookQuery.all().withTitle("java").withIsbnPrefix("978-0134")));
+    }
+
+    @Test
+    void shortOrMissingTextFallsBackToFullScan() {
+        assertEquals(AccessPath.FULL_SCAN, planner.choosePath(BookQuery.all().withTitle("ja")));
+        assertEquals(AccessPath.FULL_SCAN, planner.choosePath(BookQuery.all().availableOnly()));
+        assertEquals(22, planner.execute(BookQuery.all().withTitle("ja"), 100).size());
+    }
+
+    @Test
+    void availabilityIsAppliedAsAFilter() {
+        effectiveJava.setBorrowed(true);
+
+        assertEquals(List.of(javaPuzzlers),
+                planner.execute(BookQuery.all().withAuthor("bloch").availableOnly(), 10));
+    }
+
+    @Test
+    void isbnPrefixIsCaseInsensitiveAndLimitIsHonoured() {
+        assertEquals(List.of(effectiveJava, javaPuzzlers),
+                planner.execute(BookQuery.all().withIsbnPrefix("978"), 10));
+        assertEquals(List.of(effectiveJava),
+                planner.execute(BookQuery.all().withIsbnPrefix("978"), 1));
+    }
+
+    @Test
+    void queriesAreImmutable() {
+        BookQuery base = BookQuery.all().withTitle("Java");
+        BookQuery narrowed = base.withAuthor("Bloch").availableOnly();
+
+        assertNull(base.getAuthor());
+        assertFalse(base.isAvailableOnly());
+        assertEquals("java", narrowed.getTitle());
+        assertEquals("bloch", narrowed.getAuthor());
+    }
+
+    @Test
+    void repositorySearchByQueryAndPerRequestStrategy() {
+        BookRepository.clearBooks();
+        BookRepository.addBook(effectiveJava);
+        BookRepository.addBook(cleanCode);
+        BookRepository repository = new BookRepository();
+
+        assertEquals(List.of(cleanCode),
+                BookRepository.search(BookQuery.all().withTitle("code").withAuthor("martin"), 10));
+        assertEquals(List.of(effectiveJava), repository.search(new BookTitleSearchStrategy(), "effective"));
+        assertEquals(List.of(cleanCode), repository.search(new BookAuthorSearchStrategy(), "robert"));
+        assertThrows(IllegalStateException.class, () -> repository.search(null, "x"));
+    }
+}
@@ -0,0 +1,112 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.BookSearchIndex;
+import domain.Book;
+import persistence.BookRepository;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+    private Book javaTitle;
+    private Book javaAuthor;
+    private Book javaTwice;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        javaTitle = new Book("Effective Java", "Joshua Bloch", "ISBN-1");
+        javaAuthor = new Book("Coffee Stories", "Java Smith", "ISBN-2");
+        javaTwice = new Book("Java Java", "Someone", "ISBN-3");
+        index.add(javaTitle);
+        index.add(javaAuthor);
+        index.add(javaTwice);
+        index.add(new Book("Clean Code", "Robert Martin", "ISBN-4"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+    }
+
+    @Test
+    void titleMatchesOutrankAuthorMatches() {
+        List<Book> result = index.searchRanked("java", 10);
+
+        assertEquals(List.of(javaTwice, javaTitle, javaAuthor), result);
+    }
+
+    @Test
+    void limitKeepsOnlyTopResults() {
+        List<Book> result = index.searchRanked("java", 2);
+
+        assertEquals(List.of(javaTwice, javaTitle), result);
+    }
+
+    @Test
+    void nonMatchingOrInvalidQueriesReturnEmpty() {
+        assertTrue(index.searchRanked("python", 5).isEmpty());
+        assertTrue(index.searchRanked(null, 5).isEmpty());
+        assertTrue(index.searchRanked("java", 0).isEmpty());
+    }
+
+    @Test
+    void removedBooksAreNoLongerReturned() {
+        assertTrue(index.remove(javaTwice));
+        assertFalse(index.remove(javaTwice));
+
+        assertEquals(List.of(javaTitle, javaAuthor), index.searchRanked("java", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void queryIsNormalizedLikeIndexedText() {
+        Book accented = new Book("Café Society", "Ève", "ISBN-5");
+        index.add(accented);
+
+        assertEquals(List.of(accented), index.searchRanked("CAFE", 5));
+    }
+
+    @Test
+    void repositoryRankedSearchTracksAddRemoveAndReplacedList() {
+        BookRepository.clearBooks();
+        Book first = new Book("Java Concurrency", "Brian Goetz", "R-1");
+        BookRepository.addBook(first);
+        assertEquals(List.of(first), BookRepository.searchRanked("concurrency", 5));
+
+        BookRepository.removeBook(first);
+        assertTrue(BookRepository.searchRanked("concurrency", 5).isEmpty());
+
+        ArrayList<Book> replacement = new ArrayList<>();
+        Book second = new Book("Concurrency Patterns", "Author", "R-2");
+        replacement.add(second);
+        BookRepository.setBooks(replacement);
+        assertEquals(List.of(second), BookRepository.searchRanked("concurrency", 5));
+    }
+
+    @Test
+    void authorIndexListsWorksAcrossSpellingsAndTracksRemovals() {
+        Book second = new Book("Java Puzzlers", "JOSHUA BLOCH", "ISBN-5");
+        index.add(second);
+
+        assertEquals(List.of(javaTitle, second), index.findByAuthor(javaTitle.getAuthorEntity()));
+        index.remove(javaTitle);
+        assertEquals(List.of(second), index.findByAuthor(second.getAuthorEntity()));
+        assertEquals(4, index.authorCount());
+        assertEquals(List.of(), index.findByAuthor(null));
+
+        BookRepository.addBook(javaTitle);
+        BookRepository.addBook(second);
+        BookRepository.addBook(javaAuthor);
+        assertEquals(List.of(javaTitle, second), BookRepository.findBooksByAuthor("joshua bloch"));
+        assertEquals(List.of(), BookRepository.findBooksByAuthor("Joshua"));
+    }
+}
@@ -64,4 +64,22 @@ class BookSearchStrategiesTest {
         List<Book> result = strategy.searchBook(sample, null);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void titleStrategyIgnoresArabicDiacriticsAndLetterVariants() {
+        // "الأيام" stored with hamza and diacritics, searched as plain "الايام"
+        Book arabic = new Book("\u0627\u0644\u0623\u064E\u064A\u0651\u0627\u0645", "\u0637\u0647 \u062D\u0633\u064A\u0646", "ISBN-444");
+        List<Book> books = List.of(arabic);
+
+        BookSearchStrategy strategy = new BookTitleSearchStrategy();
+        assertEquals(1, strategy.searchBook(books, "\u0627\u0644\u0627\u064A\u0627\u0645").size());
+    }
+
+    @Test
+    void authorStrategyIgnoresAccentsAndCase() {
+        List<Book> books = List.of(new Book("Germinal", "\u00C9mile Zola", "ISBN-555"));
+
+        BookSearchStrategy strategy = new BookAuthorSearchStrategy();
+        assertEquals(1, strategy.searchBook(books, "EMILE").size());
+    }
 }
@@ -0,0 +1,91 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.BookAuthorSearchStrategy;
+import applicationsearchbooks.BookIsbnSearchStrategy;
+import applicationsearchbooks.BookSearchStrategy;
+import applicationsearchbooks.BookTitleSearchStrategy;
+import applicationsearchbooks.ColumnarBookCatalog;
+import domain.Book;
+import persistence.BookRepository;
+
+class ColumnarBookCatalogTest {
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+    }
+
+    @Test
+    void columnarSearchMatchesObjectSearchForEveryStrategy() {
+        String[] words = { "java", "Café", "القرآن", "clean", "code", "ab", "ba", "x" };
+        Random random = new Random(42);
+        List<Book> catalog = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            String author = i % 17 == 0 ? null : words[random.nextInt(words.length)];
+            catalog.add(new Book(title, author, "ISBN-" + (i % 50)));
+        }
+        ColumnarBookCatalog columnar = ColumnarBookCatalog.of(catalog);
+
+        BookSearchStrategy[] strategies = {
+            new BookTitleSearchStrategy(), new BookAuthorSearchStrategy(), new BookIsbnSearchStrategy()
+        };
+        String[] keywords = { "java", "CAFE", "القران", "de c", "a", "", "isbn-7", "missing" };
+        for (BookSearchStrategy strategy : strategies) {
+            for (String keyword : keywords) {
+                assertEquals(strategy.searchBook(catalog, keyword), strategy.searchColumnar(columnar, keyword),
+                    strategy.getClass().getSimpleName() + " / " + keyword);
+            }
+        }
+    }
+
+    @Test
+    void matchesNeverSpanTwoRows() {
+        List<Book> catalog = List.of(new Book("abc", "x", "1"), new Book("def", "y", "2"));
+        ColumnarBookCatalog columnar = ColumnarBookCatalog.of(catalog);
+
+        assertTrue(columnar.titleContains("cd").isEmpty());
+        assertEquals(List.of(catalog.get(1)), columnar.titleContains("def"));
+    }
+
+    @Test
+    void longRowsAreScannedAcrossWordBoundaries() {
+        StringBuilder longTitle = new StringBuilder();
+        for (int i = 0; i < 100; i++) longTitle.append("filler ");
+        Book target = new Book(longTitle + "needle", "a", "1");
+        List<Book> catalog = List.of(new Book(longTitle.toString(), "b", "2"), target);
+
+        assertEquals(List.of(target), ColumnarBookCatalog.of(catalog).titleContains("needle"));
+    }
+
+    @Test
+    void nullInputsYieldEmptyResults() {
+        ColumnarBookCatalog empty = ColumnarBookCatalog.of(null);
+
+        assertEquals(0, empty.size());
+        assertTrue(empty.titleContains("java").isEmpty());
+        assertTrue(ColumnarBookCatalog.of(List.of(new Book("Java", "A", "1"))).authorContains(null).isEmpty());
+        assertTrue(new BookTitleSearchStrategy().searchColumnar(null, "java").isEmpty());
+    }
+
+    @Test
+    void repositoryColumnarSearchSeesCatalogChanges() {
+        BookRepository.addBook(new Book("Effective Java", "Joshua Bloch", "111"));
+        BookTitleSearchStrategy byTitle = new BookTitleSearchStrategy();
+        assertEquals(1, BookRepository.searchColumnar(byTitle, "java").size());
+
+        BookRepository.addBook(new Book("Java Puzzlers", "Joshua Bloch", "222"));
+        assertEquals(2, BookRepository.searchColumnar(byTitle, "java").size());
+
+        assertThrows(IllegalStateException.class, () -> BookRepository.searchColumnar(null, "java"));
+    }
+}
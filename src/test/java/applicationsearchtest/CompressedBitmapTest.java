@@ -0,0 +1,84 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.CompressedBitmap;
+
+class CompressedBitmapTest {
+
+    @Test
+    void behavesLikeBitSetAcrossSparseAndDenseChunks() {
+        Random random = new Random(1);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 50_000; i++) {
+            // chunk 0 becomes dense, chunk 3 stays sparse
+            int value = random.nextBoolean() ? random.nextInt(10_000) : 3 * 65_536 + random.nextInt(65_536);
+            boolean add = random.nextInt(4) != 0;
+            bitmap.set(value, add);
+            expected.set(value, add);
+        }
+
+        assertEquals(expected, bitmap.toBitSet());
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        assertTrue(bitmap.contains(expected.nextSetBit(0)));
+        assertFalse(bitmap.contains(expected.nextClearBit(0)));
+    }
+
+    @Test
+    void denseChunkShrinksBackToArrayWhenEmptied() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 10_000; i++) bitmap.add(i);
+        long denseBytes = bitmap.sizeInBytes();
+        for (int i = 0; i < 9_990; i++) bitmap.remove(i);
+
+        assertEquals(10, bitmap.cardinality());
+        assertTrue(bitmap.sizeInBytes() < denseBytes);
+        assertEquals(9_990, bitmap.nextSetBit(0));
+
+        for (int i = 9_990; i < 10_000; i++) bitmap.remove(i);
+        assertTrue(bitmap.isEmpty());
+        assertEquals(-1, bitmap.nextSetBit(0));
+    }
+
+    @Test
+    void setOperationsMatchBitSet() {
+        Random random = new Random(2);
+        BitSet a = new BitSet();
+        BitSet b = new BitSet();
+        for (int i = 0; i < 20_000; i++) {
+            a.set(random.nextInt(200_000));
+            b.set(random.nextInt(i % 2 == 0 ? 8_000 : 200_000));
+        }
+        CompressedBitmap ca = CompressedBitmap.of(a);
+        CompressedBitmap cb = CompressedBitmap.of(b);
+
+        BitSet and = (BitSet) a.clone();
+        and.and(b);
+        BitSet andNot = (BitSet) a.clone();
+        andNot.andNot(b);
+
+        assertEquals(and, ca.and(cb).toBitSet());
+        assertEquals(and, cb.and(ca).toBitSet());
+        assertEquals(andNot, ca.andNot(cb).toBitSet());
+        assertEquals(and.cardinality(), ca.andCardinality(cb));
+        assertEquals(a, ca.toBitSet(), "operations must not modify their inputs");
+    }
+
+    @Test
+    void iterationSkipsEmptyChunks() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(5);
+        bitmap.add(1 << 20);
+
+        assertEquals(5, bitmap.nextSetBit(0));
+        assertEquals(1 << 20, bitmap.nextSetBit(6));
+        assertEquals(-1, bitmap.nextSetBit((1 << 20) + 1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+}
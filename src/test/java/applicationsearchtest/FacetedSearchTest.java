@@ -0,0 +1,116 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.FacetCounts;
+import applicationsearchbooks.FacetedResult;
+import domain.Book;
+import domain.CD;
+import domain.Media;
+import persistence.BookRepository;
+import persistence.CDRepository;
+import persistence.MediaCatalog;
+
+class FacetedSearchTest {
+
+    private Book effectiveJava;
+    private Book javaPuzzlers;
+    private Book javaConcurrency;
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        CDRepository.clearCDs();
+        effectiveJava = new Book("Effective Java", "Joshua Bloch", "111");
+        javaPuzzlers = new Book("Java Puzzlers", "joshua bloch", "222");
+        javaConcurrency = new Book("Java Concurrency in Practice", "Brian Goetz", "333");
+        BookRepository.addBook(effectiveJava);
+        BookRepository.addBook(javaPuzzlers);
+        BookRepository.addBook(javaConcurrency);
+        BookRepository.addBook(new Book("Clean Code", "Robert Martin", "444"));
+        CDRepository.addCD(new CD("CD-1", "Java Jive", "The Ink Spots"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+        CDRepository.clearCDs();
+    }
+
+    @Test
+    void countsCoverAllMatchesWhileResultsAreLimited() {
+        javaPuzzlers.borrowAt(LocalDate.now());
+
+        FacetedResult<Media> result = MediaCatalog.searchWithFacets("java", Media.class, null, 2, 10);
+        FacetCounts facets = result.getFacets();
+
+        assertEquals(List.of(effectiveJava, javaPuzzlers), result.getResults());
+        assertEquals(4, facets.getTotal());
+        assertEquals(1, facets.getBorrowed());
+        assertEquals(3, facets.getAvailable());
+        assertEquals(Map.of("Book", 3, "CD", 1), facets.getMediaTypes());
+        assertEquals(List.of("Joshua Bloch", "Brian Goetz", "The Ink Spots"),
+            List.copyOf(facets.getCreators().keySet()), "normalized variants merge; most frequent first");
+        assertEquals(2, facets.getCreators().get("Joshua Bloch"));
+    }
+
+    @Test
+    void topCreatorsIsTruncated() {
+        FacetCounts facets = MediaCatalog.searchWithFacets("java", Media.class, null, 10, 1).getFacets();
+
+        assertEquals(Map.of("Joshua Bloch", 2), facets.getCreators());
+    }
+
+    @Test
+    void drillingIntoCreatorUsesItsPosting() {
+        FacetedResult<Book> result = BookRepository.searchWithFacets("java", "JOSHUA BLOCH", 10, 5);
+
+        assertEquals(List.of(effectiveJava, javaPuzzlers), result.getResults());
+        assertEquals(2, result.getFacets().getTotal());
+        assertTrue(BookRepository.searchWithFacets("java", "Nobody", 10, 5).getResults().isEmpty());
+    }
+
+    @Test
+    void blankKeywordBrowsesWholeType() {
+        FacetCounts facets = BookRepository.searchWithFacets(null, null, 0, 10).getFacets();
+
+        assertEquals(4, facets.getTotal());
+        assertEquals(Map.of("Book", 4), facets.getMediaTypes());
+    }
+
+    @Test
+    void typeMembershipFollowsAddsAndRemovesAfterFirstQuery() {
+        javaPuzzlers.borrowAt(LocalDate.now());
+        assertEquals(1, MediaCatalog.countBorrowed(Book.class));
+
+        Book added = new Book("Java Generics", "Maurice Naftalin", "555");
+        BookRepository.addBook(added);
+        added.borrowAt(LocalDate.now());
+        CD cd = new CD("CD-2", "Borrowed Tunes", "Somebody");
+        CDRepository.addCD(cd);
+        cd.borrowAt(LocalDate.now());
+        BookRepository.removeBook(javaPuzzlers);
+
+        assertEquals(1, MediaCatalog.countBorrowed(Book.class));
+        assertEquals(List.of(added), MediaCatalog.findBorrowed(Book.class));
+        assertEquals(2, MediaCatalog.countBorrowed(Media.class));
+        assertEquals(4, BookRepository.searchWithFacets(null, null, 0, 10).getFacets().getTotal());
+    }
+
+    @Test
+    void removedItemsLeaveTheFacets() {
+        BookRepository.removeBook(javaConcurrency);
+
+        FacetCounts facets = MediaCatalog.searchWithFacets("java", Book.class, null, 10, 10).getFacets();
+        assertFalse(facets.getCreators().containsKey("Brian Goetz"));
+        assertEquals(2, facets.getTotal());
+    }
+}
@@ -0,0 +1,139 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.BookQuery;
+import applicationsearchbooks.BookTitleSearchStrategy;
+import applicationsearchbooks.SearchResultCache;
+import domain.Book;
+import persistence.BookRepository;
+
+class SearchResultCacheTest {
+
+    private SearchResultCache cache;
+    private List<Book> result;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache(10);
+        result = List.of(new Book("Clean Code", "Robert Martin", "111"));
+        BookRepository.clearBooks();
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+    }
+
+    @Test
+    void storedResultIsReturnedWhileVersionsMatch() {
+        assertNull(cache.get("k", 1, 1));
+        cache.put("k", result, 1, 1, false);
+
+        assertEquals(result, cache.get("k", 1, 1));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void catalogChangeInvalidatesEntry() {
+        cache.put("k", result, 1, 1, false);
+
+        assertNull(cache.get("k", 2, 1));
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void availabilityChangeOnlyInvalidatesDependentEntries() {
+        cache.put("plain", result, 1, 1, false);
+        cache.put("available", result, 1, 1, true);
+
+        assertNotNull(cache.get("plain", 1, 2));
+        assertNull(cache.get("available", 1, 2));
+    }
+
+    @Test
+    void cachedResultsAreUnmodifiable() {
+        List<Book> stored = cache.put("k", new ArrayList<>(result), 1, 1, false);
+        assertThrows(UnsupportedOperationException.class, () -> stored.add(new Book()));
+    }
+
+    @Test
+    void frequentlyUsedEntriesSurviveOneOffScans() {
+        cache.put("hot", result, 1, 1, false);
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(cache.get("hot", 1, 1));
+        }
+        for (int i = 0; i < 50; i++) {
+            cache.put("cold-" + i, result, 1, 1, false);
+        }
+
+        assertNotNull(cache.get("hot", 1, 1), "popular entry should not be evicted by a scan");
+        assertTrue(cache.size() <= 10);
+        assertTrue(cache.getEvictions() > 0);
+    }
+
+    @Test
+    void concurrentLookupsAndWritesKeepTheCacheBounded() throws Exception {
+        SearchResultCache shared = new SearchResultCache(200);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        String key = "q" + ((i * 31 + seed) % (i % 4 == 0 ? 1_000 : 50));
+                        if (shared.get(key, 1, 1) == null) shared.put(key, result, 1, 1, false);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(shared.size() <= 200);
+        assertEquals(160_000, shared.getHits() + shared.getMisses());
+        assertTrue(shared.getHitRate() > 0.5, "hot keys should mostly be served from the cache");
+    }
+
+    @Test
+    void repositoryCacheIsInvalidatedByAddRemoveAndAvailability() {
+        BookRepository repository = new BookRepository();
+        BookTitleSearchStrategy byTitle = new BookTitleSearchStrategy();
+        Book first = new Book("Java Basics", "A", "J-1");
+        BookRepository.addBook(first);
+
+        assertEquals(1, repository.search(byTitle, "java").size());
+        long hitsBefore = BookRepository.getSearchCache().getHits();
+        assertEquals(1, repository.search(byTitle, "JAVA").size());
+        assertEquals(hitsBefore + 1, BookRepository.getSearchCache().getHits());
+
+        Book second = new Book("Advanced Java", "B", "J-2");
+        BookRepository.addBook(second);
+        assertEquals(2, repository.search(byTitle, "java").size());
+
+        BookQuery available = BookQuery.all().withTitle("java").availableOnly();
+        assertEquals(2, BookRepository.search(available, 10).size());
+        second.setBorrowed(true);
+        assertEquals(List.of(first), BookRepository.search(available, 10));
+
+        BookRepository.removeBook(first);
+        assertEquals(List.of(second), repository.search(byTitle, "java"));
+        assertNull(first.getAvailabilityListener());
+    }
+}
@@ -0,0 +1,90 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.ShardedBookScanner;
+import domain.Book;
+import persistence.BookRepository;
+
+class ShardedBookScannerTest {
+
+    private List<Book> catalog;
+    private ShardedBookScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            catalog.add(new Book("Title " + i, i % 10 == 0 ? "Tenth Author" : "Author " + i, "ISBN-" + i));
+        }
+        scanner = new ShardedBookScanner(ForkJoinPool.commonPool(), 8, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+    }
+
+    @Test
+    void parallelScanFindsAllMatchesInCatalogOrder() {
+        List<Book> result = scanner.scan(catalog, b -> b.getAuthor().startsWith("Tenth"), Integer.MAX_VALUE);
+
+        assertEquals(1_000, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertSame(catalog.get(i * 10), result.get(i));
+        }
+    }
+
+    @Test
+    void limitStopsScanEarly() {
+        AtomicInteger evaluated = new AtomicInteger();
+        List<Book> result = scanner.scan(catalog, b -> {
+            evaluated.incrementAndGet();
+            return true;
+        }, 5);
+
+        assertEquals(5, result.size());
+        assertTrue(evaluated.get() < catalog.size(), "scan should stop before visiting every book");
+    }
+
+    @Test
+    void limitedParallelScanReturnsTheFirstMatchesEveryTime() {
+        ShardedBookScanner sequential = new ShardedBookScanner(ForkJoinPool.commonPool(), 1, 0);
+        List<Book> expected = sequential.scan(catalog, b -> b.getAuthor().startsWith("Tenth"), 150);
+
+        for (int run = 0; run < 20; run++) {
+            assertEquals(expected, scanner.scan(catalog, b -> b.getAuthor().startsWith("Tenth"), 150));
+        }
+        assertSame(catalog.get(1_490), expected.get(149), "matches span several shards");
+    }
+
+    @Test
+    void smallInputsAndInvalidArgumentsAreHandled() {
+        ShardedBookScanner sequential = new ShardedBookScanner(ForkJoinPool.commonPool(), 1, 0);
+        assertEquals(List.of(catalog.get(0), catalog.get(10)),
+                sequential.scan(catalog, b -> b.getAuthor().startsWith("Tenth"), 2));
+
+        assertTrue(scanner.scan(null, b -> true, 5).isEmpty());
+        assertTrue(scanner.scan(catalog, b -> true, 0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new ShardedBookScanner(null, 2, 10));
+    }
+
+    @Test
+    void repositoryScanUsesCurrentCatalog() {
+        BookRepository.clearBooks();
+        Book match = new Book("Odd One", "Nobody", "X-1");
+        BookRepository.addBook(new Book("Regular", "Somebody", "X-2"));
+        BookRepository.addBook(match);
+
+        assertEquals(List.of(match), BookRepository.scan(b -> b.getTitle().startsWith("Odd"), 10));
+    }
+}
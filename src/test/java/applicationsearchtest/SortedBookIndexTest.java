@@ -0,0 +1,122 @@
+package applicationsearchtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import applicationsearchbooks.BrowseOrder;
+import applicationsearchbooks.BrowsePage;
+import applicationsearchbooks.SortedBookIndex;
+import domain.Book;
+import persistence.BookRepository;
+
+class SortedBookIndexTest {
+
+    private final Book dune = new Book("Dune", "Frank Herbert", "S-1");
+    private final Book emma = new Book("Emma", "Jane Austen", "S-2");
+    private final Book mobyDick = new Book("Moby Dick", "Herman Melville", "S-3");
+    private final Book middlemarch = new Book("Middlemarch", "George Eliot", "S-4");
+    private final Book persuasion = new Book("Persuasion", "Jane Austen", "S-5");
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        for (Book b : List.of(persuasion, mobyDick, dune, middlemarch, emma)) {
+            BookRepository.addBook(b);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+    }
+
+    @Test
+    void browseStartsAtAnyTitleAndPagesWithCursors() {
+        BrowsePage first = BookRepository.browseByTitle("m", 2);
+        assertEquals(List.of(middlemarch, mobyDick), first.getBooks());
+        assertTrue(first.hasMore());
+
+        BrowsePage second = BookRepository.browseAfter(first.getNextCursor(), 2);
+        assertEquals(List.of(persuasion), second.getBooks());
+        assertFalse(second.hasMore());
+
+        assertEquals(List.of(dune, emma, middlemarch, mobyDick, persuasion),
+                BookRepository.browseByTitle(null, 10).getBooks());
+        assertEquals(List.of(), BookRepository.browseByTitle("zzz", 10).getBooks());
+    }
+
+    @Test
+    void authorOrderBreaksTiesByTitle() {
+        List<Book> all = new ArrayList<>();
+        BrowsePage page = BookRepository.browseByAuthor("", 2);
+        all.addAll(page.getBooks());
+        while (page.hasMore()) {
+            page = BookRepository.browseAfter(page.getNextCursor(), 2);
+            all.addAll(page.getBooks());
+        }
+        assertEquals(List.of(dune, middlemarch, mobyDick, emma, persuasion), all);
+        assertEquals(List.of(emma, persuasion), BookRepository.browseByAuthor("JANE", 5).getBooks());
+    }
+
+    @Test
+    void pagesStayConsistentAcrossConcurrentChanges() {
+        BrowsePage first = BookRepository.browseByTitle(null, 2);
+        assertEquals(List.of(dune, emma), first.getBooks());
+
+        Book duplicateTitle = new Book("Emma", "Someone Else", "S-6");
+        BookRepository.addBook(duplicateTitle);
+        BookRepository.removeBook(middlemarch);
+
+        assertEquals(List.of(duplicateTitle, mobyDick, persuasion),
+                BookRepository.browseAfter(first.getNextCursor(), 5).getBooks(),
+                "books added after the cursor appear, removed ones disappear");
+    }
+
+    @Test
+    void cursorsSurviveARebuildWithEqualTitles() {
+        List<Book> editions = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            editions.add(new Book("Ulysses", "James Joyce", "U-" + i));
+        }
+        SortedBookIndex before = new SortedBookIndex(BrowseOrder.TITLE);
+        before.rebuild(editions);
+        BrowsePage first = before.browse(null, 3);
+
+        List<Book> reversed = new ArrayList<>(editions);
+        Collections.reverse(reversed);
+        SortedBookIndex after = new SortedBookIndex(BrowseOrder.TITLE);
+        after.rebuild(reversed);
+
+        List<Book> all = new ArrayList<>(first.getBooks());
+        all.addAll(after.browseAfter(first.getNextCursor(), 10).getBooks());
+        assertEquals(editions, all, "equal titles are ordered by ISBN in every build");
+
+        Book reprint = new Book("Ulysses", "James Joyce", "U-0");
+        after.add(reprint);
+        BrowsePage sameIsbn = after.browse(null, 1);
+        assertEquals(2, sameIsbn.getBooks().size(), "books sharing title and ISBN stay on one page");
+        assertTrue(sameIsbn.getBooks().contains(reprint));
+        assertEquals(editions.get(1), after.browseAfter(sameIsbn.getNextCursor(), 1).getBooks().get(0));
+    }
+
+    @Test
+    void indexRejectsForeignCursorsAndTracksRemovals() {
+        SortedBookIndex titles = new SortedBookIndex(BrowseOrder.TITLE);
+        titles.rebuild(List.of(dune, emma));
+        BrowsePage authorPage = BookRepository.browseByAuthor(null, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> titles.browseAfter(authorPage.getNextCursor(), 1));
+        assertThrows(IllegalArgumentException.class, () -> BookRepository.browseAfter(null, 1));
+        assertTrue(titles.remove(dune));
+        assertFalse(titles.remove(dune));
+        assertEquals(1, titles.size());
+        assertEquals(List.of(), titles.browse(null, 0).getBooks());
+    }
+}
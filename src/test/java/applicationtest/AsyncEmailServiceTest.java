@@ -0,0 +1,169 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import application.AsyncEmailService;
+import application.BackpressurePolicy;
+import application.EmailMessage;
+import application.EmailService;
+
+class AsyncEmailServiceTest {
+
+    /** Records deliveries; blocks every send until the gate opens. */
+    private static final class GatedEmailService implements EmailService {
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final CountDownLatch firstStarted = new CountDownLatch(1);
+        private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void sendEmail(String to, String subject, String body) {
+            firstStarted.countDown();
+            try {
+                gate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (to.startsWith("fail")) throw new RuntimeException("SMTP down");
+            delivered.add(subject);
+        }
+
+        void open() { gate.countDown(); }
+
+        void awaitFirstSend() throws InterruptedException {
+            assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void sendEmailReturnsBeforeDeliveryAndShutdownDrainsTheQueue() throws Exception {
+        GatedEmailService smtp = new GatedEmailService();
+        AsyncEmailService async = new AsyncEmailService(smtp, 10, 1, BackpressurePolicy.BLOCK);
+
+        for (int i = 0; i < 5; i++) async.sendEmail("member@example.com", "m" + i, "body");
+        smtp.awaitFirstSend();
+        assertTrue(smtp.delivered.isEmpty(), "callers did not wait for SMTP");
+        assertEquals(4, async.getQueueDepth());
+
+        smtp.open();
+        assertTrue(async.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(List.of("m0", "m1", "m2", "m3", "m4"), smtp.delivered);
+        assertEquals(5, async.getSentCount());
+        assertEquals(0, async.getQueueDepth());
+        assertTrue(async.getMaxLatencyMillis() >= async.getAverageLatencyMillis());
+        assertThrows(IllegalStateException.class, () -> async.sendEmail("member@example.com", "late", "body"));
+    }
+
+    @Test
+    void dropPoliciesDiscardNewestOrOldest() throws Exception {
+        GatedEmailService newestSmtp = new GatedEmailService();
+        AsyncEmailService dropNewest = new AsyncEmailService(newestSmtp, 2, 1, BackpressurePolicy.DROP_NEWEST);
+        dropNewest.sendEmail("a@example.com", "in-flight", "");
+        newestSmtp.awaitFirstSend();
+        dropNewest.sendEmail("a@example.com", "q1", "");
+        dropNewest.sendEmail("a@example.com", "q2", "");
+        assertFalse(dropNewest.submit(new EmailMessage("a@example.com", "q3", "")));
+        newestSmtp.open();
+        assertTrue(dropNewest.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(List.of("in-flight", "q1", "q2"), newestSmtp.delivered);
+        assertEquals(1, dropNewest.getDroppedCount());
+
+        GatedEmailService oldestSmtp = new GatedEmailService();
+        AsyncEmailService dropOldest = new AsyncEmailService(oldestSmtp, 2, 1, BackpressurePolicy.DROP_OLDEST);
+        dropOldest.sendEmail("a@example.com", "in-flight", "");
+        oldestSmtp.awaitFirstSend();
+        dropOldest.sendEmail("a@example.com", "q1", "");
+        dropOldest.sendEmail("a@example.com", "q2", "");
+        assertTrue(dropOldest.submit(new EmailMessage("a@example.com", "q3", "")));
+        oldestSmtp.open();
+        assertTrue(dropOldest.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(List.of("in-flight", "q2", "q3"), oldestSmtp.delivered);
+        assertEquals(1, dropOldest.getDroppedCount());
+    }
+
+    @Test
+    void rejectThrowsAndCallerRunsDeliversInline() throws Exception {
+        GatedEmailService smtp = new GatedEmailService();
+        AsyncEmailService reject = new AsyncEmailService(smtp, 1, 1, BackpressurePolicy.REJECT);
+        reject.sendEmail("a@example.com", "in-flight", "");
+        smtp.awaitFirstSend();
+        reject.sendEmail("a@example.com", "queued", "");
+        assertThrows(IllegalStateException.class, () -> reject.sendEmail("a@example.com", "over", ""));
+        assertEquals(1, reject.getRejectedCount());
+        smtp.open();
+        assertTrue(reject.shutdown(5, TimeUnit.SECONDS));
+
+        List<String> inline = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        AsyncEmailService callerRuns = new AsyncEmailService((to, subject, body) -> {
+            if (subject.equals("in-flight")) {
+                busy.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            inline.add(subject + "@" + Thread.currentThread().getName());
+        }, 1, 1, BackpressurePolicy.CALLER_RUNS);
+        callerRuns.sendEmail("a@example.com", "in-flight", "");
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        callerRuns.sendEmail("a@example.com", "queued", "");
+        callerRuns.sendEmail("a@example.com", "overflow", "");
+        assertEquals(List.of("overflow@" + Thread.currentThread().getName()), inline);
+        assertEquals(1, callerRuns.getCallerRunsCount());
+        release.countDown();
+        assertTrue(callerRuns.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(3, callerRuns.getSentCount());
+    }
+
+    @Test
+    void deliveryFailuresAreCountedAndDoNotStopWorkers() throws Exception {
+        GatedEmailService smtp = new GatedEmailService();
+        smtp.open();
+        AsyncEmailService async = new AsyncEmailService(smtp, 10, 2, BackpressurePolicy.BLOCK);
+
+        async.sendEmail("fail@example.com", "bounced", "");
+        async.sendEmail("ok@example.com", "sent", "");
+        assertTrue(async.shutdown(5, TimeUnit.SECONDS));
+
+        assertEquals(1, async.getFailedCount());
+        assertEquals(1, async.getSentCount());
+        assertEquals(2, async.getSubmittedCount());
+        assertEquals(List.of("sent"), smtp.delivered);
+    }
+
+    @Test
+    void shutdownNowReturnsUndeliveredMessages() throws Exception {
+        GatedEmailService smtp = new GatedEmailService();
+        AsyncEmailService async = new AsyncEmailService(smtp, 10, 1, BackpressurePolicy.BLOCK);
+        async.sendEmail("a@example.com", "in-flight", "");
+        smtp.awaitFirstSend();
+        async.sendEmail("a@example.com", "pending", "");
+
+        List<EmailMessage> pending = async.shutdownNow();
+
+        assertEquals(1, pending.size());
+        assertEquals("pending", pending.get(0).getSubject());
+        assertTrue(async.isShutdown());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        EmailService noop = (to, subject, body) -> { };
+        assertThrows(IllegalArgumentException.class, () -> new AsyncEmailService(null));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncEmailService(noop, 0, 1, BackpressurePolicy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncEmailService(noop, 1, 0, BackpressurePolicy.BLOCK));
+        AsyncEmailService async = new AsyncEmailService(noop);
+        assertThrows(IllegalArgumentException.class, () -> async.sendEmail(" ", "s", "b"));
+        async.shutdownNow();
+    }
+}
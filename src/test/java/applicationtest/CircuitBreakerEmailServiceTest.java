@@ -0,0 +1,148 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import application.CircuitBreakerEmailService;
+import application.CircuitState;
+import application.EmailService;
+
+class CircuitBreakerEmailServiceTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicBoolean serverUp = new AtomicBoolean(false);
+    private final AtomicInteger transportCalls = new AtomicInteger();
+    private final List<String> fallbackOutbox = new CopyOnWriteArrayList<>();
+
+    private final EmailService transport = (to, subject, body) -> {
+        transportCalls.incrementAndGet();
+        if (!serverUp.get()) throw new RuntimeException("Connection timed out");
+    };
+    private final EmailService outbox = (to, subject, body) -> fallbackOutbox.add(to);
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void tripsAfterConsecutiveFailuresAndFailsFastWhileOpen() {
+        CircuitBreakerEmailService breaker = new CircuitBreakerEmailService(transport, 3, 1_000, null, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> breaker.sendEmail("a@example.com", "s", "b"));
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState());
+
+        IllegalStateException open = assertThrows(IllegalStateException.class,
+            () -> breaker.sendEmail("a@example.com", "s", "b"));
+        assertEquals("Email circuit is open.", open.getMessage());
+        assertEquals(3, transportCalls.get(), "open circuit does not touch the transport");
+        assertEquals(1, breaker.getShortCircuitedCount());
+        assertEquals(1, breaker.getTripCount());
+    }
+
+    @Test
+    void halfOpenTrialClosesOnSuccessAndReopensOnFailure() {
+        CircuitBreakerEmailService breaker = new CircuitBreakerEmailService(transport, 2, 1_000, outbox, now::get);
+        breaker.sendEmail("a@example.com", "s", "b");
+        breaker.sendEmail("b@example.com", "s", "b");
+        assertEquals(CircuitState.OPEN, breaker.getState());
+
+        advanceMillis(1_000);
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        breaker.sendEmail("c@example.com", "s", "b");
+        assertEquals(CircuitState.OPEN, breaker.getState(), "failed trial reopens immediately");
+        assertEquals(2, breaker.getTripCount());
+
+        advanceMillis(999);
+        breaker.sendEmail("d@example.com", "s", "b");
+        assertEquals(3, transportCalls.get(), "still open");
+
+        advanceMillis(1);
+        serverUp.set(true);
+        breaker.sendEmail("e@example.com", "s", "b");
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com", "d@example.com"), fallbackOutbox);
+        assertEquals(4, breaker.getDivertedCount());
+    }
+
+    @Test
+    void badMessageDuringTheTrialKeepsTheCircuitHalfOpen() {
+        CircuitBreakerEmailService breaker = new CircuitBreakerEmailService((to, subject, body) -> {
+            if (to.startsWith("bad")) throw new IllegalArgumentException("bad address");
+            transport.sendEmail(to, subject, body);
+        }, 1, 1_000, outbox, now::get);
+        breaker.sendEmail("a@example.com", "s", "b");
+        advanceMillis(1_000);
+
+        assertThrows(IllegalArgumentException.class, () -> breaker.sendEmail("bad", "s", "b"));
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState(), "a rejected message is not a successful trial");
+
+        breaker.sendEmail("c@example.com", "s", "b");
+        assertEquals(CircuitState.OPEN, breaker.getState(), "the next send was the trial");
+        assertEquals(List.of("a@example.com", "c@example.com"), fallbackOutbox);
+    }
+
+    @Test
+    void sendStartedBeforeTheTripDoesNotDecideTheTrial() throws Exception {
+        CountDownLatch inDelegate = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CircuitBreakerEmailService breaker = new CircuitBreakerEmailService((to, subject, body) -> {
+            if (to.startsWith("slow")) {
+                inDelegate.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            transport.sendEmail(to, subject, body);
+        }, 1, 1_000, outbox, now::get);
+
+        Thread slow = new Thread(() -> breaker.sendEmail("slow@example.com", "s", "b"));
+        slow.start();
+        inDelegate.await();
+        breaker.sendEmail("a@example.com", "s", "b");
+        advanceMillis(1_000);
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+
+        finish.countDown();
+        slow.join();
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState(), "the old send finishing is not the trial");
+
+        breaker.sendEmail("t@example.com", "s", "b");
+        assertEquals(CircuitState.OPEN, breaker.getState(), "the real trial failed and reopened the circuit");
+        assertEquals(2, breaker.getTripCount());
+    }
+
+    @Test
+    void successResetsTheFailureCountAndBadMessagesDoNotTrip() {
+        CircuitBreakerEmailService breaker = new CircuitBreakerEmailService((to, subject, body) -> {
+            if (to.startsWith("bad")) throw new IllegalArgumentException("bad address");
+            transport.sendEmail(to, subject, body);
+        }, 2, 1_000, null, now::get);
+
+        assertThrows(RuntimeException.class, () -> breaker.sendEmail("a@example.com", "s", "b"));
+        serverUp.set(true);
+        breaker.sendEmail("a@example.com", "s", "b");
+        serverUp.set(false);
+        assertThrows(RuntimeException.class, () -> breaker.sendEmail("a@example.com", "s", "b"));
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> breaker.sendEmail("bad", "s", "b"));
+        }
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakerEmailService(transport, 0, 1));
+    }
+}
@@ -0,0 +1,116 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import application.EmailMessage;
+import application.EmailOutbox;
+import application.EmailService;
+
+class EmailOutboxTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<EmailMessage> sent = new CopyOnWriteArrayList<>();
+    private final EmailService recorder = (to, subject, body) -> sent.add(new EmailMessage(to, subject, body));
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 250 && !condition.getAsBoolean(); i++) Thread.sleep(20);
+        assertTrue(condition.getAsBoolean(), "condition not reached in time");
+    }
+
+    @Test
+    void messagesAreDeliveredAndNotReplayedOnceDelivered() throws Exception {
+        try (EmailOutbox outbox = new EmailOutbox(recorder, dir)) {
+            outbox.sendEmail("a@example.com", "Overdue", "Käse, ISBN-1\nline two");
+            outbox.sendEmail("b@example.com", null, "");
+            await(() -> outbox.getPendingCount() == 0);
+            assertEquals(2, outbox.getDeliveredCount());
+        }
+        assertEquals("Käse, ISBN-1\nline two", sent.get(0).getBody());
+        assertNull(sent.get(1).getSubject());
+        assertEquals("", sent.get(1).getBody());
+
+        try (EmailOutbox reopened = new EmailOutbox(recorder, dir)) {
+            assertEquals(0, reopened.getPendingCount());
+        }
+        assertEquals(2, sent.size(), "delivered messages are not sent again");
+    }
+
+    @Test
+    void failuresAreRetriedWithBackoffThenSucceed() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        EmailService flaky = (to, subject, body) -> {
+            if (calls.incrementAndGet() < 3) throw new RuntimeException("SMTP down");
+            recorder.sendEmail(to, subject, body);
+        };
+        try (EmailOutbox outbox = new EmailOutbox(flaky, dir, 5, 10, 40)) {
+            outbox.sendEmail("a@example.com", "Overdue", "body");
+            await(() -> outbox.getDeliveredCount() == 1);
+            assertEquals(2, outbox.getRetryCount());
+        }
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    void messagesAreDeadLetteredAfterMaxAttempts() throws Exception {
+        EmailService down = (to, subject, body) -> {
+            throw new RuntimeException("SMTP down");
+        };
+        try (EmailOutbox outbox = new EmailOutbox(down, dir, 3, 1, 5)) {
+            outbox.sendEmail("a@example.com", "Overdue", "body");
+            await(() -> outbox.getDeadLetterCount() == 1);
+            assertEquals(0, outbox.getPendingCount());
+            List<EmailMessage> dead = outbox.readDeadLetters();
+            assertEquals(1, dead.size());
+            assertEquals("a@example.com", dead.get(0).getTo());
+        }
+        try (EmailOutbox reopened = new EmailOutbox(recorder, dir)) {
+            assertEquals(0, reopened.getPendingCount(), "dead letters are not replayed");
+        }
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void pendingMessagesAreReplayedOnRestartAndTornLinesIgnored() throws Exception {
+        EmailService down = (to, subject, body) -> {
+            throw new RuntimeException("SMTP down");
+        };
+        try (EmailOutbox outbox = new EmailOutbox(down, dir, 10, 60_000, 60_000)) {
+            outbox.sendEmail("a@example.com", "Overdue", "first");
+            outbox.sendEmail("b@example.com", "Overdue", "second");
+            await(() -> outbox.getRetryCount() == 2);
+        }
+        Files.writeString(dir.resolve("outbox.log"), "E 3 YUBleGFtcGxlLmNvbQ== T3Zl", StandardCharsets.US_ASCII,
+            StandardOpenOption.APPEND);
+
+        try (EmailOutbox restarted = new EmailOutbox(recorder, dir)) {
+            await(() -> restarted.getDeliveredCount() == 2);
+            restarted.sendEmail("c@example.com", "New", "third");
+            await(() -> restarted.getDeliveredCount() == 3);
+        }
+        assertEquals(List.of("first", "second", "third"), sent.stream().map(EmailMessage::getBody).sorted().toList());
+    }
+
+    @Test
+    void invalidUseIsRejected() throws Exception {
+        EmailOutbox outbox = new EmailOutbox(recorder, dir);
+        assertThrows(IllegalArgumentException.class, () -> outbox.sendEmail(" ", "s", "b"));
+        outbox.close();
+        assertThrows(IllegalStateException.class, () -> outbox.sendEmail("a@example.com", "s", "b"));
+        assertThrows(IllegalArgumentException.class, () -> new EmailOutbox(null, dir));
+        assertThrows(IllegalArgumentException.class, () -> new EmailOutbox(recorder, dir, 0, 1, 1));
+    }
+}
@@ -0,0 +1,106 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import application.EmailTemplate;
+
+class EmailTemplateTest {
+
+    @Test
+    void placeholdersAreFilledAndNumbersFormattedLikeConcatenation() {
+        EmailTemplate template = EmailTemplate.compile("Hi {{name}}", "Fine {{fine}}, {{count}} item(s){{missing}}.");
+
+        EmailTemplate.Values values = EmailTemplate.Values.of(Map.of("name", "Ali", "fine", 20.0, "count", 3));
+
+        assertEquals("Hi Ali", template.renderSubject(values));
+        assertEquals("Fine " + 20.0 + ", 3 item(s).", template.renderBody(values));
+        StringBuilder out = new StringBuilder(">");
+        template.renderBody(values, out);
+        assertEquals(">Fine 20.0, 3 item(s).", out.toString());
+    }
+
+    @Test
+    void sectionsRepeatPerItemAndFallBackToOuterValues() {
+        EmailTemplate digest = EmailTemplate.compile("{{count}} notices",
+            "{{#sections}}[{{heading}}]{{#items}} {{.}}/{{member}}{{/items}};{{/sections}}");
+
+        String body = digest.renderBody(EmailTemplate.Values.of(Map.of(
+            "member", "ali@example.com",
+            "sections", List.of(
+                Map.of("heading", "Overdue", "items", List.of("ISBN-1", "ISBN-2")),
+                Map.of("heading", "Reminders", "items", List.of())))));
+
+        assertEquals("[Overdue] ISBN-1/ali@example.com ISBN-2/ali@example.com;[Reminders];", body);
+    }
+
+    @Test
+    void builtInTemplatesReproduceTheFormerMessages() {
+        EmailTemplate overdue = EmailTemplate.load("overdue-notice");
+        EmailTemplate.Values values = EmailTemplate.Values.of(Map.of("member", "m@example.com", "isbn", "978-1", "fine", 12.5));
+
+        assertEquals("Library: Book Overdue", overdue.renderSubject(values));
+        assertEquals("Overdue notice for m@example.com: Your loan for ISBN 978-1 is overdue. Current fine: 12.5",
+            overdue.renderBody(values));
+        assertEquals("You have 2 overdue book(s).",
+            EmailTemplate.load("overdue-reminder").renderBody(name -> "count".equals(name) ? 2 : null));
+        assertTrue(EmailTemplate.load("testing-mode-expired").renderBody(name -> "X-9")
+            .contains("(ISBN: X-9) has expired.\nPlease take the necessary action."));
+    }
+
+    @Test
+    void templatesInTheOverrideDirectoryReplaceBuiltInOnes(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("overdue-reminder.txt"), "Subject: Reminder!\r\n\r\n{{count}} late\r\n");
+        System.setProperty(EmailTemplate.TEMPLATE_DIR_PROPERTY, dir.toString());
+        try {
+            EmailTemplate custom = EmailTemplate.load("overdue-reminder");
+            assertEquals("Reminder!", custom.renderSubject(name -> null));
+            assertEquals("4 late", custom.renderBody(name -> 4));
+            assertEquals("Library: Book Overdue", EmailTemplate.load("overdue-notice").renderSubject(name -> null));
+        } finally {
+            System.clearProperty(EmailTemplate.TEMPLATE_DIR_PROPERTY);
+        }
+    }
+
+    @Test
+    void malformedOverridesFallBackToTheBuiltInTemplate(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("overdue-notice.txt"), "Subject: Overdue\n\n{{#member}}unclosed");
+        Files.writeString(dir.resolve("overdue-reminder.txt"), "no subject line");
+        System.setProperty(EmailTemplate.TEMPLATE_DIR_PROPERTY, dir.toString());
+        try {
+            assertEquals("Library: Book Overdue", EmailTemplate.load("overdue-notice").renderSubject(name -> null));
+            assertEquals("You have 3 overdue book(s).",
+                EmailTemplate.load("overdue-reminder").renderBody(name -> "count".equals(name) ? 3 : null));
+        } finally {
+            System.clearProperty(EmailTemplate.TEMPLATE_DIR_PROPERTY);
+        }
+    }
+
+    @Test
+    void valuesMayRenderOtherTemplates() {
+        EmailTemplate inner = EmailTemplate.compile("s", "<{{x}}>");
+        EmailTemplate outer = EmailTemplate.compile("s", "a{{nested}}b{{x}}");
+
+        assertEquals("a<1>b1", outer.renderBody(name -> switch (name) {
+            case "nested" -> inner.renderBody(n -> 1);
+            case "x" -> 1;
+            default -> null;
+        }));
+    }
+
+    @Test
+    void malformedTemplatesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("s", "{{name"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("s", "{{#a}}x"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("s", "{{#a}}{{/b}}"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("s", "{{ }}"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.load("no-such-template"));
+    }
+}
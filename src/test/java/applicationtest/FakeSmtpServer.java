@@ -0,0 +1,149 @@
+package applicationtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests and benchmarks.
+ *
+ * <p>Accepts every message (recipients starting with {@code reject} get a 550), records the
+ * recipients, and can simulate handshake cost and dropped connections.</p>
+ */
+public final class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final long handshakeDelayMillis;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final List<String> recipients = new CopyOnWriteArrayList<>();
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    private volatile int dropAfterMessages = Integer.MAX_VALUE;
+
+    /**
+     * Starts a server on an ephemeral loopback port.
+     *
+     * @param handshakeDelayMillis delay before the greeting, standing in for TLS and authentication
+     * @throws IOException if the socket cannot be opened
+     */
+    public FakeSmtpServer(long handshakeDelayMillis) throws IOException {
+        this.handshakeDelayMillis = handshakeDelayMillis;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Returns JavaMail properties pointing at this server (no TLS, no auth).
+     * @return session properties
+     */
+    public Properties sessionProperties() {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", "127.0.0.1");
+        props.put("mail.smtp.port", String.valueOf(serverSocket.getLocalPort()));
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "5000");
+        return props;
+    }
+
+    /**
+     * Makes every connection close itself after accepting the given number of messages.
+     * @param messages messages per connection before it is dropped
+     */
+    public void dropConnectionsAfter(int messages) { this.dropAfterMessages = messages; }
+
+    /**
+     * Returns how many connections were accepted.
+     * @return connection count
+     */
+    public int getConnectionCount() { return connections.get(); }
+
+    /**
+     * Returns the recipients of accepted messages, in arrival order.
+     * @return recipients
+     */
+    public List<String> getRecipients() { return recipients; }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket client : clients) client.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                connections.incrementAndGet();
+                clients.add(client);
+                Thread session = new Thread(() -> serve(client), "fake-smtp-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = client.getOutputStream()) {
+            Thread.sleep(handshakeDelayMillis);
+            reply(out, "220 localhost fake ESMTP");
+            int accepted = 0;
+            String pendingRecipient = null;
+            for (String line; (line = in.readLine()) != null; ) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        if (accepted >= dropAfterMessages) return;
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                        if (address.startsWith("reject")) {
+                            reply(out, "550 No such user");
+                        } else {
+                            pendingRecipient = address;
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        for (String data; (data = in.readLine()) != null && !data.equals("."); ) {
+                            // discard message content
+                        }
+                        recipients.add(pendingRecipient);
+                        accepted++;
+                        reply(out, "250 OK queued");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // client went away
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+}
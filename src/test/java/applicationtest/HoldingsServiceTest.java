@@ -0,0 +1,163 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.BookService;
+import application.HoldingsService;
+import application.LoanService;
+import domain.Book;
+import domain.BookCopy;
+import domain.Holding;
+import domain.Loan;
+import domain.Member;
+import persistence.BookRepository;
+import persistence.HoldingsRepository;
+import persistence.LoanRepository;
+import persistence.MemberRepository;
+
+class HoldingsServiceTest {
+
+    private BookService bookService;
+    private HoldingsService holdingsService;
+    private Member alice;
+    private Member bob;
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        HoldingsRepository.clearHoldings();
+        LoanRepository.clearLoans();
+        bookService = new BookService(new BookRepository());
+        holdingsService = new HoldingsService();
+        alice = new Member("alice@example.com", "pw");
+        bob = new Member("bob@example.com", "pw");
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+        HoldingsRepository.clearHoldings();
+        LoanRepository.clearLoans();
+        MemberRepository.clearMembers();
+    }
+
+    @Test
+    void addCopiesRegistersTitleOnceAndAccumulatesCopies() {
+        Book textbook = new Book("Linear Algebra", "Strang", "978-0980232776");
+
+        assertEquals(30, bookService.addCopies(textbook, 30));
+        assertEquals(40, bookService.addCopies(new Book("Linear Algebra", "Strang", "978-0980232776"), 10));
+        assertEquals(1, BookRepository.findAll().size(), "one title record for all copies");
+        assertEquals(40, holdingsService.availableCopies("978-0980232776"));
+        assertEquals(0, bookService.addCopies(new Book("", "Nobody", "x"), 1), "invalid new titles are rejected");
+        assertThrows(IllegalArgumentException.class, () -> bookService.addCopies(textbook, 0));
+    }
+
+    @Test
+    void membersCheckOutDistinctCopiesAndReturnThem() {
+        bookService.addCopies(new Book("Linear Algebra", "Strang", "978-0980232776"), 2);
+        LocalDate today = LocalDate.now();
+
+        Loan first = holdingsService.checkout(alice, "978-0980232776", today);
+        Loan second = holdingsService.checkout(bob, "978-0980232776", today);
+
+        assertNotEquals(first.getIsbn(), second.getIsbn());
+        assertTrue(first.getIsbn().startsWith("978-0980232776#"));
+        assertEquals(today.plusDays(28), first.getDueDate());
+        assertThrows(IllegalStateException.class, () -> holdingsService.checkout(alice, "978-0980232776", today));
+        assertTrue(BookRepository.findBookByIsbn("978-0980232776").isBorrowed());
+
+        double fine = holdingsService.checkin(alice, first.getIsbn(), today.plusDays(30));
+        assertEquals(20.0, fine);
+        assertTrue(first.isReturned());
+        assertEquals(1, holdingsService.availableCopies("978-0980232776"));
+        assertFalse(BookRepository.findBookByIsbn("978-0980232776").isBorrowed());
+    }
+
+    @Test
+    void directTitleBorrowsOfHeldTitlesLendCopies() {
+        bookService.addCopies(new Book("Linear Algebra", "Strang", "978-0980232776"), 2);
+        MemberRepository.addMember(alice);
+        MemberRepository.addMember(bob);
+        LoanService loanService = new LoanService();
+
+        Loan first = loanService.borrow("978-0980232776", "alice@example.com");
+        assertTrue(first.getIsbn().startsWith("978-0980232776#"), "the loan is for a copy");
+        assertFalse(BookRepository.findBookByIsbn("978-0980232776").isBorrowed(), "a copy is still free");
+        assertEquals(1, holdingsService.availableCopies("978-0980232776"));
+
+        Loan second = loanService.borrowMedia(bob, BookRepository.findBookByIsbn("978-0980232776"), LocalDate.now());
+        assertNotEquals(first.getIsbn(), second.getIsbn());
+        assertTrue(BookRepository.findBookByIsbn("978-0980232776").isBorrowed());
+
+        loanService.returnBook(first.getIsbn(), "alice@example.com");
+        assertTrue(first.isReturned());
+        assertEquals(1, holdingsService.availableCopies("978-0980232776"));
+        assertFalse(BookRepository.findBookByIsbn("978-0980232776").isBorrowed());
+
+        loanService.returnMedia(second, LocalDate.now());
+        assertEquals(2, holdingsService.availableCopies("978-0980232776"));
+    }
+
+    @Test
+    void concurrentReturnsOfOneLoanPutTheCopyBackOnce() throws Exception {
+        bookService.addCopies(new Book("Linear Algebra", "Strang", "978-0980232776"), 2);
+        LoanService loanService = new LoanService();
+        LocalDate today = LocalDate.now();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Loan loan = holdingsService.checkout(alice, "978-0980232776", today);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> returns = new ArrayList<>();
+                for (int t = 0; t < 2; t++) {
+                    returns.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            loanService.returnMedia(loan, today);
+                            return true;
+                        } catch (IllegalStateException e) {
+                            return false;
+                        }
+                    }));
+                }
+                start.countDown();
+                int succeeded = 0;
+                for (Future<Boolean> f : returns) if (f.get(10, TimeUnit.SECONDS)) succeeded++;
+
+                assertTrue(succeeded >= 1);
+                assertEquals(2, holdingsService.availableCopies("978-0980232776"), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Holding holding = HoldingsRepository.findByIsbn("978-0980232776");
+        BookCopy copy = holding.checkout();
+        holding.checkin(copy);
+        assertThrows(IllegalStateException.class, () -> holding.checkin(copy), "a copy on the shelf cannot come back");
+        assertEquals(holding.getTotalCopies(), holding.getAvailable());
+    }
+
+    @Test
+    void unknownTitlesAndLoansAreRejected() {
+        LocalDate today = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class, () -> holdingsService.checkout(alice, "nope", today));
+        assertThrows(IllegalArgumentException.class, () -> holdingsService.checkin(alice, "nope#1", today));
+        assertEquals(0, holdingsService.availableCopies("nope"));
+    }
+}
@@ -0,0 +1,191 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.LoanService;
+import domain.Book;
+import domain.CD;
+import domain.Loan;
+import domain.Media;
+import domain.Member;
+import persistence.BookRepository;
+import persistence.CDRepository;
+import persistence.LoanRepository;
+import persistence.MediaCatalog;
+
+class MediaCatalogTest {
+
+    private Book effectiveJava;
+    private CD kindOfBlue;
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        CDRepository.clearCDs();
+        LoanRepository.clearLoans();
+        effectiveJava = new Book("Effective Java", "Joshua Bloch", "978-0134685991");
+        kindOfBlue = new CD("CD-001", "Kind of Blue", "Miles Davis");
+        BookRepository.addBook(effectiveJava);
+        CDRepository.addCD(kindOfBlue);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+        CDRepository.clearCDs();
+        LoanRepository.clearLoans();
+    }
+
+    @Test
+    void idsResolveAcrossMediaTypes() {
+        assertSame(effectiveJava, MediaCatalog.findById("978-0134685991"));
+        assertSame(kindOfBlue, MediaCatalog.findById("CD-001"));
+        assertNull(MediaCatalog.findById("CD-001", Book.class), "type filter applies to id lookups");
+        assertNull(MediaCatalog.findById(null));
+        assertEquals(2, MediaCatalog.size());
+    }
+
+    @Test
+    void crossTypeSearchMatchesTitleCreatorAndId() {
+        CD javaJazz = new CD("CD-002", "Java Jazz", "Dave Brubeck");
+        CDRepository.addCD(javaJazz);
+
+        assertEquals(List.of(effectiveJava, javaJazz), MediaCatalog.search("java", Media.class, 10));
+        assertEquals(List.of(javaJazz), MediaCatalog.search("java", CD.class, 10));
+        assertEquals(List.of(kindOfBlue), MediaCatalog.search("MILES", Media.class, 10));
+        assertEquals(List.of(kindOfBlue, javaJazz), MediaCatalog.search("cd-", Media.class, 10));
+        assertEquals(List.of(effectiveJava), MediaCatalog.search("java", Media.class, 1));
+        assertTrue(MediaCatalog.search("", Media.class, 10).isEmpty());
+    }
+
+    @Test
+    void repositoriesKeepCatalogInSync() {
+        CDRepository.removeCD(kindOfBlue);
+        BookRepository.removeBook(effectiveJava);
+
+        assertNull(MediaCatalog.findById("CD-001"));
+        assertNull(BookRepository.findBookByIsbn("978-0134685991"));
+        assertEquals(0, MediaCatalog.size());
+    }
+
+    @Test
+    void replacedBookListIsPickedUpOnNextLookup() {
+        ArrayList<Book> replacement = new ArrayList<>();
+        Book cleanCode = new Book("Clean Code", "Robert Martin", "111");
+        replacement.add(cleanCode);
+        BookRepository.setBooks(replacement);
+
+        assertSame(cleanCode, BookRepository.findBookByIsbn("111"));
+        assertNull(MediaCatalog.findById("978-0134685991"));
+        assertSame(kindOfBlue, CDRepository.findById("CD-001"), "CDs survive a book list replacement");
+    }
+
+    @Test
+    void manyRemovalsKeepRegistrationOrder() {
+        List<CD> cds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            CD cd = new CD("X-" + i, "Album " + i, "Artist");
+            cds.add(cd);
+            CDRepository.addCD(cd);
+        }
+        for (int i = 0; i < 150; i++) {
+            CDRepository.removeCD(cds.get(i));
+        }
+
+        List<CD> remaining = MediaCatalog.search("album", CD.class, Integer.MAX_VALUE);
+        assertEquals(cds.subList(150, 200), remaining);
+        assertSame(cds.get(199), CDRepository.findById("X-199"));
+    }
+
+    @Test
+    void borrowedBitmapFollowsBorrowAndReturn() {
+        CD javaJazz = new CD("CD-002", "Java Jazz", "Dave Brubeck");
+        CDRepository.addCD(javaJazz);
+
+        effectiveJava.borrowAt(LocalDate.now());
+        kindOfBlue.borrowAt(LocalDate.now());
+
+        assertEquals(List.of(effectiveJava), BookRepository.findAllBorrowed());
+        assertEquals(List.of(kindOfBlue), CDRepository.findAllBorrowed());
+        assertEquals(2, MediaCatalog.countBorrowed(Media.class));
+        assertEquals(List.of(javaJazz), MediaCatalog.searchAvailable("java", Media.class, 10));
+        assertEquals(1, MediaCatalog.countAvailable("java", Media.class));
+
+        effectiveJava.markReturned();
+        assertTrue(BookRepository.findAllBorrowed().isEmpty());
+        assertEquals(2, MediaCatalog.countAvailable("java", Media.class));
+        assertEquals(1, MediaCatalog.countBorrowed(CD.class));
+    }
+
+    @Test
+    void concurrentTypedQueriesSeeEveryMember() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            CD cd = new CD("CD-1" + i, "Album " + i, "Artist");
+            CDRepository.addCD(cd);
+            if (i % 2 == 0) cd.borrowAt(LocalDate.now());
+        }
+        effectiveJava.borrowAt(LocalDate.now());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    boolean ok = true;
+                    for (int round = 0; round < 200; round++) {
+                        ok &= MediaCatalog.countBorrowed(CD.class) == 25;
+                        ok &= MediaCatalog.findBorrowed(Book.class).equals(List.of(effectiveJava));
+                        ok &= MediaCatalog.searchWithFacets(null, CD.class, null, 5, 5).getFacets().getTotal() == 51;
+                    }
+                    return ok;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void itemsBorrowedBeforeRegistrationAreTracked() {
+        CD lent = new CD("CD-009", "Blue Train", "John Coltrane");
+        lent.setBorrowed(true);
+        CDRepository.addCD(lent);
+
+        assertEquals(List.of(lent), CDRepository.findAllBorrowed());
+        CDRepository.removeCD(lent);
+        assertTrue(CDRepository.findAllBorrowed().isEmpty());
+        assertNull(lent.getAvailabilityListener());
+    }
+
+    @Test
+    void borrowMediaResolvesIdThroughCatalog() {
+        LoanService loanService = new LoanService();
+        Member member = new Member("M-1", "member@example.com", "pw");
+        LocalDate today = LocalDate.now();
+
+        Loan loan = loanService.borrowMedia(member, "CD-001", today);
+
+        assertSame(kindOfBlue, loan.getMedia());
+        assertTrue(kindOfBlue.isBorrowed());
+        assertThrows(IllegalArgumentException.class, () -> loanService.borrowMedia(member, "NOPE", today));
+    }
+}
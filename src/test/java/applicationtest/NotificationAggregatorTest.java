@@ -0,0 +1,148 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.EmailMessage;
+import application.EmailService;
+import application.LoanService;
+import application.MemberService;
+import application.NotificationAggregator;
+import application.NotificationType;
+import application.OverdueEmailObserver;
+import application.ReminderService;
+import domain.Book;
+import domain.Loan;
+import domain.Member;
+import persistence.BookRepository;
+import persistence.LoanRepository;
+import persistence.MemberRepository;
+
+class NotificationAggregatorTest {
+
+    private final List<EmailMessage> outbox = new CopyOnWriteArrayList<>();
+    private final EmailService recorder = (to, subject, body) -> outbox.add(new EmailMessage(to, subject, body));
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        MemberRepository.clearMembers();
+        LoanRepository.clearLoans();
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+        MemberRepository.clearMembers();
+        LoanRepository.clearLoans();
+    }
+
+    @Test
+    void overdueScanAndReminderRunProduceOneDigestPerMember() {
+        NotificationAggregator aggregator = new NotificationAggregator(recorder);
+        LoanService loanService = new LoanService();
+        MemberService memberService = new MemberService(new MemberRepository());
+        loanService.addObserver(new OverdueEmailObserver(aggregator.channel(NotificationType.OVERDUE)));
+        ReminderService reminders = new ReminderService(loanService, memberService,
+            aggregator.channel(NotificationType.REMINDER));
+
+        memberService.registerMember(new Member("alice@example.com", "pw"));
+        memberService.registerMember(new Member("bob@example.com", "pw"));
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 8; i++) {
+            BookRepository.addBook(new Book("Book " + i, "Author", "ISBN-" + i));
+            LoanRepository.save(new Loan("ISBN-" + i, "alice@example.com", today.minusDays(40), today.minusDays(5)));
+        }
+        BookRepository.addBook(new Book("Bob's book", "Author", "ISBN-B"));
+        LoanRepository.save(new Loan("ISBN-B", "bob@example.com", today.minusDays(40), today.minusDays(5)));
+
+        loanService.scanAndNotifyOverdues(today);
+        reminders.sendOverdueReminders();
+
+        assertTrue(outbox.isEmpty(), "nothing is sent before the flush");
+        assertEquals(11, aggregator.getEventCount());
+        assertEquals(2, aggregator.flush());
+
+        EmailMessage alice = outbox.stream().filter(m -> m.getTo().equals("alice@example.com")).findFirst().orElseThrow();
+        assertEquals("Library: Your notifications", alice.getSubject());
+        assertTrue(alice.getBody().contains("You have 9 library notifications"));
+        assertTrue(alice.getBody().indexOf("== Overdue items ==") < alice.getBody().indexOf("== Reminders =="));
+        for (int i = 0; i < 8; i++) assertTrue(alice.getBody().contains("ISBN-" + i));
+        assertTrue(alice.getBody().contains("You have 8 overdue book(s)."));
+        assertEquals(2, aggregator.getDigestCount());
+        assertEquals(0, aggregator.flush(), "pending events were consumed");
+    }
+
+    @Test
+    void singleNotificationIsSentUnchangedAndDuplicatesCollapse() {
+        NotificationAggregator aggregator = new NotificationAggregator(recorder);
+        EmailService testing = aggregator.channel(NotificationType.TESTING_MODE);
+
+        testing.sendEmail("Carol@Example.com", "[TESTING MODE] Loan expired", "ISBN: T-1");
+        testing.sendEmail("carol@example.com ", "[TESTING MODE] Loan expired", "ISBN: T-1");
+        assertEquals(1, aggregator.getPendingRecipients());
+        aggregator.flush();
+
+        assertEquals(1, outbox.size());
+        assertEquals("Carol@Example.com", outbox.get(0).getTo());
+        assertEquals("[TESTING MODE] Loan expired", outbox.get(0).getSubject());
+        assertEquals("ISBN: T-1", outbox.get(0).getBody());
+        assertSame(testing, aggregator.channel(NotificationType.TESTING_MODE));
+    }
+
+    @Test
+    void failedDigestIsRetriedWithEventsFromTheNextWindow() {
+        boolean[] down = {true};
+        NotificationAggregator aggregator = new NotificationAggregator((to, subject, body) -> {
+            if (down[0]) throw new RuntimeException("SMTP down");
+            recorder.sendEmail(to, subject, body);
+        });
+        aggregator.record(NotificationType.OVERDUE, "e@example.com", "Overdue", "ISBN: R-1");
+        aggregator.record(NotificationType.OVERDUE, "f@example.com", "Overdue", "ISBN: R-2");
+
+        assertEquals(0, aggregator.flush());
+        assertEquals(2, aggregator.getPendingRecipients(), "failed digests are kept");
+
+        down[0] = false;
+        aggregator.record(NotificationType.REMINDER, "e@example.com", "Reminder", "You have 1 overdue book(s).");
+        aggregator.record(NotificationType.OVERDUE, "e@example.com", "Overdue", "ISBN: R-1");
+        assertEquals(2, aggregator.flush());
+
+        assertEquals(List.of("e@example.com", "f@example.com"), outbox.stream().map(EmailMessage::getTo).toList());
+        String merged = outbox.get(0).getBody();
+        assertTrue(merged.contains("You have 2 library notifications"), "duplicate of the retried event collapses");
+        assertTrue(merged.contains("ISBN: R-1") && merged.contains("You have 1 overdue book(s)."));
+        assertEquals("ISBN: R-2", outbox.get(1).getBody());
+        assertEquals(0, aggregator.getDroppedCount());
+    }
+
+    @Test
+    void failedDigestsAreCountedAndStoppingFlushesPendingEvents() throws Exception {
+        NotificationAggregator failing = new NotificationAggregator((to, subject, body) -> {
+            throw new RuntimeException("SMTP down");
+        });
+        failing.record(NotificationType.OVERDUE, "a@example.com", "s", "b");
+        for (int i = 0; i < NotificationAggregator.MAX_SEND_ATTEMPTS; i++) assertEquals(0, failing.flush());
+        assertEquals(NotificationAggregator.MAX_SEND_ATTEMPTS, failing.getFailedCount());
+        assertEquals(1, failing.getDroppedCount());
+        assertEquals(0, failing.getPendingRecipients(), "given up after the last attempt");
+
+        NotificationAggregator background = new NotificationAggregator(recorder, 60_000L);
+        background.start();
+        background.record(NotificationType.HOLD_READY, "d@example.com", "Ready", "Pick it up");
+        background.stop();
+        for (int i = 0; i < 100 && outbox.isEmpty(); i++) Thread.sleep(20);
+        assertEquals(1, outbox.size());
+
+        assertThrows(IllegalArgumentException.class, () -> background.record(null, "a@example.com", "s", "b"));
+        assertThrows(IllegalArgumentException.class, () -> background.record(NotificationType.OVERDUE, " ", "s", "b"));
+        assertThrows(IllegalArgumentException.class, () -> new NotificationAggregator(recorder, 0));
+    }
+}
@@ -0,0 +1,201 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import application.EmailService;
+import application.LoanService;
+import application.NotificationIdempotencyStore;
+import application.NotificationType;
+import application.OverdueEmailObserver;
+import domain.Book;
+import domain.Loan;
+import persistence.BookRepository;
+import persistence.LoanRepository;
+
+class NotificationIdempotencyStoreTest {
+
+    private static final Duration DAY = Duration.ofDays(1);
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong now = new AtomicLong(Duration.ofDays(20_000).toMillis());
+
+    @BeforeEach
+    void setUp() {
+        BookRepository.clearBooks();
+        LoanRepository.clearLoans();
+    }
+
+    @AfterEach
+    void tearDown() {
+        BookRepository.clearBooks();
+        LoanRepository.clearLoans();
+    }
+
+    private NotificationIdempotencyStore open(int generations) throws Exception {
+        return new NotificationIdempotencyStore(dir, DAY, generations, now::get);
+    }
+
+    @Test
+    void keysAreMarkedOnceAndSurviveRestarts() throws Exception {
+        try (NotificationIdempotencyStore store = open(7)) {
+            assertTrue(store.tryMark("loan-1/OVERDUE/1"));
+            assertFalse(store.tryMark("loan-1/OVERDUE/1"));
+            assertTrue(store.tryMark("loan-1/OVERDUE/2"), "another stage is another notification");
+        }
+        try (NotificationIdempotencyStore reopened = open(7)) {
+            assertTrue(reopened.contains("loan-1/OVERDUE/1"));
+            assertFalse(reopened.tryMark("loan-1/OVERDUE/2"));
+            assertFalse(reopened.contains("loan-2/OVERDUE/1"));
+        }
+    }
+
+    @Test
+    void sealedGenerationsAreStillCheckedUntilTheyLeaveTheWindow() throws Exception {
+        try (NotificationIdempotencyStore store = open(3)) {
+            for (int i = 0; i < 500; i++) assertTrue(store.tryMark("day0-" + i));
+
+            now.addAndGet(DAY.toMillis());
+            assertTrue(store.tryMark("day1"));
+            assertEquals(2, store.getGenerationCount());
+            for (int i = 0; i < 500; i++) assertTrue(store.contains("day0-" + i), "sealed generation keeps key " + i);
+            int falsePositives = 0;
+            for (int i = 0; i < 1_000; i++) if (store.contains("never-" + i)) falsePositives++;
+            assertEquals(0, falsePositives, "the Bloom filter is backed by an exact lookup");
+            assertTrue(Files.exists(dir.resolve("gen-20000.idx")));
+
+            now.addAndGet(2 * DAY.toMillis());
+            assertFalse(store.contains("day0-0"), "generation left the 3-day window");
+            assertTrue(store.contains("day1"));
+            assertEquals(2, store.getGenerationCount(), "empty days leave no generation behind");
+            assertFalse(Files.exists(dir.resolve("gen-20000.log")));
+        }
+    }
+
+    @Test
+    void twoInstancesSharingTheDirectoryNeverBothClaimAKey() throws Exception {
+        try (NotificationIdempotencyStore first = open(7); NotificationIdempotencyStore second = open(7)) {
+            assertTrue(first.tryMark("shared"));
+            assertFalse(second.tryMark("shared"));
+            assertTrue(second.tryMark("other"));
+            assertFalse(first.tryMark("other"));
+            assertEquals(2, first.getCurrentGenerationSize());
+        }
+    }
+
+    @Test
+    void tornTailFromACrashIsIgnored() throws Exception {
+        try (NotificationIdempotencyStore store = open(7)) {
+            store.tryMark("before-crash");
+        }
+        Files.write(dir.resolve("gen-20000.log"), new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+        try (NotificationIdempotencyStore store = open(7)) {
+            assertTrue(store.contains("before-crash"));
+            assertTrue(store.tryMark("after-crash"));
+        }
+        try (NotificationIdempotencyStore store = open(7)) {
+            assertTrue(store.contains("after-crash"));
+            assertEquals(16, Files.size(dir.resolve("gen-20000.log")));
+        }
+    }
+
+    @Test
+    void releasedKeysCanBeClaimedAgainAcrossInstancesAndRestarts() throws Exception {
+        try (NotificationIdempotencyStore first = open(7); NotificationIdempotencyStore second = open(7)) {
+            for (int i = 0; i < 200; i++) assertTrue(first.tryMark("filler-" + i));
+            assertTrue(first.tryMark("failed-send"));
+            assertTrue(first.release("failed-send"));
+            assertFalse(first.release("never-marked"));
+            assertFalse(second.contains("failed-send"), "the release is seen by other instances");
+            for (int i = 0; i < 200; i += 7) assertTrue(second.contains("filler-" + i));
+            assertTrue(second.tryMark("failed-send"));
+            assertFalse(first.tryMark("failed-send"));
+
+            assertTrue(first.tryMark("released-then-sealed"));
+            assertTrue(first.release("released-then-sealed"));
+        }
+
+        now.addAndGet(DAY.toMillis());
+        try (NotificationIdempotencyStore store = open(7)) {
+            assertTrue(store.contains("failed-send"), "the second claim survives sealing");
+            assertFalse(store.contains("released-then-sealed"));
+            assertTrue(store.contains("filler-199"));
+        }
+    }
+
+    @Test
+    void failedOverdueNoticeIsSentOnTheNextScan() throws Exception {
+        BookRepository.addBook(new Book("Title", "Author", "ISBN-1"));
+        BookRepository.addBook(new Book("Other", "Author", "ISBN-2"));
+        LocalDate today = LocalDate.now();
+        Loan loan = new Loan("ISBN-1", "member@example.com", today.minusDays(40), today.minusDays(5));
+        Loan other = new Loan("ISBN-2", "other@example.com", today.minusDays(40), today.minusDays(5));
+        LoanRepository.save(loan);
+        LoanRepository.save(other);
+        EmailService email = mock(EmailService.class);
+        doThrow(new RuntimeException("SMTP down")).doNothing()
+            .when(email).sendEmail(eq("member@example.com"), anyString(), anyString());
+
+        try (NotificationIdempotencyStore store = open(7)) {
+            LoanService loans = new LoanService();
+            loans.setNotificationStore(store);
+            loans.addObserver(new OverdueEmailObserver(email));
+
+            loans.scanAndNotifyOverdues(today);
+            assertFalse(loan.isOverdueNotificationSent());
+            assertFalse(store.contains(NotificationIdempotencyStore.key(loan, NotificationType.OVERDUE, "1")));
+            assertTrue(other.isOverdueNotificationSent(), "one failed send does not stop the scan");
+
+            loans.scanAndNotifyOverdues(today);
+            assertTrue(loan.isOverdueNotificationSent());
+            assertTrue(store.contains(NotificationIdempotencyStore.key(loan, NotificationType.OVERDUE, "1")));
+        }
+
+        verify(email, times(2)).sendEmail(eq("member@example.com"), anyString(), anyString());
+        verify(email, times(1)).sendEmail(eq("other@example.com"), anyString(), anyString());
+    }
+
+    @Test
+    void overdueScanDoesNotResendAfterARestart() throws Exception {
+        BookRepository.addBook(new Book("Title", "Author", "ISBN-1"));
+        LocalDate today = LocalDate.now();
+        Loan loan = new Loan("ISBN-1", "member@example.com", today.minusDays(40), today.minusDays(5));
+        LoanRepository.save(loan);
+        EmailService email = mock(EmailService.class);
+
+        try (NotificationIdempotencyStore store = open(7)) {
+            LoanService beforeRestart = new LoanService();
+            beforeRestart.setNotificationStore(store);
+            beforeRestart.addObserver(new OverdueEmailObserver(email));
+            beforeRestart.scanAndNotifyOverdues(today);
+            assertTrue(store.contains(NotificationIdempotencyStore.key(loan, NotificationType.OVERDUE, "1")));
+        }
+
+        LoanRepository.clearLoans();
+        Loan reloaded = new Loan("ISBN-1", "member@example.com", today.minusDays(40), today.minusDays(5));
+        LoanRepository.save(reloaded);
+        try (NotificationIdempotencyStore store = open(7)) {
+            LoanService afterRestart = new LoanService();
+            afterRestart.setNotificationStore(store);
+            afterRestart.addObserver(new OverdueEmailObserver(email));
+            afterRestart.scanAndNotifyOverdues(today);
+        }
+
+        verify(email, times(1)).sendEmail(eq("member@example.com"), anyString(), anyString());
+        assertTrue(reloaded.isOverdueNotificationSent());
+    }
+}
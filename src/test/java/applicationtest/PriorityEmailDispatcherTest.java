@@ -0,0 +1,95 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import application.EmailService;
+import application.NotificationType;
+import application.PriorityEmailDispatcher;
+
+class PriorityEmailDispatcherTest {
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final CountDownLatch busy = new CountDownLatch(1);
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    /** Blocks on the first message until the gate opens, then records subjects in delivery order. */
+    private final EmailService slowSmtp = (to, subject, body) -> {
+        if (subject.equals("warmup")) {
+            busy.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        delivered.add(subject);
+    };
+
+    @Test
+    void overdueNoticesOvertakeAQueuedReminderBatch() throws Exception {
+        PriorityEmailDispatcher dispatcher = new PriorityEmailDispatcher(slowSmtp);
+        EmailService reminders = dispatcher.lane(NotificationType.REMINDER);
+        EmailService overdue = dispatcher.lane(NotificationType.OVERDUE);
+
+        reminders.sendEmail("m@example.com", "warmup", "");
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1_000; i++) reminders.sendEmail("m" + i + "@example.com", "R", "");
+        for (int i = 0; i < 3; i++) overdue.sendEmail("o" + i + "@example.com", "O", "");
+        assertEquals(1_000, dispatcher.getDepth(NotificationType.REMINDER));
+
+        gate.countDown();
+        assertTrue(dispatcher.shutdown(10, TimeUnit.SECONDS));
+
+        assertEquals(List.of("O", "O", "O"), delivered.subList(0, 3));
+        assertEquals(1_003, delivered.size());
+        assertEquals(3, dispatcher.getSentCount(NotificationType.OVERDUE));
+        assertEquals(1_001, dispatcher.getSentCount(NotificationType.REMINDER));
+    }
+
+    @Test
+    void lanesAreDrainedInProportionToTheirWeights() throws Exception {
+        PriorityEmailDispatcher dispatcher = new PriorityEmailDispatcher(slowSmtp);
+        dispatcher.lane(NotificationType.REMINDER).sendEmail("m@example.com", "warmup", "");
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 20; i++) {
+            dispatcher.lane(NotificationType.REMINDER).sendEmail("m@example.com", "R", "");
+            dispatcher.lane(NotificationType.OVERDUE).sendEmail("m@example.com", "O", "");
+        }
+
+        gate.countDown();
+        assertTrue(dispatcher.shutdown(10, TimeUnit.SECONDS));
+
+        String order = String.join("", delivered);
+        assertEquals("O".repeat(8) + "R" + "O".repeat(8) + "R" + "O".repeat(4) + "R".repeat(18), order,
+            "8 overdue per reminder while both lanes are busy; reminders are never starved");
+    }
+
+    @Test
+    void failuresAreCountedAndInvalidConfigurationIsRejected() throws Exception {
+        PriorityEmailDispatcher dispatcher = new PriorityEmailDispatcher((to, subject, body) -> {
+            throw new RuntimeException("SMTP down");
+        });
+        dispatcher.lane(NotificationType.TESTING_MODE).sendEmail("a@example.com", "s", "b");
+        assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getFailedCount());
+        assertThrows(IllegalStateException.class,
+            () -> dispatcher.lane(NotificationType.OVERDUE).sendEmail("a@example.com", "s", "b"));
+
+        Map<NotificationType, Integer> missing = new EnumMap<>(NotificationType.class);
+        missing.put(NotificationType.OVERDUE, 1);
+        assertThrows(IllegalArgumentException.class,
+            () -> new PriorityEmailDispatcher(slowSmtp, missing, 10, 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> new PriorityEmailDispatcher(slowSmtp, PriorityEmailDispatcher.defaultWeights(), 0, 1));
+    }
+}
@@ -0,0 +1,79 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import application.EmailService;
+import application.RateLimitedEmailService;
+import application.TokenBucket;
+
+class RateLimitedEmailServiceTest {
+
+    private final List<Long> sendTimes = new CopyOnWriteArrayList<>();
+    private final EmailService recorder = (to, subject, body) -> sendTimes.add(System.nanoTime());
+
+    @Test
+    void bucketAllowsBurstThenQueuesCallersInSlots() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, now::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), bucket.reserve(), "next caller gets the following slot");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(2.0, bucket.available(), 1e-9, "refill is capped at capacity");
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+
+    @Test
+    void sendsArePacedToTheGlobalRateAndWaitsAreReported() {
+        RateLimitedEmailService limited = new RateLimitedEmailService(recorder, 50, 1);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 6; i++) limited.sendEmail("m" + i + "@example.com", "Overdue", "body");
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis >= 90, "5 paced sends at 50/s take about 100 ms, took " + elapsedMillis);
+        assertEquals(6, limited.getSentCount());
+        assertEquals(5, limited.getThrottledCount());
+        assertTrue(limited.getMaxWaitMillis() >= 15, "sequential callers each wait about one 20 ms slot");
+        assertTrue(limited.getTotalWaitMillis() >= 75);
+        assertTrue(limited.getAverageWaitMillis() > 0);
+    }
+
+    @Test
+    void domainLimitOnlyPacesThatDomain() {
+        RateLimitedEmailService limited = new RateLimitedEmailService(recorder, 1_000, 100, 5, 1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) limited.sendEmail("m" + i + "@d" + i + ".example.com", "s", "b");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 150, "distinct domains are not paced");
+        assertEquals(0, limited.getThrottledCount());
+
+        limited.sendEmail("a@stu.najah.edu", "s", "b");
+        limited.sendEmail("b@STU.najah.edu", "s", "b");
+        assertEquals(1, limited.getThrottledCount(), "domains are matched case-insensitively");
+        assertTrue(limited.getMaxWaitMillis() >= 150);
+    }
+
+    @Test
+    void interruptedWaitDoesNotSend() {
+        RateLimitedEmailService limited = new RateLimitedEmailService(recorder, 0.1, 1);
+        limited.sendEmail("a@example.com", "s", "b");
+        Thread.currentThread().interrupt();
+
+        assertThrows(IllegalStateException.class, () -> limited.sendEmail("a@example.com", "s", "b"));
+        assertTrue(Thread.interrupted());
+        assertEquals(1, sendTimes.size());
+        assertThrows(IllegalArgumentException.class, () -> limited.sendEmail(null, "s", "b"));
+    }
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +54,38 @@ class ReminderServiceTest {
         verify(emailService, times(1)).sendEmail(eq("member@example.com"), anyString(), contains("overdue"));
     }
 
+    @Test
+    void sendOverdueReminders_sendsOneEmailPerRegisteredMemberWithCount() {
+        memberService.registerMember(new Member("second@example.com", "pw"));
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 3; i++) {
+            LoanRepository.save(new Loan("S-" + i, "second@example.com", today.minusDays(20), today.minusDays(1)));
+        }
+        LoanRepository.save(new Loan("S-9", "second@example.com", today.minusDays(2), today.plusDays(5)));
+        LoanRepository.save(new Loan("U-1", "unregistered@example.com", today.minusDays(20), today.minusDays(1)));
+
+        assertEquals(2, reminderService.sendOverdueReminders(true));
+        verify(emailService).sendEmail(eq("second@example.com"), anyString(), eq("You have 3 overdue book(s)."));
+        verify(emailService).sendEmail(eq("member@example.com"), anyString(), eq("You have 1 overdue book(s)."));
+        verify(emailService, never()).sendEmail(eq("unregistered@example.com"), anyString(), anyString());
+    }
+
+    @Test
+    void getOverdueLoansByMember_groupsInLoanOrderAndSkipsReturned() {
+        LocalDate today = LocalDate.now();
+        Loan returned = new Loan("R-1", "member@example.com", today.minusDays(20), today.minusDays(1));
+        returned.setReturned(true);
+        LoanRepository.save(returned);
+        LoanRepository.save(new Loan("ISBN2", "member@example.com", today.minusDays(20), today.minusDays(2)));
+
+        Map<String, List<Loan>> grouped = loanService.getOverdueLoansByMember(today, false);
+
+        assertEquals(List.of("member@example.com"), List.copyOf(grouped.keySet()));
+        assertEquals(List.of("ISBN1", "ISBN2"),
+            grouped.get("member@example.com").stream().map(Loan::getIsbn).toList());
+        assertEquals(grouped, loanService.getOverdueLoansByMember(today, true));
+    }
+
     @Test
     void sendReminderToSpecificMember_returnsTrueAndSendsEmail() {
         Member m = memberService.findMemberByEmail("member@example.com");
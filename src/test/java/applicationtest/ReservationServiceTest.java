@@ -0,0 +1,327 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.CDService;
+import application.EmailService;
+import application.HoldReadyEmailObserver;
+import application.LoanService;
+import application.MemberService;
+import application.ReminderService;
+import application.ReservationService;
+import domain.Book;
+import domain.CD;
+import domain.Holding;
+import domain.Loan;
+import domain.Member;
+import domain.Reservation;
+import domain.ReservationStatus;
+import persistence.BookRepository;
+import persistence.CDRepository;
+import persistence.HoldingsRepository;
+import persistence.LoanRepository;
+import persistence.MemberRepository;
+import persistence.ReservationRepository;
+
+class ReservationServiceTest {
+
+    private final LocalDate today = LocalDate.now();
+    private ReservationService reservations;
+    private EmailService emailService;
+    private CDService cdService;
+    private LoanService loanService;
+
+    @BeforeEach
+    void setUp() {
+        clearAll();
+        reservations = new ReservationService(2);
+        emailService = mock(EmailService.class);
+        reservations.addObserver(new HoldReadyEmailObserver(emailService));
+        cdService = new CDService(reservations);
+        loanService = new LoanService(null, null, reservations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearAll();
+        ReservationService.getDefault().deleteObservers();
+    }
+
+    private static void clearAll() {
+        ReservationRepository.clearReservations();
+        CDRepository.clearCDs();
+        BookRepository.clearBooks();
+        HoldingsRepository.clearHoldings();
+        LoanRepository.clearLoans();
+        MemberRepository.clearMembers();
+    }
+
+    @Test
+    void returnedCdIsHeldForFirstInLineAndOthersAreBlocked() {
+        CDRepository.addCD(new CD("CD-1", "Kind of Blue", "Miles Davis"));
+        Member owner = new Member("owner@example.com", "pw");
+        Member first = new Member("first@example.com", "pw");
+        Member second = new Member("second@example.com", "pw");
+        cdService.borrowCD(owner, "CD-1", today);
+
+        reservations.reserve(first, "CD-1", today);
+        reservations.reserve(second, "CD-1", today);
+        assertEquals(1, reservations.positionOf(first, "CD-1"));
+        assertEquals(2, reservations.positionOf(second, "CD-1"));
+
+        cdService.returnCD(owner, "CD-1", today);
+
+        assertEquals(0, reservations.positionOf(first, "CD-1"), "held for the first in line");
+        assertEquals(1, reservations.positionOf(second, "CD-1"));
+        verify(emailService).sendEmail(eq("first@example.com"), anyString(), contains("CD-1"));
+        assertThrows(IllegalStateException.class, () -> cdService.borrowCD(second, "CD-1", today));
+
+        cdService.borrowCD(first, "CD-1", today);
+        assertEquals(-1, reservations.positionOf(first, "CD-1"));
+        assertEquals(1, reservations.positionOf(second, "CD-1"));
+    }
+
+    @Test
+    void concurrentBorrowNeverTakesAReturnedItemPastTheQueue() throws Exception {
+        Member owner = new Member("owner@example.com", "pw");
+        Member queued = new Member("queued@example.com", "pw");
+        Member jumper = new Member("jumper@example.com", "pw");
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                String id = "CD-" + round;
+                CDRepository.addCD(new CD(id, "Album " + round, "Artist"));
+                cdService.borrowCD(owner, id, today);
+                reservations.reserve(queued, id, today);
+
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicBoolean returned = new AtomicBoolean();
+                Future<?> giveBack = pool.submit(() -> {
+                    start.await();
+                    cdService.returnCD(owner, id, today);
+                    returned.set(true);
+                    return null;
+                });
+                Future<Boolean> grab = pool.submit(() -> {
+                    start.await();
+                    while (true) {
+                        boolean last = returned.get();
+                        try {
+                            cdService.borrowCD(jumper, id, today);
+                            return true;
+                        } catch (IllegalStateException expected) {
+                            if (last) return false;
+                        }
+                    }
+                });
+                start.countDown();
+                giveBack.get(10, TimeUnit.SECONDS);
+
+                assertFalse(grab.get(10, TimeUnit.SECONDS), "round " + round + ": borrowed past the queue");
+                assertEquals(0, reservations.positionOf(queued, id));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancellationsAheadShiftPositionsAndAreSkippedOnHandOff() {
+        Book book = new Book("Dune", "Herbert", "isbn-dune");
+        BookRepository.addBook(book);
+        Member owner = new Member("owner@example.com", "pw");
+        Loan loan = loanService.borrowMedia(owner, book, today);
+        List<Member> queue = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Member m = new Member("m" + i + "@example.com", "pw");
+            queue.add(m);
+            reservations.reserve(m, "isbn-dune", today);
+        }
+
+        assertTrue(reservations.cancel(queue.get(0), "isbn-dune", today));
+        assertTrue(reservations.cancel(queue.get(2), "isbn-dune", today));
+        assertFalse(reservations.cancel(queue.get(2), "isbn-dune", today));
+
+        assertEquals(1, reservations.positionOf(queue.get(1), "isbn-dune"));
+        assertEquals(2, reservations.positionOf(queue.get(3), "isbn-dune"));
+        assertEquals(3, reservations.positionOf(queue.get(4), "isbn-dune"));
+        assertEquals(3, ReservationRepository.countWaiting("isbn-dune"));
+
+        loanService.returnMedia(loan, today);
+        assertEquals(0, reservations.positionOf(queue.get(1), "isbn-dune"));
+        assertEquals(1, reservations.positionOf(queue.get(3), "isbn-dune"));
+
+        reservations.cancel(queue.get(1), "isbn-dune", today);
+        assertEquals(0, reservations.positionOf(queue.get(3), "isbn-dune"), "cancelled hold passes on");
+    }
+
+    @Test
+    void expiredHoldsPassToNextEligibleMember() {
+        Book book = new Book("Dune", "Herbert", "isbn-dune");
+        BookRepository.addBook(book);
+        Member owner = new Member("owner@example.com", "pw");
+        Member slow = new Member("slow@example.com", "pw");
+        Member fined = new Member("fined@example.com", "pw");
+        Member last = new Member("last@example.com", "pw");
+        fined.addMemberFine(10);
+        MemberRepository.addMember(fined);
+        Loan loan = loanService.borrowMedia(owner, book, today);
+        Reservation slowHold = reservations.reserve(slow, "isbn-dune", today);
+        Reservation finedHold = reservations.reserve(fined, "isbn-dune", today);
+        reservations.reserve(last, "isbn-dune", today);
+        loanService.returnMedia(loan, today);
+
+        assertTrue(reservations.expireHolds(today.plusDays(2)).isEmpty(), "still within the hold period");
+        List<Reservation> ready = reservations.expireHolds(today.plusDays(3));
+
+        assertEquals(1, ready.size());
+        assertEquals("last@example.com", ready.get(0).getMemberId());
+        assertEquals(today.plusDays(5), ready.get(0).getReadyUntil());
+        assertEquals(ReservationStatus.EXPIRED, slowHold.getStatus());
+        assertEquals(ReservationStatus.EXPIRED, finedHold.getStatus(), "members with fines lose their place");
+        verify(emailService).sendEmail(eq("last@example.com"), anyString(), anyString());
+    }
+
+    @Test
+    void bookReturnedThroughLoanServiceIsHeldForQueuedMember() {
+        BookRepository.addBook(new Book("Dune", "Herbert", "isbn-dune"));
+        MemberRepository.addMember(new Member("owner@example.com", "pw"));
+        MemberRepository.addMember(new Member("next@example.com", "pw"));
+        MemberRepository.addMember(new Member("other@example.com", "pw"));
+        Member next = MemberRepository.findMemberByEmail("next@example.com");
+        loanService.borrow("isbn-dune", "owner@example.com");
+        reservations.reserve(next, "isbn-dune", today);
+
+        loanService.returnBook("isbn-dune", "owner@example.com");
+
+        assertThrows(IllegalStateException.class, () -> loanService.borrow("isbn-dune", "other@example.com"));
+        loanService.borrow("isbn-dune", "next@example.com");
+        assertNull(ReservationRepository.findHeld("isbn-dune"));
+    }
+
+    @Test
+    void defaultServicesShareOneQueueThatTheDailyScanEmailsAndExpires() {
+        CDRepository.addCD(new CD("CD-1", "Kind of Blue", "Miles Davis"));
+        Member owner = new Member("owner@example.com", "pw");
+        Member slow = new Member("slow@example.com", "pw");
+        Member next = new Member("next@example.com", "pw");
+        LoanService defaultLoans = new LoanService();
+        CDService defaultCds = new CDService();
+        assertSame(ReservationService.getDefault(), defaultLoans.getReservationService());
+
+        ReminderService reminders = new ReminderService(defaultLoans, new MemberService(), emailService);
+        new ReminderService(defaultLoans, new MemberService(), emailService);
+        ReservationService shared = ReservationService.getDefault();
+        defaultCds.borrowCD(owner, "CD-1", today);
+        shared.reserve(slow, "CD-1", today);
+        shared.reserve(next, "CD-1", today);
+
+        defaultCds.returnCD(owner, "CD-1", today);
+        verify(emailService, times(1)).sendEmail(eq("slow@example.com"), anyString(), contains("CD-1"));
+
+        reminders.runDailyScans(today.plusDays(ReservationService.DEFAULT_HOLD_DAYS + 1));
+        assertEquals(0, shared.positionOf(next, "CD-1"), "unclaimed hold passed on by the daily scan");
+        verify(emailService).sendEmail(eq("next@example.com"), anyString(), contains("CD-1"));
+    }
+
+    @Test
+    void returnedCopiesAreHeldForTheTitleQueueAndKeptFromWalkIns() {
+        Book title = new Book("Dune", "Frank Herbert", "978-1");
+        BookRepository.addBook(title);
+        Holding holding = HoldingsRepository.addCopies(title, 2);
+        Member first = new Member("a@example.com", "pw");
+        Member second = new Member("x@example.com", "pw");
+        Member queued = new Member("b@example.com", "pw");
+        Member later = new Member("d@example.com", "pw");
+        Member walkIn = new Member("c@example.com", "pw");
+        Loan firstLoan = loanService.borrowMedia(first, title, today);
+        Loan secondLoan = loanService.borrowMedia(second, title, today);
+        reservations.reserve(queued, "978-1", today);
+        reservations.reserve(later, "978-1", today);
+
+        loanService.returnBook(firstLoan.getIsbn(), first.getUserName());
+
+        assertEquals(0, reservations.positionOf(queued, "978-1"), "the title's queue gets the copy");
+        assertEquals(1, reservations.positionOf(later, "978-1"));
+        assertEquals(0, holding.getAvailable());
+        assertEquals(1, holding.getHeldCopies());
+        assertThrows(IllegalStateException.class, () -> loanService.borrowMedia(walkIn, title, today));
+        verify(emailService).sendEmail(eq("b@example.com"), anyString(), contains("978-1"));
+
+        loanService.returnMedia(secondLoan, today);
+        assertEquals(0, reservations.positionOf(later, "978-1"), "a second copy serves the next in line");
+        assertEquals(2, holding.getHeldCopies());
+
+        Loan pickedUp = loanService.borrowMedia(queued, title, today);
+        assertTrue(pickedUp.getIsbn().startsWith("978-1#"));
+        assertEquals(-1, reservations.positionOf(queued, "978-1"));
+        assertEquals(1, holding.getHeldCopies());
+
+        assertTrue(reservations.expireHolds(today.plusDays(3)).isEmpty());
+        assertEquals(-1, reservations.positionOf(later, "978-1"));
+        assertEquals(1, holding.getAvailable(), "an unclaimed copy goes back on the shelf");
+        assertEquals(0, holding.getHeldCopies());
+        assertNotNull(loanService.borrowMedia(walkIn, title, today));
+    }
+
+    @Test
+    void testingModeBorrowsRespectHoldsAndLendCopies() {
+        Book title = new Book("Dune", "Frank Herbert", "978-2");
+        BookRepository.addBook(title);
+        Holding holding = HoldingsRepository.addCopies(title, 2);
+        Member tester = new Member("t@example.com", "pw");
+
+        Loan copyLoan = loanService.borrowMediaTestDuration(tester, title, 60);
+        assertTrue(copyLoan.getIsbn().startsWith("978-2#"));
+        assertFalse(title.isBorrowed(), "one copy is still free");
+        assertEquals(1, holding.getAvailable());
+
+        CD cd = new CD("CD-9", "Blue Train", "John Coltrane");
+        CDRepository.addCD(cd);
+        Member owner = new Member("owner@example.com", "pw");
+        Member first = new Member("first@example.com", "pw");
+        cdService.borrowCD(owner, "CD-9", today);
+        reservations.reserve(first, "CD-9", today);
+        cdService.returnCD(owner, "CD-9", today);
+
+        assertThrows(IllegalStateException.class,
+            () -> loanService.borrowMediaTestDuration(tester, cd, today, 0, 0, 5, 0));
+        Loan held = loanService.borrowMediaTestDuration(first, cd, today, 0, 0, 5, 0);
+        assertEquals("CD-9", held.getIsbn());
+        assertEquals(-1, reservations.positionOf(first, "CD-9"), "the hold was fulfilled");
+    }
+
+    @Test
+    void reservationsRequireAnUnavailableExistingItem() {
+        CDRepository.addCD(new CD("CD-1", "Kind of Blue", "Miles Davis"));
+        Member member = new Member("m@example.com", "pw");
+
+        assertThrows(IllegalArgumentException.class, () -> reservations.reserve(member, "missing", today));
+        assertThrows(IllegalStateException.class, () -> reservations.reserve(member, "CD-1", today));
+
+        cdService.borrowCD(member, "CD-1", today);
+        assertThrows(IllegalStateException.class, () -> reservations.reserve(member, "CD-1", today));
+
+        Member other = new Member("o@example.com", "pw");
+        reservations.reserve(other, "CD-1", today);
+        assertThrows(IllegalStateException.class, () -> reservations.reserve(other, "CD-1", today));
+        assertThrows(IllegalArgumentException.class, () -> new ReservationService(0));
+    }
+}
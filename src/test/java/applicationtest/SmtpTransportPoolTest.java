@@ -0,0 +1,78 @@
+package applicationtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.EmailMessage;
+import application.SendRealEmail;
+import application.SmtpTransportPool;
+
+class SmtpTransportPoolTest {
+
+    private FakeSmtpServer server;
+    private SmtpTransportPool pool;
+    private SendRealEmail email;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeSmtpServer(0);
+        pool = new SmtpTransportPool(server.sessionProperties(), null, null, 2);
+        email = SendRealEmail.pooled(pool, "library@example.com");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.close();
+        server.close();
+    }
+
+    @Test
+    void consecutiveSendsReuseOneConnection() {
+        for (int i = 0; i < 5; i++) email.sendEmail("member" + i + "@example.com", "Overdue", "Please return");
+
+        assertEquals(5, server.getRecipients().size());
+        assertEquals(1, server.getConnectionCount());
+        assertEquals(1, pool.getConnectCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void batchGoesOverOneConnectionAndReportsRejectedRecipients() {
+        List<EmailMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) batch.add(new EmailMessage("member" + i + "@example.com", "Overdue", "body"));
+        batch.add(new EmailMessage("reject@example.com", "Overdue", "body"));
+        batch.add(new EmailMessage(" ", "Overdue", "body"));
+
+        List<EmailMessage> failed = email.sendBatch(batch);
+
+        assertEquals(2, failed.size());
+        assertEquals("reject@example.com", failed.get(1).getTo());
+        assertEquals(20, server.getRecipients().size());
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    void droppedConnectionIsReopenedAndTheMessageRetried() {
+        server.dropConnectionsAfter(3);
+        List<EmailMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 7; i++) batch.add(new EmailMessage("member" + i + "@example.com", "Overdue", "body"));
+
+        assertTrue(email.sendBatch(batch).isEmpty());
+        assertEquals(7, server.getRecipients().size());
+        assertEquals(3, server.getConnectionCount());
+        assertEquals(7, pool.getSentCount());
+    }
+
+    @Test
+    void closedPoolRefusesToSend() {
+        pool.close();
+        assertThrows(IllegalStateException.class, () -> email.sendEmail("member@example.com", "s", "b"));
+        assertThrows(IllegalArgumentException.class, () -> SendRealEmail.pooled(null, "from@example.com"));
+    }
+}
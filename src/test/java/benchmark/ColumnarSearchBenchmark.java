@@ -0,0 +1,110 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import applicationsearchbooks.BookAuthorSearchStrategy;
+import applicationsearchbooks.BookTitleSearchStrategy;
+import applicationsearchbooks.ColumnarBookCatalog;
+import domain.Book;
+
+/**
+ * Compares the stream-based title/author scans with the same strategies run over a
+ * {@link ColumnarBookCatalog}.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test} classes). Run with:</p>
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ColumnarSearchBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "java", "effective", "clean", "code", "patterns", "refactoring", "concurrency",
+        "practice", "design", "systems", "Café", "القرآن", "algorithms", "data", "structures"
+    };
+
+    @Param({ "1000", "100000" })
+    private int books;
+
+    @Param({ "concurrency", "zzz" })
+    private String keyword;
+
+    private List<Book> catalog;
+    private ColumnarBookCatalog columnar;
+    private final BookTitleSearchStrategy byTitle = new BookTitleSearchStrategy();
+    private final BookAuthorSearchStrategy byAuthor = new BookAuthorSearchStrategy();
+
+    /**
+     * Builds a deterministic pseudo-random catalog and its columnar snapshot.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        catalog = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + ' ' + WORDS[random.nextInt(WORDS.length)]
+                + ' ' + WORDS[random.nextInt(WORDS.length)];
+            String author = WORDS[random.nextInt(WORDS.length)] + " Author" + i;
+            catalog.add(new Book(title, author, "ISBN-" + i));
+        }
+        columnar = ColumnarBookCatalog.of(catalog);
+    }
+
+    /**
+     * Stream-based title scan over book objects.
+     * @return matches
+     */
+    @Benchmark
+    public List<Book> titleStream() {
+        return byTitle.searchBook(catalog, keyword);
+    }
+
+    /**
+     * Title scan over the packed title column.
+     * @return matches
+     */
+    @Benchmark
+    public List<Book> titleColumnar() {
+        return byTitle.searchColumnar(columnar, keyword);
+    }
+
+    /**
+     * Stream-based author scan over book objects.
+     * @return matches
+     */
+    @Benchmark
+    public List<Book> authorStream() {
+        return byAuthor.searchBook(catalog, keyword);
+    }
+
+    /**
+     * Author scan over the packed author column.
+     * @return matches
+     */
+    @Benchmark
+    public List<Book> authorColumnar() {
+        return byAuthor.searchColumnar(columnar, keyword);
+    }
+}
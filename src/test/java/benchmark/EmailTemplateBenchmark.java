@@ -0,0 +1,80 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import application.EmailTemplate;
+
+/**
+ * Compares building 100k testing-mode expiry bodies by string concatenation with rendering the
+ * precompiled {@link EmailTemplate}.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test} classes). Run with the GC profiler to
+ * see allocation per operation:</p>
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main EmailTemplateBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateBenchmark {
+
+    private static final int MESSAGES = 100_000;
+
+    private String[] isbns;
+    private EmailTemplate template;
+
+    /**
+     * Prepares the ISBNs and loads the template.
+     */
+    @Setup
+    public void setUp() {
+        isbns = new String[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) isbns[i] = "978-0-" + i;
+        template = EmailTemplate.load("testing-mode-expired");
+    }
+
+    /**
+     * Former per-message concatenation.
+     * @param bh sink for the bodies
+     */
+    @Benchmark
+    public void concatenation(Blackhole bh) {
+        for (String isbn : isbns) {
+            String body = "Dear member,\n\n" +
+                    "This is an automated notification to inform you that your testing-mode loan for the media item (ISBN: " +
+                    isbn + ") has expired.\n" +
+                    "Please take the necessary action.\n\n" +
+                    "Best regards,\n" +
+                    "Library Management System";
+            bh.consume(body);
+        }
+    }
+
+    /**
+     * Precompiled template rendered per message.
+     * @param bh sink for the bodies
+     */
+    @Benchmark
+    public void template(Blackhole bh) {
+        for (String isbn : isbns) {
+            bh.consume(template.renderBody(name -> "isbn".equals(name) ? isbn : null));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.EmailMessage;
+import application.SendRealEmail;
+import application.SmtpTransportPool;
+import applicationtest.FakeSmtpServer;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Compares one connection per email ({@link Transport#send(Message)}) with a batch sent over a
+ * pooled connection, against a local {@link FakeSmtpServer} whose greeting is delayed to stand in
+ * for the TLS and authentication round-trips of a real server.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test} classes). Run with:</p>
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SmtpBatchBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmtpBatchBenchmark {
+
+    @Param({ "50" })
+    private int emails;
+
+    @Param({ "0", "5" })
+    private long handshakeDelayMillis;
+
+    private FakeSmtpServer server;
+    private Session session;
+    private SmtpTransportPool pool;
+    private SendRealEmail pooled;
+    private List<EmailMessage> batch;
+
+    /**
+     * Starts the fake server and builds the overdue-notice batch.
+     * @throws Exception if the server cannot start
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new FakeSmtpServer(handshakeDelayMillis);
+        session = Session.getInstance(server.sessionProperties());
+        pool = new SmtpTransportPool(server.sessionProperties(), null, null, 1);
+        pooled = SendRealEmail.pooled(pool, "library@example.com");
+        batch = new ArrayList<>(emails);
+        for (int i = 0; i < emails; i++) {
+            batch.add(new EmailMessage("member" + i + "@example.com", "Library: Overdue Notice",
+                "You have overdue items. Please return them."));
+        }
+    }
+
+    /**
+     * Stops the server and closes pooled connections.
+     * @throws Exception if closing fails
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pool.close();
+        server.close();
+    }
+
+    /**
+     * One connect/handshake/quit per email.
+     * @throws MessagingException if a send fails
+     */
+    @Benchmark
+    public void connectionPerEmail() throws MessagingException {
+        for (EmailMessage message : batch) {
+            Message msg = new MimeMessage(session);
+            msg.setFrom(new InternetAddress("library@example.com"));
+            msg.setRecipients(Message.RecipientType.TO, InternetAddress.parse(message.getTo(), false));
+            msg.setSubject(message.getSubject());
+            msg.setText(message.getBody());
+            Transport.send(msg);
+        }
+    }
+
+    /**
+     * The whole batch over one pooled connection.
+     * @return undelivered messages (always empty)
+     */
+    @Benchmark
+    public List<EmailMessage> pooledBatch() {
+        return pooled.sendBatch(batch);
+    }
+}
@@ -0,0 +1,49 @@
+package domaintest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import domain.Author;
+import domain.AuthorDictionary;
+import domain.Book;
+
+class AuthorDictionaryTest {
+
+    @Test
+    void booksBySameAuthorShareOneEntityAndSpelling() {
+        Book first = new Book("Emma", new String("Jane Austen"), "isbn-dict-1");
+        Book second = new Book("Persuasion", new String("Jane Austen"), "isbn-dict-2");
+
+        assertSame(first.getAuthorEntity(), second.getAuthorEntity());
+        assertSame(first.getAuthor(), second.getAuthor(), "equal spellings share one string");
+        assertSame(first.getNormalizedAuthor(), second.getNormalizedAuthor());
+        assertEquals("jane austen", first.getNormalizedAuthor());
+    }
+
+    @Test
+    void spellingVariantsMapToOneAuthorButKeepTheirOwnText() {
+        Book plain = new Book("Germinal", "Emile Zola", "isbn-dict-3");
+        Book accented = new Book("Nana", "ÉMILE ZOLA", "isbn-dict-4");
+
+        assertSame(plain.getAuthorEntity(), accented.getAuthorEntity());
+        assertEquals("ÉMILE ZOLA", accented.getAuthor());
+        assertSame(plain.getAuthorEntity(), AuthorDictionary.find("emile zola"));
+        assertNull(AuthorDictionary.find("Nobody Ever Indexed"));
+        assertNull(AuthorDictionary.intern(null));
+    }
+
+    @Test
+    void changingTheAuthorSwitchesEntity() {
+        Book book = new Book("Dracula", "Bram Stoker", "isbn-dict-5");
+        Author before = book.getAuthorEntity();
+
+        book.setAuthor("Mary Shelley");
+
+        assertNotSame(before, book.getAuthorEntity());
+        assertEquals("mary shelley", book.getNormalizedCreator());
+        book.setAuthor(null);
+        assertNull(book.getAuthorEntity());
+        assertNull(book.getNormalizedAuthor());
+    }
+}
@@ -0,0 +1,105 @@
+package domaintest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import domain.Book;
+import domain.BookCopy;
+import domain.Holding;
+
+class HoldingTest {
+
+    @Test
+    void checkoutTakesFreeCopiesUntilNoneLeft() {
+        Book title = new Book("Calculus", "Stewart", "978-1");
+        Holding holding = new Holding(title);
+        holding.addCopies(2);
+
+        BookCopy first = holding.checkout();
+        BookCopy second = holding.checkout();
+
+        assertNotSame(first, second);
+        assertNull(holding.checkout());
+        assertEquals(0, holding.getAvailable());
+        assertTrue(title.isBorrowed(), "title is unavailable when every copy is out");
+
+        holding.checkin(first);
+        assertEquals(1, holding.getAvailable());
+        assertFalse(title.isBorrowed());
+        assertSame(first, holding.checkout());
+    }
+
+    @Test
+    void copiesCarryTitleDataAndOwnIds() {
+        Holding holding = new Holding(new Book("Calculus", "Stewart", "978-1"));
+        List<BookCopy> copies = holding.addCopies(3);
+
+        assertEquals("978-1#3", copies.get(2).getId());
+        assertEquals("Calculus", copies.get(0).getTitle());
+        assertEquals("Stewart", copies.get(0).getCreator());
+        assertEquals(28, copies.get(0).getBorrowPeriod());
+        assertEquals(3, holding.getTotalCopies());
+    }
+
+    @Test
+    void foreignCopiesAndBadCountsAreRejected() {
+        Holding holding = new Holding(new Book("Calculus", "Stewart", "978-1"));
+        BookCopy foreign = new Holding(new Book("Physics", "Halliday", "978-2")).addCopies(1).get(0);
+
+        assertThrows(IllegalArgumentException.class, () -> holding.checkin(foreign));
+        assertThrows(IllegalArgumentException.class, () -> holding.addCopies(0));
+        assertThrows(IllegalArgumentException.class, () -> new Holding(null));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverHandOutACopyTwice() throws Exception {
+        Holding holding = new Holding(new Book("Calculus", "Stewart", "978-1"));
+        holding.addCopies(40);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<BookCopy> everHeld = ConcurrentHashMap.newKeySet();
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    int taken = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        BookCopy copy = holding.checkout();
+                        if (copy == null) continue;
+                        assertFalse(copy.isBorrowed(), "copy handed out while already out");
+                        copy.setBorrowed(true);
+                        everHeld.add(copy);
+                        taken++;
+                        holding.checkin(copy);
+                    }
+                    return taken;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> f : futures) total += f.get(30, TimeUnit.SECONDS);
+            assertTrue(total > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(40, holding.getAvailable());
+        assertTrue(everHeld.size() <= 40);
+        List<BookCopy> drained = new ArrayList<>();
+        for (BookCopy copy; (copy = holding.checkout()) != null; ) drained.add(copy);
+        assertEquals(40, Set.copyOf(drained).size(), "every copy is back on the stack exactly once");
+    }
+}
@@ -0,0 +1,63 @@
+package domaintest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import domain.Book;
+import domain.CD;
+import domain.TextNormalizer;
+
+class TextNormalizerTest {
+
+    @Test
+    void nullStaysNull() {
+        assertNull(TextNormalizer.normalize(null));
+    }
+
+    @Test
+    void latinIsCaseFoldedAndAccentsRemoved() {
+        assertEquals("cafe creme", TextNormalizer.normalize("Café  Crème"));
+        assertEquals("ecole", TextNormalizer.normalize("ÉCOLE"));
+    }
+
+    @Test
+    void whitespaceIsTrimmedAndCollapsed() {
+        assertEquals("clean code", TextNormalizer.normalize("  Clean \t Code  "));
+    }
+
+    @Test
+    void arabicDiacriticsAndTatweelAreRemoved() {
+        // "مُحَمَّد" with harakat/shadda and "مـحـمـد" with tatweel
+        assertEquals("محمد",
+                TextNormalizer.normalize("مُحَمَّد"));
+        assertEquals("محمد",
+                TextNormalizer.normalize("مـحـمـد"));
+    }
+
+    @Test
+    void arabicLetterVariantsAreUnified() {
+        // أ إ آ ٱ -> ا
+        assertEquals("اااا",
+                TextNormalizer.normalize("أإآٱ"));
+        // ة -> ه , ى -> ي
+        assertEquals("مكتبه", TextNormalizer.normalize("مكتبة"));
+        assertEquals("مصطفي", TextNormalizer.normalize("مصطفى"));
+    }
+
+    @Test
+    void mediaCachesNormalizedFormsOnSet() {
+        Book book = new Book("Café", "Émile Zola", "ISBN-1");
+        assertEquals("cafe", book.getNormalizedTitle());
+        assertEquals("emile zola", book.getNormalizedAuthor());
+
+        book.setTitle("Germinal");
+        book.setAuthor(null);
+        assertEquals("germinal", book.getNormalizedTitle());
+        assertNull(book.getNormalizedAuthor());
+
+        CD cd = new CD("CD-1", "Ÿes", "Fairuz");
+        assertEquals("yes", cd.getNormalizedTitle());
+        assertEquals("fairuz", cd.getNormalizedArtist());
+    }
+}